@@ -1,9 +1,11 @@
 # batch_processor.py
 
 import json
+import os
+import sys
 import time
 import argparse  
-from typing import List, Dict, Any
+from typing import List, Dict, Any, Tuple
 
 from data_tools import (
     fetch_all_user_profiles,
@@ -18,6 +20,67 @@ from llm_recommender import generate_final_recommendations
 #  BATCH PROCESSOR — "1+2" (HYBRID) STRATEGY
 # ============================================================
 
+def process_user(user_input: Any) -> Tuple[bool, str]:
+    """
+    Runs the recommendation pipeline for one user (full profile dict or ID string).
+    Returns (True, "") when recommendations were saved, else (False, reason).
+    """
+    # data_tools handles both full profile dicts or simple ID strings
+    # If user_input is a dict, we extract ID for logging; if string, we use it directly.
+    user_id_log = user_input.get("_id") if isinstance(user_input, dict) else str(user_input)
+
+    print(f"-> Processing user: {user_id_log}")
+
+    # ============================================================
+    # A) PHASE 1 — EVIDENCE COLLECTION (Hard Criterion)
+    # ============================================================
+
+    try:
+        # gather_candidate_buckets handles the ID lookup internally
+        data_package = gather_candidate_buckets(user_input)
+    except Exception as e:
+        print(f"ERROR DATA MINING: {e}")
+        return False, f"data mining: {e}"
+
+    if data_package.get("error"):
+        print(f"ERROR GETTING CANDIDATES: {data_package['error']}")
+        return False, f"candidates: {data_package['error']}"
+
+    # ============================================================
+    # B) PHASE 2 — INTELLIGENT CURATION (The LLM Agent)
+    # ============================================================
+
+    try:
+        final_output = generate_final_recommendations(data_package)
+    except Exception as e:
+        print(f"CRITICAL ERROR IN LLM RECOMMENDER: {e}")
+        return False, f"llm: {e}"
+
+    if final_output.get("error"):
+        print(f"ERROR LLM RESPONSE: {final_output['error']}")
+        print("RAW:", final_output.get("raw"))
+        return False, f"llm response: {final_output['error']}"
+
+    # ============================================================
+    # C) PERSISTENCE
+    # ============================================================
+
+    # Note: data_tools usually expects the ID to save
+    save_result = save_final_recommendations(user_id_log, final_output)
+
+    try:
+        parsed = json.loads(save_result)
+    except ValueError:
+        print(f"   [ERROR PARSING] {save_result}")
+        return False, f"save: {save_result}"
+    if parsed.get("status") != "success":
+        print(f"   [ERROR DB] {save_result}")
+        return False, f"save: {save_result}"
+
+    print(f"   [OK] Recommendations saved for user {user_id_log}")
+    return True, ""
+
+
 def process_user_list(users_to_process: List[Any]) -> str:
     """
     Core function that iterates over a list of users (or IDs) 
@@ -33,70 +96,10 @@ def process_user_list(users_to_process: List[Any]) -> str:
     # ============================================================
 
     for user_input in users_to_process:
-        # data_tools handles both full profile dicts or simple ID strings
-        # If user_input is a dict, we extract ID for logging; if string, we use it directly.
-        user_id_log = user_input.get("_id") if isinstance(user_input, dict) else str(user_input)
-        
-        print(f"-> Processing user: {user_id_log}")
-
-        # ============================================================
-        # A) PHASE 1 — EVIDENCE COLLECTION (Hard Criterion)
-        # ============================================================
-        
-        try:
-            # gather_candidate_buckets handles the ID lookup internally
-            data_package = gather_candidate_buckets(user_input)
-        except Exception as e:
-            print(f"ERROR DATA MINING: {e}")
-            continue
-
-        if data_package.get("error"):
-            print(f"ERROR GETTING CANDIDATES: {data_package['error']}")
-            continue
+        ok, _ = process_user(user_input)
+        if ok:
+            processed_count += 1
 
-        # Validate candidates quantity (Just for logging/debugging)
-        candidates = data_package.get("candidates", {})
-        total_candidates = (
-            len(candidates.get("collaborative", [])) + 
-            len(candidates.get("content_based", [])) + 
-            len(candidates.get("trending_primary", [])) 
-        )
-        
-        # ============================================================
-        # B) PHASE 2 — INTELLIGENT CURATION (The LLM Agent)
-        # ============================================================
-
-        try:
-            final_output = generate_final_recommendations(data_package)
-        except Exception as e:
-            print(f"CRITICAL ERROR IN LLM RECOMMENDER: {e}")
-            continue
-
-        if final_output.get("error"):
-            print(f"ERROR LLM RESPONSE: {final_output['error']}")
-            print("RAW:", final_output.get("raw"))
-            continue
-
-        # ============================================================
-        # C) PERSISTENCE
-        # ============================================================
-
-        # We use the ID found inside data_package to ensure it's the correct string ID
-        real_user_id = data_package.get("user_profile_summary", {}).get("user_id_debug", user_id_log)
-        
-        # Note: data_tools usually expects the ID to save
-        save_result = save_final_recommendations(user_id_log, final_output)
-
-        try:
-            parsed = json.loads(save_result)
-            if parsed.get("status") == "success":
-                print(f"   [OK] Recommendations saved for user {user_id_log}")
-                processed_count += 1
-            else:
-                print(f"   [ERROR DB] {save_result}")
-        except:
-            print(f"   [ERROR PARSING] {save_result}")
-            
         # Short pause only if processing multiple users to avoid rate limits
         if total_users > 1:
             time.sleep(0.5)
@@ -114,16 +117,77 @@ def process_user_list(users_to_process: List[Any]) -> str:
     })
 
 
+# ============================================================
+#  WORKER MODE — long-lived process fed by PythonWorkerPool
+# ============================================================
+
+def run_worker() -> None:
+    """
+    Serves jobs until stdin closes: one JSON object per input line, one JSON
+    reply per output line. The imports, the Mongo client and the lru_cache
+    stay warm between jobs.
+
+      {"id": 7, "type": "user", "user_id": "..."} -> {"id": 7, "status": "ok", "millis": 812}
+      {"id": 8, "type": "ping"}                   -> {"id": 8, "status": "ok"}
+
+    Failed jobs reply with "status": "error" and an "error" message. Pipeline
+    logs go to stderr so they never mix with replies.
+    """
+    replies = sys.stdout
+    sys.stdout = sys.stderr
+
+    def reply(message: Dict[str, Any]) -> None:
+        replies.write(json.dumps(message) + "\n")
+        replies.flush()
+
+    reply({"type": "ready", "pid": os.getpid()})
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            job = json.loads(line)
+        except ValueError as e:
+            reply({"id": None, "status": "error", "error": f"bad job: {e}"})
+            continue
+
+        job_id = job.get("id")
+        job_type = job.get("type")
+        start = time.time()
+
+        if job_type == "ping":
+            reply({"id": job_id, "status": "ok"})
+        elif job_type == "user" and job.get("user_id"):
+            try:
+                ok, message = process_user(job["user_id"])
+            except Exception as e:
+                ok, message = False, f"{type(e).__name__}: {e}"
+            result = {"id": job_id, "status": "ok" if ok else "error",
+                      "millis": int((time.time() - start) * 1000)}
+            if not ok:
+                result["error"] = message
+            reply(result)
+        else:
+            reply({"id": job_id, "status": "error", "error": f"unknown job: {job_type}"})
+
+
 if __name__ == "__main__":
     # 1. SETUP ARGUMENT PARSER
     parser = argparse.ArgumentParser(description="Run Recommendation Agent")
     
     # We add an optional argument --user_id
     parser.add_argument("--user_id", type=str, help="Target specific user ID (Single Mode)", default=None)
+    parser.add_argument("--worker", action="store_true", help="Serve jobs from stdin (Worker Mode)")
     
     args = parser.parse_args()
 
     # 2. DECIDE MODE
+    if args.worker:
+        # --- WORKER MODE (Kept warm by the Java backend) ---
+        run_worker()
+        sys.exit(0)
+
     if args.user_id:
         # --- SINGLE USER MODE (Real-time Trigger) ---
         print(f"SINGLE MODE DETECTED: Target {args.user_id}")
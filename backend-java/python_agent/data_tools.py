@@ -18,6 +18,7 @@ MONGO_URI = os.getenv("MONGO_URI")
 DB_NAME = os.getenv("DB_NAME")
 COLLECTION_NAME_USERS = os.getenv("COLLECTION_NAME_USERS", "users")
 RECOMMENDATION_COLLECTION = os.getenv("RECOMMENDATION_COLLECTION", "recommendation_cache")
+COLLABORATIVE_COLLECTION = os.getenv("COLLABORATIVE_COLLECTION", "collaborative_candidates")
 
 TMDB_API_KEY = os.getenv("TMDB_API_KEY")
 TMDB_BASE_URL = "https://api.themoviedb.org/3"
@@ -80,6 +81,16 @@ def fetch_all_user_profiles() -> List[Dict[str, Any]]:
         return profiles
     except Exception: return []
 
+def fetch_collaborative_bucket(user_id: str) -> Dict[str, Any]:
+    """
+    Neighbors and candidate movies published by the Java backend (CollaborativeFiltering)
+    right before the agent runs. None if there is no bucket for this user.
+    """
+    if CONNECTION_ERROR: return None
+    try:
+        return GLOBAL_DB[COLLABORATIVE_COLLECTION].find_one({"_id": str(user_id)})
+    except Exception: return None
+
 # ----------------------------------------------------
 # 2. HELPERS TMDB WITH CACHE
 # ----------------------------------------------------
@@ -121,11 +132,34 @@ def get_user_top_genres(user_profile: Dict) -> List[str]:
         return ["ACTION", "COMEDY"] 
     return genres[:2] 
 
-def get_collaborative_candidates(target_user: Dict, all_users: List[Dict]) -> List[Dict]:
+def get_collaborative_candidates(target_user: Dict, all_users: List[Dict] = None) -> List[Dict]:
     """
     Collaborative filtering algorithm (User-User).
+    Uses the bucket the backend computed from its movie -> likers index; only when there is
+    no bucket does it compare the user against every profile (loaded here, on demand).
     Now 'hydrate' the found IDs using fetch_tmdb_movie_details.
     """
+    bucket = fetch_collaborative_bucket(target_user["_id"])
+    if bucket is not None:
+        candidates = []
+        for candidate in bucket.get("candidates", []):
+            if len(candidates) >= 15: # Same LIMIT as the scan
+                break
+            details = fetch_tmdb_movie_details(candidate.get("movieId"))
+            if details:
+                candidates.append({
+                    "id": details["id"],
+                    "title": details["title"],
+                    "poster_path": details["poster_path"],
+                    "vote_average": details["vote_average"],
+                    "origin": "collaborative",
+                    "reason": "Liked by users with similar taste"
+                })
+        return candidates
+
+    if all_users is None:
+        all_users = fetch_all_user_profiles()
+
     candidates = [] # Empty list to store all recommended movies
     target_ratings = target_user.get("movieRatings", [])  # Get rated movies from user, if not, return an empty
     
@@ -178,6 +212,27 @@ def get_collaborative_candidates(target_user: Dict, all_users: List[Dict]) -> Li
     return candidates
 
 def get_content_based_candidates(target_user: Dict) -> List[Dict]:
+    # Item-item matches from our own ratings (ItemSimilarity in the backend), when there are any
+    bucket = fetch_collaborative_bucket(target_user["_id"])
+    similar_items = bucket.get("similarItems", []) if bucket else []
+    if similar_items:
+        results = []
+        for item in similar_items:
+            if len(results) >= 10: # Same LIMIT as TMDB recommendations
+                break
+            details = fetch_tmdb_movie_details(item.get("movieId"))
+            if details:
+                results.append({
+                    "id": details["id"],
+                    "title": details["title"],
+                    "poster_path": details["poster_path"],
+                    "vote_average": details["vote_average"],
+                    "origin": "content_based",
+                    "reason": "Rated highly by users who liked your top-rated movies"
+                })
+        if results:
+            return results
+
     ratings = target_user.get("movieRatings", [])
     ratings.sort(key=lambda x: x.get("score", 0), reverse=True) # Sort movies from user by decreasing rating
 
@@ -263,15 +318,13 @@ def gather_candidate_buckets(user_id: str) -> Dict[str, Any]:
     if "error" in user: return user
     if not user: return {"error": "User not found"}
 
-    all_profiles = fetch_all_user_profiles()
-
     top_genres = get_user_top_genres(user) # First two genres in collection
     genre_1 = top_genres[0] if len(top_genres) > 0 else "ACTION" 
     genre_2 = top_genres[1] if len(top_genres) > 1 else None 
 
     print(f"[DataMiner] Mining candidates for user {user_id} (Genres: {top_genres})...")
 
-    collab_list = get_collaborative_candidates(user, all_profiles)
+    collab_list = get_collaborative_candidates(user)
     content_list = get_content_based_candidates(user)
     trend_g1_list = get_trending_candidates(genre_1)
     trend_g2_list = get_trending_candidates(genre_2) if genre_2 else []
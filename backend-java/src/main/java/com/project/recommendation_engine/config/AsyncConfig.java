@@ -20,4 +20,55 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    // Separate pool for TMDB background work (cache refreshes, fan-outs),
+    // so long-running agent jobs on taskExecutor can't starve it
+    @Bean
+    public Executor tmdbExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("TmdbFetch-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Threads for hedged TMDB calls. No queue: when it's full the call runs without hedging
+    @Bean
+    public Executor hedgeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("TmdbHedge-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Bucket gathering for RecommendationPipeline. Separate from taskExecutor (which runs the
+    // pipeline itself) and tmdbExecutor (which the buckets' movie lookups wait on)
+    @Bean
+    public Executor pipelineExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(6);
+        executor.setMaxPoolSize(6);
+        executor.setQueueCapacity(300);
+        executor.setThreadNamePrefix("Pipeline-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Long scheduled jobs (see BackgroundJobs), off the scheduler threads. One thread per job,
+    // since a job never overlaps itself
+    @Bean
+    public Executor jobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(5);
+        executor.setMaxPoolSize(5);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("Job-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -36,7 +36,7 @@ public class SecurityConfig {
                 .authorizeHttpRequests(requests -> requests
                         // Public routes
                         .requestMatchers("/login", "/register", "/questionnaire", "/rating-form/**", "/save-initial-ratings").permitAll()
-                        .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
+                        .requestMatchers("/css/**", "/js/**", "/images/**", "/posters/**").permitAll()
 
                         // Protects any other routes
                         .anyRequest().authenticated()
@@ -1,6 +1,7 @@
 package com.project.recommendation_engine.controller;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import com.project.recommendation_engine.service.RecommendationAgentService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,8 +15,11 @@ import org.springframework.web.bind.annotation.*;
 import com.project.recommendation_engine.model.TMDBResponse;
 import com.project.recommendation_engine.model.UserRecommendation;
 import com.project.recommendation_engine.repository.RecommendationRepository;
+import com.project.recommendation_engine.service.MoviePrefetcher;
 import com.project.recommendation_engine.service.TMDBService;
+import com.project.recommendation_engine.service.TrendingCache;
 import com.project.recommendation_engine.service.UserService;
+import com.project.recommendation_engine.service.WatchProviderCache;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -30,46 +34,22 @@ public class HomeController {
     private RecommendationRepository recommendationRepository;
     @Autowired
     private RecommendationAgentService agentService;
+    @Autowired
+    private TrendingCache trendingCache;
+    @Autowired
+    private MoviePrefetcher moviePrefetcher;
 
     @GetMapping("/home")
-    public String home(Model model, HttpSession session, @RequestParam(value = "refresh", required = false) String refresh){
+    public String home(Model model, HttpSession session){
         // Get current authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
         
-        // Check if this is a different user than cached data
-        String cachedUsername = (String) session.getAttribute("cachedUsername");
-        
-        // Check cache timestamp for automatic refresh (every 2 minutes)
-        Long lastCacheTime = (Long) session.getAttribute("lastCacheTime");
-        long currentTime = System.currentTimeMillis();
-        long cacheExpiryTime = 2 * 60 * 1000; // 2 minutes in milliseconds
-        
-        boolean cacheExpired = lastCacheTime == null || (currentTime - lastCacheTime) > cacheExpiryTime;
-        boolean manualRefresh = "true".equals(refresh);
-        
-        if (!currentUsername.equals(cachedUsername) || cacheExpired || manualRefresh) {
-            // Clear cache if different user OR cache expired (for fresh movies)
-            session.removeAttribute("trendingMovies");
-            // session.removeAttribute("userMovies");
-            // session.removeAttribute("sciFiMovies");
-            session.setAttribute("cachedUsername", currentUsername);
-            session.setAttribute("lastCacheTime", currentTime);
-            // String reason = manualRefresh ? "Manual refresh" : (cacheExpired ? "Cache expired" : "New user: " + currentUsername);
-        }
-        
-        // Check if movies are already cached in session
-        @SuppressWarnings("unchecked")
-        List<TMDBResponse> trendingMoviesList = (List<TMDBResponse>) session.getAttribute("trendingMovies");
-        if (trendingMoviesList == null) {
-            try {
-                trendingMoviesList = tmdbService.fetchTrendingMovies();
-                session.setAttribute("trendingMovies", trendingMoviesList);
-            } catch (Exception e) {
-                System.err.println("Error fetching trending movies: " + e.getMessage());
-                trendingMoviesList = new ArrayList<>();
-            }
-        }
+        // Trending is shared by every session and refreshed by TrendingScheduler;
+        // the session only remembers which version it was shown
+        TrendingCache.Snapshot trending = trendingCache.get();
+        session.setAttribute("trendingVersion", trending.version());
+        List<TMDBResponse> trendingMoviesList = trending.movies();
 
         List<UserRecommendation.RecSection> recommendationSections = new ArrayList<>();
         String userId = null;
@@ -90,6 +70,9 @@ public class HomeController {
             System.err.println("Error fetching recommendations from DB: " + e.getMessage());
         }
 
+        // Warm the details of the cards the user sees first while the page renders
+        moviePrefetcher.prefetchSections(recommendationSections);
+
         // Send attributes to the view (home.html)
         model.addAttribute("trendingMoviesList", trendingMoviesList != null ? trendingMoviesList : new ArrayList<>());
 
@@ -100,32 +83,44 @@ public class HomeController {
         return "home";
     }
 
+    @GetMapping("/movie/id/{tmdbId}")
+    public String movieById(@PathVariable long tmdbId, Model model, Locale locale) {
+        String region = WatchProviderCache.regionOf(locale, "US");
+        TMDBResponse movie = trendingCache.get().find(tmdbId);
+        if (movie == null) {
+            try {
+                movie = tmdbService.fetchMovieById(tmdbId);
+            } catch (Exception e) {
+                System.err.println("Error fetching movie " + tmdbId + ": " + e.getMessage());
+            }
+        }
+        if (movie != null && "True".equals(movie.getResponse())) {
+            model.addAttribute("movie", tmdbService.withWatchProviders(movie, region));
+            return "movieView";
+        }
+        return "redirect:/home";
+    }
+
     @GetMapping("/movie/{title}")
-    public String movieView(@PathVariable String title, Model model, HttpSession session) {
+    public String movieView(@PathVariable String title, Model model, HttpSession session, Locale locale) {
+        // Providers are listed for the visitor's region (from Accept-Language)
+        String region = WatchProviderCache.regionOf(locale, "US");
         // System.out.println("DEBUG: MovieView called with title: " + title);
-        
-        // Get the cached movies from session (check both new and old session keys for compatibility)
-        @SuppressWarnings("unchecked")
-        List<TMDBResponse> trendingList = (List<TMDBResponse>) session.getAttribute("trendingMovies");
-        TMDBResponse selectedMovie = null;
-
-        if (trendingList != null) {
-            selectedMovie = trendingList.stream()
-                    .filter(movie -> title.equals(movie.getTitle()))
-                    .findFirst()
-                    .orElse(null);
-        }
+
+        // Lookups by ID go through /movie/id/{tmdbId}: an all-digit title here ("1917", "2012")
+        // is matched as a title, first among the trending movies already loaded, then on TMDB
+        TMDBResponse selectedMovie = trendingCache.get().findByTitle(title);
 
         if (selectedMovie != null) {
-            model.addAttribute("movie", selectedMovie);
+            model.addAttribute("movie", tmdbService.withWatchProviders(selectedMovie, region));
             return "movieView";
         }
         
         // If movie not found in session, try to fetch it directly from API
         try {
-            TMDBResponse movie = (TMDBResponse) tmdbService.fetchRawMovieResponse(title);
+            TMDBResponse movie = tmdbService.fetchMovieByTitle(title);
             if (movie != null && "True".equals(movie.getResponse())) {
-                model.addAttribute("movie", movie);
+                model.addAttribute("movie", tmdbService.withWatchProviders(movie, region));
                 return "movieView";
             }
         } catch (Exception e) {
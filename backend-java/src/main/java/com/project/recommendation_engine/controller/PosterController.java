@@ -0,0 +1,96 @@
+package com.project.recommendation_engine.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import com.project.recommendation_engine.service.PosterCache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Serves posters from the local PosterCache: /posters/w342/abc.jpg
+@Controller
+public class PosterController {
+
+    // Tomcat's sendfile hand-off: the connector copies the file to the socket itself
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final PosterCache posterCache;
+
+    public PosterController(PosterCache posterCache) {
+        this.posterCache = posterCache;
+    }
+
+    @GetMapping("/posters/w{width}/{fileName:.+}")
+    public void poster(@PathVariable int width, @PathVariable String fileName,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!PosterCache.isValid(width, fileName)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // TMDB gives a changed image a new file name, so name + width identify the bytes.
+        // The immutable headers only go on a 304 or a poster actually served, never on an error.
+        String etag = "\"w" + width + "-" + fileName + "\"";
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            setImmutable(response, etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        PosterCache.Poster poster;
+        try {
+            poster = posterCache.open(width, fileName);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading poster " + fileName + ": " + e.getMessage());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+            return;
+        }
+        if (poster == null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        try (poster) {
+            setImmutable(response, etag);
+            long size = poster.size();
+            response.setContentType(fileName.endsWith(".png") ? "image/png" : "image/jpeg");
+            response.setContentLengthLong(size);
+
+            // The connector opens the file after we return; PosterCache keeps evicted files
+            // around for a grace period to cover that
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, poster.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            // No sendfile (other connector, TLS): copy through the servlet stream. transferTo into
+            // a stream-wrapping channel still goes through a heap buffer, just not one of ours.
+            FileChannel file = poster.channel();
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += file.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static void setImmutable(HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+    }
+}
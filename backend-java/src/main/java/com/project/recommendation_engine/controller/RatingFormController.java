@@ -18,6 +18,7 @@ import com.project.recommendation_engine.model.GenreMovies;
 import com.project.recommendation_engine.model.Movie;
 import com.project.recommendation_engine.model.Rating;
 import com.project.recommendation_engine.service.TMDBService;
+import com.project.recommendation_engine.service.TitleAutocomplete;
 import com.project.recommendation_engine.service.UserService;
 
 @Controller
@@ -26,11 +27,13 @@ public class RatingFormController {
 
     private final UserService userService;
     private final TMDBService tmdbService;
+    private final TitleAutocomplete titleAutocomplete;
 
     @Autowired
-    public RatingFormController(UserService userService, TMDBService tmdbService) {
+    public RatingFormController(UserService userService, TMDBService tmdbService, TitleAutocomplete titleAutocomplete) {
         this.userService = userService;
         this.tmdbService = tmdbService;
+        this.titleAutocomplete = titleAutocomplete;
     }
 
     @GetMapping
@@ -144,4 +147,12 @@ public class RatingFormController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    // Typeahead for the manual search box, answered from memory
+    @GetMapping("/api/autocomplete")
+    @ResponseBody
+    public List<Movie> autocompleteApi(@RequestParam String prefix,
+                                       @RequestParam(defaultValue = "8") int limit) {
+        return titleAutocomplete.suggest(prefix, Math.min(limit, 10));
+    }
+}
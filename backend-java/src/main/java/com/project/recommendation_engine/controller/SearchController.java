@@ -1,5 +1,7 @@
 package com.project.recommendation_engine.controller;
 
+import java.util.Locale;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import com.project.recommendation_engine.model.TMDBResponse;
 import com.project.recommendation_engine.service.TMDBService;
 import com.project.recommendation_engine.service.UserService;
+import com.project.recommendation_engine.service.WatchProviderCache;
 
 @Controller
 public class SearchController {
@@ -30,11 +33,12 @@ public class SearchController {
     
 
     @PostMapping("/search")
-    public String searchMovies(@RequestParam("movieTitle") String movieTitle, Model model) {
+    public String searchMovies(@RequestParam("movieTitle") String movieTitle, Model model, Locale locale) {
         model.addAttribute("searchQuery", movieTitle);
         TMDBResponse movieResult = (TMDBResponse) tmdbService.fetchRawMovieResponse(movieTitle); // Call the TMDBService
         if (movieResult != null && "True".equals(movieResult.getResponse())) { // Check for successful response
-            model.addAttribute("movie", movieResult);
+            model.addAttribute("movie", tmdbService.withWatchProviders(movieResult,
+                    WatchProviderCache.regionOf(locale, "US")));
             model.addAttribute("searchResults", "found");
         } else { 
             model.addAttribute("searchResults", "No results found for: " + movieTitle);
@@ -0,0 +1,119 @@
+package com.project.recommendation_engine.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.project.recommendation_engine.service.CacheSnapshot;
+import com.project.recommendation_engine.service.CatalogImporter;
+import com.project.recommendation_engine.service.CatalogMirror;
+import com.project.recommendation_engine.service.CollaborativeFiltering;
+import com.project.recommendation_engine.service.GenrePoolCache;
+import com.project.recommendation_engine.service.IncrementalRecommender;
+import com.project.recommendation_engine.service.ItemSimilarity;
+import com.project.recommendation_engine.service.MatrixFactorization;
+import com.project.recommendation_engine.service.MovieEmbeddingIndex;
+import com.project.recommendation_engine.service.MovieDetailsCache;
+import com.project.recommendation_engine.service.MoviePrefetcher;
+import com.project.recommendation_engine.service.PosterCache;
+import com.project.recommendation_engine.service.PythonWorkerPool;
+import com.project.recommendation_engine.service.RecommendationPipeline;
+import com.project.recommendation_engine.service.TitleAutocomplete;
+import com.project.recommendation_engine.service.TitleSearchIndex;
+import com.project.recommendation_engine.service.TmdbClient;
+import com.project.recommendation_engine.service.TmdbHedger;
+import com.project.recommendation_engine.service.TmdbRequestCoalescer;
+import com.project.recommendation_engine.service.TrendingCache;
+import com.project.recommendation_engine.service.WatchProviderCache;
+
+// Read-only view of the TMDB client internals (connection pool, etc.)
+@RestController
+public class TmdbStatsController {
+
+    private final TmdbClient tmdbClient;
+    private final MovieDetailsCache movieDetailsCache;
+    private final TmdbRequestCoalescer requestCoalescer;
+    private final TmdbHedger tmdbHedger;
+    private final CatalogMirror catalogMirror;
+    private final CatalogImporter catalogImporter;
+    private final TitleSearchIndex titleSearchIndex;
+    private final TitleAutocomplete titleAutocomplete;
+    private final GenrePoolCache genrePoolCache;
+    private final PosterCache posterCache;
+    private final WatchProviderCache watchProviderCache;
+    private final TrendingCache trendingCache;
+    private final CacheSnapshot cacheSnapshot;
+    private final MoviePrefetcher moviePrefetcher;
+    private final CollaborativeFiltering collaborativeFiltering;
+    private final ItemSimilarity itemSimilarity;
+    private final MatrixFactorization matrixFactorization;
+    private final MovieEmbeddingIndex movieEmbeddingIndex;
+    private final IncrementalRecommender incrementalRecommender;
+    private final PythonWorkerPool pythonWorkerPool;
+    private final RecommendationPipeline recommendationPipeline;
+
+    public TmdbStatsController(TmdbClient tmdbClient, MovieDetailsCache movieDetailsCache,
+                               TmdbRequestCoalescer requestCoalescer, TmdbHedger tmdbHedger,
+                               CatalogMirror catalogMirror, CatalogImporter catalogImporter,
+                               TitleSearchIndex titleSearchIndex, TitleAutocomplete titleAutocomplete,
+                               GenrePoolCache genrePoolCache, PosterCache posterCache,
+                               WatchProviderCache watchProviderCache, TrendingCache trendingCache,
+                               CacheSnapshot cacheSnapshot, MoviePrefetcher moviePrefetcher,
+                               CollaborativeFiltering collaborativeFiltering, ItemSimilarity itemSimilarity,
+                               MatrixFactorization matrixFactorization, MovieEmbeddingIndex movieEmbeddingIndex,
+                               IncrementalRecommender incrementalRecommender, PythonWorkerPool pythonWorkerPool,
+                               RecommendationPipeline recommendationPipeline) {
+        this.tmdbClient = tmdbClient;
+        this.movieDetailsCache = movieDetailsCache;
+        this.requestCoalescer = requestCoalescer;
+        this.tmdbHedger = tmdbHedger;
+        this.catalogMirror = catalogMirror;
+        this.catalogImporter = catalogImporter;
+        this.titleSearchIndex = titleSearchIndex;
+        this.titleAutocomplete = titleAutocomplete;
+        this.genrePoolCache = genrePoolCache;
+        this.posterCache = posterCache;
+        this.watchProviderCache = watchProviderCache;
+        this.trendingCache = trendingCache;
+        this.cacheSnapshot = cacheSnapshot;
+        this.moviePrefetcher = moviePrefetcher;
+        this.collaborativeFiltering = collaborativeFiltering;
+        this.itemSimilarity = itemSimilarity;
+        this.matrixFactorization = matrixFactorization;
+        this.movieEmbeddingIndex = movieEmbeddingIndex;
+        this.incrementalRecommender = incrementalRecommender;
+        this.pythonWorkerPool = pythonWorkerPool;
+        this.recommendationPipeline = recommendationPipeline;
+    }
+
+    @GetMapping("/api/tmdb/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectionPool", tmdbClient.getPoolStats());
+        stats.put("rateLimiter", tmdbClient.getRateLimiterStats());
+        stats.put("circuitBreaker", tmdbClient.getCircuitBreakerStats());
+        stats.put("movieCache", movieDetailsCache.getStats());
+        stats.put("coalescing", requestCoalescer.getStats());
+        stats.put("hedging", tmdbHedger.getStats());
+        stats.put("catalog", catalogMirror.getStats());
+        stats.put("catalogLastImport", catalogImporter.getStats());
+        stats.put("titleSearch", titleSearchIndex.getStats());
+        stats.put("autocomplete", titleAutocomplete.getStats());
+        stats.put("genrePools", genrePoolCache.getStats());
+        stats.put("posters", posterCache.getStats());
+        stats.put("watchProviders", watchProviderCache.getStats());
+        stats.put("trending", trendingCache.getStats());
+        stats.put("snapshot", cacheSnapshot.getStats());
+        stats.put("prefetch", moviePrefetcher.getStats());
+        stats.put("collaborative", collaborativeFiltering.getStats());
+        stats.put("itemSimilarity", itemSimilarity.getStats());
+        stats.put("als", matrixFactorization.getStats());
+        stats.put("embeddings", movieEmbeddingIndex.getStats());
+        stats.put("incremental", incrementalRecommender.getStats());
+        stats.put("agentWorkers", pythonWorkerPool.getStats());
+        stats.put("pipeline", recommendationPipeline.getStats());
+        return stats;
+    }
+}
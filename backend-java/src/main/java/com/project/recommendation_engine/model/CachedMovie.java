@@ -0,0 +1,33 @@
+package com.project.recommendation_engine.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Second tier of the movie details cache. Shared by every instance and survives restarts.
+@Document(collection = "tmdb_movie_cache")
+public class CachedMovie {
+
+    @Id
+    private String id; // TMDB ID
+
+    private TMDBResponse movie;
+    private long fetchedAt; // Epoch millis of the last TMDB fetch
+
+    public CachedMovie() {}
+
+    public CachedMovie(String id, TMDBResponse movie, long fetchedAt) {
+        this.id = id;
+        this.movie = movie;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public TMDBResponse getMovie() { return movie; }
+    public void setMovie(TMDBResponse movie) { this.movie = movie; }
+
+    public long getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(long fetchedAt) { this.fetchedAt = fetchedAt; }
+}
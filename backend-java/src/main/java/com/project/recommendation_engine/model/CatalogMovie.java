@@ -0,0 +1,65 @@
+package com.project.recommendation_engine.model;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// One movie of the local TMDB catalog mirror, imported from export/detail files on disk.
+// The top-level fields are what the in-memory index needs; details is only read on a lookup.
+@Document(collection = "tmdb_catalog")
+public class CatalogMovie {
+
+    @Id
+    private String id; // TMDB ID
+
+    private String title;
+    private String posterPath;
+    private int voteCount;
+    private double popularity;
+    private boolean adult;
+    private List<Integer> genreIds;
+
+    private MovieDetails details; // Null until a detail file had this movie
+
+    // Content hashes of the last imported line, used to skip unchanged records on re-import
+    private long exportHash;
+    private long detailsHash;
+    private long updatedAt;
+
+    public CatalogMovie() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getPosterPath() { return posterPath; }
+    public void setPosterPath(String posterPath) { this.posterPath = posterPath; }
+
+    public int getVoteCount() { return voteCount; }
+    public void setVoteCount(int voteCount) { this.voteCount = voteCount; }
+
+    public double getPopularity() { return popularity; }
+    public void setPopularity(double popularity) { this.popularity = popularity; }
+
+    public boolean isAdult() { return adult; }
+    public void setAdult(boolean adult) { this.adult = adult; }
+
+    public List<Integer> getGenreIds() { return genreIds; }
+    public void setGenreIds(List<Integer> genreIds) { this.genreIds = genreIds; }
+
+    public MovieDetails getDetails() { return details; }
+    public void setDetails(MovieDetails details) { this.details = details; }
+
+    public long getExportHash() { return exportHash; }
+    public void setExportHash(long exportHash) { this.exportHash = exportHash; }
+
+    public long getDetailsHash() { return detailsHash; }
+    public void setDetailsHash(long detailsHash) { this.detailsHash = detailsHash; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,89 @@
+package com.project.recommendation_engine.model;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Collaborative-filtering candidates for one user, computed by CollaborativeFiltering from
+// the movie-to-likers index and read by the Python agent instead of scanning every profile.
+@Document(collection = "collaborative_candidates")
+public class CollaborativeBucket {
+
+    @Id
+    private String id; // User ID
+
+    private List<Neighbor> neighbors;
+    private List<Candidate> candidates;
+    private List<Candidate> similarItems; // From ItemSimilarity: like the user's top-rated movies
+    private long generatedAt;
+
+    public CollaborativeBucket() {}
+
+    public CollaborativeBucket(String userId, List<Neighbor> neighbors, List<Candidate> candidates, long generatedAt) {
+        this.id = userId;
+        this.neighbors = neighbors;
+        this.candidates = candidates;
+        this.generatedAt = generatedAt;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public List<Neighbor> getNeighbors() { return neighbors; }
+    public void setNeighbors(List<Neighbor> neighbors) { this.neighbors = neighbors; }
+
+    public List<Candidate> getCandidates() { return candidates; }
+    public void setCandidates(List<Candidate> candidates) { this.candidates = candidates; }
+
+    public List<Candidate> getSimilarItems() { return similarItems; }
+    public void setSimilarItems(List<Candidate> similarItems) { this.similarItems = similarItems; }
+
+    public long getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(long generatedAt) { this.generatedAt = generatedAt; }
+
+    // A user who liked some of the same movies
+    public static class Neighbor {
+        private String userId;
+        private int overlap;       // Movies both liked
+        private double similarity; // Cosine over the liked sets
+
+        public Neighbor() {}
+
+        public Neighbor(String userId, int overlap, double similarity) {
+            this.userId = userId;
+            this.overlap = overlap;
+            this.similarity = similarity;
+        }
+
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+        public int getOverlap() { return overlap; }
+        public void setOverlap(int overlap) { this.overlap = overlap; }
+        public double getSimilarity() { return similarity; }
+        public void setSimilarity(double similarity) { this.similarity = similarity; }
+    }
+
+    // A movie the user hasn't rated, liked by their neighbors or similar to what they liked
+    public static class Candidate {
+        private String movieId;    // TMDB ID, as stored in the ratings
+        private double score;      // Summed similarity of the neighbors (or seed movies) behind it
+        private int supporters;    // How many neighbors; 0 for similar items
+
+        public Candidate() {}
+
+        public Candidate(String movieId, double score, int supporters) {
+            this.movieId = movieId;
+            this.score = score;
+            this.supporters = supporters;
+        }
+
+        public String getMovieId() { return movieId; }
+        public void setMovieId(String movieId) { this.movieId = movieId; }
+        public double getScore() { return score; }
+        public void setScore(double score) { this.score = score; }
+        public int getSupporters() { return supporters; }
+        public void setSupporters(int supporters) { this.supporters = supporters; }
+    }
+}
@@ -0,0 +1,36 @@
+package com.project.recommendation_engine.model;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Prefetched discover results for one genre, the source of the rating-form slates.
+// Stored so a restart starts from the last refresh instead of calling TMDB.
+@Document(collection = "genre_pools")
+public class GenrePool {
+
+    @Id
+    private String id; // TMDB genre ID
+
+    private List<Movie> movies;
+    private long refreshedAt;
+
+    public GenrePool() {}
+
+    public GenrePool(int genreId, List<Movie> movies, long refreshedAt) {
+        this.id = String.valueOf(genreId);
+        this.movies = movies;
+        this.refreshedAt = refreshedAt;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public List<Movie> getMovies() { return movies; }
+    public void setMovies(List<Movie> movies) { this.movies = movies; }
+
+    public long getRefreshedAt() { return refreshedAt; }
+    public void setRefreshedAt(long refreshedAt) { this.refreshedAt = refreshedAt; }
+}
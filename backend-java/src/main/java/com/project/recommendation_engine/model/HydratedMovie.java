@@ -0,0 +1,19 @@
+package com.project.recommendation_engine.model;
+
+// Result for one ID of TMDBService.hydrateMovies.
+// movie is set for CACHED, FETCHED and STALE; error explains FAILED and TIMED_OUT.
+public record HydratedMovie(Long id, Status status, TMDBResponse movie, String error) {
+
+    public enum Status {
+        CACHED,     // Memory or Mongo cache
+        FETCHED,    // Loaded from TMDB in this batch
+        STALE,      // TMDB failed, expired cache copy served
+        NOT_FOUND,  // TMDB has no such movie
+        FAILED,     // TMDB failed and nothing cached
+        TIMED_OUT   // Still loading when the batch deadline passed
+    }
+
+    public boolean isAvailable() {
+        return movie != null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.recommendation_engine.model;
+
+import java.util.List;
+
+// Compact, immutable view of a TMDB movie: only the fields the pages show.
+// Built straight from the /movie/{id} JSON by TmdbMovieDetailsParser.
+public record MovieDetails(long id,
+                           String title,
+                           String posterPath,
+                           String overview,
+                           String releaseDate,
+                           Double voteAverage,
+                           Integer voteCount,
+                           Double popularity,
+                           List<Integer> genreIds,
+                           List<String> genres,
+                           List<String> directors,
+                           List<String> topCast,
+                           String watchLink,
+                           List<ProviderRef> flatrate,
+                           List<ProviderRef> rent,
+                           List<ProviderRef> buy) {
+
+    public MovieDetails {
+        genreIds = List.copyOf(genreIds);
+        genres = List.copyOf(genres);
+        directors = List.copyOf(directors);
+        topCast = List.copyOf(topCast);
+        flatrate = List.copyOf(flatrate);
+        rent = List.copyOf(rent);
+        buy = List.copyOf(buy);
+    }
+
+    public record ProviderRef(String name, String logoPath) {}
+}
@@ -36,6 +36,26 @@ public class TMDBResponse {
     private List<Provider> buyProviders = new ArrayList<>();
     private String watchLink;
 
+    public TMDBResponse() {}
+
+    // Shallow copy, for per-region views of a cached movie
+    public TMDBResponse(TMDBResponse other) {
+        this.title = other.title;
+        this.year = other.year;
+        this.tmdbID = other.tmdbID;
+        this.genre = other.genre;
+        this.tmdbRating = other.tmdbRating;
+        this.poster = other.poster;
+        this.plot = other.plot;
+        this.response = other.response;
+        this.director = other.director;
+        this.actors = other.actors;
+        this.flatrateProviders = other.flatrateProviders;
+        this.rentProviders = other.rentProviders;
+        this.buyProviders = other.buyProviders;
+        this.watchLink = other.watchLink;
+    }
+
     // Getters and setters
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
@@ -109,6 +129,8 @@ public class TMDBResponse {
         private String releaseDate;
         @JsonProperty("vote_average")
         private Double voteAverage;
+        @JsonProperty("popularity")
+        private Double popularity;
         @JsonProperty("credits")
         private Credits credits;
         @JsonProperty("genres")
@@ -127,6 +149,8 @@ public class TMDBResponse {
         public void setReleaseDate(String releaseDate) { this.releaseDate = releaseDate; }
         public Double getVoteAverage() { return voteAverage; }
         public void setVoteAverage(Double voteAverage) { this.voteAverage = voteAverage; }
+        public Double getPopularity() { return popularity; }
+        public void setPopularity(Double popularity) { this.popularity = popularity; }
         public Credits getCredits() { return credits; }
         public void setCredits(Credits credits) { this.credits = credits; }
         public List<Genre> getGenres() { return genres; }
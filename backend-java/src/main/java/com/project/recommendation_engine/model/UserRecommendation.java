@@ -3,6 +3,7 @@ package com.project.recommendation_engine.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import com.project.recommendation_engine.util.PosterUrls;
 import java.util.List;
 
 @Document(collection = "recommended_cache")
@@ -16,6 +17,9 @@ public class UserRecommendation {
 
     @Field("generated_at")
     private String generatedAt;
+
+    @Field("meta_justification")
+    private String metaJustification;
     // -------------------------------------
 
     private List<RecSection> sections;
@@ -30,6 +34,9 @@ public class UserRecommendation {
     public String getGeneratedAt() { return generatedAt; }
     public void setGeneratedAt(String generatedAt) { this.generatedAt = generatedAt; }
 
+    public String getMetaJustification() { return metaJustification; }
+    public void setMetaJustification(String metaJustification) { this.metaJustification = metaJustification; }
+
     public List<RecSection> getSections() { return sections; }
     public void setSections(List<RecSection> sections) { this.sections = sections; }
 
@@ -71,14 +78,15 @@ public class UserRecommendation {
         public String getTitle() { return title; }
         public void setTitle(String title) { this.title = title; }
 
+        // Served through the local poster proxy, whether the agent stored a path or a TMDB URL
         public String getPosterPath() {
-            if (posterPath != null && !posterPath.startsWith("http")) {
-                return "https://image.tmdb.org/t/p/w500" + posterPath;
-            }
-            return posterPath;
+            return PosterUrls.card(posterPath);
         }
         public void setPosterPath(String posterPath) { this.posterPath = posterPath; }
 
+        public Double getVoteAverage() { return voteAverage; }
+        public void setVoteAverage(Double voteAverage) { this.voteAverage = voteAverage; }
+
         public String getAiReason() { return aiReason; }
         public void setAiReason(String aiReason) { this.aiReason = aiReason; }
     }
@@ -0,0 +1,29 @@
+package com.project.recommendation_engine.model;
+
+import java.util.List;
+import java.util.Map;
+
+// Where a movie can be watched, for every region TMDB lists (ISO 3166-1 codes).
+// Comes from the "watch/providers" part of /movie/{id} or from /movie/{id}/watch/providers.
+public record WatchProviders(Map<String, Region> regions, long fetchedAt) {
+
+    public WatchProviders {
+        regions = Map.copyOf(regions);
+    }
+
+    // Null when the movie isn't available in that region
+    public Region region(String regionCode) {
+        return regions.get(regionCode);
+    }
+
+    public record Region(List<MovieDetails.ProviderRef> flatrate,
+                         List<MovieDetails.ProviderRef> rent,
+                         List<MovieDetails.ProviderRef> buy) {
+
+        public Region {
+            flatrate = List.copyOf(flatrate);
+            rent = List.copyOf(rent);
+            buy = List.copyOf(buy);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.recommendation_engine.repository;
+
+import com.project.recommendation_engine.model.CachedMovie;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CachedMovieRepository extends MongoRepository<CachedMovie, String> {
+}
@@ -0,0 +1,16 @@
+package com.project.recommendation_engine.repository;
+
+import java.util.stream.Stream;
+
+import com.project.recommendation_engine.model.CatalogMovie;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogMovieRepository extends MongoRepository<CatalogMovie, String> {
+
+    // Everything except the details blob, streamed with a cursor to rebuild the in-memory index
+    @Query(value = "{}", fields = "{ 'details': 0 }")
+    Stream<CatalogMovie> streamAllBy();
+}
@@ -0,0 +1,9 @@
+package com.project.recommendation_engine.repository;
+
+import com.project.recommendation_engine.model.GenrePool;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GenrePoolRepository extends MongoRepository<GenrePool, String> {
+}
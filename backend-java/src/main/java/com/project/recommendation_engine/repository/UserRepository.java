@@ -2,9 +2,11 @@ package com.project.recommendation_engine.repository;
 
 import com.project.recommendation_engine.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends MongoRepository <User, String> {
@@ -12,4 +14,8 @@ public interface UserRepository extends MongoRepository <User, String> {
     Optional<User> findByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    // Only the ratings of every user, streamed with a cursor for jobs that read the whole collection
+    @Query(value = "{}", fields = "{ 'movieRatings': 1 }")
+    Stream<User> streamRatingsBy();
 }
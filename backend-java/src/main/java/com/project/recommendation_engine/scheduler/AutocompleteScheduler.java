@@ -0,0 +1,22 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.TitleAutocomplete;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AutocompleteScheduler {
+
+    private final TitleAutocomplete titleAutocomplete;
+
+    public AutocompleteScheduler(TitleAutocomplete titleAutocomplete) {
+        this.titleAutocomplete = titleAutocomplete;
+    }
+
+    // Picks up titles seen since the last run; a no-op when the search index hasn't changed
+    @Scheduled(initialDelayString = "${tmdb.autocomplete.initial-delay-ms:10000}",
+               fixedDelayString = "${tmdb.autocomplete.rebuild-ms:60000}")
+    public void rebuildTrie() {
+        titleAutocomplete.rebuildIfChanged();
+    }
+}
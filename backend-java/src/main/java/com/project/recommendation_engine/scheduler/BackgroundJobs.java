@@ -0,0 +1,51 @@
+package com.project.recommendation_engine.scheduler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+// Runs the long scheduled jobs (ALS, item-sim, catalog import, worker warm-up, the batch) on
+// jobExecutor, so the scheduler threads stay free for the short refreshes like trending.
+// A job whose previous run is still going is skipped, as a fixed delay would have done.
+@Component
+public class BackgroundJobs {
+
+    private final Executor jobExecutor;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public BackgroundJobs(@Qualifier("jobExecutor") Executor jobExecutor) {
+        this.jobExecutor = jobExecutor;
+    }
+
+    // False when the job was skipped
+    public boolean submit(String name, Runnable job) {
+        if (!running.add(name)) {
+            System.out.println("[Jobs] " + name + " is still running, skipped this run");
+            return false;
+        }
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    job.run();
+                } catch (RuntimeException e) {
+                    System.err.println("[Jobs] " + name + " failed: " + e.getMessage());
+                } finally {
+                    running.remove(name);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.remove(name);
+            System.err.println("[Jobs] No thread for " + name + ", skipped this run");
+            return false;
+        }
+    }
+
+    public boolean isRunning(String name) {
+        return running.contains(name);
+    }
+}
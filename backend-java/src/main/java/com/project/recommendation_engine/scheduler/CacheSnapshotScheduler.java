@@ -0,0 +1,28 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.CacheSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CacheSnapshotScheduler {
+
+    private final CacheSnapshot cacheSnapshot;
+    private final boolean enabled;
+
+    public CacheSnapshotScheduler(CacheSnapshot cacheSnapshot,
+                                  @Value("${cache.snapshot.enabled:true}") boolean enabled) {
+        this.cacheSnapshot = cacheSnapshot;
+        this.enabled = enabled;
+    }
+
+    // Keeps the snapshot recent even if the process is killed without a clean shutdown
+    @Scheduled(initialDelayString = "${cache.snapshot.write-ms:300000}",
+               fixedDelayString = "${cache.snapshot.write-ms:300000}")
+    public void writeSnapshot() {
+        if (enabled) {
+            cacheSnapshot.write();
+        }
+    }
+}
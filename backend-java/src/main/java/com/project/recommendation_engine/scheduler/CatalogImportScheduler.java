@@ -0,0 +1,61 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.CatalogImporter;
+import com.project.recommendation_engine.service.CatalogMirror;
+import com.project.recommendation_engine.service.TitleSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Component
+public class CatalogImportScheduler {
+
+    private final CatalogMirror catalogMirror;
+    private final CatalogImporter catalogImporter;
+    private final TitleSearchIndex titleSearchIndex;
+    private final String catalogDir;
+    private final BackgroundJobs backgroundJobs;
+
+    public CatalogImportScheduler(CatalogMirror catalogMirror,
+                                  CatalogImporter catalogImporter,
+                                  TitleSearchIndex titleSearchIndex,
+                                  @Value("${tmdb.catalog.dir:}") String catalogDir,
+                                  BackgroundJobs backgroundJobs) {
+        this.catalogMirror = catalogMirror;
+        this.catalogImporter = catalogImporter;
+        this.titleSearchIndex = titleSearchIndex;
+        this.catalogDir = catalogDir;
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    // First run rebuilds the in-memory index from Mongo, then every run picks up new or changed files
+    @Scheduled(initialDelayString = "${tmdb.catalog.initial-delay-ms:5000}",
+               fixedDelayString = "${tmdb.catalog.rescan-ms:3600000}")
+    public void importCatalog() {
+        backgroundJobs.submit("catalog-import", this::runImport);
+    }
+
+    private void runImport() {
+        if (!catalogMirror.isLoaded()) {
+            catalogMirror.loadFromMongo();
+        }
+        if (catalogDir != null && !catalogDir.isBlank()) {
+            Path directory = Path.of(catalogDir);
+            if (Files.isDirectory(directory)) {
+                catalogImporter.importDirectory(directory);
+            } else {
+                System.err.println("TMDB catalog directory not found: " + directory);
+            }
+        }
+
+        // Mirrored movies are searchable by title; unchanged titles are no-ops in the index
+        catalogMirror.forEach(entry -> {
+            if (entry.hasDetails()) {
+                titleSearchIndex.add(entry.id(), entry.title(), entry.posterPath(), entry.popularity());
+            }
+        });
+    }
+}
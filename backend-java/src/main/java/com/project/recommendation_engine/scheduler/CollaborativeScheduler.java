@@ -0,0 +1,23 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.CollaborativeFiltering;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CollaborativeScheduler {
+
+    private final CollaborativeFiltering collaborativeFiltering;
+
+    public CollaborativeScheduler(CollaborativeFiltering collaborativeFiltering) {
+        this.collaborativeFiltering = collaborativeFiltering;
+    }
+
+    // Rated movies are folded in as they arrive; the rebuild also picks up onboarding ratings
+    // and anything else written to the users collection directly
+    @Scheduled(initialDelayString = "${collab.initial-delay-ms:30000}",
+               fixedDelayString = "${collab.rebuild-ms:600000}")
+    public void rebuildIndex() {
+        collaborativeFiltering.rebuild();
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.service.GenrePoolCache;
+import com.project.recommendation_engine.service.TMDBService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class GenrePoolScheduler {
+
+    private final TMDBService tmdbService;
+    private final GenrePoolCache genrePoolCache;
+    private final long maxAgeMs;
+
+    public GenrePoolScheduler(TMDBService tmdbService,
+                              GenrePoolCache genrePoolCache,
+                              @Value("${tmdb.genre-pool.max-age-ms:21600000}") long maxAgeMs) {
+        this.tmdbService = tmdbService;
+        this.genrePoolCache = genrePoolCache;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    // First run restores the pools saved by the last process, then only pools older than
+    // max-age are fetched again, one genre at a time
+    @Scheduled(initialDelayString = "${tmdb.genre-pool.initial-delay-ms:1000}",
+               fixedDelayString = "${tmdb.genre-pool.check-ms:600000}")
+    public void refreshGenrePools() {
+        if (!genrePoolCache.isLoaded()) {
+            genrePoolCache.loadFromMongo();
+        }
+
+        long now = System.currentTimeMillis();
+        for (Integer genreId : TMDBService.GENRE_IDS.values()) {
+            if (now - genrePoolCache.getRefreshedAt(genreId) < maxAgeMs) {
+                continue;
+            }
+            try {
+                List<Movie> movies = tmdbService.fetchGenrePool(genreId);
+                genrePoolCache.replace(genreId, movies);
+                System.out.println("[GenrePools] Refreshed genre " + genreId + ": " + movies.size() + " movies");
+            } catch (Exception e) {
+                System.err.println("Error refreshing genre pool " + genreId + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.ItemSimilarity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ItemSimilarityScheduler {
+
+    private final ItemSimilarity itemSimilarity;
+    private final BackgroundJobs backgroundJobs;
+
+    public ItemSimilarityScheduler(ItemSimilarity itemSimilarity, BackgroundJobs backgroundJobs) {
+        this.itemSimilarity = itemSimilarity;
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    // Full recompute; also the point from which new ratings update rows incrementally
+    @Scheduled(initialDelayString = "${item-sim.initial-delay-ms:60000}",
+               fixedDelayString = "${item-sim.rebuild-ms:3600000}")
+    public void rebuildModel() {
+        backgroundJobs.submit("item-sim", itemSimilarity::rebuild);
+    }
+
+    @Scheduled(initialDelayString = "${item-sim.write-ms:300000}",
+               fixedDelayString = "${item-sim.write-ms:300000}")
+    public void writeModel() {
+        itemSimilarity.writeIfDirty();
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.AlsModel;
+import com.project.recommendation_engine.service.MatrixFactorization;
+import com.project.recommendation_engine.service.MovieEmbeddingIndex;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MatrixFactorizationScheduler {
+
+    private final MatrixFactorization matrixFactorization;
+    private final MovieEmbeddingIndex movieEmbeddingIndex;
+    private final BackgroundJobs backgroundJobs;
+
+    public MatrixFactorizationScheduler(MatrixFactorization matrixFactorization,
+                                        MovieEmbeddingIndex movieEmbeddingIndex,
+                                        BackgroundJobs backgroundJobs) {
+        this.matrixFactorization = matrixFactorization;
+        this.movieEmbeddingIndex = movieEmbeddingIndex;
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    // Full retrain on the current ratings (takes all cores while it runs), then the movie
+    // vectors are re-indexed
+    @Scheduled(initialDelayString = "${als.initial-delay-ms:120000}",
+               fixedDelayString = "${als.train-ms:21600000}")
+    public void trainModel() {
+        backgroundJobs.submit("als", () -> {
+            AlsModel model = matrixFactorization.train();
+            movieEmbeddingIndex.rebuild(model);
+        });
+    }
+}
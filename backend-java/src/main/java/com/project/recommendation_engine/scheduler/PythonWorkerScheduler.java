@@ -0,0 +1,25 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.PythonWorkerPool;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PythonWorkerScheduler {
+
+    private final PythonWorkerPool pythonWorkerPool;
+    private final BackgroundJobs backgroundJobs;
+
+    public PythonWorkerScheduler(PythonWorkerPool pythonWorkerPool, BackgroundJobs backgroundJobs) {
+        this.pythonWorkerPool = pythonWorkerPool;
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    // The first run also warms the pool, shortly after startup; a worker start can take up to
+    // agent.workers.startup-timeout-ms, so this runs as a background job
+    @Scheduled(initialDelayString = "${agent.workers.initial-delay-ms:15000}",
+               fixedDelayString = "${agent.workers.health-check-ms:60000}")
+    public void checkWorkers() {
+        backgroundJobs.submit("agent-workers", pythonWorkerPool::checkHealth);
+    }
+}
@@ -14,6 +14,9 @@ public class RecommendationScheduler {
     @Autowired
     private RecommendationAgentService agentService;
 
+    @Autowired
+    private BackgroundJobs backgroundJobs;
+
     // CRON: Second Minutes Hours DayMonth Month WeekDay
     // "0 0 1 * * SUN" = ALL Sundays at 1:00 AM
     @Scheduled(cron = "0 0 1 * * SUN")
@@ -24,7 +27,7 @@ public class RecommendationScheduler {
 
         if (weekOfYear % 2 == 0) {
             System.out.println("Is even week (" + weekOfYear + "). Running Recommendation Batch.");
-            agentService.runFullBatchProcess();
+            backgroundJobs.submit("recommendation-batch", agentService::runFullBatchProcess);
         } else {
             System.out.println("zzz It is odd week (" + weekOfYear + "). Agent rests today.");
         }
@@ -0,0 +1,22 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.TrendingCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TrendingScheduler {
+
+    private final TrendingCache trendingCache;
+
+    public TrendingScheduler(TrendingCache trendingCache) {
+        this.trendingCache = trendingCache;
+    }
+
+    // One TMDB fetch per interval for the whole app, instead of one per session
+    @Scheduled(initialDelayString = "${tmdb.trending.initial-delay-ms:0}",
+               fixedDelayString = "${tmdb.trending.refresh-ms:120000}")
+    public void refreshTrending() {
+        trendingCache.refresh();
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.recommendation_engine.scheduler;
+
+import com.project.recommendation_engine.service.TMDBService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WatchProviderScheduler {
+
+    private final TMDBService tmdbService;
+
+    public WatchProviderScheduler(TMDBService tmdbService) {
+        this.tmdbService = tmdbService;
+    }
+
+    // Re-fetches providers for movies viewed since their cached providers expired
+    @Scheduled(initialDelayString = "${tmdb.providers.refresh-ms:60000}",
+               fixedDelayString = "${tmdb.providers.refresh-ms:60000}")
+    public void refreshStaleProviders() {
+        tmdbService.refreshWatchProviders();
+    }
+}
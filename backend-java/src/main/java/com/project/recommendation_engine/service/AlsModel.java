@@ -0,0 +1,198 @@
+package com.project.recommendation_engine.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.project.recommendation_engine.model.Rating;
+
+// Latent factors learned by AlsTrainer: one `rank`-long vector per user and per movie, stored
+// row after row in two flat float[] (vector i starts at i * rank). A predicted score is the
+// global mean plus the dot product of the user's and the movie's vectors.
+// Immutable once trained.
+public final class AlsModel {
+
+    static final int MAGIC = 0x414C534D; // "ALSM"
+    // Bump on any change to the file layout; older files are then discarded, not misread
+    static final int FORMAT_VERSION = 1;
+
+    public static final AlsModel EMPTY = new AlsModel(0, 0, 0, new String[0], new float[0], new String[0], new float[0]);
+
+    private final int rank;
+    private final float lambda;
+    private final float mean;
+    private final String[] userIds;
+    private final Map<String, Integer> userIndex;
+    private final float[] userFactors;
+    private final String[] movieIds;
+    private final Map<String, Integer> movieIndex;
+    private final float[] itemFactors;
+
+    AlsModel(int rank, float lambda, float mean, String[] userIds, float[] userFactors,
+             String[] movieIds, float[] itemFactors) {
+        this.rank = rank;
+        this.lambda = lambda;
+        this.mean = mean;
+        this.userIds = userIds;
+        this.userIndex = indexOf(userIds);
+        this.userFactors = userFactors;
+        this.movieIds = movieIds;
+        this.movieIndex = indexOf(movieIds);
+        this.itemFactors = itemFactors;
+    }
+
+    private static Map<String, Integer> indexOf(String[] ids) {
+        Map<String, Integer> index = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            index.put(ids[i], i);
+        }
+        return index;
+    }
+
+    // Predicted score, or NaN if the user or the movie wasn't in the training data
+    public float predict(String userId, String movieId) {
+        Integer u = userIndex.get(userId);
+        Integer m = movieIndex.get(movieId);
+        if (u == null || m == null) {
+            return Float.NaN;
+        }
+        return mean + dot(userFactors, u * rank, itemFactors, m * rank, rank);
+    }
+
+    // A copy of the movie's vector, or null
+    public float[] itemVector(String movieId) {
+        Integer m = movieIndex.get(movieId);
+        return m != null ? Arrays.copyOfRange(itemFactors, m * rank, (m + 1) * rank) : null;
+    }
+
+    // A copy of the user's vector as trained, or null
+    public float[] userVector(String userId) {
+        Integer u = userIndex.get(userId);
+        return u != null ? Arrays.copyOfRange(userFactors, u * rank, (u + 1) * rank) : null;
+    }
+
+    // The vector a user would get from these ratings with the movie factors held fixed: the
+    // same least-squares step as training, so users who rated since training get a vector too.
+    // Null if none of the rated movies is known.
+    public float[] foldIn(List<Rating> ratings) {
+        if (ratings == null || rank == 0) {
+            return null;
+        }
+        double[] a = new double[rank * rank];
+        double[] b = new double[rank];
+        int known = 0;
+        for (Rating rating : ratings) {
+            Integer m = rating.getMovieId() != null ? movieIndex.get(rating.getMovieId()) : null;
+            if (m == null) {
+                continue;
+            }
+            AlsTrainer.accumulate(a, b, itemFactors, m * rank, (float) rating.getScore() - mean, rank);
+            known++;
+        }
+        if (known == 0) {
+            return null;
+        }
+        float[] vector = new float[rank];
+        AlsTrainer.solve(a, b, lambda * known, rank, vector, 0);
+        return vector;
+    }
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    public int rank() {
+        return rank;
+    }
+
+    public float mean() {
+        return mean;
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int movieCount() {
+        return movieIds.length;
+    }
+
+    public String movieId(int m) {
+        return movieIds[m];
+    }
+
+    // Shared, not copied: callers must not write to it
+    float[] itemFactors() {
+        return itemFactors;
+    }
+
+    // ---- Persistence ----
+
+    // The movie side only, which is all foldIn and itemVector need; a read model has no users.
+    //   header: magic, format version, rank, lambda, mean, movie count
+    //   movies: id, vector
+    //   CRC32 of everything before it
+    public void writeMovies(OutputStream out) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(rank);
+        data.writeFloat(lambda);
+        data.writeFloat(mean);
+        data.writeInt(movieIds.length);
+        for (int m = 0; m < movieIds.length; m++) {
+            data.writeUTF(movieIds[m]);
+            for (int i = 0; i < rank; i++) {
+                data.writeFloat(itemFactors[m * rank + i]);
+            }
+        }
+        data.flush();
+        new DataOutputStream(out).writeLong(crc.getValue());
+        out.flush();
+    }
+
+    public static AlsModel readMovies(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(new CheckedInputStream(in, crc));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an ALS model");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Model format " + version + ", expected " + FORMAT_VERSION);
+        }
+        int rank = data.readInt();
+        float lambda = data.readFloat();
+        float mean = data.readFloat();
+        int movies = data.readInt();
+        if (rank < 0 || movies < 0 || (long) rank * movies > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt model header");
+        }
+        String[] movieIds = new String[movies];
+        float[] itemFactors = new float[rank * movies];
+        for (int m = 0; m < movies; m++) {
+            movieIds[m] = data.readUTF();
+            for (int i = 0; i < rank; i++) {
+                itemFactors[m * rank + i] = data.readFloat();
+            }
+        }
+        if (new DataInputStream(in).readLong() != crc.getValue()) {
+            throw new IOException("Model checksum mismatch");
+        }
+        return new AlsModel(rank, lambda, mean, new String[0], new float[0], movieIds, itemFactors);
+    }
+}
@@ -0,0 +1,215 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Alternating least squares with weighted-lambda regularization over a RatingMatrix.
+// Each half-iteration holds one side's factors fixed and solves a rank x rank system per row
+// of the other side: (sum of y y^T + lambda * n * I) x = sum of (r - mean) y, by Cholesky.
+// Rows are independent, so they are solved in chunks on a ForkJoinPool, each chunk with its
+// own scratch; results don't depend on the number of threads.
+// Memory is the matrix (16 to 32 bytes per rating) plus rank floats per user and per movie.
+public final class AlsTrainer {
+
+    public record Config(int rank, int iterations, float lambda, long seed) {}
+
+    // One full iteration (users then movies). Throughput counts each rating once per iteration.
+    public record Iteration(int number, long millis, double ratingsPerSecond, double rmse) {}
+
+    public record Result(AlsModel model, List<Iteration> iterations, long ratings) {}
+
+    private static final int CHUNK = 512;
+
+    private AlsTrainer() {}
+
+    public static Result train(RatingMatrix matrix, Config config, ForkJoinPool pool, Consumer<Iteration> progress) {
+        int rank = config.rank();
+        int users = matrix.userCount();
+        int movies = matrix.movieCount();
+        long ratings = matrix.ratingCount();
+
+        double sum = 0;
+        for (int u = 0; u < users; u++) {
+            RatingMatrix.Row row = matrix.ratingsOfUser(u);
+            for (int i = 0; i < row.size(); i++) {
+                sum += row.score(i);
+            }
+        }
+        float mean = ratings > 0 ? (float) (sum / ratings) : 0;
+
+        float[] userFactors = new float[users * rank];
+        float[] itemFactors = new float[movies * rank];
+        Random random = new Random(config.seed());
+        for (int i = 0; i < itemFactors.length; i++) {
+            itemFactors[i] = (float) (random.nextGaussian() * 0.1);
+        }
+
+        List<Iteration> iterations = new ArrayList<>();
+        for (int number = 1; number <= config.iterations(); number++) {
+            long start = System.nanoTime();
+            solveAll(pool, users, matrix::ratingsOfUser, itemFactors, userFactors, rank, config.lambda(), mean);
+            solveAll(pool, movies, matrix::ratingsOfMovie, userFactors, itemFactors, rank, config.lambda(), mean);
+            long nanos = Math.max(1, System.nanoTime() - start);
+
+            Iteration iteration = new Iteration(number, nanos / 1_000_000, ratings * 1e9 / nanos,
+                    rmse(pool, matrix, userFactors, itemFactors, rank, mean));
+            iterations.add(iteration);
+            if (progress != null) {
+                progress.accept(iteration);
+            }
+        }
+
+        AlsModel model = new AlsModel(rank, config.lambda(), mean, userIds(matrix), userFactors,
+                matrix.movieIds(), itemFactors);
+        return new Result(model, List.copyOf(iterations), ratings);
+    }
+
+    private static String[] userIds(RatingMatrix matrix) {
+        String[] ids = new String[matrix.userCount()];
+        for (int u = 0; u < ids.length; u++) {
+            ids[u] = matrix.userId(u);
+        }
+        return ids;
+    }
+
+    // New factors for rows [0, count) of `target`, from their ratings against `fixed`
+    private static void solveAll(ForkJoinPool pool, int count, IntFunction<RatingMatrix.Row> rows,
+                                 float[] fixed, float[] target, int rank, float lambda, float mean) {
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < count; start += CHUNK) {
+            int from = start;
+            int to = Math.min(count, start + CHUNK);
+            chunks.add(() -> {
+                double[] a = new double[rank * rank];
+                double[] b = new double[rank];
+                for (int r = from; r < to; r++) {
+                    RatingMatrix.Row row = rows.apply(r);
+                    if (row.size() == 0) {
+                        Arrays.fill(target, r * rank, (r + 1) * rank, 0f);
+                        continue;
+                    }
+                    Arrays.fill(a, 0);
+                    Arrays.fill(b, 0);
+                    for (int i = 0; i < row.size(); i++) {
+                        accumulate(a, b, fixed, row.id(i) * rank, row.score(i) - mean, rank);
+                    }
+                    solve(a, b, lambda * row.size(), rank, target, r * rank);
+                }
+                return null;
+            });
+        }
+        await(pool.invokeAll(chunks));
+    }
+
+    // a += y y^T (upper triangle only), b += residual * y
+    static void accumulate(double[] a, double[] b, float[] factors, int offset, float residual, int rank) {
+        for (int i = 0; i < rank; i++) {
+            double yi = factors[offset + i];
+            b[i] += residual * yi;
+            int rowStart = i * rank;
+            for (int j = i; j < rank; j++) {
+                a[rowStart + j] += yi * factors[offset + j];
+            }
+        }
+    }
+
+    // Solves (a + regularization * I) x = b with a given as its upper triangle; a and b are
+    // overwritten. The system is positive definite whenever regularization > 0.
+    static void solve(double[] a, double[] b, double regularization, int rank, float[] out, int outOffset) {
+        for (int i = 0; i < rank; i++) {
+            a[i * rank + i] += regularization;
+            for (int j = 0; j < i; j++) {
+                a[i * rank + j] = a[j * rank + i];
+            }
+        }
+        // Cholesky: the lower triangle of a becomes L, with a = L L^T
+        for (int j = 0; j < rank; j++) {
+            double diagonal = a[j * rank + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * rank + k] * a[j * rank + k];
+            }
+            double ljj = Math.sqrt(Math.max(diagonal, 1e-12));
+            a[j * rank + j] = ljj;
+            for (int i = j + 1; i < rank; i++) {
+                double value = a[i * rank + j];
+                for (int k = 0; k < j; k++) {
+                    value -= a[i * rank + k] * a[j * rank + k];
+                }
+                a[i * rank + j] = value / ljj;
+            }
+        }
+        // L z = b, then L^T x = z, both in place in b
+        for (int i = 0; i < rank; i++) {
+            double value = b[i];
+            for (int k = 0; k < i; k++) {
+                value -= a[i * rank + k] * b[k];
+            }
+            b[i] = value / a[i * rank + i];
+        }
+        for (int i = rank - 1; i >= 0; i--) {
+            double value = b[i];
+            for (int k = i + 1; k < rank; k++) {
+                value -= a[k * rank + i] * b[k];
+            }
+            b[i] = value / a[i * rank + i];
+        }
+        for (int i = 0; i < rank; i++) {
+            out[outOffset + i] = (float) b[i];
+        }
+    }
+
+    // Root mean squared error over the training ratings
+    private static double rmse(ForkJoinPool pool, RatingMatrix matrix, float[] userFactors, float[] itemFactors,
+                               int rank, float mean) {
+        int users = matrix.userCount();
+        List<Callable<double[]>> chunks = new ArrayList<>();
+        for (int start = 0; start < users; start += CHUNK) {
+            int from = start;
+            int to = Math.min(users, start + CHUNK);
+            chunks.add(() -> {
+                double squared = 0;
+                long count = 0;
+                for (int u = from; u < to; u++) {
+                    RatingMatrix.Row row = matrix.ratingsOfUser(u);
+                    for (int i = 0; i < row.size(); i++) {
+                        double error = row.score(i) - mean
+                                - AlsModel.dot(userFactors, u * rank, itemFactors, row.id(i) * rank, rank);
+                        squared += error * error;
+                        count++;
+                    }
+                }
+                return new double[]{squared, count};
+            });
+        }
+        double squared = 0;
+        double count = 0;
+        for (double[] partial : await(pool.invokeAll(chunks))) {
+            squared += partial[0];
+            count += partial[1];
+        }
+        return count > 0 ? Math.sqrt(squared / count) : 0;
+    }
+
+    private static <T> List<T> await(List<Future<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ALS training interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ALS training failed", e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,194 @@
+package com.project.recommendation_engine.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.CachedMovie;
+import com.project.recommendation_engine.model.Movie;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Saves the hot caches (trending, in-memory movie details, genre pools, watch providers)
+// to one binary file, every few minutes and at shutdown, and loads it back while the
+// application context starts. The web server only starts after that, so the first requests
+// after a deploy are served warm instead of all going to TMDB at once.
+// An unreadable or incompatible file is deleted and the app starts cold. The shutdown write is
+// skipped when the startup load never finished or the caches hold less than it restored, so a
+// quick stop after a cold or failed start doesn't replace a good snapshot with a nearly empty one.
+@Component
+public class CacheSnapshot {
+
+    private final Path file;
+    private final boolean enabled;
+
+    private final TrendingCache trendingCache;
+    private final MovieDetailsCache movieDetailsCache;
+    private final GenrePoolCache genrePoolCache;
+    private final WatchProviderCache watchProviderCache;
+
+    private volatile long lastLoadMillis = -1;
+    private volatile int lastLoadedEntries;
+    private volatile long lastWriteMillis = -1;
+    private volatile long lastWriteBytes;
+    private volatile long readyAfterMillis = -1;
+    private volatile boolean startupLoadDone;
+
+    public CacheSnapshot(@Value("${cache.snapshot.file:${java.io.tmpdir}/movie-cache.snapshot}") String file,
+                         @Value("${cache.snapshot.enabled:true}") boolean enabled,
+                         TrendingCache trendingCache,
+                         MovieDetailsCache movieDetailsCache,
+                         GenrePoolCache genrePoolCache,
+                         WatchProviderCache watchProviderCache) {
+        this.file = Paths.get(file);
+        this.enabled = enabled;
+        this.trendingCache = trendingCache;
+        this.movieDetailsCache = movieDetailsCache;
+        this.genrePoolCache = genrePoolCache;
+        this.watchProviderCache = watchProviderCache;
+    }
+
+    @PostConstruct
+    public void loadOnStartup() {
+        if (enabled) {
+            load();
+            startupLoadDone = true;
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+        if (!startupLoadDone) {
+            System.out.println("[Snapshot] Startup load never finished, keeping " + file);
+            return;
+        }
+        int entries = entryCount();
+        if (entries < lastLoadedEntries) {
+            System.out.println("[Snapshot] Caches hold " + entries + " entries, fewer than the " + lastLoadedEntries
+                    + " restored at startup; keeping " + file);
+            return;
+        }
+        write();
+    }
+
+    // Counted the way load() counts what it restored
+    private int entryCount() {
+        return trendingCache.current().movies().size() + movieDetailsCache.memoryEntries().size()
+                + genrePoolCache.pools().size() + watchProviderCache.entries().size();
+    }
+
+    // Time from JVM start to ready, logged so starts with and without a snapshot can be compared
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordReady() {
+        readyAfterMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.println("[Snapshot] Application ready " + readyAfterMillis + "ms after JVM start ("
+                + (lastLoadMillis >= 0 ? lastLoadedEntries + " entries restored in " + lastLoadMillis + "ms"
+                        : "started cold") + ")");
+    }
+
+    // Number of entries restored, or -1 when there was no usable snapshot
+    public synchronized int load() {
+        long start = System.currentTimeMillis();
+        CacheSnapshotCodec.Contents contents;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            contents = CacheSnapshotCodec.read(in);
+        } catch (NoSuchFileException e) {
+            System.out.println("[Snapshot] No snapshot at " + file + ", starting cold");
+            return -1;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Snapshot] Discarding unusable snapshot " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Overwritten by the next write anyway
+            }
+            return -1;
+        }
+
+        int restored = 0;
+        if (trendingCache.restore(contents.trending(), contents.trendingRefreshedAt())) {
+            restored += contents.trending().size();
+        }
+        for (CachedMovie entry : contents.movies()) {
+            if (movieDetailsCache.restore(entry)) {
+                restored++;
+            }
+        }
+        contents.genrePools().forEach((genreId, pool) ->
+                genrePoolCache.restore(genreId, pool.movies(), pool.refreshedAt()));
+        restored += contents.genrePools().size();
+        contents.watchProviders().forEach(watchProviderCache::put);
+        restored += contents.watchProviders().size();
+
+        lastLoadMillis = System.currentTimeMillis() - start;
+        lastLoadedEntries = restored;
+        System.out.println("[Snapshot] Restored " + contents.trending().size() + " trending, "
+                + contents.movies().size() + " movies, " + contents.genrePools().size() + " genre pools and "
+                + contents.watchProviders().size() + " provider lists in " + lastLoadMillis + "ms");
+        return restored;
+    }
+
+    // Writes to a temp file and moves it over the old one, so a crash mid-write never leaves a torn snapshot
+    public synchronized void write() {
+        long start = System.currentTimeMillis();
+        TrendingCache.Snapshot trending = trendingCache.current();
+        Map<Integer, CacheSnapshotCodec.Pool> pools = new HashMap<>();
+        for (Map.Entry<Integer, List<Movie>> pool : genrePoolCache.pools().entrySet()) {
+            pools.put(pool.getKey(), new CacheSnapshotCodec.Pool(pool.getValue(),
+                    genrePoolCache.getRefreshedAt(pool.getKey())));
+        }
+        CacheSnapshotCodec.Contents contents = new CacheSnapshotCodec.Contents(
+                trending.movies(), trending.refreshedAt(),
+                movieDetailsCache.memoryEntries(), pools, watchProviderCache.entries());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                CacheSnapshotCodec.write(contents, out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastWriteBytes = Files.size(file);
+            lastWriteMillis = System.currentTimeMillis() - start;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Snapshot] Error writing " + file + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("file", file.toString());
+        stats.put("formatVersion", CacheSnapshotCodec.FORMAT_VERSION);
+        stats.put("lastLoadMillis", lastLoadMillis);
+        stats.put("lastLoadedEntries", lastLoadedEntries);
+        stats.put("lastWriteMillis", lastWriteMillis);
+        stats.put("lastWriteBytes", lastWriteBytes);
+        stats.put("readyAfterMillis", readyAfterMillis);
+        return stats;
+    }
+}
@@ -0,0 +1,324 @@
+package com.project.recommendation_engine.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.project.recommendation_engine.model.CachedMovie;
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.WatchProviders;
+
+// Binary format of the cache snapshot written by CacheSnapshot.
+//
+//   header: magic, format version, written-at, body length, CRC32 of the body
+//   body:   string table, then trending, movie details, genre pools and watch providers
+//
+// Every string (titles, plots, provider names, region codes...) is stored once in the table
+// and referenced by index, and counts and indices are varints, so the many repeated provider
+// names and genre strings cost a byte or two each. A file with another magic or format
+// version, a different length or a bad checksum is rejected as a whole.
+final class CacheSnapshotCodec {
+
+    static final int MAGIC = 0x4D524353; // "MRCS"
+
+    // Bump on any change to the layout below; older files are then discarded, not misread
+    static final int FORMAT_VERSION = 1;
+
+    record Pool(List<Movie> movies, long refreshedAt) {}
+
+    record Contents(List<TMDBResponse> trending, long trendingRefreshedAt,
+                    List<CachedMovie> movies,
+                    Map<Integer, Pool> genrePools,
+                    Map<Long, WatchProviders> watchProviders) {}
+
+    private CacheSnapshotCodec() {}
+
+    static void write(Contents contents, OutputStream out) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        writeVarint(body, contents.trending().size());
+        for (TMDBResponse movie : contents.trending()) {
+            writeMovie(body, strings, movie);
+        }
+        body.writeLong(contents.trendingRefreshedAt());
+
+        writeVarint(body, contents.movies().size());
+        for (CachedMovie entry : contents.movies()) {
+            body.writeLong(Long.parseLong(entry.getId()));
+            body.writeLong(entry.getFetchedAt());
+            writeMovie(body, strings, entry.getMovie());
+        }
+
+        writeVarint(body, contents.genrePools().size());
+        for (Map.Entry<Integer, Pool> pool : contents.genrePools().entrySet()) {
+            writeVarint(body, pool.getKey());
+            body.writeLong(pool.getValue().refreshedAt());
+            writeVarint(body, pool.getValue().movies().size());
+            for (Movie movie : pool.getValue().movies()) {
+                writeVarint(body, strings.index(movie.getId()));
+                writeVarint(body, strings.index(movie.getTitle()));
+                writeVarint(body, strings.index(movie.getPosterUrl()));
+            }
+        }
+
+        writeVarint(body, contents.watchProviders().size());
+        for (Map.Entry<Long, WatchProviders> entry : contents.watchProviders().entrySet()) {
+            body.writeLong(entry.getKey());
+            body.writeLong(entry.getValue().fetchedAt());
+            writeVarint(body, entry.getValue().regions().size());
+            for (Map.Entry<String, WatchProviders.Region> region : entry.getValue().regions().entrySet()) {
+                writeVarint(body, strings.index(region.getKey()));
+                writeRefs(body, strings, region.getValue().flatrate());
+                writeRefs(body, strings, region.getValue().rent());
+                writeRefs(body, strings, region.getValue().buy());
+            }
+        }
+        body.flush();
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(bodyBytes.size() + strings.size() * 16);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        writeVarint(payload, strings.size());
+        for (String value : strings.values()) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(payload, utf8.length);
+            payload.write(utf8);
+        }
+        bodyBytes.writeTo(payload);
+        payload.flush();
+
+        CRC32 crc = new CRC32();
+        byte[] bytes = payloadBytes.toByteArray();
+        crc.update(bytes);
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        header.writeLong(System.currentTimeMillis());
+        header.writeInt(bytes.length);
+        header.writeLong(crc.getValue());
+        header.write(bytes);
+        header.flush();
+    }
+
+    static Contents read(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Not a cache snapshot");
+        }
+        int version = header.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Snapshot format " + version + ", expected " + FORMAT_VERSION);
+        }
+        header.readLong(); // written at
+        int length = header.readInt();
+        long expectedCrc = header.readLong();
+        if (length < 0) {
+            throw new IOException("Corrupt snapshot length " + length);
+        }
+        byte[] bytes = header.readNBytes(length);
+        if (bytes.length != length) {
+            throw new IOException("Snapshot truncated at " + bytes.length + " of " + length + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+
+        DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes));
+        String[] strings = new String[readVarint(body) + 1];
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = new String(body.readNBytes(readVarint(body)), StandardCharsets.UTF_8);
+        }
+
+        int trendingCount = readVarint(body);
+        List<TMDBResponse> trending = new ArrayList<>(trendingCount);
+        for (int i = 0; i < trendingCount; i++) {
+            trending.add(readMovie(body, strings));
+        }
+        long trendingRefreshedAt = body.readLong();
+
+        int movieCount = readVarint(body);
+        List<CachedMovie> movies = new ArrayList<>(movieCount);
+        for (int i = 0; i < movieCount; i++) {
+            long tmdbId = body.readLong();
+            long fetchedAt = body.readLong();
+            movies.add(new CachedMovie(String.valueOf(tmdbId), readMovie(body, strings), fetchedAt));
+        }
+
+        int poolCount = readVarint(body);
+        Map<Integer, Pool> pools = new LinkedHashMap<>();
+        for (int i = 0; i < poolCount; i++) {
+            int genreId = readVarint(body);
+            long refreshedAt = body.readLong();
+            int size = readVarint(body);
+            List<Movie> pool = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                pool.add(new Movie(string(body, strings), string(body, strings), string(body, strings)));
+            }
+            pools.put(genreId, new Pool(pool, refreshedAt));
+        }
+
+        int providerCount = readVarint(body);
+        Map<Long, WatchProviders> providers = new LinkedHashMap<>();
+        for (int i = 0; i < providerCount; i++) {
+            long tmdbId = body.readLong();
+            long fetchedAt = body.readLong();
+            int regionCount = readVarint(body);
+            Map<String, WatchProviders.Region> regions = new HashMap<>();
+            for (int j = 0; j < regionCount; j++) {
+                String code = string(body, strings);
+                regions.put(code, new WatchProviders.Region(readRefs(body, strings), readRefs(body, strings),
+                        readRefs(body, strings)));
+            }
+            providers.put(tmdbId, new WatchProviders(regions, fetchedAt));
+        }
+
+        return new Contents(trending, trendingRefreshedAt, movies, pools, providers);
+    }
+
+    private static void writeMovie(DataOutputStream out, StringTable strings, TMDBResponse movie) throws IOException {
+        writeVarint(out, strings.index(movie.getTmdbID()));
+        writeVarint(out, strings.index(movie.getTitle()));
+        writeVarint(out, strings.index(movie.getYear()));
+        writeVarint(out, strings.index(movie.getGenre()));
+        writeVarint(out, strings.index(movie.getTmdbRating()));
+        writeVarint(out, strings.index(movie.getPoster()));
+        writeVarint(out, strings.index(movie.getPlot()));
+        writeVarint(out, strings.index(movie.getResponse()));
+        writeVarint(out, strings.index(movie.getDirector()));
+        writeVarint(out, strings.index(movie.getActors()));
+        writeVarint(out, strings.index(movie.getWatchLink()));
+        writeProviders(out, strings, movie.getFlatrateProviders());
+        writeProviders(out, strings, movie.getRentProviders());
+        writeProviders(out, strings, movie.getBuyProviders());
+    }
+
+    private static TMDBResponse readMovie(DataInputStream in, String[] strings) throws IOException {
+        TMDBResponse movie = new TMDBResponse();
+        movie.setTmdbID(string(in, strings));
+        movie.setTitle(string(in, strings));
+        movie.setYear(string(in, strings));
+        movie.setGenre(string(in, strings));
+        movie.setTmdbRating(string(in, strings));
+        movie.setPoster(string(in, strings));
+        movie.setPlot(string(in, strings));
+        movie.setResponse(string(in, strings));
+        movie.setDirector(string(in, strings));
+        movie.setActors(string(in, strings));
+        movie.setWatchLink(string(in, strings));
+        movie.setFlatrateProviders(readProviders(in, strings));
+        movie.setRentProviders(readProviders(in, strings));
+        movie.setBuyProviders(readProviders(in, strings));
+        return movie;
+    }
+
+    private static void writeProviders(DataOutputStream out, StringTable strings,
+                                       List<TMDBResponse.Provider> providers) throws IOException {
+        if (providers == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        writeVarint(out, providers.size());
+        for (TMDBResponse.Provider provider : providers) {
+            writeVarint(out, strings.index(provider.getName()));
+            writeVarint(out, strings.index(provider.getLogoUrl()));
+        }
+    }
+
+    private static List<TMDBResponse.Provider> readProviders(DataInputStream in, String[] strings) throws IOException {
+        int count = readVarint(in);
+        List<TMDBResponse.Provider> providers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            providers.add(new TMDBResponse.Provider(string(in, strings), string(in, strings)));
+        }
+        return providers;
+    }
+
+    private static void writeRefs(DataOutputStream out, StringTable strings,
+                                  List<MovieDetails.ProviderRef> refs) throws IOException {
+        writeVarint(out, refs.size());
+        for (MovieDetails.ProviderRef ref : refs) {
+            writeVarint(out, strings.index(ref.name()));
+            writeVarint(out, strings.index(ref.logoPath()));
+        }
+    }
+
+    private static List<MovieDetails.ProviderRef> readRefs(DataInputStream in, String[] strings) throws IOException {
+        int count = readVarint(in);
+        List<MovieDetails.ProviderRef> refs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            refs.add(new MovieDetails.ProviderRef(string(in, strings), string(in, strings)));
+        }
+        return refs;
+    }
+
+    private static String string(DataInputStream in, String[] strings) throws IOException {
+        int index = readVarint(in);
+        if (index >= strings.length) {
+            throw new IOException("String index " + index + " out of range");
+        }
+        return strings[index];
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit set on all but the last
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // Index 0 is null; strings are numbered from 1 in first-seen order
+    private static final class StringTable {
+        private final Map<String, Integer> indices = new LinkedHashMap<>();
+
+        int index(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer index = indices.get(value);
+            if (index == null) {
+                index = indices.size() + 1;
+                indices.put(value, index);
+            }
+            return index;
+        }
+
+        int size() {
+            return indices.size();
+        }
+
+        Iterable<String> values() {
+            return indices.keySet();
+        }
+    }
+}
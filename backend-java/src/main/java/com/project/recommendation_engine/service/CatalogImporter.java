@@ -0,0 +1,346 @@
+package com.project.recommendation_engine.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.project.recommendation_engine.model.CatalogMovie;
+import com.project.recommendation_engine.model.MovieDetails;
+
+// Imports TMDB files from a local directory into the catalog mirror (Mongo + in-memory index).
+// Both kinds of file are newline-delimited JSON, optionally gzipped:
+//   movie_ids_*.json.gz   TMDB daily export, one {"id","original_title","popularity","adult"} per line
+//   anything else         one /movie/{id}?append_to_response=credits,watch/providers body per line
+// Files are read line by line, never fully into memory. Each line is hashed and lines whose
+// hash matches the last import are skipped without being parsed, so re-imports only write
+// records that changed.
+@Component
+public class CatalogImporter {
+
+    private static final int BATCH_SIZE = 500;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final MongoTemplate mongoTemplate;
+    private final CatalogMirror catalogMirror;
+    private final double minPopularity;
+
+    // Size + modification time of files already imported, so untouched files aren't even read
+    private final Map<Path, String> importedFiles = new ConcurrentHashMap<>();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public CatalogImporter(MongoTemplate mongoTemplate,
+                           CatalogMirror catalogMirror,
+                           @Value("${tmdb.catalog.min-popularity:1.0}") double minPopularity) {
+        this.mongoTemplate = mongoTemplate;
+        this.catalogMirror = catalogMirror;
+        this.minPopularity = minPopularity;
+    }
+
+    public synchronized ImportResult importDirectory(Path directory) {
+        ImportResult result = new ImportResult();
+        long start = System.currentTimeMillis();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile)
+                    .filter(CatalogImporter::isCatalogFile)
+                    // Exports first, so detail files find their entries already indexed
+                    .sorted((a, b) -> Boolean.compare(!isExportFile(a), !isExportFile(b)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Error listing TMDB catalog directory " + directory + ": " + e.getMessage());
+            return result;
+        }
+
+        for (Path file : files) {
+            String stamp = fileStamp(file);
+            if (stamp != null && stamp.equals(importedFiles.get(file))) {
+                result.filesSkipped++;
+                continue;
+            }
+            try {
+                importFile(file, result);
+                if (stamp != null) {
+                    importedFiles.put(file, stamp);
+                }
+                result.files++;
+            } catch (Exception e) {
+                System.err.println("Error importing TMDB catalog file " + file + ": " + e.getMessage());
+                result.errors++;
+            }
+        }
+
+        if (result.written > 0) {
+            catalogMirror.rebuildGenreIndex();
+        }
+        result.millis = System.currentTimeMillis() - start;
+        lastRun = result.toMap();
+        System.out.println("[Catalog] Import finished: " + lastRun);
+        return result;
+    }
+
+    void importFile(Path file, ImportResult result) throws IOException {
+        boolean export = isExportFile(file);
+        List<Pair<Query, Update>> pendingWrites = new ArrayList<>(BATCH_SIZE);
+        List<CatalogMirror.Entry> pendingEntries = new ArrayList<>(BATCH_SIZE);
+
+        try (BufferedReader reader = open(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.lines++;
+                try {
+                    boolean changed = export
+                            ? importExportLine(line, pendingWrites, pendingEntries, result)
+                            : importDetailLine(line, pendingWrites, pendingEntries, result);
+                    if (!changed) {
+                        continue;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    result.errors++;
+                    continue;
+                }
+                if (pendingWrites.size() >= BATCH_SIZE) {
+                    flush(pendingWrites, pendingEntries, result);
+                }
+            }
+        }
+        flush(pendingWrites, pendingEntries, result);
+    }
+
+    private boolean importExportLine(String line, List<Pair<Query, Update>> writes,
+                                     List<CatalogMirror.Entry> entries, ImportResult result) throws IOException {
+        long hash = contentHash(line);
+        ExportRecord record = parseExportLine(line);
+        if (record.id <= 0) {
+            result.errors++;
+            return false;
+        }
+
+        CatalogMirror.Entry current = catalogMirror.get(record.id);
+        if (current == null && record.popularity < minPopularity) {
+            // Long tail of the export, not worth an index entry
+            result.filtered++;
+            return false;
+        }
+        if (current != null && current.exportHash() == hash) {
+            result.unchanged++;
+            return false;
+        }
+
+        Update update = new Update()
+                .set("popularity", record.popularity)
+                .set("adult", record.adult)
+                .set("exportHash", hash)
+                .set("updatedAt", System.currentTimeMillis())
+                // The export only has the original title; detail files supply the real one
+                .setOnInsert("title", record.originalTitle);
+        writes.add(Pair.of(byId(record.id), update));
+
+        entries.add(current != null
+                ? new CatalogMirror.Entry(record.id, current.title(), current.posterPath(), current.voteCount(),
+                        record.popularity, record.adult, current.genreIds(), hash, current.detailsHash())
+                : new CatalogMirror.Entry(record.id, record.originalTitle, null, 0,
+                        record.popularity, record.adult, new int[0], hash, 0));
+        return true;
+    }
+
+    private boolean importDetailLine(String line, List<Pair<Query, Update>> writes,
+                                     List<CatalogMirror.Entry> entries, ImportResult result) throws IOException {
+        long hash = contentHash(line);
+        long tmdbId = readTopLevelId(line);
+        if (tmdbId <= 0) {
+            result.errors++;
+            return false;
+        }
+
+        CatalogMirror.Entry current = catalogMirror.get(tmdbId);
+        if (current != null && current.detailsHash() == hash) {
+            result.unchanged++;
+            return false;
+        }
+
+        MovieDetails details = TmdbMovieDetailsParser.parse(line, TMDBService.WATCH_REGION);
+        int voteCount = details.voteCount() != null ? details.voteCount() : 0;
+        double popularity = details.popularity() != null ? details.popularity()
+                : current != null ? current.popularity() : 0;
+
+        Update update = new Update()
+                .set("title", details.title())
+                .set("posterPath", details.posterPath())
+                .set("voteCount", voteCount)
+                .set("popularity", popularity)
+                .set("genreIds", details.genreIds())
+                .set("details", details)
+                .set("detailsHash", hash)
+                .set("updatedAt", System.currentTimeMillis());
+        writes.add(Pair.of(byId(tmdbId), update));
+
+        entries.add(new CatalogMirror.Entry(tmdbId, details.title(), details.posterPath(), voteCount, popularity,
+                current != null && current.adult(),
+                details.genreIds().stream().mapToInt(Integer::intValue).toArray(),
+                current != null ? current.exportHash() : 0, hash));
+        return true;
+    }
+
+    // Writes a batch as unordered upserts, then publishes it to the in-memory index
+    private void flush(List<Pair<Query, Update>> writes, List<CatalogMirror.Entry> entries, ImportResult result) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CatalogMovie.class);
+        for (Pair<Query, Update> write : writes) {
+            bulk.upsert(write.getFirst(), write.getSecond());
+        }
+        bulk.execute();
+
+        entries.forEach(catalogMirror::put);
+        result.written += writes.size();
+        writes.clear();
+        entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        return lastRun;
+    }
+
+    private static Query byId(long tmdbId) {
+        return Query.query(Criteria.where("_id").is(String.valueOf(tmdbId)));
+    }
+
+    private static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static boolean isCatalogFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".json") || name.endsWith(".json.gz")
+                || name.endsWith(".ndjson") || name.endsWith(".ndjson.gz");
+    }
+
+    private static boolean isExportFile(Path file) {
+        return file.getFileName().toString().startsWith("movie_ids");
+    }
+
+    private static String fileStamp(Path file) {
+        try {
+            return Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // 64-bit FNV-1a over the raw line. Never 0, since 0 means "not imported yet".
+    static long contentHash(String line) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash ^= line.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // Reads tokens only until the top-level "id", which TMDB puts near the start
+    private static long readTopLevelId(String line) throws IOException {
+        try (JsonParser p = JSON.createParser(line)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("id".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    return p.getLongValue();
+                }
+                p.skipChildren();
+            }
+            return -1;
+        }
+    }
+
+    private static ExportRecord parseExportLine(String line) throws IOException {
+        ExportRecord record = new ExportRecord();
+        try (JsonParser p = JSON.createParser(line)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return record;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "id" -> record.id = p.getValueAsLong();
+                    case "original_title" -> record.originalTitle = p.getValueAsString();
+                    case "popularity" -> record.popularity = value == JsonToken.VALUE_NULL ? 0 : p.getValueAsDouble();
+                    case "adult" -> record.adult = p.getValueAsBoolean();
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        return record;
+    }
+
+    private static final class ExportRecord {
+        long id;
+        String originalTitle;
+        double popularity;
+        boolean adult;
+    }
+
+    public static final class ImportResult {
+        int files;
+        int filesSkipped;
+        long lines;
+        long written;
+        long unchanged;
+        long filtered;
+        long errors;
+        long millis;
+
+        public long getWritten() { return written; }
+        public long getUnchanged() { return unchanged; }
+        public long getErrors() { return errors; }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("files", files);
+            map.put("filesSkipped", filesSkipped);
+            map.put("lines", lines);
+            map.put("written", written);
+            map.put("unchanged", unchanged);
+            map.put("filtered", filtered);
+            map.put("errors", errors);
+            map.put("millis", millis);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.CatalogMovie;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.repository.CatalogMovieRepository;
+
+// Local mirror of the TMDB catalog, filled by CatalogImporter from files on disk.
+// The in-memory index holds a small entry per movie plus, per genre, the IDs ranked by
+// vote count, so id lookups and genre queries can be answered without calling TMDB.
+// Full details stay in Mongo ("tmdb_catalog") and are read only on a lookup.
+@Component
+public class CatalogMirror {
+
+    // Kept small on purpose: one of these per catalog movie
+    public record Entry(long id, String title, String posterPath, int voteCount, double popularity,
+                        boolean adult, int[] genreIds, long exportHash, long detailsHash) {
+
+        public boolean hasDetails() {
+            return detailsHash != 0;
+        }
+    }
+
+    private final CatalogMovieRepository catalogMovieRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Map<Integer, long[]> rankedByGenre = Map.of();
+    private volatile boolean loaded;
+
+    private final LongAdder detailHits = new LongAdder();
+    private final LongAdder detailMisses = new LongAdder();
+    private final LongAdder discoverHits = new LongAdder();
+    private final LongAdder discoverMisses = new LongAdder();
+
+    public CatalogMirror(CatalogMovieRepository catalogMovieRepository) {
+        this.catalogMovieRepository = catalogMovieRepository;
+    }
+
+    // Rebuilds the index from Mongo, e.g. after a restart. Streams with a cursor and skips the details blob.
+    public void loadFromMongo() {
+        long start = System.currentTimeMillis();
+        try (Stream<CatalogMovie> stored = catalogMovieRepository.streamAllBy()) {
+            stored.forEach(movie -> put(toEntry(movie)));
+        } catch (Exception e) {
+            System.err.println("Error loading TMDB catalog from Mongo: " + e.getMessage());
+        }
+        rebuildGenreIndex();
+        loaded = true;
+        System.out.println("[Catalog] Loaded " + entries.size() + " movies from Mongo in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Entry get(long tmdbId) {
+        return entries.get(tmdbId);
+    }
+
+    public void forEach(Consumer<Entry> action) {
+        entries.values().forEach(action);
+    }
+
+    void put(Entry entry) {
+        entries.put(entry.id(), entry);
+    }
+
+    // Details for a mirrored movie, or null when TMDB has to be asked
+    public MovieDetails findDetails(long tmdbId) {
+        Entry entry = entries.get(tmdbId);
+        if (entry == null || !entry.hasDetails()) {
+            detailMisses.increment();
+            return null;
+        }
+        try {
+            MovieDetails details = catalogMovieRepository.findById(String.valueOf(tmdbId))
+                    .map(CatalogMovie::getDetails)
+                    .orElse(null);
+            if (details != null) {
+                detailHits.increment();
+                return details;
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading movie " + tmdbId + " from catalog: " + e.getMessage());
+        }
+        detailMisses.increment();
+        return null;
+    }
+
+    // Same idea as /discover/movie?with_genres=..&sort_by=vote_count.desc&vote_count.gte=..
+    public List<Entry> discover(int genreId, int minVoteCount, int limit) {
+        long[] ranked = rankedByGenre.get(genreId);
+        List<Entry> result = new ArrayList<>();
+        if (ranked != null) {
+            for (long tmdbId : ranked) {
+                Entry entry = entries.get(tmdbId);
+                if (entry == null || entry.adult()) {
+                    continue;
+                }
+                // Ranked by vote count, nothing after this one qualifies
+                if (entry.voteCount() < minVoteCount || result.size() >= limit) {
+                    break;
+                }
+                result.add(entry);
+            }
+        }
+        (result.isEmpty() ? discoverMisses : discoverHits).increment();
+        return result;
+    }
+
+    // Called after an import changed the catalog
+    public void rebuildGenreIndex() {
+        Map<Integer, List<Entry>> byGenre = new HashMap<>();
+        for (Entry entry : entries.values()) {
+            if (!entry.hasDetails()) {
+                continue;
+            }
+            for (int genreId : entry.genreIds()) {
+                byGenre.computeIfAbsent(genreId, id -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        Map<Integer, long[]> ranked = new HashMap<>();
+        byGenre.forEach((genreId, movies) -> {
+            movies.sort(Comparator.comparingInt(Entry::voteCount).reversed());
+            ranked.put(genreId, movies.stream().mapToLong(Entry::id).toArray());
+        });
+        rankedByGenre = ranked;
+    }
+
+    public Map<String, Object> getStats() {
+        long detailed = entries.values().stream().filter(Entry::hasDetails).count();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("movies", entries.size());
+        stats.put("withDetails", detailed);
+        stats.put("genres", rankedByGenre.size());
+        stats.put("detailHits", detailHits.sum());
+        stats.put("detailMisses", detailMisses.sum());
+        stats.put("discoverHits", discoverHits.sum());
+        stats.put("discoverMisses", discoverMisses.sum());
+        return stats;
+    }
+
+    static Entry toEntry(CatalogMovie movie) {
+        int[] genreIds = movie.getGenreIds() != null
+                ? movie.getGenreIds().stream().mapToInt(Integer::intValue).toArray()
+                : new int[0];
+        return new Entry(Long.parseLong(movie.getId()), movie.getTitle(), movie.getPosterPath(),
+                movie.getVoteCount(), movie.getPopularity(), movie.isAdult(), genreIds,
+                movie.getExportHash(), movie.getDetailsHash());
+    }
+}
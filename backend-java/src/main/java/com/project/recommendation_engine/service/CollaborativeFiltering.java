@@ -0,0 +1,239 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.CollaborativeBucket;
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.repository.CollaborativeBucketRepository;
+import com.project.recommendation_engine.repository.UserRepository;
+
+// User-user collaborative filtering for the Python agent. Keeps a MovieLikersIndex over every
+// user's ratings and publishes each user's neighbors and candidate movies (plus the item-item
+// matches from ItemSimilarity) to the collaborative_candidates collection, so data_tools reads
+// one document per user instead of comparing the user with every profile in the users collection.
+// Between rebuilds, update() folds each new rating into the index (see IncrementalRecommender).
+@Component
+public class CollaborativeFiltering {
+
+    private final UserRepository userRepository;
+    private final CollaborativeBucketRepository bucketRepository;
+    private final ItemSimilarity itemSimilarity;
+    private final double likeThreshold;
+    private final int neighborCount;
+    private final int candidateCount;
+
+    private volatile MovieLikersIndex index = MovieLikersIndex.EMPTY;
+    private volatile long lastRebuildMillis = -1;
+    private volatile long builtAt;
+
+    // Guarded by this. Users updated while a rebuild reads the users collection, replayed on the
+    // new index in case the read missed their rating. Rebuilds themselves take rebuildLock first.
+    private final Object rebuildLock = new Object();
+    private boolean rebuilding;
+    private final Map<String, List<Rating>> missedDuringRebuild = new LinkedHashMap<>();
+
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder skippedUpdates = new LongAdder();
+    private final LongAdder updateNanos = new LongAdder();
+
+    public CollaborativeFiltering(UserRepository userRepository,
+                                  CollaborativeBucketRepository bucketRepository,
+                                  ItemSimilarity itemSimilarity,
+                                  @Value("${collab.like-threshold:4}") double likeThreshold,
+                                  @Value("${collab.neighbors:20}") int neighborCount,
+                                  @Value("${collab.candidates:30}") int candidateCount) {
+        this.userRepository = userRepository;
+        this.bucketRepository = bucketRepository;
+        this.itemSimilarity = itemSimilarity;
+        this.likeThreshold = likeThreshold;
+        this.neighborCount = neighborCount;
+        this.candidateCount = candidateCount;
+    }
+
+    // Streams every user's ratings once (only movieRatings is read, not the whole profile)
+    // and swaps in a new index; queries keep using the old one meanwhile
+    public MovieLikersIndex rebuild() {
+        synchronized (rebuildLock) {
+            trackMissedUpdates(true);
+            try (Stream<User> users = userRepository.streamRatingsBy()) {
+                return rebuild(users::iterator);
+            } finally {
+                trackMissedUpdates(false);
+            }
+        }
+    }
+
+    // Caller holds rebuildLock and tracks missed updates from before reading `users`
+    private MovieLikersIndex rebuild(Iterable<User> users) {
+        long start = System.currentTimeMillis();
+        MovieLikersIndex next = MovieLikersIndex.build(users, likeThreshold);
+        synchronized (this) {
+            for (Map.Entry<String, List<Rating>> missed : missedDuringRebuild.entrySet()) {
+                next = next.withUser(missed.getKey(), missed.getValue());
+            }
+            index = next;
+        }
+        builtAt = System.currentTimeMillis();
+        lastRebuildMillis = builtAt - start;
+        rebuilds.increment();
+        System.out.println("[Collaborative] Indexed " + next.likeCount() + " likes from " + next.userCount()
+                + " users over " + next.movieCount() + " movies in " + lastRebuildMillis + "ms");
+        return next;
+    }
+
+    private synchronized void trackMissedUpdates(boolean tracking) {
+        rebuilding = tracking;
+        missedDuringRebuild.clear();
+    }
+
+    // The index, built on first use
+    public MovieLikersIndex index() {
+        MovieLikersIndex current = index;
+        if (current == MovieLikersIndex.EMPTY && rebuilds.sum() == 0) {
+            synchronized (rebuildLock) {
+                if (rebuilds.sum() == 0) {
+                    return rebuild();
+                }
+            }
+            return index;
+        }
+        return current;
+    }
+
+    // Replaces the user's likes in the index with their current ratings, so their own
+    // neighbors and everyone else's neighborhoods reflect a rating before the next rebuild.
+    // Skipped until the first rebuild, which reads the rating from the users collection anyway.
+    public void update(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Rating> ratings = user.getMovieRatings() != null ? List.copyOf(user.getMovieRatings()) : List.of();
+        synchronized (this) {
+            if (rebuilding) {
+                missedDuringRebuild.put(user.getId(), ratings);
+            }
+            if (index == MovieLikersIndex.EMPTY) {
+                skippedUpdates.increment();
+                return;
+            }
+            index = index.withUser(user.getId(), ratings);
+        }
+        updateNanos.add(System.nanoTime() - start);
+        updates.increment();
+    }
+
+    // Bucket for one user, from their current ratings against the last index
+    public CollaborativeBucket compute(User user) {
+        MovieLikersIndex current = index();
+        List<CollaborativeBucket.Neighbor> neighbors = new ArrayList<>();
+        for (MovieLikersIndex.Neighbor n : current.neighbors(user.getId(), user.getMovieRatings(), neighborCount)) {
+            neighbors.add(new CollaborativeBucket.Neighbor(n.userId(), n.overlap(), n.similarity()));
+        }
+        List<CollaborativeBucket.Candidate> candidates = new ArrayList<>();
+        for (MovieLikersIndex.Candidate c : current.candidates(user.getId(), user.getMovieRatings(),
+                neighborCount, candidateCount)) {
+            candidates.add(new CollaborativeBucket.Candidate(c.movieId(), c.score(), c.supporters()));
+        }
+        CollaborativeBucket bucket = new CollaborativeBucket(user.getId(), neighbors, candidates, System.currentTimeMillis());
+        List<CollaborativeBucket.Candidate> similarItems = new ArrayList<>();
+        for (ItemSimilarityModel.Scored scored : itemSimilarity.recommend(user.getMovieRatings(), candidateCount)) {
+            similarItems.add(new CollaborativeBucket.Candidate(scored.movieId(), scored.score(), 0));
+        }
+        bucket.setSimilarItems(similarItems);
+        return bucket;
+    }
+
+    // Recomputes and saves one user's bucket; called right before the agent runs for them
+    public Optional<CollaborativeBucket> publish(String userId) {
+        try {
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                return Optional.empty();
+            }
+            return publish(user.get());
+        } catch (RuntimeException e) {
+            failed.increment();
+            System.err.println("[Collaborative] Could not publish bucket for " + userId + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Same, for a user already loaded
+    public Optional<CollaborativeBucket> publish(User user) {
+        try {
+            CollaborativeBucket bucket = bucketRepository.save(compute(user));
+            published.increment();
+            return Optional.of(bucket);
+        } catch (RuntimeException e) {
+            // The agent falls back to scanning profiles when there is no bucket
+            failed.increment();
+            System.err.println("[Collaborative] Could not publish bucket for " + user.getId() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Rebuilds the index and saves a bucket for every user, ahead of the full batch. Buckets
+    // only need ids and ratings, so the projected users are kept rather than full documents.
+    public int publishAll() {
+        long start = System.currentTimeMillis();
+        List<User> users;
+        synchronized (rebuildLock) {
+            trackMissedUpdates(true);
+            try (Stream<User> projected = userRepository.streamRatingsBy()) {
+                users = projected.toList();
+                rebuild(users);
+            } finally {
+                trackMissedUpdates(false);
+            }
+        }
+        int count = 0;
+        for (User user : users) {
+            if (user.getId() == null) {
+                continue;
+            }
+            try {
+                bucketRepository.save(compute(user));
+                published.increment();
+                count++;
+            } catch (RuntimeException e) {
+                failed.increment();
+                System.err.println("[Collaborative] Could not publish bucket for " + user.getId() + ": " + e.getMessage());
+            }
+        }
+        System.out.println("[Collaborative] Published " + count + " buckets in "
+                + (System.currentTimeMillis() - start) + "ms");
+        return count;
+    }
+
+    public Map<String, Object> getStats() {
+        MovieLikersIndex current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", current.userCount());
+        stats.put("movies", current.movieCount());
+        stats.put("likes", current.likeCount());
+        stats.put("builtAt", builtAt);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("published", published.sum());
+        stats.put("failed", failed.sum());
+        long updateCount = updates.sum();
+        stats.put("updates", updateCount);
+        stats.put("skippedUpdates", skippedUpdates.sum());
+        stats.put("avgUpdateMicros", updateCount > 0 ? updateNanos.sum() / 1000.0 / updateCount : 0.0);
+        return stats;
+    }
+}
@@ -0,0 +1,138 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.GenrePool;
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.repository.GenrePoolRepository;
+
+// In-memory pools of top movies per genre, filled by GenrePoolScheduler and mirrored to Mongo.
+// Slates are sampled from here, so loading the rating form doesn't touch the network.
+@Component
+public class GenrePoolCache {
+
+    private final GenrePoolRepository genrePoolRepository;
+
+    // Pools are replaced whole, never modified, so readers can sample without locking
+    private final Map<Integer, List<Movie>> pools = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> refreshedAt = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private final LongAdder slatesServed = new LongAdder();
+    private final LongAdder slatesMissed = new LongAdder();
+
+    public GenrePoolCache(GenrePoolRepository genrePoolRepository) {
+        this.genrePoolRepository = genrePoolRepository;
+    }
+
+    public void loadFromMongo() {
+        try {
+            for (GenrePool pool : genrePoolRepository.findAll()) {
+                int genreId = Integer.parseInt(pool.getId());
+                // A pool restored from the startup snapshot may be newer than Mongo's
+                if (pool.getMovies() != null && !pool.getMovies().isEmpty()
+                        && pool.getRefreshedAt() >= getRefreshedAt(genreId)) {
+                    pools.put(genreId, List.copyOf(pool.getMovies()));
+                    refreshedAt.put(genreId, pool.getRefreshedAt());
+                }
+            }
+            System.out.println("[GenrePools] Loaded " + pools.size() + " genre pools from Mongo");
+        } catch (Exception e) {
+            System.err.println("Error loading genre pools from Mongo: " + e.getMessage());
+        }
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean has(int genreId) {
+        return pools.containsKey(genreId);
+    }
+
+    // 0 when the genre was never filled
+    public long getRefreshedAt(int genreId) {
+        return refreshedAt.getOrDefault(genreId, 0L);
+    }
+
+    public void replace(int genreId, List<Movie> movies) {
+        if (movies == null || movies.isEmpty()) {
+            // Keep serving the previous pool rather than an empty slate
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Movie> pool = List.copyOf(movies);
+        pools.put(genreId, pool);
+        refreshedAt.put(genreId, now);
+        try {
+            genrePoolRepository.save(new GenrePool(genreId, pool, now));
+        } catch (Exception e) {
+            System.err.println("Error saving genre pool " + genreId + ": " + e.getMessage());
+        }
+    }
+
+    // Pools as they are now, for CacheSnapshot
+    public Map<Integer, List<Movie>> pools() {
+        return Map.copyOf(pools);
+    }
+
+    // Puts a pool from a snapshot back in memory unless a newer one is already there
+    public void restore(int genreId, List<Movie> movies, long poolRefreshedAt) {
+        if (movies.isEmpty() || poolRefreshedAt <= getRefreshedAt(genreId)) {
+            return;
+        }
+        pools.put(genreId, List.copyOf(movies));
+        refreshedAt.put(genreId, poolRefreshedAt);
+    }
+
+    // Up to `count` random movies of the genre that aren't in `shown`; the picks are added to `shown`
+    // so the next genre's slate doesn't repeat them
+    public List<Movie> sample(int genreId, int count, Set<String> shown) {
+        List<Movie> pool = pools.get(genreId);
+        if (pool == null) {
+            slatesMissed.increment();
+            return new ArrayList<>();
+        }
+        slatesServed.increment();
+
+        // Partial Fisher-Yates over the indices: only as many swaps as picks
+        int[] order = new int[pool.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Movie> slate = new ArrayList<>(count);
+        for (int i = 0; i < order.length && slate.size() < count; i++) {
+            int j = i + random.nextInt(order.length - i);
+            int pick = order[j];
+            order[j] = order[i];
+            order[i] = pick;
+
+            Movie movie = pool.get(pick);
+            if (shown.add(movie.getId())) {
+                slate.add(movie);
+            }
+        }
+        return slate;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("genres", pools.size());
+        stats.put("movies", pools.values().stream().mapToInt(List::size).sum());
+        stats.put("slatesServed", slatesServed.sum());
+        stats.put("slatesMissed", slatesMissed.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,709 @@
+package com.project.recommendation_engine.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Hierarchical navigable small world graph over float vectors, scored by inner product (or
+// cosine, with `normalize`). Nodes are numbered in insertion order and everything per node
+// lives in primitive arrays: vectors back to back in one float[], level-0 links in one int[]
+// (count, then up to 2M neighbors), and a small int[] per node for the rare upper levels.
+//
+// One writer at a time (insert/delete are synchronized); searches never lock. A node becomes
+// visible to searches only once it is fully linked: `size` is published after the links, and
+// searches ignore any neighbor number at or above the size they started with. Deletes are
+// tombstones: the node still routes searches but is never returned.
+public final class HnswIndex {
+
+    public record Hit(String key, float similarity) {}
+
+    static final int MAGIC = 0x484E5357; // "HNSW"
+
+    // Bump on any change to the file layout; older files are then discarded, not misread
+    static final int FORMAT_VERSION = 1;
+
+    private static final long NO_ENTRY = -1;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final boolean normalize;
+    private final double levelFactor;
+    private final Random random;
+
+    // Replaced (never resized in place) when the capacity grows
+    private volatile float[] vectors;
+    private volatile int[] links0;
+    private volatile int[][] upperLinks;
+    private volatile String[] keys;
+    private volatile boolean[] deleted;
+
+    private final Map<String, Integer> nodeByKey = new ConcurrentHashMap<>();
+    private volatile int size;
+    private volatile long entry = NO_ENTRY; // level << 32 | node
+    private int deletedCount;
+
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    public HnswIndex(int dimension, int m, int efConstruction, boolean normalize, long seed) {
+        this(dimension, m, efConstruction, normalize, seed, 16);
+    }
+
+    private HnswIndex(int dimension, int m, int efConstruction, boolean normalize, long seed, int capacity) {
+        if (dimension <= 0 || m < 2) {
+            throw new IllegalArgumentException("dimension must be > 0 and m >= 2");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.normalize = normalize;
+        this.levelFactor = 1 / Math.log(m);
+        this.random = new Random(seed);
+        this.vectors = new float[capacity * dimension];
+        this.links0 = new int[capacity * (maxM0 + 1)];
+        this.upperLinks = new int[capacity][];
+        this.keys = new String[capacity];
+        this.deleted = new boolean[capacity];
+    }
+
+    // Adds `key`, replacing (deleting) any previous vector stored under it
+    public synchronized void insert(String key, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " dimensions, got " + vector.length);
+        }
+        Integer previous = nodeByKey.get(key);
+        if (previous != null) {
+            markDeleted(previous);
+        }
+
+        int node = size;
+        ensureCapacity(node + 1);
+        float[] vectorsNow = vectors;
+        System.arraycopy(vector, 0, vectorsNow, node * dimension, dimension);
+        if (normalize) {
+            normalizeInPlace(vectorsNow, node * dimension, dimension);
+        }
+        keys[node] = key;
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelFactor);
+        upperLinks[node] = level > 0 ? new int[level * (m + 1)] : null;
+
+        long currentEntry = entry;
+        if (currentEntry == NO_ENTRY) {
+            publish(node, key);
+            entry = pack(level, node);
+            return;
+        }
+
+        Scratch s = borrow(node);
+        try {
+            int entryLevel = (int) (currentEntry >>> 32);
+            int current = (int) currentEntry;
+            for (int lc = entryLevel; lc > level; lc--) {
+                current = greedyClosest(vectorsNow, vectorsNow, node * dimension, current, lc, node);
+            }
+            for (int lc = Math.min(level, entryLevel); lc >= 0; lc--) {
+                int found = searchLayer(s, vectorsNow, vectorsNow, node * dimension, current, efConstruction, lc, node, false);
+                int[] candidates = Arrays.copyOf(s.resultIds, found);
+                float[] similarities = Arrays.copyOf(s.resultSimilarities, found);
+                int selected = selectNeighbors(vectorsNow, candidates, similarities, found, m);
+                setLinks(node, lc, candidates, selected);
+                for (int i = 0; i < selected; i++) {
+                    addLink(candidates[i], lc, node, similarities[i]);
+                }
+                current = candidates[0];
+            }
+        } finally {
+            scratchPool.offer(s);
+        }
+
+        publish(node, key);
+        if (level > (int) (currentEntry >>> 32)) {
+            entry = pack(level, node);
+        }
+    }
+
+    private void publish(int node, String key) {
+        size = node + 1;
+        nodeByKey.put(key, node);
+    }
+
+    // True if `key` was present
+    public synchronized boolean delete(String key) {
+        Integer node = nodeByKey.get(key);
+        if (node == null) {
+            return false;
+        }
+        markDeleted(node);
+        return true;
+    }
+
+    private void markDeleted(int node) {
+        deleted[node] = true;
+        deletedCount++;
+        nodeByKey.remove(keys[node]);
+    }
+
+    // The `k` most similar live vectors; ef (>= k) trades speed for recall
+    public List<Hit> search(float[] query, int k, int ef) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " dimensions, got " + query.length);
+        }
+        long currentEntry = entry;
+        int count = size;
+        if (currentEntry == NO_ENTRY || k <= 0) {
+            return List.of();
+        }
+        float[] vectorsNow = vectors;
+        float[] q = query;
+        if (normalize) {
+            q = Arrays.copyOf(query, dimension);
+            normalizeInPlace(q, 0, dimension);
+        }
+        Scratch s = borrow(count);
+        try {
+            int current = (int) currentEntry;
+            for (int lc = (int) (currentEntry >>> 32); lc > 0; lc--) {
+                current = greedyClosest(vectorsNow, q, 0, current, lc, count);
+            }
+            int found = searchLayer(s, vectorsNow, q, 0, current, Math.max(ef, k), 0, count, true);
+            int size = Math.min(k, found);
+            List<Hit> hits = new ArrayList<>(size);
+            String[] keysNow = keys;
+            for (int i = 0; i < size; i++) {
+                hits.add(new Hit(keysNow[s.resultIds[i]], s.resultSimilarities[i]));
+            }
+            return hits;
+        } finally {
+            scratchPool.offer(s);
+        }
+    }
+
+    // Exact top-k by scanning every live vector, for measuring recall
+    List<Hit> bruteForce(float[] query, int k) {
+        int count = size;
+        float[] vectorsNow = vectors;
+        float[] q = normalize ? Arrays.copyOf(query, dimension) : query;
+        if (normalize) {
+            normalizeInPlace(q, 0, dimension);
+        }
+        Heap best = new Heap(false, k + 1);
+        for (int node = 0; node < count; node++) {
+            if (deleted[node]) {
+                continue;
+            }
+            best.push(dot(vectorsNow, node * dimension, q, 0, dimension), node);
+            if (best.size > k) {
+                best.pop();
+            }
+        }
+        Hit[] hits = new Hit[best.size];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            float similarity = best.peekKey();
+            hits[i] = new Hit(keys[best.pop()], similarity);
+        }
+        return List.of(hits);
+    }
+
+    // A copy of the stored (possibly normalized) vector, or null
+    public float[] vector(String key) {
+        Integer node = nodeByKey.get(key);
+        if (node == null) {
+            return null;
+        }
+        return Arrays.copyOfRange(vectors, node * dimension, (node + 1) * dimension);
+    }
+
+    public boolean contains(String key) {
+        return nodeByKey.containsKey(key);
+    }
+
+    // Live (not deleted) vectors
+    public int size() {
+        return nodeByKey.size();
+    }
+
+    public synchronized int deletedCount() {
+        return deletedCount;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int maxLevel() {
+        long currentEntry = entry;
+        return currentEntry == NO_ENTRY ? -1 : (int) (currentEntry >>> 32);
+    }
+
+    // ---- Graph construction (writer only) ----
+
+    private void ensureCapacity(int needed) {
+        int capacity = keys.length;
+        if (needed <= capacity) {
+            return;
+        }
+        int next = Math.max(needed, capacity * 2);
+        // Arrays are filled before they are published, so a search sees either all old or all new
+        float[] nextVectors = Arrays.copyOf(vectors, next * dimension);
+        int[] nextLinks0 = Arrays.copyOf(links0, next * (maxM0 + 1));
+        int[][] nextUpper = Arrays.copyOf(upperLinks, next);
+        String[] nextKeys = Arrays.copyOf(keys, next);
+        boolean[] nextDeleted = Arrays.copyOf(deleted, next);
+        vectors = nextVectors;
+        links0 = nextLinks0;
+        upperLinks = nextUpper;
+        deleted = nextDeleted;
+        keys = nextKeys;
+    }
+
+    // HNSW heuristic: keep a candidate only if it is closer to the base than to every neighbor
+    // kept so far, which spreads links in different directions. Candidates arrive best first;
+    // the kept ones are moved to the front. Returns how many were kept.
+    private int selectNeighbors(float[] vectorsNow, int[] candidates, float[] similarities, int count, int max) {
+        int kept = 0;
+        for (int i = 0; i < count && kept < max; i++) {
+            int candidate = candidates[i];
+            boolean good = true;
+            for (int j = 0; j < kept; j++) {
+                if (dot(vectorsNow, candidate * dimension, vectorsNow, candidates[j] * dimension, dimension) > similarities[i]) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) {
+                float similarity = similarities[i];
+                candidates[i] = candidates[kept];
+                similarities[i] = similarities[kept];
+                candidates[kept] = candidate;
+                similarities[kept] = similarity;
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private void setLinks(int node, int level, int[] neighbors, int count) {
+        int[] list = level == 0 ? links0 : upperLinks[node];
+        int offset = level == 0 ? node * (maxM0 + 1) : (level - 1) * (m + 1);
+        System.arraycopy(neighbors, 0, list, offset + 1, count);
+        list[offset] = count;
+    }
+
+    // Links `target` -> `node`; a full list is re-selected with the heuristic
+    private void addLink(int target, int level, int node, float similarity) {
+        int[] list = level == 0 ? links0 : upperLinks[target];
+        int offset = level == 0 ? target * (maxM0 + 1) : (level - 1) * (m + 1);
+        int max = level == 0 ? maxM0 : m;
+        int count = list[offset];
+        if (count < max) {
+            list[offset + 1 + count] = node;
+            list[offset] = count + 1;
+            return;
+        }
+
+        float[] vectorsNow = vectors;
+        int[] candidates = new int[count + 1];
+        float[] similarities = new float[count + 1];
+        for (int i = 0; i < count; i++) {
+            candidates[i] = list[offset + 1 + i];
+            similarities[i] = dot(vectorsNow, target * dimension, vectorsNow, candidates[i] * dimension, dimension);
+        }
+        candidates[count] = node;
+        similarities[count] = similarity;
+        sortBest(candidates, similarities, count + 1);
+        int kept = selectNeighbors(vectorsNow, candidates, similarities, count + 1, max);
+        System.arraycopy(candidates, 0, list, offset + 1, kept);
+        list[offset] = kept;
+    }
+
+    private static void sortBest(int[] ids, float[] similarities, int count) {
+        // Short lists (2M + 1): insertion sort, best first
+        for (int i = 1; i < count; i++) {
+            int id = ids[i];
+            float similarity = similarities[i];
+            int j = i - 1;
+            while (j >= 0 && similarities[j] < similarity) {
+                ids[j + 1] = ids[j];
+                similarities[j + 1] = similarities[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            similarities[j + 1] = similarity;
+        }
+    }
+
+    // ---- Search ----
+
+    // Walks one upper layer towards the query until no neighbor is closer. The query is
+    // `dimension` floats of `query` from `queryOffset`: a stored vector during inserts.
+    private int greedyClosest(float[] vectorsNow, float[] query, int queryOffset, int start, int level, int count) {
+        int current = start;
+        float best = dot(query, queryOffset, vectorsNow, current * dimension, dimension);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] list = upperLinks[current];
+            if (list == null || (level - 1) * (m + 1) >= list.length) {
+                break;
+            }
+            int offset = (level - 1) * (m + 1);
+            int linkCount = Math.min(list[offset], m);
+            for (int i = 0; i < linkCount; i++) {
+                int neighbor = list[offset + 1 + i];
+                if (neighbor >= count) {
+                    continue;
+                }
+                float similarity = dot(query, queryOffset, vectorsNow, neighbor * dimension, dimension);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Best-first search of one layer from `start`; leaves the best `ef` in s.result*, best
+    // first, and returns how many there are. Deleted nodes are followed but not returned.
+    private int searchLayer(Scratch s, float[] vectorsNow, float[] query, int queryOffset, int start, int ef,
+                            int level, int count, boolean skipDeleted) {
+        int visit = s.nextVisit();
+        Heap candidates = s.candidates;
+        Heap results = s.results;
+        candidates.clear();
+        results.clear();
+        boolean[] deletedNow = deleted;
+
+        float startSimilarity = dot(query, queryOffset, vectorsNow, start * dimension, dimension);
+        s.visited[start] = visit;
+        candidates.push(startSimilarity, start);
+        if (!skipDeleted || !deletedNow[start]) {
+            results.push(startSimilarity, start);
+        }
+
+        int[] links0Now = links0;
+        int[][] upperNow = upperLinks;
+        while (candidates.size > 0) {
+            float similarity = candidates.peekKey();
+            if (results.size >= ef && similarity < results.peekKey()) {
+                break;
+            }
+            int node = candidates.pop();
+
+            int[] list;
+            int offset;
+            int max;
+            if (level == 0) {
+                list = links0Now;
+                offset = node * (maxM0 + 1);
+                max = maxM0;
+            } else {
+                list = upperNow[node];
+                offset = (level - 1) * (m + 1);
+                max = m;
+                if (list == null || offset >= list.length) {
+                    continue;
+                }
+            }
+            int linkCount = Math.min(list[offset], max);
+            for (int i = 0; i < linkCount; i++) {
+                int neighbor = list[offset + 1 + i];
+                if (neighbor >= count || s.visited[neighbor] == visit) {
+                    continue;
+                }
+                s.visited[neighbor] = visit;
+                float neighborSimilarity = dot(query, queryOffset, vectorsNow, neighbor * dimension, dimension);
+                if (results.size < ef || neighborSimilarity > results.peekKey()) {
+                    candidates.push(neighborSimilarity, neighbor);
+                    if (!skipDeleted || !deletedNow[neighbor]) {
+                        results.push(neighborSimilarity, neighbor);
+                        if (results.size > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+
+        int found = results.size;
+        s.ensureResults(found);
+        for (int i = found - 1; i >= 0; i--) {
+            s.resultSimilarities[i] = results.peekKey();
+            s.resultIds[i] = results.pop();
+        }
+        return found;
+    }
+
+    private Scratch borrow(int nodes) {
+        Scratch s = scratchPool.poll();
+        if (s == null) {
+            s = new Scratch();
+        }
+        s.ensureNodes(nodes + 1);
+        return s;
+    }
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    private static void normalizeInPlace(float[] vector, int offset, int length) {
+        double norm = Math.sqrt(dot(vector, offset, vector, offset, length));
+        if (norm > 0) {
+            for (int i = 0; i < length; i++) {
+                vector[offset + i] /= (float) norm;
+            }
+        }
+    }
+
+    private static long pack(int level, int node) {
+        return ((long) level << 32) | node;
+    }
+
+    // ---- Persistence ----
+
+    //   header: magic, format version, dimension, M, efConstruction, normalize, size, entry
+    //   nodes:  key, deleted, vector, level-0 links, upper levels and their links
+    //   CRC32 of everything before it
+    public synchronized void write(OutputStream out) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(dimension);
+        data.writeInt(m);
+        data.writeInt(efConstruction);
+        data.writeBoolean(normalize);
+        data.writeInt(size);
+        data.writeLong(entry);
+        for (int node = 0; node < size; node++) {
+            data.writeUTF(keys[node]);
+            data.writeBoolean(deleted[node]);
+            for (int i = 0; i < dimension; i++) {
+                data.writeFloat(vectors[node * dimension + i]);
+            }
+            writeList(data, links0, node * (maxM0 + 1));
+            int[] upper = upperLinks[node];
+            int levels = upper == null ? 0 : upper.length / (m + 1);
+            data.writeInt(levels);
+            for (int level = 0; level < levels; level++) {
+                writeList(data, upper, level * (m + 1));
+            }
+        }
+        data.flush();
+        new DataOutputStream(out).writeLong(crc.getValue());
+        out.flush();
+    }
+
+    private static void writeList(DataOutputStream data, int[] list, int offset) throws IOException {
+        int count = list[offset];
+        data.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            data.writeInt(list[offset + 1 + i]);
+        }
+    }
+
+    public static HnswIndex read(InputStream in, long seed) throws IOException {
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(new CheckedInputStream(in, crc));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an HNSW index");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Index format " + version + ", expected " + FORMAT_VERSION);
+        }
+        int dimension = data.readInt();
+        int m = data.readInt();
+        int efConstruction = data.readInt();
+        boolean normalize = data.readBoolean();
+        int size = data.readInt();
+        long entry = data.readLong();
+        if (dimension <= 0 || m < 2 || size < 0) {
+            throw new IOException("Corrupt index header");
+        }
+
+        HnswIndex index = new HnswIndex(dimension, m, efConstruction, normalize, seed, Math.max(size, 16));
+        for (int node = 0; node < size; node++) {
+            index.keys[node] = data.readUTF();
+            boolean isDeleted = data.readBoolean();
+            for (int i = 0; i < dimension; i++) {
+                index.vectors[node * dimension + i] = data.readFloat();
+            }
+            readList(data, index.links0, node * (index.maxM0 + 1), index.maxM0, size);
+            int levels = data.readInt();
+            if (levels < 0 || levels > 64) {
+                throw new IOException("Corrupt level count " + levels);
+            }
+            if (levels > 0) {
+                index.upperLinks[node] = new int[levels * (m + 1)];
+                for (int level = 0; level < levels; level++) {
+                    readList(data, index.upperLinks[node], level * (m + 1), m, size);
+                }
+            }
+            if (isDeleted) {
+                index.deleted[node] = true;
+                index.deletedCount++;
+            } else {
+                index.nodeByKey.put(index.keys[node], node);
+            }
+        }
+        long expected = crc.getValue();
+        if (new DataInputStream(in).readLong() != expected) {
+            throw new IOException("Index checksum mismatch");
+        }
+        if (size > 0 && ((int) entry < 0 || (int) entry >= size)) {
+            throw new IOException("Entry point out of range");
+        }
+        index.size = size;
+        index.entry = size > 0 ? entry : NO_ENTRY;
+        return index;
+    }
+
+    private static void readList(DataInputStream data, int[] list, int offset, int max, int size) throws IOException {
+        int count = data.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("Corrupt link count " + count);
+        }
+        list[offset] = count;
+        for (int i = 0; i < count; i++) {
+            int neighbor = data.readInt();
+            if (neighbor < 0 || neighbor >= size) {
+                throw new IOException("Link " + neighbor + " out of range");
+            }
+            list[offset + 1 + i] = neighbor;
+        }
+    }
+
+    // ---- Scratch ----
+
+    // Float-keyed heap of node numbers: max-heap for candidates, min-heap for results
+    private static final class Heap {
+        private final boolean max;
+        private float[] keys;
+        private int[] values;
+        int size;
+
+        Heap(boolean max, int capacity) {
+            this.max = max;
+            this.keys = new float[capacity];
+            this.values = new int[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private boolean above(int a, int b) {
+            return max ? keys[a] > keys[b] : keys[a] < keys[b];
+        }
+
+        void push(float key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!above(i, parent)) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        float peekKey() {
+            return keys[0];
+        }
+
+        int pop() {
+            int top = values[0];
+            size--;
+            keys[0] = keys[size];
+            values[0] = values[size];
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                int right = left + 1;
+                int first = i;
+                if (left < size && above(left, first)) {
+                    first = left;
+                }
+                if (right < size && above(right, first)) {
+                    first = right;
+                }
+                if (first == i) {
+                    return top;
+                }
+                swap(i, first);
+                i = first;
+            }
+        }
+
+        private void swap(int a, int b) {
+            float key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            int value = values[a];
+            values[a] = values[b];
+            values[b] = value;
+        }
+    }
+
+    // Per-search state, pooled per index. `visited` holds the number of the search that last
+    // saw each node, so it never needs clearing.
+    private static final class Scratch {
+        int[] visited = new int[0];
+        int visit;
+        final Heap candidates = new Heap(true, 64);
+        final Heap results = new Heap(false, 64);
+        int[] resultIds = new int[64];
+        float[] resultSimilarities = new float[64];
+
+        void ensureNodes(int nodes) {
+            if (visited.length < nodes) {
+                visited = new int[Math.max(nodes, visited.length * 2)];
+                visit = 0;
+            }
+        }
+
+        int nextVisit() {
+            if (++visit == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                visit = 1;
+            }
+            return visit;
+        }
+
+        void ensureResults(int count) {
+            if (resultIds.length < count) {
+                resultIds = new int[count];
+                resultSimilarities = new float[count];
+            }
+        }
+    }
+}
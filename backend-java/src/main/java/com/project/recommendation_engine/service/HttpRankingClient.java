@@ -0,0 +1,170 @@
+package com.project.recommendation_engine.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// RankingClient for an OpenAI-style chat-completions endpoint (Azure OpenAI, or anything that
+// speaks the same JSON). Sends the curator prompt from llm_recommender.py and reads the JSON
+// object the model returns in the first choice. The key goes in Azure's api-key header for
+// *.azure.com hosts and as a Bearer token everywhere else.
+@Component
+public class HttpRankingClient implements RankingClient {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String url;
+    private final String apiKey;
+    private final String model;
+    private final Duration timeout;
+    private final HttpClient http;
+
+    public HttpRankingClient(@Value("${ranking.url:}") String url,
+                             @Value("${ranking.api-key:}") String apiKey,
+                             @Value("${ranking.model:gpt-5-nano}") String model,
+                             @Value("${ranking.timeout-ms:60000}") long timeoutMs) {
+        this.url = url;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return url != null && !url.isBlank();
+    }
+
+    @Override
+    public Ranking rank(Request request) throws IOException {
+        ObjectNode body = JSON.createObjectNode();
+        body.put("model", model);
+        ArrayNode messages = body.putArray("messages");
+        messages.addObject().put("role", "system").put("content", systemPrompt(request));
+        messages.addObject().put("role", "user").put("content", userMessage(request));
+        body.putObject("response_format").put("type", "json_object");
+
+        HttpRequest.Builder post = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)));
+        if (apiKey != null && !apiKey.isBlank()) {
+            if (isAzure(url)) {
+                post.header("api-key", apiKey);
+            } else {
+                post.header("Authorization", "Bearer " + apiKey);
+            }
+        }
+
+        HttpResponse<String> response;
+        try {
+            response = http.send(post.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the ranking service", e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Ranking service returned " + response.statusCode());
+        }
+
+        JsonNode content = JSON.readTree(response.body()).path("choices").path(0).path("message").path("content");
+        if (!content.isTextual()) {
+            throw new IOException("Ranking response has no message content");
+        }
+        return parseRanking(content.asText());
+    }
+
+    static boolean isAzure(String url) {
+        String host = URI.create(url).getHost();
+        return host != null && host.toLowerCase().endsWith(".azure.com");
+    }
+
+    static Ranking parseRanking(String content) throws IOException {
+        JsonNode parsed = JSON.readTree(content);
+        if (!parsed.path("sections").isArray()) {
+            throw new IOException("Ranking structure invalid (missing sections)");
+        }
+        List<Section> sections = new ArrayList<>();
+        for (JsonNode section : parsed.path("sections")) {
+            List<Pick> picks = new ArrayList<>();
+            for (JsonNode item : section.path("items")) {
+                if (item.hasNonNull("id")) {
+                    picks.add(new Pick(item.path("id").asText(), item.path("ai_reason").asText(null)));
+                }
+            }
+            sections.add(new Section(section.path("title").asText("Recommendations"),
+                    section.path("type").asText("general"), picks));
+        }
+        return new Ranking(parsed.path("meta_justification").asText(""), sections);
+    }
+
+    private static String systemPrompt(Request request) throws IOException {
+        List<String> genres = request.favoriteGenres();
+        String genre1 = genres.size() > 0 ? genres.get(0) : "Cinema";
+        String genre2 = genres.size() > 1 ? genres.get(1) : "Popular";
+        ObjectNode summary = JSON.createObjectNode();
+        summary.putPOJO("favorite_genres", genres);
+        summary.put("history_count", request.historyCount());
+
+        return "You are the Head Curator of a premium streaming platform.\n"
+                + "Your goal is to organize the user's Home Page into 3 SECTIONS (Carousels) "
+                + "selecting the best movies from the provided candidates.\n\n"
+                + "INPUT:\n"
+                + "User Profile: " + JSON.writeValueAsString(summary) + "\n"
+                + "Candidates: A list of movies pre-selected by algorithms (Collaborative, Content-Based, Trending).\n\n"
+                + "MANDATORY TASK (STRATEGY 1+2):\n"
+                + "You must generate a JSON with exactly 3 sections:\n"
+                + "1. 'Top Picks for You': Hybrid selection (Collaborative + Content). The best 8-10 movies for this specific user.\n"
+                + "2. 'Best in " + genre1 + "': The best 8-10 options for " + genre1 + ".\n"
+                + "3. 'Best in " + genre2 + "': The best 8-10 options for " + genre2 + ".\n\n"
+                + "CURATION RULES:\n"
+                + "- LANGUAGE: All output (titles, reasons) must be in ENGLISH.\n"
+                + "- You can ONLY recommend IDs that exist in the candidates list.\n"
+                + "- DO NOT invent titles.\n"
+                + "- Generate a short, persuasive 'ai_reason' for each movie (e.g., 'Because you enjoyed Inception...').\n"
+                + "- Prioritize movies with 'origin': 'collaborative' or 'content_based' for section 1.\n\n"
+                + "OUTPUT JSON FORMAT:\n"
+                + "{\n"
+                + "  \"meta_justification\": \"Brief summary of the strategy used\",\n"
+                + "  \"sections\": [\n"
+                + "    {\n"
+                + "      \"title\": \"Top Picks for You\",\n"
+                + "      \"type\": \"mixed\",\n"
+                + "      \"items\": [ {\"id\": \"12345\", \"ai_reason\": \"...\"}, ... ]\n"
+                + "    },\n"
+                + "    { ... section 2 ... },\n"
+                + "    { ... section 3 ... }\n"
+                + "  ]\n"
+                + "}";
+    }
+
+    // Only id, title, origin and reason per candidate, to keep the prompt small
+    private static String userMessage(Request request) throws IOException {
+        ObjectNode message = JSON.createObjectNode();
+        message.putPOJO("user_genres", request.favoriteGenres());
+        ArrayNode candidates = message.putArray("available_candidates");
+        for (Candidate candidate : request.candidates()) {
+            candidates.addObject()
+                    .put("id", candidate.id())
+                    .put("title", candidate.title())
+                    .put("origin", candidate.origin())
+                    .put("info", candidate.info());
+        }
+        return JSON.writeValueAsString(message);
+    }
+}
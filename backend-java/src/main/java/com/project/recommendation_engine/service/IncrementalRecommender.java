@@ -0,0 +1,112 @@
+package com.project.recommendation_engine.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.model.UserRecommendation;
+import com.project.recommendation_engine.repository.UserRepository;
+
+// Keeps a user's recommendations current between agent runs. After each rating it folds the
+// user's ratings into the collaborative index (their neighbors, and everyone else's
+// neighborhoods, change right away), republishes their candidate bucket with fresh scores, and
+// drops the movie they just rated from the recommendations on their home page. The item-item
+// rows are updated separately by ItemSimilarity.onRating. No agent run is started.
+// The user is read again inside the task, under a per-user lock, so two quick ratings whose
+// tasks run out of order still leave the index with the newest ratings.
+// The movie is pulled from the recommendations document in place ($pull), never by saving a
+// copy, so a run of the agent or the pipeline saving new sections at the same time isn't undone.
+@Component
+public class IncrementalRecommender {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final UserRepository userRepository;
+    private final CollaborativeFiltering collaborativeFiltering;
+    private final MongoTemplate mongoTemplate;
+    private final Object[] userLocks = new Object[LOCK_STRIPES];
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder updateNanos = new LongAdder();
+    private final LongAdder removedFromRecommendations = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile long lastUpdateMicros = -1;
+
+    public IncrementalRecommender(UserRepository userRepository,
+                                  CollaborativeFiltering collaborativeFiltering,
+                                  MongoTemplate mongoTemplate) {
+        this.userRepository = userRepository;
+        this.collaborativeFiltering = collaborativeFiltering;
+        this.mongoTemplate = mongoTemplate;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
+    }
+
+    // Called after a rating is saved; runs off the request thread
+    @Async("taskExecutor")
+    public void onRating(String userId, String movieId) {
+        if (userId == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            synchronized (userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)]) {
+                Optional<User> user = userRepository.findById(userId);
+                if (user.isEmpty()) {
+                    return;
+                }
+                collaborativeFiltering.update(user.get());
+                collaborativeFiltering.publish(user.get());
+            }
+            if (movieId != null && dropFromRecommendations(userId, movieId)) {
+                removedFromRecommendations.increment();
+            }
+            lastUpdateMicros = (System.nanoTime() - start) / 1000;
+            updateNanos.add(System.nanoTime() - start);
+            updates.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            System.err.println("[Incremental] Could not update recommendations for " + userId + ": " + e.getMessage());
+        }
+    }
+
+    // True if the user's recommendations listed the movie. The agent stores the ID as a number,
+    // ratings keep it as a string; both forms are matched.
+    private boolean dropFromRecommendations(String userId, String movieId) {
+        List<Object> ids;
+        try {
+            ids = List.of(Integer.parseInt(movieId), movieId);
+        } catch (NumberFormatException e) {
+            ids = List.of(movieId);
+        }
+        // One document per user (the agent upserts by user_id). Raw field names: no entity
+        // mapping of the nested "id", which would otherwise be taken for _id.
+        Query query = Query.query(Criteria.where("user_id").is(userId).and("sections.movies.id").in(ids));
+        Update update = new Update().pull("sections.$[].movies", new Document("id", new Document("$in", ids)));
+        return mongoTemplate.updateFirst(query, update, mongoTemplate.getCollectionName(UserRecommendation.class))
+                .getModifiedCount() > 0;
+    }
+
+    public Map<String, Object> getStats() {
+        long updateCount = updates.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("updates", updateCount);
+        stats.put("avgUpdateMicros", updateCount > 0 ? updateNanos.sum() / 1000.0 / updateCount : 0.0);
+        stats.put("lastUpdateMicros", lastUpdateMicros);
+        stats.put("removedFromRecommendations", removedFromRecommendations.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+}
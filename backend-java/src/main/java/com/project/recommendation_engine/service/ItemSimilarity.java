@@ -0,0 +1,283 @@
+package com.project.recommendation_engine.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Item-item recommendations from our own ratings. A full rebuild streams every user's ratings
+// (only movieRatings is read) into a RatingMatrix and computes the ItemSimilarityModel on a
+// ForkJoinPool sized to the cores; the model is then saved to disk and loaded back at startup.
+// Between rebuilds, each new rating recomputes the rows of the movies its user rated (the only
+// rows whose dot products changed); a batch of ratings from one user (the onboarding form)
+// recomputes them once. Other rows that list the rated movie keep a slightly stale norm until
+// the next rebuild.
+@Component
+public class ItemSimilarity {
+
+    private record PendingRating(String userId, String movieId, float score) {}
+
+    private final UserRepository userRepository;
+    private final Path file;
+    private final int k;
+    private final float shrink;
+    private final int parallelism;
+    private final int seeds;
+    private final double seedMinScore;
+
+    private volatile ItemSimilarityModel model = ItemSimilarityModel.EMPTY;
+    private volatile boolean dirty;
+
+    // Guarded by this. The matrix only exists after the first rebuild; a model loaded from
+    // disk serves lookups but isn't updated incrementally until then.
+    private RatingMatrix matrix;
+    private boolean rebuilding;
+    private final List<PendingRating> missedDuringRebuild = new ArrayList<>();
+
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder skippedUpdates = new LongAdder();
+    private final LongAdder rowsRecomputed = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private volatile long lastRebuildMillis = -1;
+    private volatile long lastWriteMillis = -1;
+
+    public ItemSimilarity(UserRepository userRepository,
+                          @Value("${item-sim.file:${java.io.tmpdir}/item-similarity.model}") String file,
+                          @Value("${item-sim.k:50}") int k,
+                          @Value("${item-sim.shrink:5}") float shrink,
+                          @Value("${item-sim.parallelism:0}") int parallelism,
+                          @Value("${item-sim.seeds:5}") int seeds,
+                          @Value("${item-sim.seed-min-score:4}") double seedMinScore) {
+        this.userRepository = userRepository;
+        this.file = Paths.get(file);
+        this.k = k;
+        this.shrink = shrink;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.seeds = seeds;
+        this.seedMinScore = seedMinScore;
+    }
+
+    @PostConstruct
+    public void loadOnStartup() {
+        load();
+    }
+
+    // Recomputes every row. Ratings that arrive meanwhile are replayed on the new matrix.
+    public ItemSimilarityModel rebuild() {
+        synchronized (this) {
+            if (rebuilding) {
+                return model;
+            }
+            rebuilding = true;
+            missedDuringRebuild.clear();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            RatingMatrix next;
+            try (Stream<User> users = userRepository.streamRatingsBy()) {
+                next = RatingMatrix.build(users::iterator);
+            }
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            ItemSimilarityModel computed;
+            try {
+                computed = ItemSimilarityModel.compute(next, k, shrink, pool);
+            } finally {
+                pool.shutdown();
+            }
+            synchronized (this) {
+                matrix = next;
+                model = computed;
+                Set<String> raters = new LinkedHashSet<>();
+                for (PendingRating missed : missedDuringRebuild) {
+                    matrix.set(missed.userId(), missed.movieId(), missed.score());
+                    raters.add(missed.userId());
+                }
+                for (String rater : raters) {
+                    recomputeRowsOf(rater);
+                }
+                updates.add(missedDuringRebuild.size());
+            }
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            rebuilds.increment();
+            System.out.println("[ItemSimilarity] " + next.ratingCount() + " ratings, " + computed.movieCount()
+                    + " movies, " + computed.neighborCount() + " neighbors computed on " + parallelism
+                    + " threads in " + lastRebuildMillis + "ms");
+            write();
+            return model;
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                missedDuringRebuild.clear();
+            }
+        }
+    }
+
+    // Called after a rating is saved; recomputes the rows it affects off the request thread
+    @Async("taskExecutor")
+    public void onRating(String userId, String movieId, double score) {
+        if (userId == null || movieId == null) {
+            return;
+        }
+        apply(userId, List.of(new PendingRating(userId, movieId, (float) score)));
+    }
+
+    // Several ratings saved together by one user; their rows are recomputed once, not per rating
+    @Async("taskExecutor")
+    public void onRatings(String userId, List<Rating> ratings) {
+        if (userId == null || ratings == null) {
+            return;
+        }
+        List<PendingRating> pending = new ArrayList<>(ratings.size());
+        for (Rating rating : ratings) {
+            if (rating.getMovieId() != null) {
+                pending.add(new PendingRating(userId, rating.getMovieId(), (float) rating.getScore()));
+            }
+        }
+        if (!pending.isEmpty()) {
+            apply(userId, pending);
+        }
+    }
+
+    private synchronized void apply(String userId, List<PendingRating> ratings) {
+        if (rebuilding) {
+            missedDuringRebuild.addAll(ratings);
+        }
+        if (matrix == null) {
+            skippedUpdates.add(ratings.size());
+            return;
+        }
+        for (PendingRating rating : ratings) {
+            matrix.set(userId, rating.movieId(), rating.score());
+        }
+        recomputeRowsOf(userId);
+        updates.add(ratings.size());
+    }
+
+    // Caller holds the lock
+    private void recomputeRowsOf(String userId) {
+        RatingMatrix.Row rated = matrix.ratingsOfUser(matrix.indexOfUser(userId));
+        int[] rows = new int[rated.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = rated.id(i);
+        }
+        model = model.withRows(matrix, rows, shrink);
+        dirty = true;
+        rowsRecomputed.add(rows.length);
+    }
+
+    // Movies similar to the user's best-rated ones, best first
+    public List<ItemSimilarityModel.Scored> recommend(List<Rating> ratings, int limit) {
+        long start = System.nanoTime();
+        List<ItemSimilarityModel.Scored> result = model.recommend(ratings, seedMinScore, seeds, limit);
+        lookupNanos.add(System.nanoTime() - start);
+        lookups.increment();
+        return result;
+    }
+
+    public List<ItemSimilarityModel.Neighbor> neighbors(String movieId, int limit) {
+        return model.neighbors(movieId, limit);
+    }
+
+    public ItemSimilarityModel model() {
+        return model;
+    }
+
+    // True if a model was loaded; a missing or unusable file leaves the empty model
+    public synchronized boolean load() {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ItemSimilarityModel loaded = ItemSimilarityModel.read(in);
+            if (model.movieCount() == 0) {
+                model = loaded;
+            }
+            System.out.println("[ItemSimilarity] Loaded " + loaded.movieCount() + " movies from " + file);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[ItemSimilarity] Discarding unusable model " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Overwritten by the next write anyway
+            }
+            return false;
+        }
+    }
+
+    // Same temp-file-and-move as CacheSnapshot, so a crash mid-write never leaves a torn model
+    public void write() {
+        ItemSimilarityModel current = model;
+        dirty = false;
+        long start = System.currentTimeMillis();
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                current.write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastWriteMillis = System.currentTimeMillis() - start;
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            System.err.println("[ItemSimilarity] Error writing " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Saves incremental updates made since the last write
+    public void writeIfDirty() {
+        if (dirty) {
+            write();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        ItemSimilarityModel current = model;
+        long lookupCount = lookups.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("movies", current.movieCount());
+        stats.put("neighbors", current.neighborCount());
+        stats.put("k", k);
+        stats.put("builtAt", current.builtAt());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("parallelism", parallelism);
+        stats.put("updates", updates.sum());
+        stats.put("skippedUpdates", skippedUpdates.sum());
+        stats.put("rowsRecomputed", rowsRecomputed.sum());
+        stats.put("lookups", lookupCount);
+        stats.put("avgLookupMicros", lookupCount > 0 ? lookupNanos.sum() / 1000.0 / lookupCount : 0.0);
+        stats.put("lastWriteMillis", lastWriteMillis);
+        stats.put("file", file.toString());
+        return stats;
+    }
+}
@@ -0,0 +1,444 @@
+package com.project.recommendation_engine.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.project.recommendation_engine.model.Rating;
+
+// Top-K most similar movies for every rated movie, by cosine similarity between the movies'
+// rating columns, shrunk towards 0 when few users rated both (n / (n + shrink)).
+// Each row is a pair of primitive arrays (movie numbers and similarities, most similar first),
+// so the whole model is two arrays per movie and a lookup touches only the rows it reads.
+// Immutable: ItemSimilarity publishes a new model when rows are recomputed.
+public final class ItemSimilarityModel {
+
+    public record Neighbor(String movieId, float similarity) {}
+
+    public record Scored(String movieId, float score) {}
+
+    static final int MAGIC = 0x4D49534D; // "MISM"
+
+    // Bump on any change to the file layout; older files are then discarded, not misread
+    static final int FORMAT_VERSION = 1;
+
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final float[] NO_SIMILARITIES = new float[0];
+    private static final int CHUNK = 256;
+
+    public static final ItemSimilarityModel EMPTY =
+            new ItemSimilarityModel(0, 0, new String[0], new int[0][], new float[0][]);
+
+    private final int k;
+    private final long builtAt;
+    private final String[] movieIds;
+    private final Map<String, Integer> movieIndex;
+    private final int[][] neighbors;
+    private final float[][] similarities;
+
+    private ItemSimilarityModel(int k, long builtAt, String[] movieIds, int[][] neighbors, float[][] similarities) {
+        this(k, builtAt, movieIds, indexOf(movieIds), neighbors, similarities);
+    }
+
+    private ItemSimilarityModel(int k, long builtAt, String[] movieIds, Map<String, Integer> movieIndex,
+                                int[][] neighbors, float[][] similarities) {
+        this.k = k;
+        this.builtAt = builtAt;
+        this.movieIds = movieIds;
+        this.movieIndex = movieIndex;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+    }
+
+    private static Map<String, Integer> indexOf(String[] movieIds) {
+        Map<String, Integer> index = new HashMap<>(movieIds.length * 2);
+        for (int m = 0; m < movieIds.length; m++) {
+            index.put(movieIds[m], m);
+        }
+        return index;
+    }
+
+    // Every row, computed in chunks on `pool`. Each chunk has its own scratch arrays, so the
+    // only shared state is the matrix, which must not change until this returns.
+    public static ItemSimilarityModel compute(RatingMatrix matrix, int k, float shrink, ForkJoinPool pool) {
+        int n = matrix.movieCount();
+        int[][] neighbors = new int[n][];
+        float[][] similarities = new float[n][];
+
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < n; start += CHUNK) {
+            int from = start;
+            int to = Math.min(n, start + CHUNK);
+            chunks.add(() -> {
+                Scratch scratch = new Scratch(n, k);
+                for (int m = from; m < to; m++) {
+                    computeRow(matrix, m, shrink, scratch);
+                    scratch.drainInto(neighbors, similarities, m);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> chunk : pool.invokeAll(chunks)) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Item similarity computation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Item similarity computation failed", e.getCause());
+        }
+        return new ItemSimilarityModel(k, System.currentTimeMillis(), matrix.movieIds(), neighbors, similarities);
+    }
+
+    // A copy with `movies` recomputed against the matrix (which may have grown since)
+    public ItemSimilarityModel withRows(RatingMatrix matrix, int[] movies, float shrink) {
+        int n = matrix.movieCount();
+        int[][] nextNeighbors = Arrays.copyOf(neighbors, n);
+        float[][] nextSimilarities = Arrays.copyOf(similarities, n);
+        for (int m = neighbors.length; m < n; m++) {
+            nextNeighbors[m] = NO_NEIGHBORS;
+            nextSimilarities[m] = NO_SIMILARITIES;
+        }
+        Scratch scratch = new Scratch(n, k);
+        for (int m : movies) {
+            computeRow(matrix, m, shrink, scratch);
+            scratch.drainInto(nextNeighbors, nextSimilarities, m);
+        }
+        if (n == movieIds.length) {
+            return new ItemSimilarityModel(k, builtAt, movieIds, movieIndex, nextNeighbors, nextSimilarities);
+        }
+        return new ItemSimilarityModel(k, builtAt, matrix.movieIds(), nextNeighbors, nextSimilarities);
+    }
+
+    // Accumulates dot products with every movie that shares a rater with `m`, then keeps the top K
+    private static void computeRow(RatingMatrix matrix, int m, float shrink, Scratch s) {
+        s.clearTop();
+        RatingMatrix.Row raters = matrix.ratingsOfMovie(m);
+        int touched = 0;
+        for (int i = 0; i < raters.size(); i++) {
+            float score = raters.score(i);
+            RatingMatrix.Row rated = matrix.ratingsOfUser(raters.id(i));
+            for (int j = 0; j < rated.size(); j++) {
+                int other = rated.id(j);
+                if (other == m) {
+                    continue;
+                }
+                if (s.coRaters[other] == 0) {
+                    s.touched[touched++] = other;
+                }
+                s.coRaters[other]++;
+                s.dots[other] += score * rated.score(j);
+            }
+        }
+
+        double norm = Math.sqrt(matrix.squaredNorm(m));
+        for (int i = 0; i < touched; i++) {
+            int other = s.touched[i];
+            double denominator = norm * Math.sqrt(matrix.squaredNorm(other));
+            if (denominator > 0) {
+                int n = s.coRaters[other];
+                double cosine = s.dots[other] / denominator;
+                s.offer(other, (float) (cosine * n / (n + shrink)));
+            }
+            s.dots[other] = 0;
+            s.coRaters[other] = 0;
+        }
+    }
+
+    // Most similar movies to one movie
+    public List<Neighbor> neighbors(String movieId, int limit) {
+        Integer m = movieIndex.get(movieId);
+        if (m == null) {
+            return List.of();
+        }
+        int size = Math.min(limit, neighbors[m].length);
+        List<Neighbor> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Neighbor(movieIds[neighbors[m][i]], similarities[m][i]));
+        }
+        return result;
+    }
+
+    // Movies similar to the user's `seeds` best-rated movies (score >= minScore), each
+    // weighted by the seed's score and summed across seeds. Movies the user rated are skipped.
+    public List<Scored> recommend(List<Rating> ratings, double minScore, int seeds, int limit) {
+        if (ratings == null || ratings.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] rated = new int[ratings.size()];
+        int ratedCount = 0;
+        List<Rating> candidatesForSeed = new ArrayList<>();
+        for (Rating rating : ratings) {
+            Integer m = rating.getMovieId() != null ? movieIndex.get(rating.getMovieId()) : null;
+            if (m == null) {
+                continue;
+            }
+            rated[ratedCount++] = m;
+            if (rating.getScore() >= minScore) {
+                candidatesForSeed.add(rating);
+            }
+        }
+        Arrays.sort(rated, 0, ratedCount);
+        candidatesForSeed.sort(Comparator.comparingDouble(Rating::getScore).reversed());
+
+        // Every (candidate, weighted similarity) pair, packed as candidate << 32 | slot so one
+        // sort groups the pairs by candidate
+        int seedCount = Math.min(seeds, candidatesForSeed.size());
+        int capacity = 0;
+        int[] seedRows = new int[seedCount];
+        for (int i = 0; i < seedCount; i++) {
+            seedRows[i] = movieIndex.get(candidatesForSeed.get(i).getMovieId());
+            capacity += neighbors[seedRows[i]].length;
+        }
+        long[] keys = new long[capacity];
+        float[] weights = new float[capacity];
+        int pairs = 0;
+        for (int i = 0; i < seedCount; i++) {
+            float seedScore = (float) candidatesForSeed.get(i).getScore();
+            int[] row = neighbors[seedRows[i]];
+            float[] rowSimilarities = similarities[seedRows[i]];
+            for (int j = 0; j < row.length; j++) {
+                if (Arrays.binarySearch(rated, 0, ratedCount, row[j]) >= 0) {
+                    continue;
+                }
+                keys[pairs] = ((long) row[j] << 32) | pairs;
+                weights[pairs] = seedScore * rowSimilarities[j];
+                pairs++;
+            }
+        }
+        Arrays.sort(keys, 0, pairs);
+
+        // Sum each group, then rank by packing score bits (non-negative floats sort like ints)
+        long[] ranked = new long[pairs];
+        int distinct = 0;
+        for (int i = 0; i < pairs; ) {
+            int movie = (int) (keys[i] >>> 32);
+            float score = 0;
+            for (; i < pairs && (int) (keys[i] >>> 32) == movie; i++) {
+                score += weights[(int) keys[i]];
+            }
+            ranked[distinct++] = ((long) Float.floatToIntBits(Math.max(score, 0f)) << 32) | (Integer.MAX_VALUE - movie);
+        }
+        Arrays.sort(ranked, 0, distinct);
+
+        int size = Math.min(limit, distinct);
+        List<Scored> result = new ArrayList<>(size);
+        for (int i = distinct - 1; i >= distinct - size; i--) {
+            int movie = Integer.MAX_VALUE - (int) ranked[i];
+            result.add(new Scored(movieIds[movie], Float.intBitsToFloat((int) (ranked[i] >>> 32))));
+        }
+        return result;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public long builtAt() {
+        return builtAt;
+    }
+
+    public int movieCount() {
+        return movieIds.length;
+    }
+
+    public long neighborCount() {
+        long count = 0;
+        for (int[] row : neighbors) {
+            count += row.length;
+        }
+        return count;
+    }
+
+    //   header: magic, format version, K, built-at, movie count
+    //   rows:   movie id, neighbor count, neighbor numbers, similarities
+    //   CRC32 of everything before it
+    public void write(OutputStream out) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(k);
+        data.writeLong(builtAt);
+        data.writeInt(movieIds.length);
+        for (int m = 0; m < movieIds.length; m++) {
+            data.writeUTF(movieIds[m]);
+            data.writeInt(neighbors[m].length);
+            for (int neighbor : neighbors[m]) {
+                data.writeInt(neighbor);
+            }
+            for (float similarity : similarities[m]) {
+                data.writeFloat(similarity);
+            }
+        }
+        data.flush();
+        new DataOutputStream(out).writeLong(crc.getValue());
+        out.flush();
+    }
+
+    public static ItemSimilarityModel read(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        DataInputStream data = new DataInputStream(new CheckedInputStream(in, crc));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an item similarity model");
+        }
+        int version = data.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Model format " + version + ", expected " + FORMAT_VERSION);
+        }
+        int k = data.readInt();
+        long builtAt = data.readLong();
+        int n = data.readInt();
+        if (k < 0 || n < 0) {
+            throw new IOException("Corrupt model header");
+        }
+        String[] movieIds = new String[n];
+        int[][] neighbors = new int[n][];
+        float[][] similarities = new float[n][];
+        for (int m = 0; m < n; m++) {
+            movieIds[m] = data.readUTF();
+            int size = data.readInt();
+            if (size < 0 || size > k) {
+                throw new IOException("Row " + m + " has " + size + " neighbors, K is " + k);
+            }
+            neighbors[m] = new int[size];
+            similarities[m] = new float[size];
+            for (int i = 0; i < size; i++) {
+                int neighbor = data.readInt();
+                if (neighbor < 0 || neighbor >= n) {
+                    throw new IOException("Neighbor " + neighbor + " out of range");
+                }
+                neighbors[m][i] = neighbor;
+            }
+            for (int i = 0; i < size; i++) {
+                similarities[m][i] = data.readFloat();
+            }
+        }
+        long expected = crc.getValue();
+        if (new DataInputStream(in).readLong() != expected) {
+            throw new IOException("Model checksum mismatch");
+        }
+        return new ItemSimilarityModel(k, builtAt, movieIds, neighbors, similarities);
+    }
+
+    // Dot products and co-rater counts per movie, reset entry by entry after each row,
+    // plus a min-heap of the best K found so far
+    private static final class Scratch {
+        final double[] dots;
+        final int[] coRaters;
+        final int[] touched;
+        final int[] heapIds;
+        final float[] heapSimilarities;
+        int heapSize;
+
+        Scratch(int movies, int k) {
+            dots = new double[movies];
+            coRaters = new int[movies];
+            touched = new int[movies];
+            heapIds = new int[k];
+            heapSimilarities = new float[k];
+        }
+
+        void clearTop() {
+            heapSize = 0;
+        }
+
+        // Lower similarity is worse; on a tie the higher movie number is worse
+        private boolean worse(int a, int b) {
+            return heapSimilarities[a] < heapSimilarities[b]
+                    || (heapSimilarities[a] == heapSimilarities[b] && heapIds[a] > heapIds[b]);
+        }
+
+        void offer(int id, float similarity) {
+            if (heapIds.length == 0) {
+                return;
+            }
+            if (heapSize < heapIds.length) {
+                heapIds[heapSize] = id;
+                heapSimilarities[heapSize] = similarity;
+                siftUp(heapSize++);
+                return;
+            }
+            if (similarity < heapSimilarities[0]
+                    || (similarity == heapSimilarities[0] && id > heapIds[0])) {
+                return;
+            }
+            heapIds[0] = id;
+            heapSimilarities[0] = similarity;
+            siftDown(0);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!worse(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heapSize && worse(left, worst)) {
+                    worst = left;
+                }
+                if (right < heapSize && worse(right, worst)) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = heapIds[a];
+            heapIds[a] = heapIds[b];
+            heapIds[b] = id;
+            float similarity = heapSimilarities[a];
+            heapSimilarities[a] = heapSimilarities[b];
+            heapSimilarities[b] = similarity;
+        }
+
+        // Empties the heap into row `m`, best first
+        void drainInto(int[][] neighbors, float[][] similarities, int m) {
+            int[] ids = new int[heapSize];
+            float[] values = new float[heapSize];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = heapIds[0];
+                values[i] = heapSimilarities[0];
+                heapSize--;
+                if (heapSize > 0) {
+                    heapIds[0] = heapIds[heapSize];
+                    heapSimilarities[0] = heapSimilarities[heapSize];
+                    siftDown(0);
+                }
+            }
+            neighbors[m] = ids;
+            similarities[m] = values;
+        }
+    }
+}
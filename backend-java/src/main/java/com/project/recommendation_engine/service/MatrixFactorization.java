@@ -0,0 +1,111 @@
+package com.project.recommendation_engine.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.repository.UserRepository;
+
+// Latent-factor model of our ratings, retrained by MatrixFactorizationScheduler with AlsTrainer.
+// Users are streamed from Mongo with only their ratings, so training never holds the user
+// documents, and the previous model keeps serving until the new one is published.
+@Component
+public class MatrixFactorization {
+
+    private final UserRepository userRepository;
+    private final AlsTrainer.Config config;
+    private final int parallelism;
+
+    private volatile AlsModel model = AlsModel.EMPTY;
+    private volatile AlsTrainer.Result lastResult;
+    private volatile long lastLoadMillis = -1;
+    private volatile long trainedAt;
+    private final AtomicBoolean training = new AtomicBoolean();
+
+    public MatrixFactorization(UserRepository userRepository,
+                               @Value("${als.rank:32}") int rank,
+                               @Value("${als.iterations:10}") int iterations,
+                               @Value("${als.lambda:0.05}") float lambda,
+                               @Value("${als.seed:42}") long seed,
+                               @Value("${als.parallelism:0}") int parallelism) {
+        this.userRepository = userRepository;
+        this.config = new AlsTrainer.Config(rank, iterations, lambda, seed);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Trains from scratch; a call while training is already running returns the current model
+    public AlsModel train() {
+        if (!training.compareAndSet(false, true)) {
+            return model;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            RatingMatrix matrix;
+            try (Stream<User> users = userRepository.streamRatingsBy()) {
+                matrix = RatingMatrix.build(users::iterator);
+            }
+            lastLoadMillis = System.currentTimeMillis() - start;
+            if (matrix.ratingCount() == 0) {
+                return model;
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            AlsTrainer.Result result;
+            try {
+                result = AlsTrainer.train(matrix, config, pool, iteration ->
+                        System.out.println("[ALS] Iteration " + iteration.number() + ": " + iteration.millis() + "ms, "
+                                + Math.round(iteration.ratingsPerSecond()) + " ratings/s, RMSE "
+                                + String.format("%.4f", iteration.rmse())));
+            } finally {
+                pool.shutdown();
+            }
+            model = result.model();
+            lastResult = result;
+            trainedAt = System.currentTimeMillis();
+            System.out.println("[ALS] Trained rank " + config.rank() + " on " + result.ratings() + " ratings ("
+                    + matrix.userCount() + " users, " + matrix.movieCount() + " movies) with " + parallelism
+                    + " threads in " + (trainedAt - start) + "ms");
+            return model;
+        } catch (RuntimeException e) {
+            System.err.println("[ALS] Training failed, keeping the previous model: " + e.getMessage());
+            return model;
+        } finally {
+            training.set(false);
+        }
+    }
+
+    public AlsModel model() {
+        return model;
+    }
+
+    public Map<String, Object> getStats() {
+        AlsModel current = model;
+        AlsTrainer.Result result = lastResult;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rank", config.rank());
+        stats.put("users", current.userCount());
+        stats.put("movies", current.movieCount());
+        stats.put("parallelism", parallelism);
+        stats.put("training", training.get());
+        stats.put("trainedAt", trainedAt);
+        stats.put("lastLoadMillis", lastLoadMillis);
+        if (result != null && !result.iterations().isEmpty()) {
+            List<AlsTrainer.Iteration> iterations = result.iterations();
+            AlsTrainer.Iteration last = iterations.get(iterations.size() - 1);
+            stats.put("ratings", result.ratings());
+            stats.put("iterations", iterations.size());
+            stats.put("ratingsPerSecond", Math.round(iterations.stream()
+                    .mapToDouble(AlsTrainer.Iteration::ratingsPerSecond).average().orElse(0)));
+            stats.put("lastIterationMillis", last.millis());
+            stats.put("rmse", last.rmse());
+        }
+        return stats;
+    }
+}
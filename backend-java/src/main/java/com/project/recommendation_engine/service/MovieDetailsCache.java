@@ -0,0 +1,247 @@
+package com.project.recommendation_engine.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.project.recommendation_engine.model.CachedMovie;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.repository.CachedMovieRepository;
+
+// Read-through cache for movie details keyed by TMDB ID.
+// Tier 1: bounded in-heap cache (Caffeine, frequency-aware W-TinyLFU eviction).
+// Tier 2: Mongo collection "tmdb_movie_cache", shared across instances and restarts.
+// Entries older than the refresh threshold are reloaded in the background, so hot
+// titles are served from memory while TMDB is called off the request thread.
+@Component
+public class MovieDetailsCache {
+
+    private final CachedMovieRepository cachedMovieRepository;
+    private final Executor refreshExecutor;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+
+    private final Cache<Long, CachedMovie> memoryCache;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder memoryMisses = new LongAdder();
+    private final LongAdder mongoHits = new LongAdder();
+    private final LongAdder mongoMisses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public MovieDetailsCache(CachedMovieRepository cachedMovieRepository,
+                             @Qualifier("tmdbExecutor") Executor refreshExecutor,
+                             @Value("${tmdb.cache.max-size:2000}") long maxSize,
+                             @Value("${tmdb.cache.ttl-minutes:720}") long ttlMinutes,
+                             @Value("${tmdb.cache.refresh-after-minutes:540}") long refreshAfterMinutes) {
+        this.cachedMovieRepository = cachedMovieRepository;
+        this.refreshExecutor = refreshExecutor;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+        this.refreshAfterMillis = Duration.ofMinutes(refreshAfterMinutes).toMillis();
+
+        // Entries expire relative to when TMDB was called, not when they were copied from Mongo
+        this.memoryCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.writing((Long id, CachedMovie entry) ->
+                        Duration.ofMillis(Math.max(0, ttlMillis - (System.currentTimeMillis() - entry.getFetchedAt())))))
+                .build();
+    }
+
+    public TMDBResponse get(Long tmdbId, Function<Long, TMDBResponse> loader) {
+        long now = System.currentTimeMillis();
+
+        // Tier 1: memory
+        CachedMovie entry = memoryCache.getIfPresent(tmdbId);
+        if (entry != null) {
+            memoryHits.increment();
+            refreshIfAging(tmdbId, entry, loader, now);
+            return entry.getMovie();
+        }
+        memoryMisses.increment();
+
+        // Tier 2: Mongo
+        CachedMovie stored = readFromMongo(tmdbId);
+        if (stored != null && now - stored.getFetchedAt() < ttlMillis) {
+            mongoHits.increment();
+            memoryCache.put(tmdbId, stored);
+            refreshIfAging(tmdbId, stored, loader, now);
+            return stored.getMovie();
+        }
+        mongoMisses.increment();
+
+        // Miss on both tiers: synchronous TMDB call
+        TMDBResponse movie;
+        try {
+            movie = loader.apply(tmdbId);
+        } catch (RuntimeException e) {
+            // TMDB is failing: serve the expired copy if we have one (stale-if-error)
+            if (stored != null) {
+                System.err.println("Serving stale details for movie " + tmdbId + ": " + e.getMessage());
+                return stored.getMovie();
+            }
+            throw e;
+        }
+        if (movie != null) {
+            put(tmdbId, movie);
+            return movie;
+        }
+
+        // TMDB gave nothing back, an expired copy is still better than an empty page
+        return stored != null ? stored.getMovie() : null;
+    }
+
+    // Bulk lookup for a batch of IDs: one memory pass, then one Mongo query for the rest.
+    // Never calls TMDB for misses; aging hits are still refreshed in the background.
+    public BulkLookup getAll(Collection<Long> tmdbIds, Function<Long, TMDBResponse> loader) {
+        long now = System.currentTimeMillis();
+        Map<Long, TMDBResponse> fresh = new HashMap<>();
+        Map<Long, TMDBResponse> expired = new HashMap<>();
+
+        // Tier 1: memory
+        Map<Long, CachedMovie> inMemory = memoryCache.getAllPresent(tmdbIds);
+        for (Map.Entry<Long, CachedMovie> entry : inMemory.entrySet()) {
+            refreshIfAging(entry.getKey(), entry.getValue(), loader, now);
+            fresh.put(entry.getKey(), entry.getValue().getMovie());
+        }
+        memoryHits.add(inMemory.size());
+
+        List<String> remaining = new ArrayList<>();
+        for (Long tmdbId : tmdbIds) {
+            if (!inMemory.containsKey(tmdbId)) {
+                remaining.add(String.valueOf(tmdbId));
+            }
+        }
+        memoryMisses.add(remaining.size());
+        if (remaining.isEmpty()) {
+            return new BulkLookup(fresh, expired);
+        }
+
+        // Tier 2: Mongo, a single $in query
+        try {
+            for (CachedMovie stored : cachedMovieRepository.findAllById(remaining)) {
+                if (stored.getMovie() == null) {
+                    continue;
+                }
+                Long tmdbId = Long.valueOf(stored.getId());
+                if (now - stored.getFetchedAt() < ttlMillis) {
+                    memoryCache.put(tmdbId, stored);
+                    refreshIfAging(tmdbId, stored, loader, now);
+                    fresh.put(tmdbId, stored.getMovie());
+                } else {
+                    expired.put(tmdbId, stored.getMovie());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading " + remaining.size() + " movies from Mongo cache: " + e.getMessage());
+        }
+        int mongoFound = fresh.size() - inMemory.size();
+        mongoHits.add(mongoFound);
+        mongoMisses.add(remaining.size() - mongoFound);
+
+        return new BulkLookup(fresh, expired);
+    }
+
+    // fresh: usable as is. expired: past the TTL, only worth serving if TMDB fails.
+    public record BulkLookup(Map<Long, TMDBResponse> fresh, Map<Long, TMDBResponse> expired) {}
+
+    // Memory-only lookup, never calls TMDB or Mongo
+    public TMDBResponse getIfPresent(Long tmdbId) {
+        CachedMovie entry = memoryCache.getIfPresent(tmdbId);
+        return entry != null ? entry.getMovie() : null;
+    }
+
+    public void put(Long tmdbId, TMDBResponse movie) {
+        CachedMovie entry = new CachedMovie(String.valueOf(tmdbId), movie, System.currentTimeMillis());
+        memoryCache.put(tmdbId, entry);
+
+        try {
+            cachedMovieRepository.save(entry);
+        } catch (Exception e) {
+            System.err.println("Error saving movie " + tmdbId + " into Mongo cache: " + e.getMessage());
+        }
+    }
+
+    // Copy of the in-memory tier, for CacheSnapshot
+    public List<CachedMovie> memoryEntries() {
+        return new ArrayList<>(memoryCache.asMap().values());
+    }
+
+    // Puts an entry from a snapshot back into memory, keeping its original fetch time.
+    // Mongo already has it, so nothing is written there.
+    public boolean restore(CachedMovie entry) {
+        if (entry.getMovie() == null || System.currentTimeMillis() - entry.getFetchedAt() >= ttlMillis) {
+            return false;
+        }
+        memoryCache.asMap().putIfAbsent(Long.valueOf(entry.getId()), entry);
+        return true;
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("memoryMisses", memoryMisses.sum());
+        stats.put("mongoHits", mongoHits.sum());
+        stats.put("mongoMisses", mongoMisses.sum());
+        stats.put("backgroundRefreshes", refreshes.sum());
+        stats.put("memorySize", memoryCache.estimatedSize());
+        return stats;
+    }
+
+    private CachedMovie readFromMongo(Long tmdbId) {
+        try {
+            Optional<CachedMovie> stored = cachedMovieRepository.findById(String.valueOf(tmdbId));
+            return stored.filter(entry -> entry.getMovie() != null).orElse(null);
+        } catch (Exception e) {
+            System.err.println("Error reading movie " + tmdbId + " from Mongo cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void refreshIfAging(Long tmdbId, CachedMovie entry, Function<Long, TMDBResponse> loader, long now) {
+        if (now - entry.getFetchedAt() < refreshAfterMillis) {
+            return;
+        }
+        // Only one background refresh per movie at a time
+        if (!refreshing.add(tmdbId)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    TMDBResponse fresh = loader.apply(tmdbId);
+                    if (fresh != null) {
+                        put(tmdbId, fresh);
+                        refreshes.increment();
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error refreshing movie " + tmdbId + ": " + e.getMessage());
+                } finally {
+                    refreshing.remove(tmdbId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor is saturated, try again on a later hit
+            refreshing.remove(tmdbId);
+        }
+    }
+}
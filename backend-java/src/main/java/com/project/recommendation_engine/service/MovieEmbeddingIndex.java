@@ -0,0 +1,190 @@
+package com.project.recommendation_engine.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.Rating;
+
+import jakarta.annotation.PostConstruct;
+
+// HNSW index over the ALS movie vectors, so the movies closest to a user's taste vector come
+// back without scoring the whole catalog. Rebuilt after every ALS training run, saved to disk
+// and loaded at startup; searches keep using the previous index while a new one is built.
+// Scored by inner product, the same score ALS predicts with.
+// The index is kept, saved and loaded together with the model it was built from, and taste
+// vectors are folded in from that model: factors from separate training runs don't line up.
+@Component
+public class MovieEmbeddingIndex {
+
+    // An index and the model whose movie vectors it holds, swapped in as one
+    private record Built(HnswIndex index, AlsModel model) {}
+
+    private final Path file;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private volatile Built built;
+    private volatile long lastBuildMillis = -1;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+
+    public MovieEmbeddingIndex(@Value("${hnsw.file:${java.io.tmpdir}/movie-embeddings.hnsw}") String file,
+                               @Value("${hnsw.m:16}") int m,
+                               @Value("${hnsw.ef-construction:200}") int efConstruction,
+                               @Value("${hnsw.ef-search:64}") int efSearch) {
+        this.file = Paths.get(file);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    @PostConstruct
+    public void loadOnStartup() {
+        load();
+    }
+
+    // Indexes every movie vector of `model`, unless this model is already indexed
+    public synchronized void rebuild(AlsModel model) {
+        Built current = built;
+        if ((current != null && model == current.model()) || model.movieCount() == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        HnswIndex next = new HnswIndex(model.rank(), m, efConstruction, false, 42);
+        for (int movie = 0; movie < model.movieCount(); movie++) {
+            String movieId = model.movieId(movie);
+            next.insert(movieId, model.itemVector(movieId));
+        }
+        built = new Built(next, model);
+        lastBuildMillis = System.currentTimeMillis() - start;
+        System.out.println("[Embeddings] Indexed " + next.size() + " movie vectors in " + lastBuildMillis + "ms");
+        write();
+    }
+
+    // Movies with the highest predicted score for these ratings, excluding the rated ones.
+    // Empty until there is an index (the user's vector is folded in from its movie vectors).
+    public List<HnswIndex.Hit> recommend(List<Rating> ratings, int k) {
+        Built current = built;
+        if (current == null) {
+            return List.of();
+        }
+        float[] taste = current.model().foldIn(ratings);
+        if (taste == null || taste.length != current.index().dimension()) {
+            return List.of();
+        }
+        Set<String> rated = new HashSet<>();
+        for (Rating rating : ratings) {
+            rated.add(rating.getMovieId());
+        }
+        return search(current.index(), taste, k, rated);
+    }
+
+    // Movies whose vectors are closest to this movie's
+    public List<HnswIndex.Hit> similarMovies(String movieId, int k) {
+        Built latest = built;
+        HnswIndex current = latest != null ? latest.index() : null;
+        float[] vector = current != null ? current.vector(movieId) : null;
+        if (vector == null) {
+            return List.of();
+        }
+        return search(current, vector, k, Set.of(movieId));
+    }
+
+    private List<HnswIndex.Hit> search(HnswIndex current, float[] query, int k, Set<String> excluded) {
+        long start = System.nanoTime();
+        List<HnswIndex.Hit> hits = current.search(query, k + excluded.size(), Math.max(efSearch, k + excluded.size()));
+        List<HnswIndex.Hit> result = new ArrayList<>(k);
+        for (HnswIndex.Hit hit : hits) {
+            if (result.size() == k) {
+                break;
+            }
+            if (!excluded.contains(hit.key())) {
+                result.add(hit);
+            }
+        }
+        searchNanos.add(System.nanoTime() - start);
+        searches.increment();
+        return result;
+    }
+
+    // True if an index was loaded; a missing or unusable file leaves no index.
+    // The file holds the index followed by the movie side of its model.
+    public synchronized boolean load() {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            HnswIndex loaded = HnswIndex.read(in, 42);
+            AlsModel model = AlsModel.readMovies(in);
+            if (model.rank() != loaded.dimension()) {
+                throw new IOException("Model rank " + model.rank() + " doesn't match index dimension " + loaded.dimension());
+            }
+            if (built == null) {
+                built = new Built(loaded, model);
+            }
+            System.out.println("[Embeddings] Loaded " + loaded.size() + " movie vectors from " + file);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Embeddings] Discarding unusable index " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Overwritten by the next write anyway
+            }
+            return false;
+        }
+    }
+
+    private void write() {
+        Built current = built;
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                current.index().write(out);
+                current.model().writeMovies(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Embeddings] Error writing " + file + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Built latest = built;
+        HnswIndex current = latest != null ? latest.index() : null;
+        long searchCount = searches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("movies", current != null ? current.size() : 0);
+        stats.put("deleted", current != null ? current.deletedCount() : 0);
+        stats.put("maxLevel", current != null ? current.maxLevel() : -1);
+        stats.put("m", m);
+        stats.put("efSearch", efSearch);
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("searches", searchCount);
+        stats.put("avgSearchMicros", searchCount > 0 ? searchNanos.sum() / 1000.0 / searchCount : 0.0);
+        return stats;
+    }
+}
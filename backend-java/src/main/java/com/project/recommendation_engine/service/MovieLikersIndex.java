@@ -0,0 +1,447 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+
+// Inverted index from movie to the users who liked it (score >= the like threshold), built
+// from User.movieRatings. Users and movies are numbered densely and every list is a sorted
+// int[], so finding a user's neighbors only walks the likers of the movies they liked:
+// the work grows with the overlap between users, not with the number of users.
+// Immutable once built; CollaborativeFiltering swaps in a new one when it rebuilds, and a
+// copy with one user's likes replaced (withUser) after each of their ratings.
+public final class MovieLikersIndex {
+
+    public record Neighbor(String userId, int overlap, double similarity) {}
+
+    public record Candidate(String movieId, double score, int supporters) {}
+
+    public static final MovieLikersIndex EMPTY = build(List.of(), 4.0);
+
+    private final double likeThreshold;
+    private final String[] userIds;
+    private final Map<String, Integer> userIndex;
+    private final String[] movieIds;
+    private final Map<String, Integer> movieIndex;
+    private final int[][] likersByMovie; // movie -> users who liked it, ascending
+    private final int[][] likedByUser;   // user -> movies they liked, ascending
+    private final long likes;
+
+    // Scratch arrays (overlap counts per user, scores per movie) reused across queries and reset
+    // entry by entry, so a query never clears arrays sized by the whole index. Pooled per
+    // index rather than per thread, so they go away with the index after a rebuild.
+    private final Queue<Scratch> scratchPool;
+
+    private MovieLikersIndex(double likeThreshold, String[] userIds, Map<String, Integer> userIndex,
+                             String[] movieIds, Map<String, Integer> movieIndex,
+                             int[][] likersByMovie, int[][] likedByUser, long likes, Queue<Scratch> scratchPool) {
+        this.likeThreshold = likeThreshold;
+        this.userIds = userIds;
+        this.userIndex = userIndex;
+        this.movieIds = movieIds;
+        this.movieIndex = movieIndex;
+        this.likersByMovie = likersByMovie;
+        this.likedByUser = likedByUser;
+        this.likes = likes;
+        this.scratchPool = scratchPool;
+    }
+
+    public static MovieLikersIndex build(Iterable<User> users, double likeThreshold) {
+        List<String> userIds = new ArrayList<>();
+        Map<String, Integer> userIndex = new HashMap<>();
+        List<String> movieIds = new ArrayList<>();
+        Map<String, Integer> movieIndex = new HashMap<>();
+        List<int[]> likedByUser = new ArrayList<>();
+        int[] likerCounts = new int[16];
+        long likes = 0;
+
+        for (User user : users) {
+            if (user.getId() == null || userIndex.containsKey(user.getId())) {
+                continue;
+            }
+            int[] liked = likedMovies(user.getMovieRatings(), likeThreshold, movieIds, movieIndex);
+            int u = userIds.size();
+            userIds.add(user.getId());
+            userIndex.put(user.getId(), u);
+            likedByUser.add(liked);
+            if (movieIds.size() > likerCounts.length) {
+                likerCounts = Arrays.copyOf(likerCounts, Math.max(movieIds.size(), likerCounts.length * 2));
+            }
+            for (int m : liked) {
+                likerCounts[m]++;
+            }
+            likes += liked.length;
+        }
+
+        // Users are visited in index order, so every posting list comes out sorted
+        int[][] likersByMovie = new int[movieIds.size()][];
+        for (int m = 0; m < likersByMovie.length; m++) {
+            likersByMovie[m] = new int[likerCounts[m]];
+        }
+        int[] fill = new int[movieIds.size()];
+        for (int u = 0; u < likedByUser.size(); u++) {
+            for (int m : likedByUser.get(u)) {
+                likersByMovie[m][fill[m]++] = u;
+            }
+        }
+
+        return new MovieLikersIndex(likeThreshold, userIds.toArray(new String[0]), userIndex,
+                movieIds.toArray(new String[0]), movieIndex, likersByMovie,
+                likedByUser.toArray(new int[0][]), likes, new ConcurrentLinkedQueue<>());
+    }
+
+    // This index with `userId`'s likes replaced by the ones in `ratings`. Only the posting lists
+    // of movies they started or stopped liking are copied; every other list is shared, and so are
+    // the id maps and scratch pool unless the user or one of the movies is new. The cost is two
+    // array-of-references copies plus the changed lists, not a rebuild.
+    public MovieLikersIndex withUser(String userId, List<Rating> ratings) {
+        Integer existing = userIndex.get(userId);
+        int[] before = existing != null ? likedByUser[existing] : new int[0];
+
+        String[] nextMovieIds = movieIds;
+        Map<String, Integer> nextMovieIndex = movieIndex;
+        List<String> newMovies = new ArrayList<>();
+        if (ratings != null) {
+            for (Rating rating : ratings) {
+                if (rating.getMovieId() != null && rating.getScore() >= likeThreshold
+                        && !movieIndex.containsKey(rating.getMovieId()) && !newMovies.contains(rating.getMovieId())) {
+                    newMovies.add(rating.getMovieId());
+                }
+            }
+        }
+        if (!newMovies.isEmpty()) {
+            nextMovieIds = Arrays.copyOf(movieIds, movieIds.length + newMovies.size());
+            nextMovieIndex = new HashMap<>(movieIndex);
+            for (int i = 0; i < newMovies.size(); i++) {
+                nextMovieIds[movieIds.length + i] = newMovies.get(i);
+                nextMovieIndex.put(newMovies.get(i), movieIds.length + i);
+            }
+        }
+        int[] after = knownLikes(ratings, likeThreshold, nextMovieIndex);
+        if (Arrays.equals(before, after) && (existing != null || after.length == 0)) {
+            return this;
+        }
+
+        String[] nextUserIds = userIds;
+        Map<String, Integer> nextUserIndex = userIndex;
+        int u;
+        if (existing != null) {
+            u = existing;
+        } else {
+            u = userIds.length;
+            nextUserIds = Arrays.copyOf(userIds, u + 1);
+            nextUserIds[u] = userId;
+            nextUserIndex = new HashMap<>(userIndex);
+            nextUserIndex.put(userId, u);
+        }
+
+        int[][] nextLikedByUser = Arrays.copyOf(likedByUser, nextUserIds.length);
+        nextLikedByUser[u] = after;
+        int[][] nextLikersByMovie = Arrays.copyOf(likersByMovie, nextMovieIds.length);
+        for (int m = movieIds.length; m < nextMovieIds.length; m++) {
+            nextLikersByMovie[m] = new int[0];
+        }
+        // Both sides are sorted and distinct: one merge finds the added and removed likes
+        int i = 0;
+        int j = 0;
+        while (i < before.length || j < after.length) {
+            if (j == after.length || (i < before.length && before[i] < after[j])) {
+                nextLikersByMovie[before[i]] = withoutUser(nextLikersByMovie[before[i]], u);
+                i++;
+            } else if (i == before.length || after[j] < before[i]) {
+                nextLikersByMovie[after[j]] = withUser(nextLikersByMovie[after[j]], u);
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+
+        boolean sameShape = nextUserIds.length == userIds.length && nextMovieIds.length == movieIds.length;
+        return new MovieLikersIndex(likeThreshold, nextUserIds, nextUserIndex, nextMovieIds, nextMovieIndex,
+                nextLikersByMovie, nextLikedByUser, likes - before.length + after.length,
+                sameShape ? scratchPool : new ConcurrentLinkedQueue<>());
+    }
+
+    private static int[] withUser(int[] likers, int u) {
+        int at = -Arrays.binarySearch(likers, u) - 1;
+        int[] next = new int[likers.length + 1];
+        System.arraycopy(likers, 0, next, 0, at);
+        next[at] = u;
+        System.arraycopy(likers, at, next, at + 1, likers.length - at);
+        return next;
+    }
+
+    private static int[] withoutUser(int[] likers, int u) {
+        int at = Arrays.binarySearch(likers, u);
+        int[] next = new int[likers.length - 1];
+        System.arraycopy(likers, 0, next, 0, at);
+        System.arraycopy(likers, at + 1, next, at, likers.length - at - 1);
+        return next;
+    }
+
+    // Liked movies as sorted, distinct indices; movies seen for the first time are numbered
+    private static int[] likedMovies(List<Rating> ratings, double likeThreshold,
+                                     List<String> movieIds, Map<String, Integer> movieIndex) {
+        if (ratings == null || ratings.isEmpty()) {
+            return new int[0];
+        }
+        int[] liked = new int[ratings.size()];
+        int count = 0;
+        for (Rating rating : ratings) {
+            if (rating.getMovieId() == null || rating.getScore() < likeThreshold) {
+                continue;
+            }
+            Integer m = movieIndex.get(rating.getMovieId());
+            if (m == null) {
+                m = movieIds.size();
+                movieIds.add(rating.getMovieId());
+                movieIndex.put(rating.getMovieId(), m);
+            }
+            liked[count++] = m;
+        }
+        return distinctSorted(liked, count);
+    }
+
+    private static int[] distinctSorted(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+
+    // The `k` users whose likes overlap most with `ratings`, by cosine over the liked sets.
+    // `userId` itself is never its own neighbor. The ratings are passed in rather than read from
+    // the index, so a user who rated since the last rebuild still gets up-to-date neighbors.
+    public List<Neighbor> neighbors(String userId, List<Rating> ratings, int k) {
+        Scratch s = borrow();
+        try {
+            return neighbors(userId, ratings, k, s);
+        } finally {
+            scratchPool.offer(s);
+        }
+    }
+
+    private List<Neighbor> neighbors(String userId, List<Rating> ratings, int k, Scratch s) {
+        int[] liked = indexedLikes(ratings);
+        int touched = countOverlaps(userId, liked, s);
+        try {
+            return topNeighbors(liked.length, touched, k, s);
+        } finally {
+            s.resetOverlaps(touched);
+        }
+    }
+
+    // Movies liked by the `neighborCount` nearest neighbors that the user hasn't rated at all,
+    // scored by the summed similarity of the neighbors who liked them
+    public List<Candidate> candidates(String userId, List<Rating> ratings, int neighborCount, int limit) {
+        Scratch s = borrow();
+        try {
+            return candidates(userId, ratings, neighborCount, limit, s);
+        } finally {
+            scratchPool.offer(s);
+        }
+    }
+
+    private List<Candidate> candidates(String userId, List<Rating> ratings, int neighborCount, int limit, Scratch s) {
+        List<Neighbor> neighbors = neighbors(userId, ratings, neighborCount, s);
+        if (neighbors.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Everything the user rated, liked or not, is excluded
+        int excluded = 0;
+        if (ratings != null) {
+            for (Rating rating : ratings) {
+                Integer m = rating.getMovieId() != null ? movieIndex.get(rating.getMovieId()) : null;
+                if (m != null && !s.excluded[m]) {
+                    s.excluded[m] = true;
+                    s.excludedList[excluded++] = m;
+                }
+            }
+        }
+
+        int touched = 0;
+        try {
+            for (Neighbor neighbor : neighbors) {
+                for (int m : likedByUser[userIndex.get(neighbor.userId())]) {
+                    if (s.excluded[m]) {
+                        continue;
+                    }
+                    if (s.supporters[m] == 0) {
+                        s.touchedMovies[touched++] = m;
+                    }
+                    s.supporters[m]++;
+                    s.scores[m] += neighbor.similarity();
+                }
+            }
+
+            int[] order = topByScore(s.touchedMovies, touched, limit, s.scores, s.supporters);
+            List<Candidate> candidates = new ArrayList<>(order.length);
+            for (int m : order) {
+                candidates.add(new Candidate(movieIds[m], s.scores[m], s.supporters[m]));
+            }
+            return candidates;
+        } finally {
+            for (int i = 0; i < touched; i++) {
+                int m = s.touchedMovies[i];
+                s.scores[m] = 0;
+                s.supporters[m] = 0;
+            }
+            for (int i = 0; i < excluded; i++) {
+                s.excluded[s.excludedList[i]] = false;
+            }
+        }
+    }
+
+    private Scratch borrow() {
+        Scratch s = scratchPool.poll();
+        return s != null ? s : new Scratch(userIds.length, movieIds.length);
+    }
+
+    private int[] indexedLikes(List<Rating> ratings) {
+        // A movie nobody else liked yet can't produce neighbors
+        return knownLikes(ratings, likeThreshold, movieIndex);
+    }
+
+    // Liked movies already numbered in `movieIndex`, sorted and distinct
+    private static int[] knownLikes(List<Rating> ratings, double likeThreshold, Map<String, Integer> movieIndex) {
+        if (ratings == null) {
+            return new int[0];
+        }
+        int[] liked = new int[ratings.size()];
+        int count = 0;
+        for (Rating rating : ratings) {
+            if (rating.getMovieId() == null || rating.getScore() < likeThreshold) {
+                continue;
+            }
+            Integer m = movieIndex.get(rating.getMovieId());
+            if (m != null) {
+                liked[count++] = m;
+            }
+        }
+        return distinctSorted(liked, count);
+    }
+
+    // Walks the posting list of every liked movie; returns how many users got a count
+    private int countOverlaps(String userId, int[] liked, Scratch s) {
+        Integer self = userIndex.get(userId);
+        int touched = 0;
+        for (int m : liked) {
+            for (int v : likersByMovie[m]) {
+                if (self != null && v == self) {
+                    continue;
+                }
+                if (s.overlaps[v] == 0) {
+                    s.touchedUsers[touched++] = v;
+                }
+                s.overlaps[v]++;
+            }
+        }
+        return touched;
+    }
+
+    private List<Neighbor> topNeighbors(int likedCount, int touched, int k, Scratch s) {
+        if (touched == 0 || k <= 0) {
+            return List.of();
+        }
+        for (int i = 0; i < touched; i++) {
+            int v = s.touchedUsers[i];
+            s.similarities[v] = s.overlaps[v] / Math.sqrt((double) likedCount * likedByUser[v].length);
+        }
+        int[] order = topByScore(s.touchedUsers, touched, k, s.similarities, s.overlaps);
+        List<Neighbor> neighbors = new ArrayList<>(order.length);
+        for (int v : order) {
+            neighbors.add(new Neighbor(userIds[v], s.overlaps[v], s.similarities[v]));
+        }
+        return neighbors;
+    }
+
+    // The `limit` best of `items[0..count)`: highest score, then highest count, then lowest index
+    private static int[] topByScore(int[] items, int count, int limit, double[] scores, int[] counts) {
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            boxed[i] = items[i];
+        }
+        Arrays.sort(boxed, (a, b) -> {
+            int byScore = Double.compare(scores[b], scores[a]);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byCount = Integer.compare(counts[b], counts[a]);
+            return byCount != 0 ? byCount : Integer.compare(a, b);
+        });
+        int size = Math.min(limit, count);
+        int[] top = new int[size];
+        for (int i = 0; i < size; i++) {
+            top[i] = boxed[i];
+        }
+        return top;
+    }
+
+    public double likeThreshold() {
+        return likeThreshold;
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int movieCount() {
+        return movieIds.length;
+    }
+
+    public long likeCount() {
+        return likes;
+    }
+
+    public boolean containsUser(String userId) {
+        return userIndex.containsKey(userId);
+    }
+
+    // Every indexed user, for publishing buckets in bulk
+    public List<String> userIds() {
+        return List.of(userIds);
+    }
+
+    private static final class Scratch {
+        final int[] overlaps;
+        final double[] similarities;
+        final int[] touchedUsers;
+        final double[] scores;
+        final int[] supporters;
+        final boolean[] excluded;
+        final int[] touchedMovies;
+        final int[] excludedList;
+
+        Scratch(int users, int movies) {
+            overlaps = new int[users];
+            similarities = new double[users];
+            touchedUsers = new int[users];
+            scores = new double[movies];
+            supporters = new int[movies];
+            excluded = new boolean[movies];
+            touchedMovies = new int[movies];
+            excludedList = new int[movies];
+        }
+
+        void resetOverlaps(int touched) {
+            for (int i = 0; i < touched; i++) {
+                int v = touchedUsers[i];
+                overlaps[v] = 0;
+                similarities[v] = 0;
+            }
+        }
+    }
+}
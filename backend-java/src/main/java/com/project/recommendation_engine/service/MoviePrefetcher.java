@@ -0,0 +1,155 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.UserRecommendation;
+
+// Loads details for the recommendation cards a user is about to click, in the background,
+// so /movie/id/{tmdbId} opens from the cache. Only the first cards of each section are
+// considered, a page queues at most `max-per-page` movies, and all pages share at most
+// `max-in-flight` workers, so prefetching never takes over the TMDB executor or rate limit.
+@Component
+public class MoviePrefetcher {
+
+    private final TMDBService tmdbService;
+    private final Executor tmdbExecutor;
+    private final int cardsPerSection;
+    private final int maxPerPage;
+    private final int maxInFlight;
+    private final int maxQueued;
+
+    private final Queue<Long> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger workers = new AtomicInteger();
+
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder alreadyCached = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder fetched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public MoviePrefetcher(TMDBService tmdbService,
+                           @Qualifier("tmdbExecutor") Executor tmdbExecutor,
+                           @Value("${tmdb.prefetch.cards-per-section:6}") int cardsPerSection,
+                           @Value("${tmdb.prefetch.max-per-page:24}") int maxPerPage,
+                           @Value("${tmdb.prefetch.max-in-flight:3}") int maxInFlight,
+                           @Value("${tmdb.prefetch.max-queued:200}") int maxQueued) {
+        this.tmdbService = tmdbService;
+        this.tmdbExecutor = tmdbExecutor;
+        this.cardsPerSection = cardsPerSection;
+        this.maxPerPage = maxPerPage;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+    }
+
+    // Queues the first cards of every section, first card of each section before any second
+    // card, so a cut budget still covers what is on screen. Returns how many were queued.
+    public int prefetchSections(List<UserRecommendation.RecSection> sections) {
+        if (sections == null || sections.isEmpty()) {
+            return 0;
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (int position = 0; position < cardsPerSection && ids.size() < maxPerPage; position++) {
+            for (UserRecommendation.RecSection section : sections) {
+                List<UserRecommendation.RecMovie> movies = section.getMovies();
+                if (movies != null && position < movies.size() && movies.get(position).getId() != null) {
+                    ids.add(movies.get(position).getId().longValue());
+                    if (ids.size() == maxPerPage) {
+                        break;
+                    }
+                }
+            }
+        }
+        return prefetch(new ArrayList<>(ids));
+    }
+
+    public int prefetch(List<Long> tmdbIds) {
+        int added = 0;
+        for (Long tmdbId : tmdbIds) {
+            requested.increment();
+            if (tmdbService.isMovieCached(tmdbId)) {
+                alreadyCached.increment();
+            } else if (queued.size() >= maxQueued) {
+                dropped.increment();
+            } else if (queued.add(tmdbId)) {
+                pending.add(tmdbId);
+                added++;
+            }
+        }
+        if (added > 0) {
+            startWorkers();
+        }
+        return added;
+    }
+
+    private void startWorkers() {
+        while (!pending.isEmpty()) {
+            int running = workers.get();
+            if (running >= maxInFlight) {
+                return;
+            }
+            if (!workers.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            try {
+                tmdbExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // TMDB executor is busy with real requests; what is queued waits for the next page
+                workers.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Long tmdbId;
+            while ((tmdbId = pending.poll()) != null) {
+                try {
+                    if (!tmdbService.isMovieCached(tmdbId)) {
+                        tmdbService.fetchMovieById(tmdbId);
+                        fetched.increment();
+                    }
+                } catch (RuntimeException e) {
+                    failed.increment();
+                } finally {
+                    queued.remove(tmdbId);
+                }
+            }
+        } finally {
+            workers.decrementAndGet();
+        }
+        // An ID queued between the last poll and the decrement still gets a worker
+        if (!pending.isEmpty()) {
+            startWorkers();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requested", requested.sum());
+        stats.put("alreadyCached", alreadyCached.sum());
+        stats.put("fetched", fetched.sum());
+        stats.put("failed", failed.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", queued.size());
+        stats.put("workers", workers.get());
+        return stats;
+    }
+}
@@ -0,0 +1,358 @@
+package com.project.recommendation_engine.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.project.recommendation_engine.util.PosterUrls;
+
+// Size-bounded on-disk LRU of poster images, served by PosterController.
+// Each TMDB poster is downloaded once at the source width; smaller widths are resized from
+// that copy here in the JVM. Files live flat in one directory ("w342-abc.jpg"), the
+// in-memory index only tracks their sizes and recency, and the least recently served files
+// are evicted once the directory grows past max-bytes. Evicted files are only deleted after
+// delete-grace-ms, so a response still sending one (sendfile opens it after we return) finishes.
+@Component
+public class PosterCache {
+
+    static final int SOURCE_WIDTH = PosterUrls.FULL_WIDTH;
+    private static final Set<Integer> WIDTHS = Set.of(92, 185, PosterUrls.CARD_WIDTH, SOURCE_WIDTH);
+    // TMDB poster names; also keeps anything like "../" out of the cache directory
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}\\.(jpg|jpeg|png)");
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String sourceUrl;
+    private final long deleteGraceMs;
+    private final RestTemplate restTemplate;
+
+    // Guarded by this. Access-ordered, so the eldest entry is the least recently served file.
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    // Guarded by this. Evicted files waiting out the grace period, in eviction order
+    private final LinkedHashMap<String, Eviction> evicted = new LinkedHashMap<>();
+
+    private record Eviction(long bytes, long evictedAt) {}
+
+    // An open poster file; the channel keeps the bytes readable even if the file is deleted meanwhile
+    public record Poster(Path path, long size, FileChannel channel) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // One download or resize per file at a time; concurrent requests wait for it
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder resizes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder refetches = new LongAdder();
+
+    public PosterCache(@Value("${tmdb.posters.dir:${java.io.tmpdir}/movie-posters}") String directory,
+                       @Value("${tmdb.posters.max-bytes:268435456}") long maxBytes,
+                       @Value("${tmdb.posters.source-url:https://image.tmdb.org/t/p/w500}") String sourceUrl,
+                       @Value("${tmdb.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                       @Value("${tmdb.http.read-timeout-ms:5000}") long readTimeoutMs,
+                       @Value("${tmdb.posters.delete-grace-ms:60000}") long deleteGraceMs) throws IOException {
+        this.directory = Path.of(directory);
+        this.maxBytes = maxBytes;
+        this.sourceUrl = sourceUrl;
+        this.deleteGraceMs = deleteGraceMs;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        Files.createDirectories(this.directory);
+        loadExisting();
+    }
+
+    public static boolean isValid(int width, String fileName) {
+        return WIDTHS.contains(width) && fileName != null && FILE_NAME.matcher(fileName).matches();
+    }
+
+    // Like get, with the file already open for the response. A file deleted between the lookup
+    // and the open (another instance sharing the directory, a manual cleanup) is fetched again.
+    public Poster open(int width, String fileName) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Path path = get(width, fileName);
+            if (path == null) {
+                return null;
+            }
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                return new Poster(path, channel.size(), channel);
+            } catch (NoSuchFileException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+                forget("w" + width + "-" + fileName);
+                refetches.increment();
+            }
+        }
+    }
+
+    // The cached file for this poster at this width, fetched or resized on a miss. Null if TMDB has no such poster.
+    public Path get(int width, String fileName) throws IOException {
+        if (!isValid(width, fileName)) {
+            return null;
+        }
+        String key = "w" + width + "-" + fileName;
+        Path path = directory.resolve(key);
+        if (touch(key) && Files.exists(path)) {
+            hits.increment();
+            return path;
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Path produced = width == SOURCE_WIDTH ? download(fileName, path) : resize(fileName, path, width);
+            if (produced != null) {
+                record(key, Files.size(produced));
+            }
+            mine.complete(produced);
+            return produced;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Path download(String fileName, Path path) throws IOException {
+        Path partial = Files.createTempFile(directory, path.getFileName().toString(), ".part");
+        try {
+            restTemplate.execute(sourceUrl + "/" + fileName, HttpMethod.GET, null, response -> {
+                Files.copy(response.getBody(), partial, StandardCopyOption.REPLACE_EXISTING);
+                return null;
+            });
+            // Readers only ever see complete files
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            downloads.increment();
+            return path;
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private Path resize(String fileName, Path path, int width) throws IOException {
+        Path source = get(SOURCE_WIDTH, fileName);
+        if (source == null) {
+            return null;
+        }
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            throw new IOException("Unreadable poster image: " + fileName);
+        }
+
+        // Halve first, then one last bilinear step: close to area averaging, and cheap
+        while (image.getWidth() / 2 >= width) {
+            image = scale(image, image.getWidth() / 2);
+        }
+        if (image.getWidth() > width) {
+            image = scale(image, width);
+        }
+
+        Path partial = Files.createTempFile(directory, path.getFileName().toString(), ".part");
+        try {
+            write(image, fileName.endsWith(".png") ? "png" : "jpg", partial);
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            resizes.increment();
+            return path;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        if (!"jpg".equals(format)) {
+            ImageIO.write(image, format, target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    // An evicted file still inside its grace period is taken back instead of fetched again
+    private synchronized boolean touch(String key) {
+        if (files.get(key) != null) {
+            return true;
+        }
+        Eviction eviction = evicted.remove(key);
+        if (eviction != null) {
+            files.put(key, eviction.bytes());
+            totalBytes += eviction.bytes();
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void forget(String key) {
+        Long bytes = files.remove(key);
+        if (bytes != null) {
+            totalBytes -= bytes;
+        }
+        evicted.remove(key);
+    }
+
+    private synchronized void record(String key, long bytes) {
+        Long previous = files.put(key, bytes);
+        totalBytes += bytes - (previous != null ? previous : 0);
+        evicted.remove(key);
+        long now = System.currentTimeMillis();
+
+        Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            evicted.put(entry.getKey(), new Eviction(entry.getValue(), now));
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            evictions.increment();
+        }
+        deleteExpired(now);
+    }
+
+    // Evictions are in time order, so this stops at the first one still in its grace period
+    private void deleteExpired(long now) {
+        Iterator<Map.Entry<String, Eviction>> oldest = evicted.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Eviction> entry = oldest.next();
+            if (now - entry.getValue().evictedAt() < deleteGraceMs) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                // Still open somewhere (Windows); tried again on the next eviction
+                System.err.println("Error evicting poster " + entry.getKey() + ": " + e.getMessage());
+                return;
+            }
+            oldest.remove();
+        }
+    }
+
+    // Files left by the last run count against the budget, oldest first in LRU order
+    private void loadExisting() throws IOException {
+        List<Path> existing;
+        try (Stream<Path> listing = Files.list(directory)) {
+            existing = listing.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        existing.sort(Comparator.comparingLong(PosterCache::lastModified));
+        for (Path path : existing) {
+            String name = path.getFileName().toString();
+            if (name.endsWith(".part")) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            record(name, Files.size(path));
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("files", files.size());
+            stats.put("bytes", totalBytes);
+            stats.put("pendingDeletes", evicted.size());
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.sum());
+        stats.put("downloads", downloads.sum());
+        stats.put("resizes", resizes.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("refetches", refetches.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,388 @@
+package com.project.recommendation_engine.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.annotation.PreDestroy;
+
+// Supervised pool of long-lived `batch_processor.py --worker` processes. A worker imports the
+// agent once and keeps its Mongo client and lru_cache warm between jobs, so a job costs only
+// the pipeline itself. Jobs go to the worker's stdin as one JSON line and the reply comes back
+// as one JSON line on stdout; the worker's logs arrive on stderr. Each worker runs one job at
+// a time. A worker is replaced when it exits, misses a job's deadline or a health check, or
+// has served max-jobs jobs (which bounds whatever the agent's libraries leak).
+@Component
+public class PythonWorkerPool {
+
+    public record Result(boolean success, String error, long millis) {}
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final JsonNode EOF = JSON.createObjectNode(); // Queued when a worker's stdout closes
+
+    private final String command;
+    private final String scriptPath;
+    private final int size;
+    private final int maxJobs;
+    private final long jobTimeoutMs;
+    private final long startupTimeoutMs;
+    private final long pingTimeoutMs;
+
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger live = new AtomicInteger(); // Started and not retired, idle or busy
+    private final AtomicInteger nextWorkerNumber = new AtomicInteger();
+    private final AtomicLong nextJobId = new AtomicLong();
+    private volatile boolean closed;
+
+    private final LongAdder jobs = new LongAdder();
+    private final LongAdder failedJobs = new LongAdder();
+    private final LongAdder jobNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder crashes = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder failedStarts = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder healthChecks = new LongAdder();
+    private final LongAdder failedHealthChecks = new LongAdder();
+
+    public PythonWorkerPool(@Value("${app.python.command:python3}") String command,
+                            @Value("${app.python.script-path:./python_agent/batch_processor.py}") String scriptPath,
+                            @Value("${agent.workers.size:2}") int size,
+                            @Value("${agent.workers.max-jobs:200}") int maxJobs,
+                            @Value("${agent.workers.job-timeout-ms:300000}") long jobTimeoutMs,
+                            @Value("${agent.workers.startup-timeout-ms:60000}") long startupTimeoutMs,
+                            @Value("${agent.workers.ping-timeout-ms:5000}") long pingTimeoutMs) {
+        this.command = command;
+        this.scriptPath = scriptPath;
+        this.size = Math.max(1, size);
+        this.maxJobs = maxJobs;
+        this.jobTimeoutMs = jobTimeoutMs;
+        this.startupTimeoutMs = startupTimeoutMs;
+        this.pingTimeoutMs = pingTimeoutMs;
+    }
+
+    // Runs the agent for one user on a warm worker; waits for a free one when all are busy
+    public Result runForUser(String userId) {
+        ObjectNode job = JSON.createObjectNode().put("type", "user").put("user_id", userId);
+        long start = System.nanoTime();
+        Result result = run(job);
+        jobNanos.add(System.nanoTime() - start);
+        jobs.increment();
+        if (!result.success()) {
+            failedJobs.increment();
+        }
+        return result;
+    }
+
+    private Result run(ObjectNode job) {
+        long start = System.nanoTime();
+        Worker worker;
+        try {
+            worker = borrow();
+        } catch (IOException e) {
+            return new Result(false, "No worker available: " + e.getMessage(), millisSince(start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(false, "Interrupted waiting for a worker", millisSince(start));
+        }
+
+        try {
+            JsonNode reply = worker.call(job, jobTimeoutMs);
+            worker.jobs++;
+            release(worker);
+            boolean ok = "ok".equals(reply.path("status").asText());
+            return new Result(ok, ok ? null : reply.path("error").asText("Unknown error"), millisSince(start));
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            discard(worker, "job timed out after " + jobTimeoutMs + "ms");
+            return new Result(false, "Timed out after " + jobTimeoutMs + "ms", millisSince(start));
+        } catch (IOException e) {
+            crashes.increment();
+            discard(worker, e.getMessage());
+            return new Result(false, "Worker failed: " + e.getMessage(), millisSince(start));
+        } catch (InterruptedException e) {
+            // The worker may still answer later; it can't be reused for another job
+            Thread.currentThread().interrupt();
+            discard(worker, "caller interrupted");
+            return new Result(false, "Interrupted", millisSince(start));
+        }
+    }
+
+    private Worker borrow() throws IOException, InterruptedException {
+        while (true) {
+            if (closed) {
+                throw new IOException("pool is shut down");
+            }
+            Worker worker = idle.poll();
+            if (worker == null && reserveSlot()) {
+                return startReserved();
+            }
+            if (worker == null) {
+                // Every worker is busy: wait for one to come back
+                worker = idle.poll(jobTimeoutMs, TimeUnit.MILLISECONDS);
+                if (worker == null) {
+                    throw new IOException("all " + size + " workers busy for " + jobTimeoutMs + "ms");
+                }
+            }
+            if (worker.alive()) {
+                return worker;
+            }
+            crashes.increment();
+            discard(worker, "exited while idle");
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = live.get();
+            if (current >= size) {
+                return false;
+            }
+            if (live.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Caller has reserved a slot; frees it again if the worker doesn't come up
+    private Worker startReserved() throws IOException, InterruptedException {
+        int number = nextWorkerNumber.incrementAndGet();
+        Worker worker = null;
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command, scriptPath, "--worker");
+            worker = new Worker(number, builder.start());
+            JsonNode ready = worker.replies.poll(startupTimeoutMs, TimeUnit.MILLISECONDS);
+            if (ready == null || ready == EOF || !"ready".equals(ready.path("type").asText())) {
+                throw new IOException("worker " + number + " did not report ready within " + startupTimeoutMs + "ms");
+            }
+            started.increment();
+            System.out.println("[Workers] Started worker " + number + " (pid " + worker.process.pid() + ")");
+            return worker;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            failedStarts.increment();
+            live.decrementAndGet();
+            if (worker != null) {
+                worker.kill();
+            }
+            throw e;
+        }
+    }
+
+    private void release(Worker worker) {
+        if (closed) {
+            retire(worker);
+        } else if (maxJobs > 0 && worker.jobs >= maxJobs) {
+            // A fresh one is started on the next borrow
+            recycled.increment();
+            retire(worker);
+        } else {
+            idle.offer(worker);
+        }
+    }
+
+    // Lets the worker finish and exit on its own (end of stdin)
+    private void retire(Worker worker) {
+        live.decrementAndGet();
+        worker.close();
+    }
+
+    private void discard(Worker worker, String reason) {
+        System.err.println("[Workers] Replacing worker " + worker.number + ": " + reason);
+        live.decrementAndGet();
+        worker.kill();
+    }
+
+    // Pings every idle worker, replaces the ones that don't answer, and starts workers until
+    // the pool is full, so the first job after startup or a crash doesn't pay the imports
+    public void checkHealth() {
+        if (closed) {
+            return;
+        }
+        int count = idle.size();
+        for (int i = 0; i < count; i++) {
+            Worker worker = idle.poll();
+            if (worker == null) {
+                break;
+            }
+            healthChecks.increment();
+            try {
+                worker.call(JSON.createObjectNode().put("type", "ping"), pingTimeoutMs);
+                idle.offer(worker);
+            } catch (TimeoutException | IOException e) {
+                failedHealthChecks.increment();
+                discard(worker, "health check failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                idle.offer(worker);
+                return;
+            }
+        }
+        while (!closed && reserveSlot()) {
+            try {
+                idle.offer(startReserved());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[Workers] Could not start a worker: " + e.getMessage());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        Worker worker;
+        while ((worker = idle.poll()) != null) {
+            retire(worker);
+        }
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public Map<String, Object> getStats() {
+        long jobCount = jobs.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("live", live.get());
+        stats.put("idle", idle.size());
+        stats.put("jobs", jobCount);
+        stats.put("failedJobs", failedJobs.sum());
+        stats.put("avgJobMillis", jobCount > 0 ? jobNanos.sum() / 1_000_000.0 / jobCount : 0.0);
+        stats.put("timeouts", timeouts.sum());
+        stats.put("crashes", crashes.sum());
+        stats.put("started", started.sum());
+        stats.put("failedStarts", failedStarts.sum());
+        stats.put("recycled", recycled.sum());
+        stats.put("healthChecks", healthChecks.sum());
+        stats.put("failedHealthChecks", failedHealthChecks.sum());
+        return stats;
+    }
+
+    // One process. Its stdout is read by a thread that queues the parsed replies, so a caller
+    // can wait for a reply with a deadline; stderr is copied to our log.
+    private final class Worker {
+        final int number;
+        final Process process;
+        final BufferedWriter stdin;
+        final BlockingQueue<JsonNode> replies = new LinkedBlockingQueue<>();
+        int jobs; // Only touched by the thread holding the worker
+
+        Worker(int number, Process process) {
+            this.number = number;
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            Thread stdoutReader = new Thread(this::readReplies, "PythonWorker-" + number + "-out");
+            stdoutReader.setDaemon(true);
+            stdoutReader.start();
+            Thread stderrReader = new Thread(this::copyLogs, "PythonWorker-" + number + "-err");
+            stderrReader.setDaemon(true);
+            stderrReader.start();
+        }
+
+        // Sends the job and waits for the reply carrying its id; earlier replies are stale
+        JsonNode call(ObjectNode job, long timeoutMs) throws IOException, TimeoutException, InterruptedException {
+            long id = nextJobId.incrementAndGet();
+            job.put("id", id);
+            stdin.write(JSON.writeValueAsString(job));
+            stdin.newLine();
+            stdin.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                JsonNode reply = remaining > 0 ? replies.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (reply == null) {
+                    throw new TimeoutException("no reply within " + timeoutMs + "ms");
+                }
+                if (reply == EOF) {
+                    throw new IOException("worker " + number + " exited" + exitCode());
+                }
+                if (reply.path("id").asLong(-1) == id) {
+                    return reply;
+                }
+            }
+        }
+
+        private void readReplies() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        replies.offer(JSON.readTree(line));
+                    } catch (JsonProcessingException e) {
+                        System.out.println("   [Python Worker " + number + "]: " + line);
+                    }
+                }
+            } catch (IOException ignored) {
+                // Process killed; treated as an exit
+            } finally {
+                replies.offer(EOF);
+            }
+        }
+
+        private void copyLogs() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    System.out.println("   [Python Worker " + number + "]: " + line);
+                }
+            } catch (IOException ignored) {
+                // Process killed
+            }
+        }
+
+        private String exitCode() {
+            try {
+                return process.waitFor(1, TimeUnit.SECONDS) ? " with code " + process.exitValue() : "";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "";
+            }
+        }
+
+        boolean alive() {
+            return process.isAlive();
+        }
+
+        // End of stdin ends the worker's loop; it is killed if it hasn't exited a few seconds later
+        void close() {
+            try {
+                stdin.close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+            process.onExit().completeOnTimeout(process, 5, TimeUnit.SECONDS)
+                    .thenAccept(p -> p.destroyForcibly());
+        }
+
+        void kill() {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.recommendation_engine.service;
+
+import java.io.IOException;
+import java.util.List;
+
+// The model that arranges a user's candidates into home-page sections, for RecommendationPipeline.
+// HttpRankingClient talks to a chat-completions endpoint; tests point it at a local stub.
+public interface RankingClient {
+
+    // One movie the model may pick; origin is collaborative, content_based or trending
+    record Candidate(String id, String title, String origin, String info) {}
+
+    record Request(List<String> favoriteGenres, int historyCount, List<Candidate> candidates) {}
+
+    record Pick(String id, String reason) {}
+
+    record Section(String title, String type, List<Pick> picks) {}
+
+    record Ranking(String justification, List<Section> sections) {}
+
+    // False when no endpoint is configured; the pipeline is not used then
+    boolean isConfigured();
+
+    Ranking rank(Request request) throws IOException;
+}
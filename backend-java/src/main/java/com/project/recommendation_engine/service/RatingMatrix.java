@@ -0,0 +1,179 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+
+// Every rating in the users collection as a sparse matrix, stored twice (by user and by movie)
+// in growable int/float arrays, plus the squared norm of each movie column. Users and movies
+// are numbered densely in the order they are first seen, so numbers never change while ratings
+// are added. Not thread-safe: ItemSimilarity only touches it while holding its own lock.
+public final class RatingMatrix {
+
+    private final List<String> userIds = new ArrayList<>();
+    private final Map<String, Integer> userIndex = new HashMap<>();
+    private final List<String> movieIds = new ArrayList<>();
+    private final Map<String, Integer> movieIndex = new HashMap<>();
+
+    private Row[] byUser = new Row[16];
+    private Row[] byMovie = new Row[16];
+    private double[] squaredNorms = new double[16];
+    private long ratings;
+
+    public static RatingMatrix build(Iterable<User> users) {
+        RatingMatrix matrix = new RatingMatrix();
+        for (User user : users) {
+            if (user.getId() == null || user.getMovieRatings() == null) {
+                continue;
+            }
+            for (Rating rating : user.getMovieRatings()) {
+                if (rating.getMovieId() != null) {
+                    matrix.set(user.getId(), rating.getMovieId(), (float) rating.getScore());
+                }
+            }
+        }
+        return matrix;
+    }
+
+    // Adds or replaces one rating; returns the movie's number
+    public int set(String userId, String movieId, float score) {
+        int u = userNumber(userId);
+        int m = movieNumber(movieId);
+        float previous = byUser[u].put(m, score);
+        if (Float.isNaN(previous)) {
+            // New pair: no need to scan a popular movie's raters for it
+            byMovie[m].append(u, score);
+            ratings++;
+            squaredNorms[m] += (double) score * score;
+        } else {
+            byMovie[m].put(u, score);
+            squaredNorms[m] += (double) score * score - (double) previous * previous;
+        }
+        return m;
+    }
+
+    private int userNumber(String userId) {
+        Integer u = userIndex.get(userId);
+        if (u == null) {
+            u = userIds.size();
+            userIds.add(userId);
+            userIndex.put(userId, u);
+            if (u == byUser.length) {
+                byUser = Arrays.copyOf(byUser, u * 2);
+            }
+            byUser[u] = new Row();
+        }
+        return u;
+    }
+
+    private int movieNumber(String movieId) {
+        Integer m = movieIndex.get(movieId);
+        if (m == null) {
+            m = movieIds.size();
+            movieIds.add(movieId);
+            movieIndex.put(movieId, m);
+            if (m == byMovie.length) {
+                byMovie = Arrays.copyOf(byMovie, m * 2);
+                squaredNorms = Arrays.copyOf(squaredNorms, m * 2);
+            }
+            byMovie[m] = new Row();
+        }
+        return m;
+    }
+
+    public int userCount() {
+        return userIds.size();
+    }
+
+    public int movieCount() {
+        return movieIds.size();
+    }
+
+    public long ratingCount() {
+        return ratings;
+    }
+
+    public String userId(int u) {
+        return userIds.get(u);
+    }
+
+    public String movieId(int m) {
+        return movieIds.get(m);
+    }
+
+    // Number of a movie, or -1 if nobody rated it
+    public int indexOfMovie(String movieId) {
+        Integer m = movieIndex.get(movieId);
+        return m != null ? m : -1;
+    }
+
+    // Number of a user, or -1 if they have no ratings
+    public int indexOfUser(String userId) {
+        Integer u = userIndex.get(userId);
+        return u != null ? u : -1;
+    }
+
+    public String[] movieIds() {
+        return movieIds.toArray(new String[0]);
+    }
+
+    public Row ratingsOfUser(int u) {
+        return byUser[u];
+    }
+
+    public Row ratingsOfMovie(int m) {
+        return byMovie[m];
+    }
+
+    public double squaredNorm(int m) {
+        return squaredNorms[m];
+    }
+
+    // One row or column: parallel arrays of other-side numbers and scores, unsorted
+    public static final class Row {
+        private int[] ids = new int[4];
+        private float[] scores = new float[4];
+        private int size;
+
+        // Returns the replaced score, or NaN if the entry is new
+        float put(int id, float score) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    float previous = scores[i];
+                    scores[i] = score;
+                    return previous;
+                }
+            }
+            append(id, score);
+            return Float.NaN;
+        }
+
+        // Caller knows `id` isn't in the row yet
+        void append(int id, float score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            ids[size] = id;
+            scores[size] = score;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int id(int i) {
+            return ids[i];
+        }
+
+        public float score(int i) {
+            return scores[i];
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.project.recommendation_engine.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -18,48 +19,43 @@ public class RecommendationAgentService {
 
     //private final String PYTHON_CMD = "python3";
 
+    @Autowired
+    private CollaborativeFiltering collaborativeFiltering;
+
+    @Autowired
+    private PythonWorkerPool pythonWorkerPool;
+
+    @Autowired
+    private RecommendationPipeline recommendationPipeline;
+
     @Async("taskExecutor") // Thread's pool defined on AsyncConfig
     public void triggerRecommendationForUser(String userId) {
         long startTime = System.currentTimeMillis();
-        System.out.println("[Async] Running Python Agent for User: " + userId);
-
-        try {
-            // Build command: python batch_processor.py --user_id XXXXX
-            ProcessBuilder processBuilder = new ProcessBuilder(
-                    pythonCommand,
-                    SCRIPT_PATH,
-                    "--user_id",
-                    userId
-            );
-
-            // See messages on Java Console
-            processBuilder.redirectErrorStream(true);
+        System.out.println("[Async] Running Agent for User: " + userId);
 
-            // Initiate process
-            Process process = processBuilder.start();
+        String error = runAgent(userId);
+        long duration = System.currentTimeMillis() - startTime;
 
-            // Read what Python prints for debugging from Java
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // TITLE to distinguish from Spring messages logs
-                System.out.println("   [Python Agent]: " + line);
-            }
+        if (error == null) {
+            System.out.println("[Async] Agent ended successfully in " + duration + "ms");
+        } else {
+            System.err.println("[Async] Agent failed for user " + userId + ": " + error);
+        }
+    }
 
-            // Wait till it finishes
-            int exitCode = process.waitFor();
-            long duration = System.currentTimeMillis() - startTime;
+    // In the JVM when the pipeline is enabled, else on a warm Python worker; null on success
+    private String runAgent(String userId) {
+        if (recommendationPipeline.isEnabled()) {
+            RecommendationPipeline.Result result = recommendationPipeline.run(userId);
+            return result.success() ? null : result.error();
+        }
 
-            if (exitCode == 0) {
-                System.out.println("[Async] Agent ended successfully in " + duration + "ms");
-            } else {
-                System.err.println("[Async] Agent fail with end code: " + exitCode);
-            }
+        // The agent reads the user's collaborative candidates instead of scanning every profile
+        collaborativeFiltering.publish(userId);
 
-        } catch (Exception e) {
-            System.err.println("[Async] CRITICAL FAIL RUNNING SCRIPT: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Runs on a warm worker from the pool instead of starting python for every request
+        PythonWorkerPool.Result result = pythonWorkerPool.runForUser(userId);
+        return result.success() ? null : result.error();
     }
 
     // For all users every two weeks (Sundays at 1:00 AM)
@@ -67,6 +63,14 @@ public class RecommendationAgentService {
         long startTime = System.currentTimeMillis();
         System.out.println("[Scheduler] initializing Batch for All Users...");
 
+        if (recommendationPipeline.isEnabled()) {
+            recommendationPipeline.runAll();
+            System.out.println("[Scheduler] Batch ended in " + (System.currentTimeMillis() - startTime) + "ms");
+            return;
+        }
+
+        collaborativeFiltering.publishAll();
+
         try {
             // Build command without argument: --user_id
             ProcessBuilder processBuilder = new ProcessBuilder(
@@ -101,33 +105,12 @@ public class RecommendationAgentService {
     }
 
     public boolean runAgentForUserSync(String userId) {
-        System.out.println("[Demo] Running Synchronous Python Agent for User: " + userId);
-
-        try {
-            ProcessBuilder processBuilder = new ProcessBuilder(
-                    pythonCommand,
-                    SCRIPT_PATH,
-                    "--user_id",
-                    userId
-            );
+        System.out.println("[Demo] Running Synchronous Agent for User: " + userId);
 
-            processBuilder.redirectErrorStream(true);
-            Process process = processBuilder.start();
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println("   [Python Demo]: " + line);
-            }
-
-            int exitCode = process.waitFor();
-
-            return exitCode == 0;
-
-        } catch (Exception e) {
-            System.err.println("[Demo] Error running script: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        String error = runAgent(userId);
+        if (error != null) {
+            System.err.println("[Demo] Error running agent: " + error);
         }
+        return error == null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,395 @@
+package com.project.recommendation_engine.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.project.recommendation_engine.model.CollaborativeBucket;
+import com.project.recommendation_engine.model.GenreMovies;
+import com.project.recommendation_engine.model.HydratedMovie;
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.model.UserRecommendation;
+import com.project.recommendation_engine.repository.RecommendationRepository;
+import com.project.recommendation_engine.repository.UserRepository;
+import com.project.recommendation_engine.util.PosterUrls;
+
+// The agent's two phases (gather_candidate_buckets in data_tools.py, generate_final_recommendations
+// in llm_recommender.py) inside the JVM: the buckets come from the in-memory collaborative index and
+// the shared TMDB caches, gathered concurrently, and the result is saved without a Python process.
+@Service
+public class RecommendationPipeline {
+
+    private static final int COLLABORATIVE_LIMIT = 15;
+    private static final int CONTENT_LIMIT = 10;
+    private static final int LATENT_LIMIT = 10;
+    private static final int TRENDING_LIMIT = 10;
+    private static final List<String> DEFAULT_GENRES = List.of("ACTION", "COMEDY");
+
+    public record Result(boolean success, String error, long gatherMillis, long rankMillis, long totalMillis) {}
+
+    // One candidate as the Python agent described it, before and after the ranking
+    private record Item(String id, String title, String posterPath, Double voteAverage, String origin, String reason) {}
+
+    private final UserRepository userRepository;
+    private final CollaborativeFiltering collaborativeFiltering;
+    private final MovieEmbeddingIndex movieEmbeddingIndex;
+    private final TMDBService tmdbService;
+    private final RecommendationRepository recommendationRepository;
+    private final RankingClient rankingClient;
+    private final Executor pipelineExecutor;
+    private final String mode;
+    private final long gatherTimeoutMs;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rankingFailures = new LongAdder();
+    private final LongAdder emptyBuckets = new LongAdder();
+    private final LongAdder gatherMillis = new LongAdder();
+    private final LongAdder rankMillis = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private volatile long lastTotalMillis;
+
+    public RecommendationPipeline(UserRepository userRepository,
+                                  CollaborativeFiltering collaborativeFiltering,
+                                  MovieEmbeddingIndex movieEmbeddingIndex,
+                                  TMDBService tmdbService,
+                                  RecommendationRepository recommendationRepository,
+                                  RankingClient rankingClient,
+                                  @Qualifier("pipelineExecutor") Executor pipelineExecutor,
+                                  @Value("${agent.pipeline:java}") String mode,
+                                  @Value("${pipeline.gather-timeout-ms:10000}") long gatherTimeoutMs) {
+        this.userRepository = userRepository;
+        this.collaborativeFiltering = collaborativeFiltering;
+        this.movieEmbeddingIndex = movieEmbeddingIndex;
+        this.tmdbService = tmdbService;
+        this.recommendationRepository = recommendationRepository;
+        this.rankingClient = rankingClient;
+        this.pipelineExecutor = pipelineExecutor;
+        this.mode = mode;
+        this.gatherTimeoutMs = gatherTimeoutMs;
+    }
+
+    // Used instead of the Python agent when selected and a ranking endpoint is configured
+    public boolean isEnabled() {
+        return "java".equalsIgnoreCase(mode) && rankingClient.isConfigured();
+    }
+
+    public Result run(String userId) {
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty()) {
+            runs.increment();
+            failed.increment();
+            return new Result(false, "User not found", 0, 0, 0);
+        }
+        return run(user.get());
+    }
+
+    // Every user against one fresh index, like the nightly batch
+    public int runAll() {
+        long start = System.currentTimeMillis();
+        collaborativeFiltering.rebuild();
+        int count = 0;
+        for (User user : userRepository.findAll()) {
+            if (user.getId() != null && run(user).success()) {
+                count++;
+            }
+        }
+        System.out.println("[Pipeline] Recommended for " + count + " users in "
+                + (System.currentTimeMillis() - start) + "ms");
+        return count;
+    }
+
+    private Result run(User user) {
+        long start = System.currentTimeMillis();
+        runs.increment();
+        List<String> genres = topGenres(user);
+
+        Map<String, List<Item>> buckets = gather(user, genres);
+        long gathered = System.currentTimeMillis();
+        gatherMillis.add(gathered - start);
+
+        // One bag, first bucket wins for movies found by several
+        Map<String, Item> candidates = new LinkedHashMap<>();
+        for (List<Item> bucket : buckets.values()) {
+            for (Item item : bucket) {
+                candidates.putIfAbsent(item.id(), item);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return fail(start, gathered, gathered, "No candidates provided to rank.");
+        }
+
+        List<RankingClient.Candidate> request = new ArrayList<>(candidates.size());
+        for (Item item : candidates.values()) {
+            request.add(new RankingClient.Candidate(item.id(), item.title(), item.origin(), item.reason()));
+        }
+        List<String> displayGenres = genres.stream().map(RecommendationPipeline::titleCase).toList();
+        int historyCount = user.getMovieRatings() != null ? user.getMovieRatings().size() : 0;
+
+        RankingClient.Ranking ranking;
+        try {
+            ranking = rankingClient.rank(new RankingClient.Request(displayGenres, historyCount, request));
+        } catch (IOException | RuntimeException e) {
+            rankingFailures.increment();
+            return fail(start, gathered, System.currentTimeMillis(), "Ranking failed: " + e.getMessage());
+        }
+        long ranked = System.currentTimeMillis();
+
+        try {
+            save(user.getId(), ranking, candidates);
+        } catch (RuntimeException e) {
+            return fail(start, gathered, ranked, "Could not save recommendations: " + e.getMessage());
+        }
+
+        long total = System.currentTimeMillis() - start;
+        rankMillis.add(ranked - gathered);
+        totalMillis.add(total);
+        lastTotalMillis = total;
+        System.out.println("[Pipeline] " + candidates.size() + " candidates ranked for " + user.getId()
+                + " in " + total + "ms (gather " + (gathered - start) + "ms, rank " + (ranked - gathered) + "ms)");
+        return new Result(true, null, gathered - start, ranked - gathered, total);
+    }
+
+    private Result fail(long start, long gathered, long ranked, String error) {
+        failed.increment();
+        System.err.println("[Pipeline] " + error);
+        return new Result(false, error, gathered - start, ranked - gathered, System.currentTimeMillis() - start);
+    }
+
+    // All buckets at once; one that fails or misses the deadline is just empty
+    private Map<String, List<Item>> gather(User user, List<String> genres) {
+        // In memory and quick; both of the first two buckets start from it
+        CollaborativeBucket bucket;
+        try {
+            bucket = collaborativeFiltering.compute(user);
+        } catch (RuntimeException e) {
+            System.err.println("[Pipeline] No collaborative bucket for " + user.getId() + ": " + e.getMessage());
+            bucket = new CollaborativeBucket(user.getId(), List.of(), List.of(), System.currentTimeMillis());
+        }
+        CollaborativeBucket computed = bucket;
+
+        Map<String, CompletableFuture<List<Item>>> futures = new LinkedHashMap<>();
+        futures.put("collaborative", async(() -> hydrate(computed.getCandidates(), COLLABORATIVE_LIMIT,
+                "collaborative", "Liked by users with similar taste")));
+        futures.put("content_based", async(() -> contentCandidates(user, computed)));
+        futures.put("latent_factors", async(() -> latentCandidates(user)));
+        for (String genre : genres) {
+            futures.put("trending_" + genre.toLowerCase(), async(() -> trendingCandidates(genre)));
+        }
+
+        Map<String, List<Item>> buckets = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<List<Item>>> entry : futures.entrySet()) {
+            List<Item> items = entry.getValue().join();
+            if (items.isEmpty()) {
+                emptyBuckets.increment();
+            }
+            buckets.put(entry.getKey(), items);
+        }
+        return buckets;
+    }
+
+    private CompletableFuture<List<Item>> async(Supplier<List<Item>> bucket) {
+        try {
+            return CompletableFuture.supplyAsync(bucket, pipelineExecutor)
+                    .completeOnTimeout(List.of(), gatherTimeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        System.err.println("[Pipeline] Bucket failed: " + e.getMessage());
+                        return List.of();
+                    });
+        } catch (RuntimeException e) {
+            // Executor saturated
+            return CompletableFuture.completedFuture(List.of());
+        }
+    }
+
+    // Item-item matches from our own ratings, else TMDB's recommendations for the top-rated movie
+    private List<Item> contentCandidates(User user, CollaborativeBucket bucket) {
+        List<Item> similar = hydrate(bucket.getSimilarItems(), CONTENT_LIMIT, "content_based",
+                "Rated highly by users who liked your top-rated movies");
+        if (!similar.isEmpty() || user.getMovieRatings() == null) {
+            return similar;
+        }
+
+        Optional<Rating> top = user.getMovieRatings().stream()
+                .filter(rating -> rating.getMovieId() != null)
+                .max(Comparator.comparingDouble(Rating::getScore));
+        if (top.isEmpty()) {
+            return List.of();
+        }
+        long topId;
+        try {
+            topId = Long.parseLong(top.get().getMovieId());
+        } catch (NumberFormatException e) {
+            return List.of();
+        }
+
+        List<Item> items = new ArrayList<>();
+        for (TMDBResponse.TmdbMovie movie : tmdbService.fetchRecommendations(topId)) {
+            if (items.size() >= CONTENT_LIMIT) {
+                break;
+            }
+            items.add(new Item(String.valueOf(movie.getId()), movie.getTitle(), movie.getPosterPath(),
+                    movie.getVoteAverage(), "content_based",
+                    "Similar to a movie you rated highly (TMDB ID: " + topId + ")"));
+        }
+        return items;
+    }
+
+    // Closest ALS movie vectors to the user's taste, from the HNSW index; empty until ALS has trained
+    private List<Item> latentCandidates(User user) {
+        List<CollaborativeBucket.Candidate> hits = new ArrayList<>();
+        for (HnswIndex.Hit hit : movieEmbeddingIndex.recommend(user.getMovieRatings(), LATENT_LIMIT)) {
+            hits.add(new CollaborativeBucket.Candidate(hit.key(), hit.similarity(), 0));
+        }
+        return hydrate(hits, LATENT_LIMIT, "collaborative", "Fits the taste your ratings show");
+    }
+
+    // From the genre pools GenrePoolScheduler keeps warm, not a discover call per user
+    private List<Item> trendingCandidates(String genre) {
+        List<Item> items = new ArrayList<>();
+        for (GenreMovies slate : tmdbService.fetchMoviesForGenres(List.of(genre))) {
+            for (Movie movie : slate.getMovies()) {
+                if (items.size() >= TRENDING_LIMIT) {
+                    break;
+                }
+                items.add(new Item(movie.getId(), movie.getTitle(), movie.getPosterUrl(), null, "trending",
+                        "Trending now in " + titleCase(genre)));
+            }
+        }
+        return items;
+    }
+
+    private List<Item> hydrate(List<CollaborativeBucket.Candidate> candidates, int limit, String origin, String reason) {
+        if (candidates == null || candidates.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (CollaborativeBucket.Candidate candidate : candidates) {
+            try {
+                ids.add(Long.parseLong(candidate.getMovieId()));
+            } catch (NumberFormatException e) {
+                // Not a TMDB ID, nothing to look up
+            }
+        }
+
+        List<Item> items = new ArrayList<>();
+        for (HydratedMovie hydrated : tmdbService.hydrateMovies(ids).values()) {
+            if (items.size() >= limit) {
+                break;
+            }
+            if (hydrated.isAvailable()) {
+                TMDBResponse movie = hydrated.movie();
+                items.add(new Item(String.valueOf(hydrated.id()), movie.getTitle(), movie.getPoster(),
+                        parseRating(movie.getTmdbRating()), origin, reason));
+            }
+        }
+        return items;
+    }
+
+    // Only IDs that were candidates make it in; sections left empty are dropped
+    private void save(String userId, RankingClient.Ranking ranking, Map<String, Item> candidates) {
+        List<UserRecommendation.RecSection> sections = new ArrayList<>();
+        for (RankingClient.Section section : ranking.sections()) {
+            List<UserRecommendation.RecMovie> movies = new ArrayList<>();
+            for (RankingClient.Pick pick : section.picks()) {
+                Item item = candidates.get(pick.id());
+                Integer tmdbId = item != null ? parseId(item.id()) : null;
+                if (tmdbId == null) {
+                    continue;
+                }
+                UserRecommendation.RecMovie movie = new UserRecommendation.RecMovie();
+                movie.setId(tmdbId);
+                movie.setTitle(item.title());
+                // Raw TMDB path, like the agent stores; RecMovie.getPosterPath() picks the size
+                movie.setPosterPath(PosterUrls.tmdbPath(item.posterPath()));
+                movie.setVoteAverage(item.voteAverage());
+                movie.setAiReason(pick.reason() != null ? pick.reason() : "Recommended for you.");
+                movies.add(movie);
+            }
+            if (!movies.isEmpty()) {
+                UserRecommendation.RecSection recSection = new UserRecommendation.RecSection();
+                recSection.setTitle(section.title());
+                recSection.setType(section.type());
+                recSection.setMovies(movies);
+                sections.add(recSection);
+            }
+        }
+
+        // One document per user, like the agent's upsert
+        UserRecommendation recommendation = recommendationRepository.findFirstByUserIdOrderByGeneratedAtDesc(userId)
+                .orElseGet(UserRecommendation::new);
+        recommendation.setUserId(userId);
+        recommendation.setGeneratedAt(Instant.now().toString());
+        recommendation.setMetaJustification(ranking.justification());
+        recommendation.setSections(sections);
+        recommendationRepository.save(recommendation);
+    }
+
+    private static List<String> topGenres(User user) {
+        List<String> genres = user.getFavoriteGenres();
+        if (genres == null || genres.isEmpty()) {
+            return DEFAULT_GENRES;
+        }
+        return genres.subList(0, Math.min(2, genres.size()));
+    }
+
+    // "SCI-FI" -> "Sci-Fi", as Python's str.title()
+    private static String titleCase(String genre) {
+        StringBuilder out = new StringBuilder(genre.length());
+        boolean upper = true;
+        for (char c : genre.toCharArray()) {
+            out.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            upper = !Character.isLetter(c);
+        }
+        return out.toString();
+    }
+
+    private static Double parseRating(String rating) {
+        try {
+            return rating != null ? Double.valueOf(rating) : null;
+        } catch (NumberFormatException e) {
+            return null; // "N/A"
+        }
+    }
+
+    private static Integer parseId(String id) {
+        try {
+            return Integer.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long runCount = runs.sum();
+        long succeeded = runCount - failed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("runs", runCount);
+        stats.put("failed", failed.sum());
+        stats.put("rankingFailures", rankingFailures.sum());
+        stats.put("emptyBuckets", emptyBuckets.sum());
+        stats.put("avgGatherMillis", runCount > 0 ? (double) gatherMillis.sum() / runCount : 0.0);
+        stats.put("avgRankMillis", succeeded > 0 ? (double) rankMillis.sum() / succeeded : 0.0);
+        stats.put("avgTotalMillis", succeeded > 0 ? (double) totalMillis.sum() / succeeded : 0.0);
+        stats.put("lastTotalMillis", lastTotalMillis);
+        return stats;
+    }
+}
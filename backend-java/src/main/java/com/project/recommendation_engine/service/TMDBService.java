@@ -1,28 +1,66 @@
 package com.project.recommendation_engine.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.project.recommendation_engine.model.GenreMovies;
+import com.project.recommendation_engine.model.HydratedMovie;
 import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.model.MovieDetails;
 import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.WatchProviders;
+import com.project.recommendation_engine.util.PosterUrls;
 
 
 // This service will call the TMDB Api and return the information
 // as a TMDBResponse object. 
 @Service
 public class TMDBService {
+    // Watch providers stored with the movie details, and shown when the visitor's region is unknown
+    static final String WATCH_REGION = "US";
+
+    // Discover query used for the rating-form genre slates
+    private static final int DISCOVER_MIN_VOTES = 3000;
+    private static final int DISCOVER_PAGE_SIZE = 20;
+    private static final int SLATE_SIZE = 10;
+
+    // Questionnaire genre names to TMDB genre IDs
+    public static final Map<String, Integer> GENRE_IDS = Map.of(
+            "ACTION", 28,
+            "COMEDY", 35,
+            "DRAMA", 18,
+            "ROMANCE", 10749,
+            "HORROR", 27,
+            "THRILLER", 53,
+            "ADVENTURE", 12,
+            "SCI-FI", 878
+    );
+
     @Value("${tmdb.api.key}")
     private String apiKey;
 
@@ -30,13 +68,65 @@ public class TMDBService {
     private String baseUrl;
 
     private final Executor taskExecutor;
+    private final Executor tmdbExecutor;
+    private final TmdbClient tmdbClient;
+    private final MovieDetailsCache movieDetailsCache;
+    private final TmdbRequestCoalescer requestCoalescer;
+    private final TmdbHedger tmdbHedger;
+    private final CatalogMirror catalogMirror;
+    private final TitleSearchIndex titleSearchIndex;
+    private final GenrePoolCache genrePoolCache;
+    private final WatchProviderCache watchProviderCache;
+
+    // One mapped provider (and logo URL) per distinct provider, shared by every movie page
+    private final Map<MovieDetails.ProviderRef, TMDBResponse.Provider> providerViews = new ConcurrentHashMap<>();
+
+    @Value("${tmdb.trending.deadline-ms:2500}")
+    private long trendingDeadlineMs;
+
+    // Per-batch limits for hydrateMovies
+    @Value("${tmdb.hydrate.max-parallel:6}")
+    private int hydrateMaxParallel = 6;
+
+    @Value("${tmdb.hydrate.deadline-ms:5000}")
+    private long hydrateDeadlineMs = 5000;
+
+    // Local title matches scoring below this go to TMDB's /search/movie instead
+    @Value("${tmdb.search.min-score:0.75}")
+    private double searchMinScore = 0.75;
+
+    // Discover pages per genre prefetched into the genre pools (20 movies each)
+    @Value("${tmdb.genre-pool.pages:5}")
+    private int genrePoolPages = 5;
+
+    // Movies whose watch providers are refreshed per WatchProviderScheduler run
+    @Value("${tmdb.providers.refresh-batch:50}")
+    private int providerRefreshBatch = 50;
 
     public TMDBService(@Value("${tmdb.api.key}") String apiKey, 
                       @Value("${tmdb.api.baseurl}") String baseUrl, 
-                      Executor taskExecutor) {
+                      @Qualifier("taskExecutor") Executor taskExecutor,
+                      @Qualifier("tmdbExecutor") Executor tmdbExecutor,
+                      TmdbClient tmdbClient,
+                      MovieDetailsCache movieDetailsCache,
+                      TmdbRequestCoalescer requestCoalescer,
+                      TmdbHedger tmdbHedger,
+                      CatalogMirror catalogMirror,
+                      TitleSearchIndex titleSearchIndex,
+                      GenrePoolCache genrePoolCache,
+                      WatchProviderCache watchProviderCache) {
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
         this.taskExecutor = taskExecutor;
+        this.tmdbExecutor = tmdbExecutor;
+        this.tmdbClient = tmdbClient;
+        this.movieDetailsCache = movieDetailsCache;
+        this.requestCoalescer = requestCoalescer;
+        this.tmdbHedger = tmdbHedger;
+        this.catalogMirror = catalogMirror;
+        this.titleSearchIndex = titleSearchIndex;
+        this.genrePoolCache = genrePoolCache;
+        this.watchProviderCache = watchProviderCache;
     }
 
     // TMDB Response class - used for both search and discover endpoints
@@ -64,60 +154,18 @@ public class TMDBService {
         public void setTotalResults(Integer totalResults) { this.totalResults = totalResults; }
     }
 
-    // Classes to map JSON responses from /watch/providers
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    static class ProviderListResponse {
-        @JsonProperty("results")
-        private Map<String, RegionInfo> results;
-
-        public Map<String, RegionInfo> getResults() { return results; }
-        public void setResults(Map<String, RegionInfo> results) { this.results = results; }
-    }
-
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    static class RegionInfo {
-        @JsonProperty("link")
-        private String link;
-        @JsonProperty("flatrate")
-        private List<ProviderItem> flatrate;
-        @JsonProperty("rent")
-        private List<ProviderItem> rent;
-        @JsonProperty("buy")
-        private List<ProviderItem> buy;
-
-        // Getters
-        public String getLink() { return link; }
-        public List<ProviderItem> getFlatrate() { return flatrate; }
-        public List<ProviderItem> getRent() { return rent; }
-        public List<ProviderItem> getBuy() { return buy; }
-    }
-
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    static class ProviderItem {
-        @JsonProperty("provider_name")
-        private String providerName;
-        @JsonProperty("logo_path")
-        private String logoPath;
-
-        public String getProviderName() { return providerName; }
-        public String getLogoPath() { return logoPath; }
-    }
-
     public TMDBResponse fetchRawMovieResponse(String titleOrId) {
-        RestTemplate restTemplate = new RestTemplate();
         String url;
 
         // CASE 1: ID IMDb (starts with "tt")
         if (titleOrId.startsWith("tt")) {
             url = String.format("%s/find/%s?api_key=%s&external_source=imdb_id", baseUrl, titleOrId, apiKey);
             try {
-                TmdbFindResponse findResponse = restTemplate.getForObject(url, TmdbFindResponse.class);
+                TmdbFindResponse findResponse = getCoalesced("find:" + titleOrId, url, TmdbFindResponse.class);
                 if (findResponse != null && findResponse.getMovieResults() != null && !findResponse.getMovieResults().isEmpty()) {
                     // Get the TMDB ID and fetch full details with credits
                     Long tmdbId = findResponse.getMovieResults().get(0).getId();
-                    url = String.format("%s/movie/%d?api_key=%s&append_to_response=credits", baseUrl, tmdbId, apiKey);
-                    TMDBResponse.TmdbMovie tmdbMovie = restTemplate.getForObject(url, TMDBResponse.TmdbMovie.class);
-                    return mapTmdbToMovieResponse(tmdbMovie);
+                    return fetchMovieDetails(tmdbId);
                 }
             } catch (Exception e) {
                 System.err.println("Error searching by IMDb ID: " + e.getMessage());
@@ -127,27 +175,12 @@ public class TMDBService {
         // CASE 2: Numbr ID (TMDB ID)
         try {
             Long movieId = Long.parseLong(titleOrId);
-            url = String.format("%s/movie/%d?api_key=%s&append_to_response=credits", baseUrl, movieId, apiKey);
-            TMDBResponse.TmdbMovie tmdbMovie = restTemplate.getForObject(url, TMDBResponse.TmdbMovie.class);
-            return mapTmdbToMovieResponse(tmdbMovie);
+            return fetchMovieDetails(movieId);
 
         } catch (NumberFormatException e) {
             // CASE 3: Nor tt non numeric
             if (!titleOrId.startsWith("tt")) {
-                url = String.format("%s/search/movie?api_key=%s&query=%s",
-                        baseUrl, apiKey, titleOrId.replace(" ", "%20"));
-                try {
-                    TmdbMovieListResponse searchResponse = restTemplate.getForObject(url, TmdbMovieListResponse.class);
-                    if (searchResponse != null && searchResponse.getResults() != null && !searchResponse.getResults().isEmpty()) {
-                        // Get the TMDB ID and fetch full details with credits
-                        Long tmdbId = searchResponse.getResults().get(0).getId();
-                        url = String.format("%s/movie/%d?api_key=%s&append_to_response=credits", baseUrl, tmdbId, apiKey);
-                        TMDBResponse.TmdbMovie tmdbMovie = restTemplate.getForObject(url, TMDBResponse.TmdbMovie.class);
-                        return mapTmdbToMovieResponse(tmdbMovie);
-                    }
-                } catch (Exception ex) {
-                    System.err.println("Error searching by title: " + ex.getMessage());
-                }
+                return fetchMovieByTitle(titleOrId);
             }
         } catch (Exception e) {
             System.err.println("Error fetching movie details: " + e.getMessage());
@@ -155,12 +188,137 @@ public class TMDBService {
         return null;
     }
 
+    // Movie details by title only: the local index, then /search/movie. Unlike
+    // fetchRawMovieResponse, an all-digit title ("1917") is searched, never taken for an ID.
+    public TMDBResponse fetchMovieByTitle(String title) {
+        TitleSearchIndex.Hit localHit = bestLocalMatch(title);
+        if (localHit != null) {
+            return fetchMovieDetails(localHit.tmdbId());
+        }
+
+        String url = String.format("%s/search/movie?api_key=%s&query=%s",
+                baseUrl, apiKey, title.replace(" ", "%20"));
+        try {
+            TmdbMovieListResponse searchResponse = getCoalesced(searchKey(title), url, TmdbMovieListResponse.class);
+            indexTitles(searchResponse);
+            if (searchResponse != null && searchResponse.getResults() != null && !searchResponse.getResults().isEmpty()) {
+                // Get the TMDB ID and fetch full details with credits
+                Long tmdbId = searchResponse.getResults().get(0).getId();
+                return fetchMovieDetails(tmdbId);
+            }
+        } catch (Exception e) {
+            System.err.println("Error searching by title: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Movie details by TMDB ID, for links that already carry the ID: no search round trip
+    public TMDBResponse fetchMovieById(long tmdbId) {
+        return fetchMovieDetails(tmdbId);
+    }
+
+    // TMDB's /movie/{id}/recommendations, first page; empty if TMDB has none or fails
+    public List<TMDBResponse.TmdbMovie> fetchRecommendations(long tmdbId) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/movie/" + tmdbId + "/recommendations")
+                .queryParam("api_key", apiKey)
+                .queryParam("language", "en-US")
+                .queryParam("page", 1)
+                .toUriString();
+        try {
+            TmdbMovieListResponse response = getCoalesced("recommendations:" + tmdbId, url, TmdbMovieListResponse.class);
+            indexTitles(response);
+            return response != null && response.getResults() != null ? response.getResults() : List.of();
+        } catch (RuntimeException e) {
+            System.err.println("Error fetching recommendations for " + tmdbId + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Whether the details are in memory already, i.e. a page view wouldn't touch TMDB or Mongo
+    public boolean isMovieCached(long tmdbId) {
+        return movieDetailsCache.getIfPresent(tmdbId) != null;
+    }
+
+    // Movie details (with credits and providers) by TMDB ID, served from the two-tier cache
+    private TMDBResponse fetchMovieDetails(Long tmdbId) {
+        return movieDetailsCache.get(tmdbId, this::loadMovieDetails);
+    }
+
+    private TMDBResponse loadMovieDetails(Long tmdbId) {
+        // The local catalog mirror answers without a TMDB call
+        MovieDetails mirrored = catalogMirror.findDetails(tmdbId);
+        if (mirrored != null) {
+            indexTitle(mirrored);
+            return mapDetailsToMovieResponse(mirrored);
+        }
+
+        // Details, credits and providers arrive in one response, streamed straight into MovieDetails
+        return requestCoalescer.execute("movie:" + tmdbId, () -> {
+            String url = String.format("%s/movie/%d?api_key=%s&append_to_response=credits,watch/providers",
+                    baseUrl, tmdbId, apiKey);
+            // A slow details call gets one hedged duplicate. Every region's providers come along
+            // in the same response and go to the provider cache.
+            TmdbMovieDetailsParser.Parsed parsed = tmdbHedger.execute(() -> tmdbClient.getStreaming("movie:" + tmdbId,
+                    url, TmdbMovieDetailsParser.Parsed.class,
+                    body -> TmdbMovieDetailsParser.parseWithProviders(body, WATCH_REGION)));
+            if (parsed == null) {
+                return null;
+            }
+            MovieDetails details = parsed.details();
+            watchProviderCache.put(details.id(), parsed.providers());
+            indexTitle(details);
+            return mapDetailsToMovieResponse(details);
+        });
+    }
+
+    // Concurrent callers with the same logical key share one HTTP call
+    private <T> T getCoalesced(String key, String url, Class<T> responseType) {
+        return requestCoalescer.execute(key, () -> tmdbClient.getForObject(key, url, responseType));
+    }
+
+    // Good enough local match for a typed title, or null to ask TMDB
+    private TitleSearchIndex.Hit bestLocalMatch(String title) {
+        List<TitleSearchIndex.Hit> hits = titleSearchIndex.search(title, 1);
+        if (!hits.isEmpty() && hits.get(0).score() >= searchMinScore) {
+            return hits.get(0);
+        }
+        return null;
+    }
+
+    // Every movie TMDB shows us becomes searchable locally
+    private void indexTitles(TmdbMovieListResponse response) {
+        if (response == null || response.getResults() == null) {
+            return;
+        }
+        for (TMDBResponse.TmdbMovie movie : response.getResults()) {
+            if (movie.getId() != null) {
+                titleSearchIndex.add(movie.getId(), movie.getTitle(), movie.getPosterPath(), movie.getPopularity());
+            }
+        }
+    }
+
+    private void indexTitle(MovieDetails details) {
+        if (details != null) {
+            titleSearchIndex.add(details.id(), details.title(), details.posterPath(), details.popularity());
+        }
+    }
+
+    private static String searchKey(String title) {
+        return "search:" + title.trim().toLowerCase();
+    }
+
     public Movie searchMovie(String title) {
-        RestTemplate restTemplate = new RestTemplate();
+        TitleSearchIndex.Hit localHit = bestLocalMatch(title);
+        if (localHit != null) {
+            return new Movie(String.valueOf(localHit.tmdbId()), localHit.title(),
+                    PosterUrls.card(localHit.posterPath()));
+        }
+
         String url = String.format("%s/search/movie?api_key=%s&query=%s", 
                                   baseUrl, apiKey, title.replace(" ", "%20"));
 
-        TmdbMovieListResponse response = restTemplate.getForObject(url, TmdbMovieListResponse.class);
+        TmdbMovieListResponse response = getCoalesced(searchKey(title), url, TmdbMovieListResponse.class);
+        indexTitles(response);
 
         if (response != null && response.getResults() != null && !response.getResults().isEmpty()) {
             return mapTmdbMovieToMovie(response.getResults().get(0));
@@ -170,52 +328,82 @@ public class TMDBService {
     }
 
     public List<GenreMovies> fetchMoviesForGenres(List<String> genres) {
-        // Map genre names to TMDB genre IDs
-        Map<String, Integer> genreIdMap = Map.of(
-                "ACTION", 28,
-                "COMEDY", 35,
-                "DRAMA", 18,
-                "ROMANCE", 10749,
-                "HORROR", 27,
-                "THRILLER", 53,
-                "ADVENTURE", 12,
-                "SCI-FI", 878
-        );
+        List<String> known = genres.stream()
+                .filter(GENRE_IDS::containsKey)
+                .collect(Collectors.toList());
 
-        List<CompletableFuture<GenreMovies>> futures = genres.stream()
-                .filter(genreIdMap::containsKey)
-                .map(genre -> {
-                    Integer genreId = genreIdMap.get(genre);
+        // Genres without a pool yet (first minutes after a cold start) still go to TMDB
+        Map<String, CompletableFuture<List<Movie>>> live = new HashMap<>();
+        for (String genre : known) {
+            Integer genreId = GENRE_IDS.get(genre);
+            if (!genrePoolCache.has(genreId) && !live.containsKey(genre)) {
+                live.put(genre, CompletableFuture.supplyAsync(() -> fetchMoviesByGenre(genreId), taskExecutor));
+            }
+        }
+
+        // A movie shows up in one slate only, even when it belongs to several of the genres
+        Set<String> shown = new HashSet<>();
+        List<GenreMovies> slates = new ArrayList<>(known.size());
+        for (String genre : known) {
+            Integer genreId = GENRE_IDS.get(genre);
+            List<Movie> movies;
+            if (live.containsKey(genre)) {
+                movies = live.get(genre).join().stream()
+                        .filter(movie -> shown.add(movie.getId()))
+                        .collect(Collectors.toList());
+            } else {
+                movies = genrePoolCache.sample(genreId, SLATE_SIZE, shown);
+            }
+            slates.add(new GenreMovies(genre, movies));
+        }
+        return slates;
+    }
 
-                    return CompletableFuture.supplyAsync(() -> {
-                        List<Movie> genreMovies = fetchMoviesByGenre(genreId);
-                        return new GenreMovies(genre, genreMovies);
-                    }, taskExecutor);
-                })
-        .collect(Collectors.toList());
+    // The top `tmdb.genre-pool.pages` discover pages of a genre, for GenrePoolScheduler
+    public List<Movie> fetchGenrePool(int genreId) {
+        int wanted = genrePoolPages * DISCOVER_PAGE_SIZE;
+        List<CatalogMirror.Entry> ranked = catalogMirror.discover(genreId, DISCOVER_MIN_VOTES, wanted);
+        if (ranked.size() >= wanted) {
+            return ranked.stream()
+                    .filter(entry -> entry.posterPath() != null)
+                    .map(entry -> new Movie(String.valueOf(entry.id()), entry.title(),
+                            PosterUrls.card(entry.posterPath())))
+                    .collect(Collectors.toList());
+        }
 
-        return futures.stream()
-                .map(CompletableFuture::join)
-                .collect(Collectors.toList());
+        // By ID: a stale fallback may hand back a page we already have
+        Map<String, Movie> movies = new LinkedHashMap<>();
+        for (int page = 1; page <= genrePoolPages; page++) {
+            TmdbMovieListResponse response;
+            try {
+                response = discoverPage(genreId, page);
+            } catch (Exception e) {
+                System.err.println("Error fetching discover page " + page + " for genre ID: " + genreId + " - " + e.getMessage());
+                break;
+            }
+            if (response == null || response.getResults() == null || response.getResults().isEmpty()) {
+                break;
+            }
+            response.getResults().stream()
+                    .filter(movie -> movie.getPosterPath() != null)
+                    .map(this::mapTmdbMovieToMovie)
+                    .forEach(movie -> movies.putIfAbsent(movie.getId(), movie));
+        }
+        return new ArrayList<>(movies.values());
     }
 
     private List<Movie> fetchMoviesByGenre(Integer genreId) {
-        RestTemplate restTemplate = new RestTemplate();
         
         // Generate random page number (1-10 for variety)
         int randomTopPage = (int) (Math.random() * 5) + 1;
 
-        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/discover/movie")
-                .queryParam("api_key", apiKey)
-                .queryParam("with_genres", genreId)
-                .queryParam("language", "en-US")
-                .queryParam("sort_by", "vote_count.desc")
-                .queryParam("vote_count.gte", "3000")
-                .queryParam("page", randomTopPage)
-                .toUriString();
+        List<Movie> mirrored = discoverFromCatalog(genreId, randomTopPage);
+        if (!mirrored.isEmpty()) {
+            return mirrored;
+        }
 
         try {
-            TmdbMovieListResponse response = restTemplate.getForObject(url, TmdbMovieListResponse.class);
+            TmdbMovieListResponse response = discoverPage(genreId, randomTopPage);
             
             if (response != null && response.getResults() != null) {
                 List<Movie> movies = response.getResults().stream()
@@ -225,7 +413,7 @@ public class TMDBService {
 
                 java.util.Collections.shuffle(movies);
 
-                return movies.stream().limit(10).collect(Collectors.toList());
+                return movies.stream().limit(SLATE_SIZE).collect(Collectors.toList());
             }
         } catch (Exception e) {
             System.err.println("Error fetching movies for genre ID: " + genreId + " - " + e.getMessage());
@@ -234,59 +422,152 @@ public class TMDBService {
         return new ArrayList<>();
     }
 
-    private TMDBResponse mapTmdbToMovieResponse(TMDBResponse.TmdbMovie tmdbMovie) {
-        if (tmdbMovie == null) {
+    private TmdbMovieListResponse discoverPage(int genreId, int page) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/discover/movie")
+                .queryParam("api_key", apiKey)
+                .queryParam("with_genres", genreId)
+                .queryParam("language", "en-US")
+                .queryParam("sort_by", "vote_count.desc")
+                .queryParam("vote_count.gte", DISCOVER_MIN_VOTES)
+                .queryParam("page", page)
+                .toUriString();
+
+        // Any page of the genre is a fine stale fallback for a shuffled slate
+        TmdbMovieListResponse response = requestCoalescer.execute("discover:" + genreId + ":" + page,
+                () -> tmdbClient.getForObject("discover:" + genreId, url, TmdbMovieListResponse.class));
+        indexTitles(response);
+        return response;
+    }
+
+    // Same slate as the live discover call, built from the catalog mirror's genre ranking
+    private List<Movie> discoverFromCatalog(Integer genreId, int page) {
+        List<CatalogMirror.Entry> ranked = catalogMirror.discover(genreId, DISCOVER_MIN_VOTES, page * DISCOVER_PAGE_SIZE);
+        if (ranked.size() < page * DISCOVER_PAGE_SIZE) {
+            // Mirror doesn't cover this page (yet), ask TMDB
+            return new ArrayList<>();
+        }
+
+        List<Movie> movies = ranked.subList((page - 1) * DISCOVER_PAGE_SIZE, ranked.size()).stream()
+                .filter(entry -> entry.posterPath() != null)
+                .map(entry -> new Movie(String.valueOf(entry.id()), entry.title(),
+                        PosterUrls.card(entry.posterPath())))
+                .collect(Collectors.toList());
+
+        java.util.Collections.shuffle(movies);
+
+        return movies.stream().limit(SLATE_SIZE).collect(Collectors.toList());
+    }
+
+    private TMDBResponse mapDetailsToMovieResponse(MovieDetails details) {
+        if (details == null) {
             return null;
         }
-        
+
         TMDBResponse response = new TMDBResponse();
-        response.setTitle(tmdbMovie.getTitle());
-        response.setTmdbID(String.valueOf(tmdbMovie.getId()));
-        response.setPoster(tmdbMovie.getPosterPath() != null ? 
-            "https://image.tmdb.org/t/p/w500" + tmdbMovie.getPosterPath() : null);
-        response.setPlot(tmdbMovie.getOverview());
-        response.setYear(tmdbMovie.getReleaseDate() != null && tmdbMovie.getReleaseDate().length() >= 4 ? 
-            tmdbMovie.getReleaseDate().substring(0, 4) : null);
-        response.setTmdbRating(tmdbMovie.getVoteAverage() != null ? 
-            String.format("%.1f", tmdbMovie.getVoteAverage()) : "N/A");
+        response.setTitle(details.title());
+        response.setTmdbID(String.valueOf(details.id()));
+        response.setPoster(PosterUrls.full(details.posterPath()));
+        response.setPlot(details.overview());
+        response.setYear(details.releaseDate() != null && details.releaseDate().length() >= 4 ?
+            details.releaseDate().substring(0, 4) : null);
+        response.setTmdbRating(details.voteAverage() != null ?
+            String.format("%.1f", details.voteAverage()) : "N/A");
         response.setResponse("True");
 
-        // Extract genres
-        if (tmdbMovie.getGenres() != null && !tmdbMovie.getGenres().isEmpty()) {
-            String genreNames = tmdbMovie.getGenres().stream()
-                .map(TMDBResponse.Genre::getName)
-                .collect(Collectors.joining(", "));
-            response.setGenre(genreNames);
+        response.setGenre(details.genres().isEmpty() ? "N/A" : String.join(", ", details.genres()));
+        response.setDirector(details.directors().isEmpty() ? "N/A" : String.join(", ", details.directors()));
+        response.setActors(details.topCast().isEmpty() ? "N/A" : String.join(", ", details.topCast()));
+
+        response.setWatchLink(details.watchLink());
+        response.setFlatrateProviders(mapProviders(details.flatrate()));
+        response.setRentProviders(mapProviders(details.rent()));
+        response.setBuyProviders(mapProviders(details.buy()));
+
+        return response;
+    }
+
+    private List<TMDBResponse.Provider> mapProviders(List<MovieDetails.ProviderRef> providers) {
+        List<TMDBResponse.Provider> mapped = new ArrayList<>(providers.size());
+        for (MovieDetails.ProviderRef provider : providers) {
+            mapped.add(providerViews.computeIfAbsent(provider, p -> new TMDBResponse.Provider(p.name(),
+                    "https://image.tmdb.org/t/p/original" + p.logoPath())));
+        }
+        return mapped;
+    }
+
+    // A copy of `movie` listing the watch providers for `region`, from the provider cache.
+    // Without cached providers the US ones stored with the details are kept; other regions get none.
+    public TMDBResponse withWatchProviders(TMDBResponse movie, String region) {
+        if (movie == null || movie.getTmdbID() == null) {
+            return movie;
+        }
+        long tmdbId;
+        try {
+            tmdbId = Long.parseLong(movie.getTmdbID());
+        } catch (NumberFormatException e) {
+            return movie;
+        }
+
+        WatchProviders providers = watchProviderCache.get(tmdbId);
+        if (providers == null && WATCH_REGION.equals(region)) {
+            return movie;
+        }
+        WatchProviders.Region available = providers != null ? providers.region(region) : null;
+
+        TMDBResponse regional = new TMDBResponse(movie);
+        if (available == null) {
+            regional.setWatchLink(null);
+            regional.setFlatrateProviders(new ArrayList<>());
+            regional.setRentProviders(new ArrayList<>());
+            regional.setBuyProviders(new ArrayList<>());
         } else {
-            response.setGenre("N/A");
-        }
-
-        // Extract director and actors from credits
-        if (tmdbMovie.getCredits() != null) {
-            // Get director(s)
-            if (tmdbMovie.getCredits().getCrew() != null) {
-                String directors = tmdbMovie.getCredits().getCrew().stream()
-                    .filter(crew -> "Director".equals(crew.getJob()))
-                    .map(TMDBResponse.Crew::getName)
-                    .collect(Collectors.joining(", "));
-                response.setDirector(directors.isEmpty() ? "N/A" : directors);
-            }
-            
-            // Get top 5 actors
-            if (tmdbMovie.getCredits().getCast() != null) {
-                String actors = tmdbMovie.getCredits().getCast().stream()
-                    .filter(cast -> cast.getOrder() != null && cast.getOrder() < 5)
-                    .sorted((a, b) -> Integer.compare(a.getOrder(), b.getOrder()))
-                    .map(TMDBResponse.Cast::getName)
-                    .collect(Collectors.joining(", "));
-                response.setActors(actors.isEmpty() ? "N/A" : actors);
+            regional.setWatchLink("https://www.themoviedb.org/movie/" + tmdbId + "/watch?locale=" + region);
+            regional.setFlatrateProviders(mapProviders(available.flatrate()));
+            regional.setRentProviders(mapProviders(available.rent()));
+            regional.setBuyProviders(mapProviders(available.buy()));
+        }
+        return regional;
+    }
+
+    // Re-fetches providers for a batch of movies whose cached providers expired or were never
+    // loaded. TMDB has no multi-movie providers endpoint, so the batch is spread over a few
+    // workers on the TMDB executor, which keeps it under the client's rate limit.
+    public void refreshWatchProviders() {
+        List<Long> batch = watchProviderCache.drainRefreshQueue(providerRefreshBatch);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Queue<Long> pending = new ConcurrentLinkedQueue<>(batch);
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        int workerCount = Math.min(hydrateMaxParallel, batch.size());
+        for (int i = 0; i < workerCount; i++) {
+            try {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    Long tmdbId;
+                    while ((tmdbId = pending.poll()) != null) {
+                        refreshWatchProviders(tmdbId);
+                    }
+                }, tmdbExecutor));
+            } catch (RejectedExecutionException e) {
+                break;
             }
         }
+        // Movies left over when the executor is saturated are queued again on their next page view
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+        System.out.println("[WatchProviders] Refreshed " + (batch.size() - pending.size())
+                + " of " + batch.size() + " movies");
+    }
 
-        // NEW PROVIDERS
-        enrichWithWatchProviders(response, String.valueOf(tmdbMovie.getId()));
-        
-        return response;
+    private void refreshWatchProviders(Long tmdbId) {
+        String url = String.format("%s/movie/%d/watch/providers?api_key=%s", baseUrl, tmdbId, apiKey);
+        try {
+            WatchProviders providers = tmdbClient.getStreaming("providers:" + tmdbId, url, WatchProviders.class,
+                    TmdbMovieDetailsParser::parseProviders);
+            watchProviderCache.put(tmdbId, providers);
+        } catch (RuntimeException e) {
+            System.err.println("Error refreshing watch providers for " + tmdbId + ": " + e.getMessage());
+        }
     }
 
     private Movie mapTmdbMovieToMovie(TMDBResponse.TmdbMovie tmdbMovie) {
@@ -297,35 +578,29 @@ public class TMDBService {
         return new Movie(
                 String.valueOf(tmdbMovie.getId()),
                 tmdbMovie.getTitle(),
-                tmdbMovie.getPosterPath() != null ? 
-                    "https://image.tmdb.org/t/p/w500" + tmdbMovie.getPosterPath() : null
+                PosterUrls.card(tmdbMovie.getPosterPath())
         );
     }
 
     public List<TMDBResponse> fetchTrendingMovies() {
         String url = String.format("%s/movie/popular?api_key=%s&language=en-US&page=1",
                 baseUrl, apiKey);
-        RestTemplate restTemplate = new RestTemplate();
 
         try {
-            TmdbMovieListResponse response = restTemplate.getForObject(url, TmdbMovieListResponse.class);
+            TmdbMovieListResponse response = getCoalesced("popular:1", url, TmdbMovieListResponse.class);
+            indexTitles(response);
 
             if (response != null && response.getResults() != null) {
-                return response.getResults().stream()
-                        // Top 10 movies
+                // Top 10 movies, in popularity order
+                List<Long> movieIds = response.getResults().stream()
                         .limit(10)
-                        .map(movie -> {
-                            try {
-                                String movieUrl = String.format("%s/movie/%d?api_key=%s&append_to_response=credits", 
-                                                              baseUrl, movie.getId(), apiKey);
-                                TMDBResponse.TmdbMovie fullMovie = restTemplate.getForObject(movieUrl, TMDBResponse.TmdbMovie.class);
-                                return mapTmdbToMovieResponse(fullMovie);
-                            } catch (Exception e) {
-                                System.err.println("Error fetching movie details: " + e.getMessage());
-                                return null;
-                            }
-                        })
-                        .filter(movie -> movie != null)
+                        .map(TMDBResponse.TmdbMovie::getId)
+                        .collect(Collectors.toList());
+
+                // Movies not ready by the deadline are dropped from this page
+                return hydrateMovies(movieIds, trendingDeadlineMs).values().stream()
+                        .filter(HydratedMovie::isAvailable)
+                        .map(HydratedMovie::movie)
                         .collect(Collectors.toList());
             }
         } catch (Exception e) {
@@ -336,39 +611,111 @@ public class TMDBService {
         return new ArrayList<>();
     }
 
-    // NEW METHOD TO FETCH PROVIDERS
-    private void enrichWithWatchProviders(TMDBResponse response, String tmdbId) {
-        if (tmdbId == null) return;
+    // Details for a batch of TMDB IDs, keyed and ordered like the (deduplicated) input.
+    // Cached movies come from one bulk lookup; only the misses are fetched, concurrently.
+    // Every ID gets an entry, with a status telling where the movie came from or why it is missing.
+    public Map<Long, HydratedMovie> hydrateMovies(Collection<Long> tmdbIds) {
+        return hydrateMovies(tmdbIds, hydrateDeadlineMs);
+    }
 
-        String url = String.format("%s/movie/%s/watch/providers?api_key=%s", baseUrl, tmdbId, apiKey);
-        RestTemplate restTemplate = new RestTemplate();
+    public Map<Long, HydratedMovie> hydrateMovies(Collection<Long> tmdbIds, long deadlineMs) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long tmdbId : tmdbIds) {
+            if (tmdbId != null) {
+                ids.add(tmdbId);
+            }
+        }
+        Map<Long, HydratedMovie> results = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return results;
+        }
 
-        try {
-            ProviderListResponse providers = restTemplate.getForObject(url, ProviderListResponse.class);
+        MovieDetailsCache.BulkLookup cached = movieDetailsCache.getAll(ids, this::loadMovieDetails);
+        List<Long> misses = ids.stream()
+                .filter(id -> !cached.fresh().containsKey(id))
+                .collect(Collectors.toList());
+        Map<Long, HydratedMovie> fetched = fetchMisses(misses, cached.expired(), deadlineMs);
+
+        for (Long id : ids) {
+            TMDBResponse movie = cached.fresh().get(id);
+            if (movie != null) {
+                results.put(id, new HydratedMovie(id, HydratedMovie.Status.CACHED, movie, null));
+            } else {
+                HydratedMovie result = fetched.get(id);
+                results.put(id, result != null ? result : new HydratedMovie(id, HydratedMovie.Status.TIMED_OUT, null,
+                        "Not loaded within " + deadlineMs + "ms"));
+            }
+        }
+        return results;
+    }
 
-            // Accedemos a la región US
-            if (providers != null && providers.getResults() != null && providers.getResults().containsKey("US")) {
-                RegionInfo usInfo = providers.getResults().get("US");
+    // At most hydrateMaxParallel workers per batch pull IDs from a shared queue, so a large
+    // batch can't flood the TMDB executor. Workers that miss the deadline keep going and
+    // still fill the cache for the next request.
+    private Map<Long, HydratedMovie> fetchMisses(List<Long> misses, Map<Long, TMDBResponse> expired, long deadlineMs) {
+        Map<Long, HydratedMovie> fetched = new ConcurrentHashMap<>();
+        if (misses.isEmpty()) {
+            return fetched;
+        }
 
-                response.setWatchLink(usInfo.getLink());
-                response.setFlatrateProviders(mapProviders(usInfo.getFlatrate()));
-                response.setRentProviders(mapProviders(usInfo.getRent()));
-                response.setBuyProviders(mapProviders(usInfo.getBuy()));
+        Queue<Long> pending = new ConcurrentLinkedQueue<>(misses);
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        int workerCount = Math.min(hydrateMaxParallel, misses.size());
+        for (int i = 0; i < workerCount; i++) {
+            try {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    Long tmdbId;
+                    while ((tmdbId = pending.poll()) != null) {
+                        fetched.put(tmdbId, fetchMissing(tmdbId, expired.get(tmdbId)));
+                    }
+                }, tmdbExecutor));
+            } catch (RejectedExecutionException e) {
+                // Executor queue is full, run with the workers we have
+                break;
             }
-        } catch (Exception e) {
-            System.err.println("Error fetching watch providers: " + e.getMessage());
         }
-    }
+        if (workers.isEmpty()) {
+            for (Long tmdbId : misses) {
+                TMDBResponse stale = expired.get(tmdbId);
+                fetched.put(tmdbId, stale != null
+                        ? new HydratedMovie(tmdbId, HydratedMovie.Status.STALE, stale, "TMDB executor is saturated")
+                        : new HydratedMovie(tmdbId, HydratedMovie.Status.FAILED, null, "TMDB executor is saturated"));
+            }
+            return fetched;
+        }
 
-    private List<TMDBResponse.Provider> mapProviders(List<ProviderItem> items) {
-        if (items == null) return new ArrayList<>();
+        try {
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture[0]))
+                    .get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("Movie hydration deadline reached with " + (misses.size() - fetched.size()) + " movies pending");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // fetchMissing never throws
+        }
 
-        return items.stream()
-                .map(item -> new TMDBResponse.Provider(
-                        item.getProviderName(),
-                        "https://image.tmdb.org/t/p/original" + item.getLogoPath()
-                ))
-                .collect(Collectors.toList());
+        // Late results must not change what the caller sees
+        return new HashMap<>(fetched);
+    }
+
+    private HydratedMovie fetchMissing(Long tmdbId, TMDBResponse expired) {
+        try {
+            TMDBResponse movie = loadMovieDetails(tmdbId);
+            if (movie != null) {
+                movieDetailsCache.put(tmdbId, movie);
+                return new HydratedMovie(tmdbId, HydratedMovie.Status.FETCHED, movie, null);
+            }
+            return new HydratedMovie(tmdbId, HydratedMovie.Status.NOT_FOUND, null, "Empty TMDB response");
+        } catch (HttpClientErrorException.NotFound e) {
+            return new HydratedMovie(tmdbId, HydratedMovie.Status.NOT_FOUND, null, "Not found on TMDB");
+        } catch (RuntimeException e) {
+            System.err.println("Error fetching movie details for " + tmdbId + ": " + e.getMessage());
+            if (expired != null) {
+                return new HydratedMovie(tmdbId, HydratedMovie.Status.STALE, expired, e.getMessage());
+            }
+            return new HydratedMovie(tmdbId, HydratedMovie.Status.FAILED, null, e.getMessage());
+        }
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
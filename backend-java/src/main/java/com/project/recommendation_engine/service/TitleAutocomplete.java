@@ -0,0 +1,83 @@
+package com.project.recommendation_engine.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.util.PosterUrls;
+
+// Typeahead over every title in the TitleSearchIndex.
+// The trie is immutable: a rebuild lays out a new one from the index and swaps it in, so
+// lookups never wait on a lock. Rebuilds only happen when the index changed since the last one.
+@Component
+public class TitleAutocomplete {
+
+    private final TitleSearchIndex titleSearchIndex;
+    private final int topK;
+
+    private volatile TitlePrefixTrie trie = TitlePrefixTrie.EMPTY;
+    private volatile long builtVersion = -1;
+    private volatile long lastBuildMillis;
+
+    private final ThreadLocal<int[]> buffers;
+    private final LongAdder lookups = new LongAdder();
+
+    public TitleAutocomplete(TitleSearchIndex titleSearchIndex,
+                             @Value("${tmdb.autocomplete.top-k:10}") int topK) {
+        this.titleSearchIndex = titleSearchIndex;
+        this.topK = topK;
+        this.buffers = ThreadLocal.withInitial(() -> new int[topK]);
+    }
+
+    public synchronized void rebuildIfChanged() {
+        long version = titleSearchIndex.version();
+        if (version == builtVersion) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        TitlePrefixTrie.Builder builder = new TitlePrefixTrie.Builder(topK);
+        titleSearchIndex.forEachTitle(builder::add);
+        TitlePrefixTrie built = builder.build();
+
+        trie = built;
+        builtVersion = version;
+        lastBuildMillis = System.currentTimeMillis() - start;
+        System.out.println("[Autocomplete] Built trie over " + built.size() + " titles ("
+                + built.nodeCount() + " nodes) in " + lastBuildMillis + "ms");
+    }
+
+    // Up to `limit` movies whose title starts with `prefix`, most popular first
+    public List<Movie> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        lookups.increment();
+        TitlePrefixTrie current = trie;
+        int[] entries = buffers.get();
+        int found = Math.min(limit, current.complete(prefix, entries));
+
+        List<Movie> movies = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int entry = entries[i];
+            movies.add(new Movie(String.valueOf(current.tmdbId(entry)), current.title(entry),
+                    PosterUrls.card(current.posterPath(entry))));
+        }
+        return movies;
+    }
+
+    public Map<String, Object> getStats() {
+        TitlePrefixTrie current = trie;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("titles", current.size());
+        stats.put("nodes", current.nodeCount());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("lookups", lookups.sum());
+        return stats;
+    }
+}
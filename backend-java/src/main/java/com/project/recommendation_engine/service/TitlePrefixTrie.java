@@ -0,0 +1,392 @@
+package com.project.recommendation_engine.service;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Immutable prefix trie over movie titles, for typeahead.
+// Path-compressed and flattened into parallel arrays: a node is an index, its edge label is a
+// slice of one shared char[], its children are a contiguous run of node indices sorted by
+// first char, and its best titles (by popularity) are a slice of one shared int[]. A lookup
+// walks the arrays and copies a precomputed top-k into the caller's buffer, so it allocates nothing.
+// Titles are keyed folded ("Amélie!" -> "amelie"), and once more without a leading article,
+// so "matrix" completes "The Matrix".
+public final class TitlePrefixTrie {
+
+    public static final TitlePrefixTrie EMPTY = new Builder(1).build();
+
+    private static final char SEPARATOR = ' ';
+    private static final char SKIP = '\0';
+    private static final String[] ARTICLES = {"the ", "a ", "an "};
+
+    // Folding for the Latin range, worked out once so lookups don't have to normalize strings
+    private static final char[] FOLD = new char[0x250];
+
+    static {
+        for (char c = 0; c < FOLD.length; c++) {
+            String stripped = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            if (stripped.isEmpty()) {
+                FOLD[c] = SKIP;
+            } else {
+                char first = Character.toLowerCase(stripped.charAt(0));
+                FOLD[c] = Character.isLetterOrDigit(first) ? first : SEPARATOR;
+            }
+        }
+    }
+
+    // Entries
+    private final long[] tmdbIds;
+    private final String[] titles;
+    private final String[] posterPaths;
+
+    // Nodes; node 0 is the root
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topEnd;
+    private final int[] top;
+    private final int nodes;
+
+    private TitlePrefixTrie(long[] tmdbIds, String[] titles, String[] posterPaths, char[] labels,
+                            int[] labelStart, int[] labelEnd, int[] firstChild, int[] childCount,
+                            int[] topStart, int[] topEnd, int[] top, int nodes) {
+        this.tmdbIds = tmdbIds;
+        this.titles = titles;
+        this.posterPaths = posterPaths;
+        this.labels = labels;
+        this.labelStart = labelStart;
+        this.labelEnd = labelEnd;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.topEnd = topEnd;
+        this.top = top;
+        this.nodes = nodes;
+    }
+
+    // Writes the entries completing `prefix`, most popular first, into `out`. Returns how many.
+    public int complete(CharSequence prefix, int[] out) {
+        int node = 0;
+        int pos = labelEnd[0];
+        boolean started = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = fold(prefix.charAt(i));
+            if (c == SKIP) {
+                continue;
+            }
+            if (c == SEPARATOR) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                int next = step(node, pos, SEPARATOR);
+                if (next < 0) {
+                    return 0;
+                }
+                pos = next == node ? pos + 1 : labelStart[next] + 1;
+                node = next;
+                pendingSpace = false;
+            }
+            int next = step(node, pos, c);
+            if (next < 0) {
+                return 0;
+            }
+            pos = next == node ? pos + 1 : labelStart[next] + 1;
+            node = next;
+            started = true;
+        }
+        // "star " completes "star wars" but not "stargate"
+        if (pendingSpace && (node = step(node, pos, SEPARATOR)) < 0) {
+            return 0;
+        }
+
+        int count = Math.min(out.length, topEnd[node] - topStart[node]);
+        System.arraycopy(top, topStart[node], out, 0, count);
+        return count;
+    }
+
+    // The node holding the next char after `pos`, or -1. Within an edge that's the same node,
+    // at the end of one it's the child whose label starts with `c`.
+    private int step(int node, int pos, char c) {
+        if (pos < labelEnd[node]) {
+            return labels[pos] == c ? node : -1;
+        }
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char first = labels[labelStart[mid]];
+            if (first < c) {
+                lo = mid + 1;
+            } else if (first > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long tmdbId(int entry) {
+        return tmdbIds[entry];
+    }
+
+    public String title(int entry) {
+        return titles[entry];
+    }
+
+    public String posterPath(int entry) {
+        return posterPaths[entry];
+    }
+
+    public int size() {
+        return tmdbIds.length;
+    }
+
+    public int nodeCount() {
+        return nodes;
+    }
+
+    static char fold(char c) {
+        if (c < FOLD.length) {
+            return FOLD[c];
+        }
+        int type = Character.getType(c);
+        if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK) {
+            return SKIP;
+        }
+        char lower = Character.toLowerCase(c);
+        return Character.isLetterOrDigit(lower) ? lower : SEPARATOR;
+    }
+
+    // Same folding as a lookup, with separators collapsed and trimmed
+    static String foldKey(String title) {
+        StringBuilder key = new StringBuilder(title.length());
+        for (int i = 0; i < title.length(); i++) {
+            char c = fold(title.charAt(i));
+            if (c == SKIP) {
+                continue;
+            }
+            if (c == SEPARATOR) {
+                if (key.length() > 0 && key.charAt(key.length() - 1) != SEPARATOR) {
+                    key.append(SEPARATOR);
+                }
+            } else {
+                key.append(c);
+            }
+        }
+        int end = key.length();
+        if (end > 0 && key.charAt(end - 1) == SEPARATOR) {
+            key.setLength(end - 1);
+        }
+        return key.toString();
+    }
+
+    // Collects titles, then lays the trie out in one go
+    public static final class Builder {
+
+        private final int topK;
+        private final List<Item> items = new ArrayList<>();
+
+        public Builder(int topK) {
+            this.topK = topK;
+        }
+
+        public Builder add(long tmdbId, String title, String posterPath, double popularity) {
+            if (title != null && !title.isBlank()) {
+                items.add(new Item(tmdbId, title, posterPath, popularity));
+            }
+            return this;
+        }
+
+        public TitlePrefixTrie build() {
+            // Entry ids in popularity order, so "better" is just "smaller"
+            items.sort(Comparator.comparingDouble(Item::popularity).reversed());
+            int n = items.size();
+            long[] tmdbIds = new long[n];
+            String[] titles = new String[n];
+            String[] posterPaths = new String[n];
+            List<String> keys = new ArrayList<>(n + n / 4);
+            List<Integer> keyEntries = new ArrayList<>(n + n / 4);
+            for (int entry = 0; entry < n; entry++) {
+                Item item = items.get(entry);
+                tmdbIds[entry] = item.tmdbId();
+                titles[entry] = item.title();
+                posterPaths[entry] = item.posterPath();
+
+                String key = foldKey(item.title());
+                if (key.isEmpty()) {
+                    continue;
+                }
+                keys.add(key);
+                keyEntries.add(entry);
+                for (String article : ARTICLES) {
+                    if (key.startsWith(article) && key.length() > article.length()) {
+                        keys.add(key.substring(article.length()));
+                        keyEntries.add(entry);
+                        break;
+                    }
+                }
+            }
+
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            String[] sortedKeys = new String[order.length];
+            int[] sortedEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedEntries[i] = keyEntries.get(order[i]);
+            }
+
+            return new Layout(sortedKeys, sortedEntries, topK).build(tmdbIds, titles, posterPaths);
+        }
+
+        private record Item(long tmdbId, String title, String posterPath, double popularity) {}
+    }
+
+    // Breadth-first over sorted keys: every node covers a contiguous range of them, and its
+    // children are the runs sharing the next char, which keeps siblings adjacent in the arrays.
+    private static final class Layout {
+
+        private final String[] keys;
+        private final int[] keyEntries;
+        private final int topK;
+
+        private char[] labels = new char[1024];
+        private int labelSize;
+        private int[] labelStart = new int[256];
+        private int[] labelEnd = new int[256];
+        private int[] firstChild = new int[256];
+        private int[] childCount = new int[256];
+        private int[] topStart = new int[256];
+        private int[] topEnd = new int[256];
+        private int[] top = new int[1024];
+        private int topSize;
+        private int nodes;
+
+        Layout(String[] keys, int[] keyEntries, int topK) {
+            this.keys = keys;
+            this.keyEntries = keyEntries;
+            this.topK = topK;
+        }
+
+        TitlePrefixTrie build(long[] tmdbIds, String[] titles, String[] posterPaths) {
+            // Range and depth of each queued node
+            ArrayDeque<int[]> queue = new ArrayDeque<>();
+            addNode(0, 0, 0, 0, keys.length);
+            queue.add(new int[]{0, 0, keys.length, 0});
+
+            while (!queue.isEmpty()) {
+                int[] item = queue.poll();
+                int node = item[0];
+                int lo = item[1];
+                int hi = item[2];
+                int depth = item[3];
+
+                // Keys ending here sort first
+                int i = lo;
+                while (i < hi && keys[i].length() == depth) {
+                    i++;
+                }
+                firstChild[node] = nodes;
+                while (i < hi) {
+                    char c = keys[i].charAt(depth);
+                    int end = i + 1;
+                    while (end < hi && keys[end].charAt(depth) == c) {
+                        end++;
+                    }
+                    // Sorted, so the range's common prefix is that of its first and last key
+                    int childDepth = commonPrefix(keys[i], keys[end - 1]);
+                    int child = addNode(i, depth, childDepth, i, end);
+                    queue.add(new int[]{child, i, end, childDepth});
+                    i = end;
+                }
+                childCount[node] = nodes - firstChild[node];
+            }
+
+            return new TitlePrefixTrie(tmdbIds, titles, posterPaths, Arrays.copyOf(labels, labelSize),
+                    Arrays.copyOf(labelStart, nodes), Arrays.copyOf(labelEnd, nodes),
+                    Arrays.copyOf(firstChild, nodes), Arrays.copyOf(childCount, nodes),
+                    Arrays.copyOf(topStart, nodes), Arrays.copyOf(topEnd, nodes),
+                    Arrays.copyOf(top, topSize), nodes);
+        }
+
+        private int addNode(int labelKey, int from, int to, int lo, int hi) {
+            int node = nodes++;
+            if (node == labelStart.length) {
+                int capacity = node * 2;
+                labelStart = Arrays.copyOf(labelStart, capacity);
+                labelEnd = Arrays.copyOf(labelEnd, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                topStart = Arrays.copyOf(topStart, capacity);
+                topEnd = Arrays.copyOf(topEnd, capacity);
+            }
+
+            if (labelSize + (to - from) > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelSize + to - from));
+            }
+            if (to > from) {
+                keys[labelKey].getChars(from, to, labels, labelSize);
+            }
+            labelStart[node] = labelSize;
+            labelSize += to - from;
+            labelEnd[node] = labelSize;
+
+            // Best k entries under this node: smallest entry ids (they're in popularity order),
+            // each once even when reachable through two keys
+            if (topSize + topK > top.length) {
+                top = Arrays.copyOf(top, Math.max(top.length * 2, topSize + topK));
+            }
+            topStart[node] = topSize;
+            int found = 0;
+            for (int k = lo; k < hi; k++) {
+                int entry = keyEntries[k];
+                if (found == topK && entry >= top[topSize + found - 1]) {
+                    continue;
+                }
+                int pos = found;
+                boolean duplicate = false;
+                while (pos > 0 && top[topSize + pos - 1] >= entry) {
+                    if (top[topSize + pos - 1] == entry) {
+                        duplicate = true;
+                        break;
+                    }
+                    pos--;
+                }
+                if (duplicate) {
+                    continue;
+                }
+                int last = Math.min(found, topK - 1);
+                System.arraycopy(top, topSize + pos, top, topSize + pos + 1, last - pos);
+                top[topSize + pos] = entry;
+                if (found < topK) {
+                    found++;
+                }
+            }
+            topSize += found;
+            topEnd[node] = topSize;
+            return node;
+        }
+
+        private static int commonPrefix(String a, String b) {
+            int max = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.project.recommendation_engine.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// In-memory trigram index over the titles of every movie we have seen (search/discover
+// results, loaded details, the catalog mirror).
+// Each title is normalized ("Amélie!" -> " amelie "), split into 3-character grams and
+// added to the postings of those grams. A query counts shared grams per title and scores
+// them with the Dice coefficient, nudged by popularity, so "matrix" finds "The Matrix" first.
+// Titles are added one at a time as they are seen; nothing is ever rebuilt from scratch.
+// A renamed movie leaves a retired document behind; once those pass a quarter of all
+// documents they are compacted away, so catalog rescans don't grow the index.
+@Component
+public class TitleSearchIndex {
+
+    public record Hit(long tmdbId, String title, String posterPath, double popularity, double score) {}
+
+    @FunctionalInterface
+    public interface TitleVisitor {
+        void visit(long tmdbId, String title, String posterPath, double popularity);
+    }
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final double POPULARITY_WEIGHT = 0.05;
+    private static final double MIN_SHARED_RATIO = 0.6;
+    private static final double LOG_1000 = Math.log1p(1000);
+    private static final double MAX_RETIRED_RATIO = 0.25;
+
+    private final int maxTitles;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Documents are addressed by a dense int id, postings hold those ids.
+    private final Map<Long, Integer> docByTmdbId = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private long[] tmdbIds = new long[1024];
+    private String[] titles = new String[1024];
+    private String[] normalizedTitles = new String[1024];
+    private String[] posterPaths = new String[1024];
+    private double[] popularity = new double[1024];
+    private double[] boosts = new double[1024];
+    private int[] gramCounts = new int[1024];
+    private boolean[] removed = new boolean[1024];
+    private int docs;
+    private int liveDocs;
+    // Bumped on every change, so derived structures (TitleAutocomplete) know when to rebuild
+    private volatile long version;
+
+    // Per-thread scratch for the shared-gram counts, so a search doesn't allocate per document
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    public TitleSearchIndex(@Value("${tmdb.search.max-titles:200000}") int maxTitles) {
+        this.maxTitles = maxTitles;
+    }
+
+    // Adds or updates a title. Cheap when nothing changed, so callers can feed every movie they see.
+    // Retired documents count toward maxTitles: a new movie is dropped once live plus retired
+    // documents reach it, while a rename of a known movie is always applied.
+    public void add(long tmdbId, String title, String posterPath, Double moviePopularity) {
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        String normalized = normalize(title);
+        double pop = moviePopularity != null ? moviePopularity : 0;
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByTmdbId.get(tmdbId);
+            if (existing != null) {
+                if (normalizedTitles[existing].equals(normalized)) {
+                    // Same title: keep the postings, refresh what may have changed
+                    boolean changed = !title.equals(titles[existing])
+                            || (posterPath != null && !posterPath.equals(posterPaths[existing]))
+                            || (moviePopularity != null && pop != popularity[existing]);
+                    if (!changed) {
+                        return;
+                    }
+                    titles[existing] = title;
+                    if (posterPath != null) {
+                        posterPaths[existing] = posterPath;
+                    }
+                    if (moviePopularity != null) {
+                        popularity[existing] = pop;
+                        boosts[existing] = POPULARITY_WEIGHT * popularityBoost(pop);
+                    }
+                    version++;
+                    return;
+                }
+                // Title changed: retire the old document, its postings are skipped from now on
+                removed[existing] = true;
+                liveDocs--;
+                if (docs - liveDocs > docs * MAX_RETIRED_RATIO) {
+                    compact();
+                }
+            } else if (docs >= maxTitles) {
+                return;
+            }
+
+            int doc = docs++;
+            ensureCapacity(docs);
+            tmdbIds[doc] = tmdbId;
+            titles[doc] = title;
+            normalizedTitles[doc] = normalized;
+            posterPaths[doc] = posterPath;
+            popularity[doc] = pop;
+            boosts[doc] = POPULARITY_WEIGHT * popularityBoost(pop);
+
+            long[] grams = grams(normalized);
+            gramCounts[doc] = grams.length;
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(doc);
+            }
+            docByTmdbId.put(tmdbId, doc);
+            liveDocs++;
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, int limit) {
+        long start = System.nanoTime();
+        String normalized = query != null ? normalize(query) : "";
+        long[] queryGrams = grams(normalized);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            s.ensureCapacity(docs);
+
+            // Posting lists rarest first; the common ones (" th", "the", ...) are only ever probed
+            // for known candidates with a binary search, never scanned.
+            int q = queryGrams.length;
+            Postings[] lists = new Postings[q];
+            for (int i = 0; i < q; i++) {
+                lists[i] = postings.getOrDefault(queryGrams[i], Postings.EMPTY);
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            // Pass 1: titles in the rarest list, scored exactly. Counts are stored negated to
+            // mark them as final.
+            scan(lists[0], s);
+            probe(lists, 1, 0, s);
+            for (int i = 0; i < s.touchedSize; i++) {
+                s.counts[s.touched[i]] = -s.counts[s.touched[i]];
+            }
+
+            // A title sharing m grams scores at most 2m / (q + m). Anything not seen yet must beat
+            // the current k-th best to matter, which bounds the m worth looking for; any title with
+            // that many shared grams appears in one of the `prefix` rarest lists.
+            double threshold = kthBestRank(s, q, limit) - POPULARITY_WEIGHT;
+            int minShared = Math.max(1, (int) Math.ceil(q * MIN_SHARED_RATIO));
+            if (threshold > 0) {
+                minShared = Math.max(minShared, (int) Math.ceil(threshold * q / (2 - threshold) - 1e-9));
+            }
+            int prefix = Math.max(1, q - minShared + 1);
+
+            // Pass 2: new titles from the next rarest lists, then probed against the rest. Dice also
+            // bounds the length: a title can't reach the threshold with too few or too many grams.
+            int firstNew = s.touchedSize;
+            for (int g = 1; g < prefix; g++) {
+                scan(lists[g], s);
+            }
+            if (threshold > 0) {
+                dropByLength(s, firstNew, threshold * q / (2 - threshold), q * (2 - threshold) / threshold);
+            }
+            probe(lists, prefix, firstNew, s);
+
+            // Keep the best `limit` documents
+            Hit[] best = new Hit[limit];
+            double[] bestRank = new double[limit];
+            int found = 0;
+            for (int i = 0; i < s.touchedSize; i++) {
+                int doc = s.touched[i];
+                int shared = Math.abs(s.counts[doc]);
+                s.counts[doc] = 0;
+                if (removed[doc] || shared < minShared) {
+                    continue;
+                }
+                double score = dice(shared, q, doc);
+                double rank = score + boosts[doc];
+                if (found < limit) {
+                    found++;
+                } else if (rank <= bestRank[found - 1]) {
+                    continue;
+                }
+                // Insertion into the small sorted array
+                int pos = found - 1;
+                while (pos > 0 && bestRank[pos - 1] < rank) {
+                    best[pos] = best[pos - 1];
+                    bestRank[pos] = bestRank[pos - 1];
+                    pos--;
+                }
+                best[pos] = new Hit(tmdbIds[doc], titles[doc], posterPaths[doc], popularity[doc], score);
+                bestRank[pos] = rank;
+            }
+            s.touchedSize = 0;
+
+            return Arrays.asList(Arrays.copyOf(best, found));
+        } finally {
+            lock.readLock().unlock();
+            searches.increment();
+            searchNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    // Counts one more shared gram for every title in the list, skipping titles already final
+    private static void scan(Postings list, Scratch s) {
+        for (int i = 0; i < list.size; i++) {
+            int doc = list.docs[i];
+            int count = s.counts[doc];
+            if (count < 0) {
+                continue;
+            }
+            if (count == 0) {
+                s.touch(doc);
+            }
+            s.counts[doc] = count + 1;
+        }
+    }
+
+    // Forgets the new titles in touched[from..] whose gram count is outside [minGrams, maxGrams]
+    private void dropByLength(Scratch s, int from, double minGrams, double maxGrams) {
+        int kept = from;
+        for (int i = from; i < s.touchedSize; i++) {
+            int doc = s.touched[i];
+            if (gramCounts[doc] < minGrams - 1e-9 || gramCounts[doc] > maxGrams + 1e-9) {
+                s.counts[doc] = 0;
+            } else {
+                s.touched[kept++] = doc;
+            }
+        }
+        s.touchedSize = kept;
+    }
+
+    // Completes the counts of touched[from..] using lists[firstList..]. Few candidates against a
+    // long list are looked up with a binary search; otherwise walking the list is cheaper.
+    // Only positive counts belong to touched[from..]: final titles are negative, others zero.
+    private static void probe(Postings[] lists, int firstList, int from, Scratch s) {
+        for (int g = firstList; g < lists.length; g++) {
+            Postings list = lists[g];
+            int candidates = s.touchedSize - from;
+            if ((long) candidates * (32 - Integer.numberOfLeadingZeros(list.size)) > list.size) {
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (s.counts[doc] > 0) {
+                        s.counts[doc]++;
+                    }
+                }
+                continue;
+            }
+            for (int i = from; i < s.touchedSize; i++) {
+                int doc = s.touched[i];
+                if (list.contains(doc)) {
+                    s.counts[doc]++;
+                }
+            }
+        }
+    }
+
+    // Rank of the k-th best title scored so far, 0 when there are fewer than k
+    private double kthBestRank(Scratch s, int q, int k) {
+        double[] top = s.topRanks(k);
+        int n = 0;
+        for (int i = 0; i < s.touchedSize; i++) {
+            int doc = s.touched[i];
+            if (removed[doc]) {
+                continue;
+            }
+            double rank = dice(-s.counts[doc], q, doc) + boosts[doc];
+            if (n < k) {
+                n++;
+            } else if (rank <= top[k - 1]) {
+                continue;
+            }
+            int pos = n - 1;
+            while (pos > 0 && top[pos - 1] < rank) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = rank;
+        }
+        return n < k ? 0 : top[k - 1];
+    }
+
+    private double dice(int shared, int queryGrams, int doc) {
+        return 2.0 * Math.min(shared, gramCounts[doc]) / (queryGrams + gramCounts[doc]);
+    }
+
+    // Every live title, under the read lock: keep the visitor cheap
+    public void forEachTitle(TitleVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int doc = 0; doc < docs; doc++) {
+                if (!removed[doc]) {
+                    visitor.visit(tmdbIds[doc], titles[doc], posterPaths[doc], popularity[doc]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock. Drops the retired documents and renumbers the rest in their
+    // current order, so every posting list stays sorted.
+    private void compact() {
+        int[] renumbered = new int[docs];
+        int live = 0;
+        for (int doc = 0; doc < docs; doc++) {
+            if (removed[doc]) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = live;
+            tmdbIds[live] = tmdbIds[doc];
+            titles[live] = titles[doc];
+            normalizedTitles[live] = normalizedTitles[doc];
+            posterPaths[live] = posterPaths[doc];
+            popularity[live] = popularity[doc];
+            boosts[live] = boosts[doc];
+            gramCounts[live] = gramCounts[doc];
+            live++;
+        }
+        Arrays.fill(titles, live, docs, null);
+        Arrays.fill(normalizedTitles, live, docs, null);
+        Arrays.fill(posterPaths, live, docs, null);
+        Arrays.fill(removed, 0, docs, false);
+
+        postings.values().removeIf(list -> list.renumber(renumbered) == 0);
+        for (Map.Entry<Long, Integer> entry : docByTmdbId.entrySet()) {
+            entry.setValue(renumbered[entry.getValue()]);
+        }
+        docs = live;
+        compactions.increment();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long count = searches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("titles", liveDocs);
+            stats.put("retiredTitles", docs - liveDocs);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("compactions", compactions.sum());
+        stats.put("searches", count);
+        stats.put("avgSearchMicros", count == 0 ? 0 : searchNanos.sum() / count / 1000);
+        return stats;
+    }
+
+    // Lowercase, accents removed, anything that isn't a letter or digit becomes a single space,
+    // padded with spaces so word starts and ends get their own grams
+    static String normalize(String title) {
+        String stripped = MARKS.matcher(Normalizer.normalize(title, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder out = new StringBuilder(stripped.length() + 2).append(' ');
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = Character.toLowerCase(stripped.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                out.append(c);
+            } else if (out.charAt(out.length() - 1) != ' ') {
+                out.append(' ');
+            }
+        }
+        if (out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+        return out.toString();
+    }
+
+    // Distinct trigrams, three chars packed into a long
+    static long[] grams(String normalized) {
+        if (normalized.isBlank()) {
+            return new long[0];
+        }
+        long[] grams = new long[Math.max(0, normalized.length() - 2)];
+        int n = 0;
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            long gram = ((long) normalized.charAt(i) << 32) | ((long) normalized.charAt(i + 1) << 16) | normalized.charAt(i + 2);
+            boolean seen = false;
+            for (int j = 0; j < n; j++) {
+                if (grams[j] == gram) {
+                    seen = true;
+                    break;
+                }
+            }
+            if (!seen) {
+                grams[n++] = gram;
+            }
+        }
+        return Arrays.copyOf(grams, n);
+    }
+
+    // 0..1 on a log scale: TMDB popularity runs from ~0 to a few thousand
+    private static double popularityBoost(double pop) {
+        return Math.min(1.0, Math.log1p(Math.max(0, pop)) / LOG_1000);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= tmdbIds.length) {
+            return;
+        }
+        int capacity = Math.max(size, tmdbIds.length * 2);
+        tmdbIds = Arrays.copyOf(tmdbIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        normalizedTitles = Arrays.copyOf(normalizedTitles, capacity);
+        posterPaths = Arrays.copyOf(posterPaths, capacity);
+        popularity = Arrays.copyOf(popularity, capacity);
+        boosts = Arrays.copyOf(boosts, capacity);
+        gramCounts = Arrays.copyOf(gramCounts, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+    }
+
+    // Doc ids are appended in increasing order, so every list is sorted
+    private static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        int[] docs = new int[4];
+        int size;
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        // Maps every doc id through `renumbered`, dropping the ones mapped to -1; returns the new size
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept++] = doc;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    private static final class Scratch {
+        int[] counts = new int[0];
+        int[] touched = new int[0];
+        int touchedSize;
+        double[] ranks = new double[8];
+
+        void ensureCapacity(int size) {
+            if (counts.length < size) {
+                counts = Arrays.copyOf(counts, Math.max(size, counts.length * 2));
+                touched = Arrays.copyOf(touched, counts.length);
+            }
+        }
+
+        void touch(int doc) {
+            touched[touchedSize++] = doc;
+        }
+
+        double[] topRanks(int k) {
+            if (ranks.length < k) {
+                ranks = new double[k];
+            }
+            return ranks;
+        }
+    }
+
+}
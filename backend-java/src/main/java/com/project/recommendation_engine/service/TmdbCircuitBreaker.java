@@ -0,0 +1,97 @@
+package com.project.recommendation_engine.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Circuit breaker for TMDB.
+// CLOSED: calls go through. After failureThreshold consecutive failures it goes OPEN.
+// OPEN: calls are refused right away (callers serve stale data) for openMs.
+// HALF_OPEN: a single probe call is let through; success closes the circuit, failure re-opens it.
+@Component
+public class TmdbCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final AtomicLong timesOpened = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+
+    public TmdbCircuitBreaker(@Value("${tmdb.circuit.failure-threshold:5}") int failureThreshold,
+                              @Value("${tmdb.circuit.open-ms:30000}") long openMs) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+    }
+
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt >= openMs) {
+                    // Time to probe TMDB again
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return true;
+                }
+                break;
+        }
+        refused.incrementAndGet();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            System.out.println("[TMDB] Circuit closed, TMDB is responding again");
+            state = State.CLOSED;
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            System.err.println("[TMDB] Circuit opened after " + consecutiveFailures + " failures");
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            timesOpened.incrementAndGet();
+        }
+    }
+
+    // The call ended without telling us anything about TMDB health (e.g. rate limited locally)
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("timesOpened", timesOpened.get());
+        stats.put("refused", refused.get());
+        return stats;
+    }
+}
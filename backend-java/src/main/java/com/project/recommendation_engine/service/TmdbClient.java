@@ -0,0 +1,256 @@
+package com.project.recommendation_engine.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+// Single HTTP client shared by every TMDB call.
+// Connections are pooled and kept alive, so we don't pay a new TLS handshake per request.
+// Calls go through the rate limiter and the circuit breaker; when TMDB fails the last
+// good response for the same key is served instead.
+@Component
+public class TmdbClient {
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final TmdbRateLimiter rateLimiter;
+    private final TmdbCircuitBreaker circuitBreaker;
+    private final Cache<String, Object> lastGoodResponses;
+    private final LongAdder staleServed = new LongAdder();
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    public TmdbClient(TmdbRateLimiter rateLimiter,
+                      TmdbCircuitBreaker circuitBreaker,
+                      @Value("${tmdb.circuit.stale-max-entries:5000}") long staleMaxEntries,
+                      @Value("${tmdb.http.max-connections:50}") int maxConnections,
+                      @Value("${tmdb.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                      @Value("${tmdb.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                      @Value("${tmdb.http.read-timeout-ms:5000}") long readTimeoutMs,
+                      @Value("${tmdb.http.lease-timeout-ms:1000}") long leaseTimeoutMs) {
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.lastGoodResponses = Caffeine.newBuilder()
+                .maximumSize(staleMaxEntries)
+                .build();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                // How long a caller may wait for a free connection from the pool
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    public <T> T getForObject(String url, Class<T> responseType) {
+        return getForObject(url, url, responseType);
+    }
+
+    // staleKey identifies the logical request (e.g. "discover:28") whose last good
+    // answer is served when TMDB is failing or the circuit is open
+    public <T> T getForObject(String staleKey, String url, Class<T> responseType) {
+        return call(staleKey, responseType, () -> restTemplate.getForObject(url, responseType));
+    }
+
+    // Same protections as getForObject, but the body is handed to the parser as a stream
+    // instead of being bound to an object graph first. RestTemplate would wrap a parse error in
+    // ResourceAccessException, same as a timeout, so it leaves the extractor as TmdbParseException.
+    public <T> T getStreaming(String staleKey, String url, Class<T> resultType, BodyParser<T> parser) {
+        return call(staleKey, resultType, () -> restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> {
+                    try {
+                        return parser.parse(response.getBody());
+                    } catch (JsonProcessingException e) {
+                        throw new TmdbParseException("Malformed TMDB response for " + staleKey, e);
+                    }
+                }));
+    }
+
+    @FunctionalInterface
+    public interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    private <T> T call(String staleKey, Class<T> responseType, Supplier<T> request) {
+        if (!circuitBreaker.allowRequest()) {
+            return serveStale(staleKey, responseType, null);
+        }
+
+        try {
+            T result = fetchRateLimited(request);
+            circuitBreaker.onSuccess();
+            if (result != null) {
+                lastGoodResponses.put(staleKey, result);
+            }
+            return result;
+        } catch (HttpServerErrorException | ResourceAccessException | HttpClientErrorException.TooManyRequests e) {
+            // TMDB is down, slow or throttling us
+            circuitBreaker.onFailure();
+            return serveStale(staleKey, responseType, e);
+        } catch (TmdbParseException e) {
+            // TMDB answered, with a body we can't read; the last good copy is still better than nothing
+            circuitBreaker.onSuccess();
+            Object stale = lastGoodResponses.getIfPresent(staleKey);
+            if (responseType.isInstance(stale)) {
+                staleServed.increment();
+                return responseType.cast(stale);
+            }
+            throw e;
+        } catch (TmdbRateLimitException e) {
+            // Our own limiter said no, TMDB health unknown
+            circuitBreaker.onIgnored();
+            return serveStale(staleKey, responseType, e);
+        } catch (HttpClientErrorException e) {
+            // 404 and friends: TMDB answered, the request itself was bad
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+    }
+
+    private <T> T serveStale(String staleKey, Class<T> responseType, RuntimeException cause) {
+        Object stale = lastGoodResponses.getIfPresent(staleKey);
+        if (responseType.isInstance(stale)) {
+            staleServed.increment();
+            return responseType.cast(stale);
+        }
+        throw new TmdbUnavailableException("TMDB unavailable and no stale copy for " + staleKey, cause);
+    }
+
+    private <T> T fetchRateLimited(Supplier<T> request) {
+        // One retry when TMDB throttles us, after waiting for its Retry-After
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                T result = request.get();
+                rateLimiter.onSuccess();
+                return result;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                Duration retryAfter = parseRetryAfter(e.getResponseHeaders());
+                rateLimiter.onThrottled(retryAfter);
+                System.err.println("TMDB returned 429, pausing for " + retryAfter.toMillis() + "ms");
+                if (attempt >= 2) {
+                    throw e;
+                }
+            } catch (TmdbParseException e) {
+                // The round trip itself was fine
+                rateLimiter.onSuccess();
+                throw e;
+            } catch (ResourceAccessException e) {
+                // Timeouts / refused connections
+                rateLimiter.onFailure(true);
+                throw e;
+            } catch (RuntimeException e) {
+                rateLimiter.onFailure(false);
+                throw e;
+            }
+        }
+    }
+
+    // Retry-After is either a number of seconds or an HTTP date
+    static Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration wait = Duration.between(ZonedDateTime.now(), retryAt);
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (DateTimeParseException ex) {
+                return DEFAULT_RETRY_AFTER;
+            }
+        }
+    }
+
+    // Pool statistics: leased = in use, available = idle keep-alive, pending = waiting for a connection
+    public Map<String, Integer> getPoolStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("leased", stats.getLeased());
+        result.put("available", stats.getAvailable());
+        result.put("pending", stats.getPending());
+        result.put("max", stats.getMax());
+        return result;
+    }
+
+    public Map<String, Object> getRateLimiterStats() {
+        return rateLimiter.getStats();
+    }
+
+    public Map<String, Object> getCircuitBreakerStats() {
+        Map<String, Object> stats = circuitBreaker.getStats();
+        stats.put("staleServed", staleServed.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (Exception e) {
+            System.err.println("Error closing TMDB http client: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.project.recommendation_engine.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Hedged requests for TMDB movie details.
+// If the first call hasn't answered after the p95 (configurable) of recent latencies,
+// one duplicate call is sent and whichever answers first wins. Hedges are paid from a
+// budget of maxRatio of all calls, so a TMDB outage can't double our traffic.
+@Component
+public class TmdbHedger {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_CREDITS = 10;
+
+    private final Executor hedgeExecutor;
+    private final boolean enabled;
+    private final double percentile;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final double maxRatio;
+
+    // Ring buffer of recent latencies (ms), guarded by this
+    private final long[] latencies = new long[WINDOW];
+    private int samples;
+    private int next;
+    private long currentDelayMs;
+    private int sinceRecompute;
+
+    private double credits; // Guarded by this
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder hedgesSkippedByBudget = new LongAdder();
+    private final LongAdder hedgesRejected = new LongAdder();
+
+    public TmdbHedger(@Qualifier("hedgeExecutor") Executor hedgeExecutor,
+                      @Value("${tmdb.hedge.enabled:true}") boolean enabled,
+                      @Value("${tmdb.hedge.percentile:95}") double percentile,
+                      @Value("${tmdb.hedge.initial-delay-ms:500}") long initialDelayMs,
+                      @Value("${tmdb.hedge.min-delay-ms:50}") long minDelayMs,
+                      @Value("${tmdb.hedge.max-ratio:0.05}") double maxRatio) {
+        this.hedgeExecutor = hedgeExecutor;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.initialDelayMs = initialDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.maxRatio = maxRatio;
+        this.currentDelayMs = initialDelayMs;
+        this.credits = 1;
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        requests.increment();
+        earnCredit();
+
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(timed(call), hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            // Hedge pool is busy, just make the call on this thread
+            return call.get();
+        }
+
+        try {
+            return primary.get(hedgeDelayMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Primary is slow, hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for TMDB", e);
+        }
+
+        CompletableFuture<T> hedge;
+        if (!spendCredit()) {
+            hedgesSkippedByBudget.increment();
+            return await(primary);
+        }
+        try {
+            hedge = CompletableFuture.supplyAsync(timed(call), hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            // The budget allowed it but the hedge pool is saturated; nothing fired, so the
+            // credit goes back rather than draining the budget
+            refundCredit();
+            hedgesRejected.increment();
+            return await(primary);
+        }
+        hedgesFired.increment();
+
+        // First successful answer wins; fail only if both calls fail
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicBoolean answered = new AtomicBoolean();
+        primary.whenComplete((result, error) -> complete(winner, result, error, failures, answered, false));
+        hedge.whenComplete((result, error) -> complete(winner, result, error, failures, answered, true));
+        return await(winner);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("requests", requests.sum());
+        stats.put("hedgesFired", hedgesFired.sum());
+        stats.put("hedgesWon", hedgesWon.sum());
+        stats.put("hedgesSkippedByBudget", hedgesSkippedByBudget.sum());
+        stats.put("hedgesRejected", hedgesRejected.sum());
+        stats.put("hedgeDelayMs", hedgeDelayMs());
+        return stats;
+    }
+
+    private <T> void complete(CompletableFuture<T> winner, T result, Throwable error,
+                              AtomicInteger failures, AtomicBoolean answered, boolean isHedge) {
+        if (error == null) {
+            // A won hedge is counted before the caller wakes up, so its stats already show it
+            if (answered.compareAndSet(false, true)) {
+                if (isHedge) {
+                    hedgesWon.increment();
+                }
+                winner.complete(result);
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+        }
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = call.get();
+            record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        };
+    }
+
+    private synchronized void record(long latencyMs) {
+        latencies[next] = latencyMs;
+        next = (next + 1) % WINDOW;
+        samples = Math.min(WINDOW, samples + 1);
+
+        // Sorting 256 longs is cheap, but no need to do it on every call
+        if (samples >= MIN_SAMPLES && ++sinceRecompute >= 16) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * samples) - 1;
+            currentDelayMs = Math.max(minDelayMs, sorted[Math.max(0, Math.min(samples - 1, index))]);
+        }
+    }
+
+    private synchronized long hedgeDelayMs() {
+        return samples < MIN_SAMPLES ? initialDelayMs : currentDelayMs;
+    }
+
+    private synchronized void earnCredit() {
+        credits = Math.min(MAX_CREDITS, credits + maxRatio);
+    }
+
+    private synchronized boolean spendCredit() {
+        if (credits >= 1) {
+            credits -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void refundCredit() {
+        credits = Math.min(MAX_CREDITS, credits + 1);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for TMDB", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+}
@@ -0,0 +1,344 @@
+package com.project.recommendation_engine.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.WatchProviders;
+
+// Streaming parser for /movie/{id}?append_to_response=credits,watch/providers.
+// Walks the JSON once and only materializes what MovieDetails keeps: the full cast and
+// crew lists (often hundreds of entries) and every other region's providers are skipped
+// token by token instead of being mapped into objects and thrown away.
+// parseWithProviders keeps every region's providers as well, for WatchProviderCache.
+final class TmdbMovieDetailsParser {
+
+    record Parsed(MovieDetails details, WatchProviders providers) {}
+
+    static final int TOP_CAST = 5;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private TmdbMovieDetailsParser() {
+    }
+
+    static MovieDetails parse(InputStream body, String region) throws IOException {
+        try (JsonParser p = JSON.createParser(body)) {
+            return parse(p, region, null);
+        }
+    }
+
+    // One line of a TMDB detail dump
+    static MovieDetails parse(String json, String region) throws IOException {
+        try (JsonParser p = JSON.createParser(json)) {
+            return parse(p, region, null);
+        }
+    }
+
+    // Details with `region`'s providers, plus the providers of every region. Providers are null
+    // when the response had no watch/providers section.
+    static Parsed parseWithProviders(InputStream body, String region) throws IOException {
+        AllRegions regions = new AllRegions();
+        try (JsonParser p = JSON.createParser(body)) {
+            MovieDetails details = parse(p, region, regions);
+            return new Parsed(details, regions.seen ? regions.toWatchProviders() : null);
+        }
+    }
+
+    // Body of /movie/{id}/watch/providers: {"id":..,"results":{"US":{..},..}}
+    static WatchProviders parseProviders(InputStream body) throws IOException {
+        AllRegions regions = new AllRegions();
+        try (JsonParser p = JSON.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(p, "Expected a TMDB watch providers object");
+            }
+            readProviders(p, "", new Providers(), regions);
+        }
+        return regions.toWatchProviders();
+    }
+
+    // With `allRegions`, every region's providers are read into it instead of skipped
+    private static MovieDetails parse(JsonParser p, String region, AllRegions allRegions) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(p, "Expected a TMDB movie object");
+        }
+
+        long id = 0;
+        String title = null;
+        String posterPath = null;
+        String overview = null;
+        String releaseDate = null;
+        Double voteAverage = null;
+        Integer voteCount = null;
+        Double popularity = null;
+        List<Integer> genreIds = new ArrayList<>();
+        List<String> genres = new ArrayList<>();
+        List<String> directors = new ArrayList<>();
+        String[] topCast = new String[TOP_CAST];
+        Providers providers = new Providers();
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "id" -> id = p.getLongValue();
+                case "title" -> title = p.getValueAsString();
+                case "poster_path" -> posterPath = p.getValueAsString();
+                case "overview" -> overview = p.getValueAsString();
+                case "release_date" -> releaseDate = p.getValueAsString();
+                case "vote_average" -> voteAverage = value == JsonToken.VALUE_NULL ? null : p.getDoubleValue();
+                case "vote_count" -> voteCount = value == JsonToken.VALUE_NULL ? null : p.getIntValue();
+                case "popularity" -> popularity = value == JsonToken.VALUE_NULL ? null : p.getDoubleValue();
+                case "genres" -> readGenres(p, genreIds, genres);
+                case "credits" -> readCredits(p, directors, topCast);
+                case "watch/providers" -> readProviders(p, region, providers, allRegions);
+                default -> p.skipChildren();
+            }
+        }
+
+        List<String> cast = new ArrayList<>(TOP_CAST);
+        for (String name : topCast) {
+            if (name != null) {
+                cast.add(name);
+            }
+        }
+
+        return new MovieDetails(id, title, posterPath, overview, releaseDate, voteAverage, voteCount, popularity,
+                genreIds, genres, directors, cast, providers.link, providers.flatrate, providers.rent, providers.buy);
+    }
+
+    private static void readGenres(JsonParser p, List<Integer> genreIds, List<String> genres) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                if ("name".equals(field)) {
+                    genres.add(p.getValueAsString());
+                } else if ("id".equals(field)) {
+                    genreIds.add(p.getValueAsInt());
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readCredits(JsonParser p, List<String> directors, String[] topCast) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        NameBuffer name = new NameBuffer();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("cast".equals(field) && value == JsonToken.START_ARRAY) {
+                readCast(p, topCast, name);
+            } else if ("crew".equals(field) && value == JsonToken.START_ARRAY) {
+                readDirectors(p, directors, name);
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    // Cast entries are ordered by billing ("order"), and only the first few become Strings
+    private static void readCast(JsonParser p, String[] topCast, NameBuffer name) throws IOException {
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            name.clear();
+            int order = -1;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("name".equals(field)) {
+                    name.copyFrom(p);
+                } else if ("order".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    order = p.getIntValue();
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (order >= 0 && order < topCast.length && name.isSet()) {
+                topCast[order] = name.toString();
+            }
+        }
+    }
+
+    // Crew lists are the largest part of the payload; names are only turned into Strings for directors
+    private static void readDirectors(JsonParser p, List<String> directors, NameBuffer name) throws IOException {
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            name.clear();
+            boolean director = false;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                if ("name".equals(field)) {
+                    name.copyFrom(p);
+                } else if ("job".equals(field)) {
+                    director = textEquals(p, "Director");
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (director && name.isSet()) {
+                directors.add(name.toString());
+            }
+        }
+    }
+
+    private static void readProviders(JsonParser p, String region, Providers providers,
+                                      AllRegions allRegions) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        if (allRegions != null) {
+            allRegions.seen = true;
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (!"results".equals(field) || value != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String regionCode = p.currentName();
+                JsonToken regionValue = p.nextToken();
+                if (regionValue != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                } else if (region.equals(regionCode)) {
+                    readRegion(p, providers);
+                    if (allRegions != null) {
+                        allRegions.byCode.put(regionCode, providers);
+                    }
+                } else if (allRegions != null) {
+                    Providers other = new Providers();
+                    readRegion(p, other);
+                    allRegions.byCode.put(regionCode, other);
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readRegion(JsonParser p, Providers providers) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "link" -> providers.link = p.getValueAsString();
+                case "flatrate" -> readProviderList(p, value, providers.flatrate);
+                case "rent" -> readProviderList(p, value, providers.rent);
+                case "buy" -> readProviderList(p, value, providers.buy);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static void readProviderList(JsonParser p, JsonToken value, List<MovieDetails.ProviderRef> target)
+            throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            String providerName = null;
+            String logoPath = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                if ("provider_name".equals(field)) {
+                    providerName = p.getValueAsString();
+                } else if ("logo_path".equals(field)) {
+                    logoPath = p.getValueAsString();
+                } else {
+                    p.skipChildren();
+                }
+            }
+            target.add(new MovieDetails.ProviderRef(providerName, logoPath));
+        }
+    }
+
+    // Compares the current string token with expected without creating a String
+    private static boolean textEquals(JsonParser p, String expected) throws IOException {
+        if (p.currentToken() != JsonToken.VALUE_STRING || p.getTextLength() != expected.length()) {
+            return false;
+        }
+        char[] text = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        for (int i = 0; i < expected.length(); i++) {
+            if (text[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Providers {
+        String link;
+        final List<MovieDetails.ProviderRef> flatrate = new ArrayList<>();
+        final List<MovieDetails.ProviderRef> rent = new ArrayList<>();
+        final List<MovieDetails.ProviderRef> buy = new ArrayList<>();
+    }
+
+    private static final class AllRegions {
+        boolean seen;
+        final Map<String, Providers> byCode = new HashMap<>();
+
+        WatchProviders toWatchProviders() {
+            Map<String, WatchProviders.Region> regions = new HashMap<>();
+            byCode.forEach((code, providers) ->
+                    regions.put(code, new WatchProviders.Region(providers.flatrate, providers.rent, providers.buy)));
+            return new WatchProviders(regions, System.currentTimeMillis());
+        }
+    }
+
+    // Reusable scratch space for a person's name. The parser's own text buffer is
+    // overwritten by the next token, so the characters are copied here and only
+    // turned into a String once we know the person is kept.
+    private static final class NameBuffer {
+        private char[] chars = new char[64];
+        private int length = -1;
+
+        void clear() {
+            length = -1;
+        }
+
+        boolean isSet() {
+            return length >= 0;
+        }
+
+        void copyFrom(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                length = -1;
+                return;
+            }
+            int len = p.getTextLength();
+            if (len > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(len, chars.length * 2));
+            }
+            System.arraycopy(p.getTextCharacters(), p.getTextOffset(), chars, 0, len);
+            length = len;
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+}
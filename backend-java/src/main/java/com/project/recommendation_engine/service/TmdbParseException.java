@@ -0,0 +1,10 @@
+package com.project.recommendation_engine.service;
+
+// TMDB answered but the body could not be parsed (malformed or cut short). Not a sign of an
+// outage, so it doesn't trip the circuit breaker or shrink the rate limiter
+public class TmdbParseException extends RuntimeException {
+
+    public TmdbParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.recommendation_engine.service;
+
+// Thrown when a TMDB call could not get a slot from the rate limiter within the wait budget
+public class TmdbRateLimitException extends RuntimeException {
+
+    public TmdbRateLimitException(String message) {
+        super(message);
+    }
+}
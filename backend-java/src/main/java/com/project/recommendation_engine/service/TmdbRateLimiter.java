@@ -0,0 +1,169 @@
+package com.project.recommendation_engine.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Guards every outbound TMDB call with two limits:
+// 1. Token bucket: at most requestsPerSecond calls per second (with a small burst).
+// 2. Adaptive concurrency (AIMD): the number of calls in flight grows by ~1 per
+//    window of successes and is halved on every 429 or timeout.
+// A 429 with Retry-After pauses all callers until that time. Callers wait in line
+// at most maxWaitMs, after that they fail fast with TmdbRateLimitException.
+@Component
+public class TmdbRateLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final double requestsPerSecond;
+    private final double burst;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long maxWaitNanos;
+
+    // All state below is guarded by lock
+    private double tokens;
+    private long lastRefillNanos;
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long pausedUntilNanos;
+
+    private long rejected;
+    private long throttled;
+
+    public TmdbRateLimiter(@Value("${tmdb.rate.requests-per-second:35}") double requestsPerSecond,
+                           @Value("${tmdb.rate.initial-concurrency:8}") int initialConcurrency,
+                           @Value("${tmdb.rate.max-concurrency:32}") int maxConcurrency,
+                           @Value("${tmdb.rate.max-wait-ms:1500}") long maxWaitMs) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = Math.max(1, requestsPerSecond / 2);
+        this.minLimit = 1;
+        this.maxLimit = maxConcurrency;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+        this.limit = initialConcurrency;
+    }
+
+    // Blocks until the call may go out, or throws once the wait budget is spent
+    public void acquire() {
+        long deadline = System.nanoTime() + maxWaitNanos;
+
+        lock.lock();
+        waiting++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+
+                long pauseRemaining = pausedUntilNanos - now;
+                if (pauseRemaining <= 0 && inFlight < (int) limit && tokens >= 1) {
+                    tokens -= 1;
+                    inFlight++;
+                    return;
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0 || pauseRemaining > remaining) {
+                    rejected++;
+                    throw new TmdbRateLimitException("TMDB rate limit: no slot within " +
+                            TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms");
+                }
+
+                long waitNanos;
+                if (pauseRemaining > 0) {
+                    waitNanos = pauseRemaining;
+                } else if (tokens < 1) {
+                    waitNanos = (long) ((1 - tokens) / requestsPerSecond * 1_000_000_000L);
+                } else {
+                    waitNanos = remaining; // Waiting for a concurrency slot, release() signals us
+                }
+                available.awaitNanos(Math.max(1, Math.min(waitNanos, remaining)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TmdbRateLimitException("Interrupted while waiting for TMDB rate limit");
+        } finally {
+            waiting--;
+            lock.unlock();
+        }
+    }
+
+    // Call exactly once per successful acquire()
+    public void onSuccess() {
+        lock.lock();
+        try {
+            // Additive increase: +1 after a full window of successful calls
+            limit = Math.min(maxLimit, limit + 1 / limit);
+            releaseSlot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // TMDB answered 429, slow down and respect Retry-After
+    public void onThrottled(Duration retryAfter) {
+        lock.lock();
+        try {
+            throttled++;
+            limit = Math.max(minLimit, limit / 2);
+            long resumeAt = System.nanoTime() + retryAfter.toNanos();
+            if (resumeAt > pausedUntilNanos) {
+                pausedUntilNanos = resumeAt;
+            }
+            releaseSlot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Timeouts and connection errors also mean TMDB is struggling
+    public void onFailure(boolean overloaded) {
+        lock.lock();
+        try {
+            if (overloaded) {
+                limit = Math.max(minLimit, limit / 2);
+            }
+            releaseSlot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("concurrencyLimit", (int) limit);
+            stats.put("inFlight", inFlight);
+            stats.put("queued", waiting);
+            stats.put("tokens", Math.round(tokens * 10) / 10.0);
+            stats.put("pausedForMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime())));
+            stats.put("throttled", throttled);
+            stats.put("rejected", rejected);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot() {
+        inFlight--;
+        available.signalAll();
+    }
+
+    private void refill(long now) {
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        tokens = Math.min(burst, tokens + elapsedSeconds * requestsPerSecond);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.recommendation_engine.service;
+
+// Thrown when TMDB can't be reached (circuit open or call failed) and there is no stale copy to serve
+public class TmdbUnavailableException extends RuntimeException {
+
+    public TmdbUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
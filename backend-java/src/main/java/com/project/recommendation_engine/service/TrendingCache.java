@@ -0,0 +1,125 @@
+package com.project.recommendation_engine.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.project.recommendation_engine.model.TMDBResponse;
+
+// The trending list shown on /home, shared by every session.
+// TrendingScheduler builds a new immutable snapshot and swaps it in; readers never lock and
+// never see a half-built list. Sessions keep only the version they were shown.
+@Component
+public class TrendingCache {
+
+    public record Snapshot(long version, List<TMDBResponse> movies, Map<Long, TMDBResponse> byId,
+                           Map<String, Long> idsByTitle, long refreshedAt) {
+
+        static final Snapshot EMPTY = new Snapshot(0, List.of(), Map.of(), Map.of(), 0);
+
+        // A trending movie by TMDB ID, or null
+        public TMDBResponse find(long tmdbId) {
+            return byId.get(tmdbId);
+        }
+
+        // A trending movie by its exact title, or null
+        public TMDBResponse findByTitle(String title) {
+            Long tmdbId = idsByTitle.get(title);
+            return tmdbId != null ? byId.get(tmdbId) : null;
+        }
+    }
+
+    private final TMDBService tmdbService;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failedRefreshes = new LongAdder();
+
+    public TrendingCache(TMDBService tmdbService) {
+        this.tmdbService = tmdbService;
+    }
+
+    // The current snapshot. Only the first request after startup waits for TMDB, and only
+    // if the scheduler hasn't run yet.
+    public Snapshot get() {
+        Snapshot snapshot = current.get();
+        if (snapshot.version() == 0) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot.version() == 0) {
+                    snapshot = refresh();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    // Whatever is published now, possibly the empty snapshot; never calls TMDB
+    public Snapshot current() {
+        return current.get();
+    }
+
+    // Fetches trending again and publishes it. An empty or failed fetch keeps the old snapshot.
+    public synchronized Snapshot refresh() {
+        Snapshot previous = current.get();
+        List<TMDBResponse> movies;
+        try {
+            movies = tmdbService.fetchTrendingMovies();
+        } catch (RuntimeException e) {
+            movies = List.of();
+        }
+        if (movies.isEmpty()) {
+            failedRefreshes.increment();
+            System.err.println("[Trending] Refresh returned no movies, keeping version " + previous.version());
+            return previous;
+        }
+
+        Snapshot next = build(previous.version() + 1, movies, System.currentTimeMillis());
+        current.set(next);
+        refreshes.increment();
+        return next;
+    }
+
+    // Publishes a list saved by CacheSnapshot, unless trending was already loaded.
+    // The next scheduled refresh replaces it.
+    public synchronized boolean restore(List<TMDBResponse> movies, long refreshedAt) {
+        if (movies.isEmpty() || current.get().version() != 0) {
+            return false;
+        }
+        current.set(build(1, movies, refreshedAt));
+        return true;
+    }
+
+    private static Snapshot build(long version, List<TMDBResponse> movies, long refreshedAt) {
+        Map<Long, TMDBResponse> byId = new HashMap<>();
+        Map<String, Long> idsByTitle = new HashMap<>();
+        for (TMDBResponse movie : movies) {
+            try {
+                long tmdbId = Long.parseLong(movie.getTmdbID());
+                byId.put(tmdbId, movie);
+                if (movie.getTitle() != null) {
+                    idsByTitle.putIfAbsent(movie.getTitle(), tmdbId);
+                }
+            } catch (NumberFormatException e) {
+                // Not addressable by ID, still listed on the page
+            }
+        }
+        return new Snapshot(version, List.copyOf(movies), Map.copyOf(byId), Map.copyOf(idsByTitle), refreshedAt);
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot snapshot = current.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", snapshot.version());
+        stats.put("movies", snapshot.movies().size());
+        stats.put("refreshedAt", snapshot.refreshedAt());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("failedRefreshes", failedRefreshes.sum());
+        return stats;
+    }
+}
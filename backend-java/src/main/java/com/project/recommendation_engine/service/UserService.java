@@ -17,12 +17,17 @@ public class UserService {
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final RecommendationAgentService recommendationAgentService;
+    private final ItemSimilarity itemSimilarity;
+    private final IncrementalRecommender incrementalRecommender;
 
     @Autowired
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder, RecommendationAgentService recommendationAgentService) {
+    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder, RecommendationAgentService recommendationAgentService,
+                       ItemSimilarity itemSimilarity, IncrementalRecommender incrementalRecommender) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.recommendationAgentService = recommendationAgentService;
+        this.itemSimilarity = itemSimilarity;
+        this.incrementalRecommender = incrementalRecommender;
     }
 
     public User registerUser(User user) {
@@ -91,6 +96,7 @@ public class UserService {
 
             user.getMovieRatings().addAll(newRatings);
             userRepository.save(user);
+            itemSimilarity.onRatings(userId, newRatings);
             recommendationAgentService.triggerRecommendationForUser(userId);
         });
     }
@@ -117,6 +123,9 @@ public class UserService {
             ratings.add(newRating);
             user.setMovieRatings(ratings);
             userRepository.save(user);
+            itemSimilarity.onRating(user.getId(), movieId, ratingValue);
+            // Refresh this user's candidates in memory; the agent only runs on the batch schedule
+            incrementalRecommender.onRating(user.getId(), movieId);
 
         } else {
             throw new RuntimeException("User not found.");
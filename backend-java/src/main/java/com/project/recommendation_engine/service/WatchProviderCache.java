@@ -0,0 +1,139 @@
+package com.project.recommendation_engine.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.WatchProviders;
+
+// Watch providers per movie, for every region, kept apart from the movie details because
+// availability changes on its own schedule. Entries past their TTL are still served; reading
+// one queues the movie, and WatchProviderScheduler refreshes the queue in batches.
+// The same few hundred providers show up for thousands of movies, so provider refs and
+// region codes are interned: each distinct one is held once, whatever the number of movies.
+@Component
+public class WatchProviderCache {
+
+    private final long ttlMillis;
+    private final int maxQueued;
+
+    private final Cache<Long, WatchProviders> cache;
+    private final Set<Long> refreshQueue = ConcurrentHashMap.newKeySet();
+
+    private final Map<MovieDetails.ProviderRef, MovieDetails.ProviderRef> providerRefs = new ConcurrentHashMap<>();
+    private final Map<String, String> regionCodes = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    public WatchProviderCache(@Value("${tmdb.providers.max-movies:20000}") long maxMovies,
+                              @Value("${tmdb.providers.ttl-minutes:720}") long ttlMinutes) {
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+        this.maxQueued = (int) Math.min(Integer.MAX_VALUE, maxMovies);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxMovies)
+                .build();
+    }
+
+    // Providers of a movie, possibly stale, or null when we have none. Either way a refresh is queued if due.
+    public WatchProviders get(long tmdbId) {
+        WatchProviders providers = cache.getIfPresent(tmdbId);
+        if (providers == null) {
+            misses.increment();
+            queue(tmdbId);
+        } else if (System.currentTimeMillis() - providers.fetchedAt() >= ttlMillis) {
+            staleHits.increment();
+            queue(tmdbId);
+        } else {
+            hits.increment();
+        }
+        return providers;
+    }
+
+    public void put(long tmdbId, WatchProviders providers) {
+        if (providers == null) {
+            return;
+        }
+        cache.put(tmdbId, intern(providers));
+        refreshQueue.remove(tmdbId);
+        stores.increment();
+    }
+
+    // Copy of every cached entry, for CacheSnapshot
+    public Map<Long, WatchProviders> entries() {
+        return new HashMap<>(cache.asMap());
+    }
+
+    // Up to `max` movies waiting for a refresh, removed from the queue
+    public List<Long> drainRefreshQueue(int max) {
+        List<Long> batch = new ArrayList<>(Math.min(max, refreshQueue.size()));
+        Iterator<Long> queued = refreshQueue.iterator();
+        while (queued.hasNext() && batch.size() < max) {
+            batch.add(queued.next());
+            queued.remove();
+        }
+        return batch;
+    }
+
+    private void queue(long tmdbId) {
+        if (refreshQueue.size() < maxQueued) {
+            refreshQueue.add(tmdbId);
+        }
+    }
+
+    private WatchProviders intern(WatchProviders providers) {
+        Map<String, WatchProviders.Region> regions = new HashMap<>();
+        providers.regions().forEach((code, region) -> regions.put(
+                regionCodes.computeIfAbsent(code, c -> c),
+                new WatchProviders.Region(intern(region.flatrate()), intern(region.rent()), intern(region.buy()))));
+        return new WatchProviders(regions, providers.fetchedAt());
+    }
+
+    private List<MovieDetails.ProviderRef> intern(List<MovieDetails.ProviderRef> refs) {
+        if (refs.isEmpty()) {
+            return List.of();
+        }
+        List<MovieDetails.ProviderRef> interned = new ArrayList<>(refs.size());
+        for (MovieDetails.ProviderRef ref : refs) {
+            interned.add(providerRefs.computeIfAbsent(ref, r -> r));
+        }
+        return interned;
+    }
+
+    // Region for the visitor's locale ("en-GB" -> "GB"), or the default when the locale has none
+    public static String regionOf(Locale locale, String defaultRegion) {
+        if (locale == null || locale.getCountry().length() != 2) {
+            return defaultRegion;
+        }
+        return locale.getCountry().toUpperCase(Locale.ROOT);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("movies", cache.estimatedSize());
+        stats.put("distinctProviders", providerRefs.size());
+        stats.put("regions", regionCodes.size());
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("stores", stores.sum());
+        stats.put("refreshQueue", refreshQueue.size());
+        return stats;
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.recommendation_engine.util;
+
+// Poster URLs handed to the pages. They point at our /posters proxy (PosterController) rather
+// than image.tmdb.org, so images come from the local disk cache, at the size the page shows.
+public final class PosterUrls {
+
+    // Carousel cards and slates
+    public static final int CARD_WIDTH = 342;
+    // Movie page and the home hero
+    public static final int FULL_WIDTH = 500;
+
+    private static final String TMDB_IMAGE_PREFIX = "https://image.tmdb.org/t/p/";
+
+    private PosterUrls() {}
+
+    public static String card(String posterPath) {
+        return url(posterPath, CARD_WIDTH);
+    }
+
+    public static String full(String posterPath) {
+        return url(posterPath, FULL_WIDTH);
+    }
+
+    // The raw TMDB path ("/abc.jpg") behind a poster URL: our proxy's, image.tmdb.org's, or a
+    // path already. What gets stored, so documents don't depend on the size a page asked for.
+    public static String tmdbPath(String posterUrl) {
+        if (posterUrl == null || posterUrl.isBlank()) {
+            return null;
+        }
+        if (posterUrl.startsWith(TMDB_IMAGE_PREFIX) || posterUrl.startsWith("/posters/")) {
+            return posterUrl.substring(posterUrl.lastIndexOf('/'));
+        }
+        return posterUrl;
+    }
+
+    // Accepts a TMDB poster path ("/abc.jpg") or a full TMDB image URL; anything else is returned as is
+    public static String url(String posterPath, int width) {
+        if (posterPath == null || posterPath.isBlank()) {
+            return null;
+        }
+        String path = posterPath;
+        if (path.startsWith(TMDB_IMAGE_PREFIX)) {
+            path = path.substring(path.lastIndexOf('/'));
+        } else if (!path.startsWith("/") || path.startsWith("/posters/")) {
+            return posterPath;
+        }
+        return "/posters/w" + width + path;
+    }
+}
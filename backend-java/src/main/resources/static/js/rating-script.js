@@ -224,6 +224,43 @@ document.addEventListener('DOMContentLoaded', function() {
         });
     }
 
+    // ----------------------------------------------------
+    // TYPEAHEAD (suggestions while typing)
+    // ----------------------------------------------------
+    const suggestionList = document.getElementById('manualTitleSuggestions');
+    let suggestTimer = null;
+
+    if (searchInput && suggestionList) {
+        searchInput.addEventListener('input', function() {
+            clearTimeout(suggestTimer);
+            const prefix = searchInput.value.trim();
+            if (prefix.length < 2) { suggestionList.innerHTML = ''; return; }
+
+            // Wait for a pause in typing instead of asking on every key
+            suggestTimer = setTimeout(() => {
+                fetch(`/rating-form/api/autocomplete?prefix=${encodeURIComponent(prefix)}`)
+                .then(response => response.ok ? response.json() : [])
+                .then(movies => {
+                    suggestionList.innerHTML = '';
+                    movies.forEach(movie => {
+                        const option = document.createElement('option');
+                        option.value = movie.title;
+                        suggestionList.appendChild(option);
+                    });
+                })
+                .catch(error => console.error('Autocomplete error:', error));
+            }, 150);
+        });
+
+        // Enter runs the search like the button does
+        searchInput.addEventListener('keydown', function(event) {
+            if (event.key === 'Enter' && searchButton) {
+                event.preventDefault();
+                searchButton.click();
+            }
+        });
+    }
+
     // HTML Function
     function createManualMovieCardHtml(movie) {
         const inputName = `rating_${movie.id}`;
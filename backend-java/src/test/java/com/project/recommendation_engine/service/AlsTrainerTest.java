@@ -0,0 +1,156 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.Rating;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlsTrainerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // Ratings that are exactly 3 + user . movie for hidden rank-3 vectors, `density` of them observed
+    private static RatingMatrix lowRankRatings(int users, int movies, double density, long seed,
+                                               List<double[]> heldOut) {
+        Random random = new Random(seed);
+        double[][] userVectors = new double[users][3];
+        double[][] movieVectors = new double[movies][3];
+        for (double[] v : userVectors) {
+            for (int i = 0; i < 3; i++) v[i] = random.nextGaussian() * 0.6;
+        }
+        for (double[] v : movieVectors) {
+            for (int i = 0; i < 3; i++) v[i] = random.nextGaussian() * 0.6;
+        }
+        RatingMatrix matrix = new RatingMatrix();
+        for (int u = 0; u < users; u++) {
+            for (int m = 0; m < movies; m++) {
+                double score = 3;
+                for (int i = 0; i < 3; i++) score += userVectors[u][i] * movieVectors[m][i];
+                if (random.nextDouble() < density) {
+                    matrix.set("u" + u, "m" + m, (float) score);
+                } else if (heldOut != null && random.nextDouble() < 0.05) {
+                    heldOut.add(new double[]{u, m, score});
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    void solvesTheRegularizedSystem() {
+        // Upper triangle of [[4, 1], [1, 3]], plus 1 * I, against b = [1, 2]
+        double[] a = {4, 1, 0, 3};
+        double[] b = {1, 2};
+        float[] x = new float[2];
+
+        AlsTrainer.solve(a, b, 1, 2, x, 0);
+
+        assertEquals(1, 5 * x[0] + x[1], 1e-6);
+        assertEquals(2, x[0] + 4 * x[1], 1e-6);
+    }
+
+    @Test
+    void recoversLowRankRatings() {
+        List<double[]> heldOut = new ArrayList<>();
+        RatingMatrix matrix = lowRankRatings(300, 150, 0.3, 1, heldOut);
+
+        AlsTrainer.Result result = AlsTrainer.train(matrix, new AlsTrainer.Config(3, 15, 0.01f, 7), pool, null);
+
+        List<AlsTrainer.Iteration> iterations = result.iterations();
+        assertEquals(15, iterations.size());
+        assertTrue(iterations.get(14).rmse() < iterations.get(0).rmse());
+        assertTrue(iterations.get(14).rmse() < 0.1, "training RMSE " + iterations.get(14).rmse());
+        assertTrue(iterations.get(14).ratingsPerSecond() > 0);
+        assertEquals(matrix.ratingCount(), result.ratings());
+
+        double squared = 0;
+        for (double[] rating : heldOut) {
+            double error = result.model().predict("u" + (int) rating[0], "m" + (int) rating[1]) - rating[2];
+            squared += error * error;
+        }
+        assertTrue(Math.sqrt(squared / heldOut.size()) < 0.25, "held-out RMSE " + Math.sqrt(squared / heldOut.size()));
+        assertTrue(Float.isNaN(result.model().predict("nobody", "m1")));
+    }
+
+    @Test
+    void resultDoesNotDependOnTheNumberOfThreads() {
+        RatingMatrix matrix = lowRankRatings(1200, 200, 0.1, 2, null);
+        AlsTrainer.Config config = new AlsTrainer.Config(8, 3, 0.05f, 3);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            AlsModel parallel = AlsTrainer.train(matrix, config, pool, null).model();
+            AlsModel sequential = AlsTrainer.train(matrix, config, single, null).model();
+
+            for (int m = 0; m < 200; m += 13) {
+                assertArrayEquals(sequential.itemVector("m" + m), parallel.itemVector("m" + m));
+            }
+            assertArrayEquals(sequential.userVector("u1100"), parallel.userVector("u1100"));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void foldInGivesNewUsersAVector() {
+        RatingMatrix matrix = lowRankRatings(300, 150, 0.3, 4, null);
+        AlsModel model = AlsTrainer.train(matrix, new AlsTrainer.Config(3, 10, 0.01f, 7), pool, null).model();
+
+        // Same ratings as u5, under a new id
+        List<Rating> ratings = new ArrayList<>();
+        RatingMatrix.Row row = matrix.ratingsOfUser(matrix.indexOfUser("u5"));
+        for (int i = 0; i < row.size(); i++) {
+            ratings.add(new Rating(matrix.movieId(row.id(i)), row.score(i)));
+        }
+        float[] folded = model.foldIn(ratings);
+
+        float[] trained = model.userVector("u5");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(trained[i], folded[i], 0.05);
+        }
+        assertNull(model.foldIn(List.of(new Rating("unknown", 5))));
+    }
+
+    // Run with: mvn test -Dtest=AlsTrainerTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void trainingThroughputBenchmark() {
+        Random random = new Random(5);
+        RatingMatrix matrix = new RatingMatrix();
+        int users = 100_000;
+        for (int u = 0; u < users; u++) {
+            for (int r = 0; r < 20; r++) {
+                int movie = (int) Math.abs(random.nextGaussian() * 6_000) % 50_000;
+                matrix.set("u" + u, String.valueOf(movie), 1 + random.nextInt(5));
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+
+        ForkJoinPool all = new ForkJoinPool(runtime.availableProcessors());
+        try {
+            AlsTrainer.Result result = AlsTrainer.train(matrix, new AlsTrainer.Config(32, 3, 0.05f, 1), all, iteration ->
+                    System.out.println("[Benchmark] iteration " + iteration.number() + ": " + iteration.millis() + "ms, "
+                            + Math.round(iteration.ratingsPerSecond()) + " ratings/s, RMSE "
+                            + String.format("%.4f", iteration.rmse())));
+            System.out.println("[Benchmark] " + result.ratings() + " ratings, " + matrix.userCount() + " users, "
+                    + matrix.movieCount() + " movies, rank 32 on " + all.getParallelism() + " threads; heap after load "
+                    + heapMb + "MB");
+            assertTrue(result.iterations().get(2).rmse() < result.iterations().get(0).rmse());
+        } finally {
+            all.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.CachedMovie;
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.WatchProviders;
+import com.project.recommendation_engine.repository.CachedMovieRepository;
+import com.project.recommendation_engine.repository.CatalogMovieRepository;
+import com.project.recommendation_engine.repository.GenrePoolRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // One set of empty caches, as after a restart
+    private final class Caches {
+        final CachedMovieRepository cachedMovieRepository = mock(CachedMovieRepository.class);
+        final TMDBService tmdbService = mock(TMDBService.class);
+        final TrendingCache trending = new TrendingCache(tmdbService);
+        final MovieDetailsCache movies = new MovieDetailsCache(cachedMovieRepository, executor, 1000, 60, 45);
+        final GenrePoolCache genrePools = new GenrePoolCache(mock(GenrePoolRepository.class));
+        final WatchProviderCache providers = new WatchProviderCache(1000, 60);
+        final CacheSnapshot snapshot = new CacheSnapshot(directory.resolve("caches.snapshot").toString(), true,
+                trending, movies, genrePools, providers);
+    }
+
+    private static TMDBResponse movie(long id) {
+        TMDBResponse movie = new TMDBResponse();
+        movie.setTmdbID(String.valueOf(id));
+        movie.setTitle("Movie " + id);
+        movie.setPlot("A plot about movie " + id + " with ünïcödé");
+        movie.setResponse("True");
+        movie.setFlatrateProviders(List.of(new TMDBResponse.Provider("Netflix", "https://image.tmdb.org/t/p/original/n.png")));
+        return movie;
+    }
+
+    @Test
+    void restartRestoresEveryCache() {
+        Caches before = new Caches();
+        when(before.tmdbService.fetchTrendingMovies()).thenReturn(List.of(movie(1), movie(2)));
+        before.trending.refresh();
+        before.movies.put(1L, movie(1));
+        before.movies.put(7L, movie(7));
+        before.genrePools.replace(28, List.of(new Movie("3", "Movie 3", "/posters/w342/3.jpg")));
+        MovieDetails.ProviderRef netflix = new MovieDetails.ProviderRef("Netflix", "/n.png");
+        before.providers.put(7L, new WatchProviders(Map.of("GB", new WatchProviders.Region(List.of(netflix),
+                List.of(), List.of(netflix))), System.currentTimeMillis()));
+        before.snapshot.write();
+
+        Caches after = new Caches();
+        assertTrue(after.snapshot.load() > 0);
+
+        assertEquals(List.of("1", "2"), after.trending.current().movies().stream()
+                .map(TMDBResponse::getTmdbID).collect(Collectors.toList()));
+        assertEquals("Movie 2", after.trending.get().find(2).getTitle());
+        verify(after.tmdbService, never()).fetchTrendingMovies();
+
+        TMDBResponse restored = after.movies.getIfPresent(7L);
+        assertEquals("A plot about movie 7 with ünïcödé", restored.getPlot());
+        assertEquals("Netflix", restored.getFlatrateProviders().get(0).getName());
+        assertNull(restored.getDirector());
+        verify(after.cachedMovieRepository, never()).save(any());
+
+        assertEquals(1, after.genrePools.sample(28, 10, new java.util.HashSet<>()).size());
+        WatchProviders.Region gb = after.providers.get(7L).region("GB");
+        assertSame(gb.flatrate().get(0), gb.buy().get(0));
+    }
+
+    @Test
+    void expiredMovieDetailsAreNotRestored() {
+        Caches after = new Caches();
+        CachedMovie old = new CachedMovie("5", movie(5), System.currentTimeMillis() - 61 * 60_000L);
+        assertFalse(after.movies.restore(old));
+        assertNull(after.movies.getIfPresent(5L));
+    }
+
+    @Test
+    void incompatibleOrCorruptSnapshotsAreDiscarded() throws IOException {
+        Path file = directory.resolve("caches.snapshot");
+        Caches before = new Caches();
+        before.movies.put(1L, movie(1));
+        before.snapshot.write();
+
+        // Format version from a future build
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            raf.writeInt(CacheSnapshotCodec.FORMAT_VERSION + 1);
+        }
+        Caches afterUpgrade = new Caches();
+        assertEquals(-1, afterUpgrade.snapshot.load());
+        assertNull(afterUpgrade.movies.getIfPresent(1L));
+        assertFalse(Files.exists(file), "An incompatible snapshot is deleted");
+
+        // A flipped byte in the body
+        before.snapshot.write();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 3);
+            int b = raf.read();
+            raf.seek(raf.length() - 3);
+            raf.write(b ^ 0xFF);
+        }
+        assertEquals(-1, new Caches().snapshot.load());
+
+        assertEquals(-1, new Caches().snapshot.load(), "A missing snapshot means a cold start");
+    }
+
+    @Test
+    void shutdownKeepsTheSnapshotUnlessTheCachesAreAtLeastAsFull() throws IOException {
+        Path file = directory.resolve("caches.snapshot");
+        Caches before = new Caches();
+        before.movies.put(1L, movie(1));
+        before.movies.put(2L, movie(2));
+        before.snapshot.write();
+        byte[] good = Files.readAllBytes(file);
+
+        // Stopped before the startup load ran
+        new Caches().snapshot.writeOnShutdown();
+        assertArrayEquals(good, Files.readAllBytes(file));
+
+        // Restored two movies, but the caches hold less than that at shutdown
+        Caches restarted = new Caches();
+        restarted.snapshot.loadOnStartup();
+        ReflectionTestUtils.setField(restarted.snapshot, "lastLoadedEntries", 3);
+        restarted.snapshot.writeOnShutdown();
+        assertArrayEquals(good, Files.readAllBytes(file));
+
+        // At least as full as at startup: written as usual
+        ReflectionTestUtils.setField(restarted.snapshot, "lastLoadedEntries", 2);
+        restarted.movies.put(3L, movie(3));
+        restarted.snapshot.writeOnShutdown();
+        Caches last = new Caches();
+        last.snapshot.load();
+        assertNotNull(last.movies.getIfPresent(3L));
+    }
+
+    // Time until trending and 200 recommendation cards are in memory after a restart: cold
+    // (TMDB at ~40ms per call, 6 parallel fetches like production) vs loading the snapshot.
+    // Run with: mvn test -Dtest=CacheSnapshotTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void startupWithAndWithoutSnapshotBenchmark() {
+        TmdbClient tmdbClient = mock(TmdbClient.class);
+        CachedMovieRepository cachedMovieRepository = mock(CachedMovieRepository.class);
+        when(cachedMovieRepository.findById(anyString())).thenReturn(Optional.empty());
+        TMDBService.TmdbMovieListResponse popular = new TMDBService.TmdbMovieListResponse();
+        popular.setResults(LongStream.rangeClosed(1, 10).mapToObj(id -> {
+            TMDBResponse.TmdbMovie movie = new TMDBResponse.TmdbMovie();
+            movie.setId(id);
+            movie.setTitle("Movie " + id);
+            return movie;
+        }).collect(Collectors.toList()));
+        when(tmdbClient.getForObject(eq("popular:1"), contains("/movie/popular"), eq(TMDBService.TmdbMovieListResponse.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(40);
+                    return popular;
+                });
+        when(tmdbClient.getStreaming(anyString(), anyString(), eq(TmdbMovieDetailsParser.Parsed.class), any()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(40);
+                    long id = Long.parseLong(((String) invocation.getArgument(0)).substring("movie:".length()));
+                    MovieDetails details = new MovieDetails(id, "Movie " + id, "/p" + id + ".jpg", "A plot", "2020-01-01",
+                            7.5, 1000, 10.0, List.of(18), List.of("Drama"), List.of("Director"), List.of("A", "B", "C"),
+                            null, List.of(), List.of(), List.of());
+                    return new TmdbMovieDetailsParser.Parsed(details, null);
+                });
+        List<Long> cards = LongStream.rangeClosed(100, 299).boxed().collect(Collectors.toList());
+
+        MovieDetailsCache coldMovies = new MovieDetailsCache(cachedMovieRepository, executor, 1000, 60, 45);
+        WatchProviderCache coldProviders = new WatchProviderCache(1000, 60);
+        GenrePoolCache coldPools = new GenrePoolCache(mock(GenrePoolRepository.class));
+        TMDBService tmdbService = new TMDBService("key", "http://tmdb.test", executor, executor, tmdbClient, coldMovies,
+                new TmdbRequestCoalescer(), new TmdbHedger(executor, false, 95, 500, 50, 0.05),
+                new CatalogMirror(mock(CatalogMovieRepository.class)), new TitleSearchIndex(1000), coldPools, coldProviders);
+        ReflectionTestUtils.setField(tmdbService, "trendingDeadlineMs", 2500L);
+        TrendingCache coldTrending = new TrendingCache(tmdbService);
+
+        long start = System.nanoTime();
+        coldTrending.get();
+        tmdbService.hydrateMovies(cards, 60_000);
+        long coldMillis = (System.nanoTime() - start) / 1_000_000;
+
+        CacheSnapshot writer = new CacheSnapshot(directory.resolve("caches.snapshot").toString(), true,
+                coldTrending, coldMovies, coldPools, coldProviders);
+        writer.write();
+
+        Caches warm = new Caches();
+        start = System.nanoTime();
+        warm.snapshot.load();
+        long warmMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(10, warm.trending.current().movies().size());
+        assertNotNull(warm.movies.getIfPresent(299L));
+        System.out.printf("Trending + %d cards ready: cold %dms, from snapshot %dms (%d bytes)%n",
+                cards.size(), coldMillis, warmMillis, writer.getStats().get("lastWriteBytes"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.CatalogMovie;
+import com.project.recommendation_engine.repository.CatalogMovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CatalogImporterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private CatalogMovieRepository catalogMovieRepository;
+
+    @TempDir
+    Path dir;
+
+    private CatalogMirror catalogMirror;
+    private CatalogImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(CatalogMovie.class))).thenReturn(bulkOperations);
+        catalogMirror = new CatalogMirror(catalogMovieRepository);
+        importer = new CatalogImporter(mongoTemplate, catalogMirror, 1.0);
+    }
+
+    private static String detailLine(long id, String title, int voteCount, int... genreIds) {
+        String genres = java.util.Arrays.stream(genreIds)
+                .mapToObj(g -> "{\"id\":" + g + ",\"name\":\"G" + g + "\"}")
+                .collect(Collectors.joining(","));
+        return "{\"adult\":false,\"genres\":[" + genres + "],\"id\":" + id + ",\"title\":\"" + title + "\","
+                + "\"poster_path\":\"/p" + id + ".jpg\",\"vote_count\":" + voteCount + ",\"popularity\":12.5,"
+                + "\"credits\":{\"cast\":[],\"crew\":[]}}";
+    }
+
+    private static void writeGzip(Path file, List<String> lines) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    @Test
+    void importsExportAndDetailFilesIntoTheIndex() throws IOException {
+        writeGzip(dir.resolve("movie_ids_10_18_2026.json.gz"), List.of(
+                "{\"adult\":false,\"id\":550,\"original_title\":\"Fight Club\",\"popularity\":61.4,\"video\":false}",
+                "{\"adult\":false,\"id\":9999,\"original_title\":\"Obscure\",\"popularity\":0.2,\"video\":false}"));
+        Files.write(dir.resolve("details.ndjson"), List.of(
+                detailLine(550, "Fight Club", 26000, 18),
+                detailLine(13, "Forrest Gump", 27000, 18, 35),
+                "not json"));
+
+        CatalogImporter.ImportResult result = importer.importDirectory(dir);
+
+        assertEquals(3, result.getWritten());
+        assertEquals(1, result.getErrors());
+        assertNull(catalogMirror.get(9999), "Low popularity export rows are filtered");
+        assertTrue(catalogMirror.get(550).hasDetails());
+        assertEquals("Fight Club", catalogMirror.get(550).title());
+        assertEquals(List.of(13L, 550L), catalogMirror.discover(18, 3000, 10).stream()
+                .map(CatalogMirror.Entry::id).collect(Collectors.toList()));
+        assertEquals(List.of(13L), catalogMirror.discover(35, 3000, 10).stream()
+                .map(CatalogMirror.Entry::id).collect(Collectors.toList()));
+        verify(bulkOperations, times(3)).upsert(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void reimportOnlyWritesChangedRecords() throws IOException {
+        Path details = dir.resolve("details.ndjson");
+        Files.write(details, List.of(detailLine(550, "Fight Club", 26000, 18), detailLine(13, "Forrest Gump", 27000, 18)));
+        importer.importDirectory(dir);
+
+        // Untouched file is not even read
+        assertEquals(0, importer.importDirectory(dir).getWritten());
+
+        Files.write(details, List.of(detailLine(550, "Fight Club", 26500, 18), detailLine(13, "Forrest Gump", 27000, 18)));
+        Files.setLastModifiedTime(details, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        CatalogImporter.ImportResult result = importer.importDirectory(dir);
+
+        assertEquals(1, result.getWritten());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(26500, catalogMirror.get(550).voteCount());
+    }
+}
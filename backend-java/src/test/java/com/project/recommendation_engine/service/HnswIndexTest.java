@@ -0,0 +1,209 @@
+package com.project.recommendation_engine.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static HnswIndex randomIndex(int count, int dimension, boolean normalize, long seed) {
+        Random random = new Random(seed);
+        HnswIndex index = new HnswIndex(dimension, 12, 100, normalize, seed);
+        for (int i = 0; i < count; i++) {
+            index.insert("m" + i, randomVector(random, dimension));
+        }
+        return index;
+    }
+
+    private static double recall(HnswIndex index, int queries, int k, int ef, long seed) {
+        Random random = new Random(seed);
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random, index.dimension());
+            Set<String> exact = new HashSet<>();
+            index.bruteForce(query, k).forEach(hit -> exact.add(hit.key()));
+            for (HnswIndex.Hit hit : index.search(query, k, ef)) {
+                if (exact.contains(hit.key())) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (queries * k);
+    }
+
+    @Test
+    void searchFindsMostOfTheExactNeighbors() {
+        HnswIndex innerProduct = randomIndex(4000, 16, false, 1);
+        HnswIndex cosine = randomIndex(4000, 16, true, 2);
+
+        assertTrue(recall(innerProduct, 100, 10, 100, 3) > 0.9);
+        assertTrue(recall(cosine, 100, 10, 100, 4) > 0.9);
+        assertEquals(4000, innerProduct.size());
+        assertTrue(innerProduct.maxLevel() >= 1);
+    }
+
+    @Test
+    void resultsAreSortedBestFirst() {
+        HnswIndex index = randomIndex(1000, 8, false, 5);
+        List<HnswIndex.Hit> hits = index.search(randomVector(new Random(6), 8), 20, 50);
+
+        assertEquals(20, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).similarity() >= hits.get(i).similarity());
+        }
+        // Inner product: a longer vector can outscore the stored vector itself, so compare with the exact answer
+        float[] stored = index.vector("m17");
+        assertEquals(index.bruteForce(stored, 1).get(0).key(), index.search(stored, 1, 50).get(0).key());
+    }
+
+    @Test
+    void deletedKeysAreNeverReturned() {
+        HnswIndex index = randomIndex(2000, 8, true, 7);
+        Set<String> removed = new HashSet<>();
+        for (int i = 0; i < 2000; i += 3) {
+            assertTrue(index.delete("m" + i));
+            removed.add("m" + i);
+        }
+        assertFalse(index.delete("m0"));
+
+        Random random = new Random(8);
+        for (int q = 0; q < 50; q++) {
+            for (HnswIndex.Hit hit : index.search(randomVector(random, 8), 10, 64)) {
+                assertFalse(removed.contains(hit.key()));
+            }
+        }
+        assertEquals(2000 - removed.size(), index.size());
+        assertEquals(removed.size(), index.deletedCount());
+        assertTrue(recall(index, 50, 10, 100, 9) > 0.85);
+
+        // Inserting an existing key replaces its vector
+        float[] replacement = randomVector(random, 8);
+        index.insert("m1", replacement);
+        assertEquals("m1", index.search(replacement, 1, 64).get(0).key());
+        assertEquals(2000 - removed.size(), index.size());
+    }
+
+    @Test
+    void writeAndReadRoundTrip() throws IOException {
+        HnswIndex index = randomIndex(1500, 12, false, 10);
+        index.delete("m3");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        HnswIndex read = HnswIndex.read(new ByteArrayInputStream(out.toByteArray()), 10);
+
+        assertEquals(index.size(), read.size());
+        assertEquals(index.maxLevel(), read.maxLevel());
+        assertFalse(read.contains("m3"));
+        Random random = new Random(11);
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random, 12);
+            assertEquals(index.search(query, 10, 64), read.search(query, 10, 64));
+        }
+        // Still accepts inserts after loading
+        float[] vector = randomVector(random, 12);
+        read.insert("new", vector);
+        assertEquals("new", read.search(vector, 1, 64).get(0).key());
+
+        byte[] corrupt = out.toByteArray();
+        corrupt[corrupt.length / 3] ^= 0x01;
+        assertThrows(IOException.class, () -> HnswIndex.read(new ByteArrayInputStream(corrupt), 10));
+    }
+
+    @Test
+    void searchesRunWhileInsertsHappen() throws Exception {
+        HnswIndex index = randomIndex(500, 16, false, 12);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger searchesDone = new AtomicInteger();
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                long seed = t;
+                futures[t] = readers.submit(() -> {
+                    Random random = new Random(seed);
+                    while (!done.get()) {
+                        List<HnswIndex.Hit> hits = index.search(randomVector(random, 16), 10, 40);
+                        assertEquals(10, hits.size());
+                        searchesDone.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            Random random = new Random(13);
+            for (int i = 500; i < 5000; i++) {
+                index.insert("m" + i, randomVector(random, 16));
+            }
+            done.set(true);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertTrue(searchesDone.get() > 0);
+        assertEquals(5000, index.size());
+        assertTrue(recall(index, 50, 10, 100, 14) > 0.9);
+    }
+
+    // Run with: mvn test -Dtest=HnswIndexTest -Dbenchmarks=true [-Dhnsw.benchmark.size=500000]
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void recallAndLatencyBenchmark() {
+        int count = Integer.getInteger("hnsw.benchmark.size", 100_000);
+        int dimension = 32;
+        Random random = new Random(15);
+        HnswIndex index = new HnswIndex(dimension, 16, 200, false, 15);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            index.insert("m" + i, randomVector(random, dimension));
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        int queries = 1000;
+        float[][] taste = new float[queries][];
+        for (int q = 0; q < queries; q++) {
+            taste[q] = randomVector(random, dimension);
+        }
+        for (int ef : new int[]{32, 64, 128}) {
+            start = System.nanoTime();
+            for (float[] query : taste) {
+                index.search(query, 10, ef);
+            }
+            double hnswMicros = (System.nanoTime() - start) / 1000.0 / queries;
+            System.out.println("[Benchmark] ef=" + ef + ": " + String.format("%.1f", hnswMicros) + "us per search, recall@10 "
+                    + String.format("%.3f", recall(index, 200, 10, ef, 16)));
+        }
+        start = System.nanoTime();
+        for (int q = 0; q < 100; q++) {
+            index.bruteForce(taste[q], 10);
+        }
+        double exactMicros = (System.nanoTime() - start) / 1000.0 / 100;
+        System.out.println("[Benchmark] " + count + " vectors x " + dimension + " built in " + buildMillis
+                + "ms; exact search " + String.format("%.1f", exactMicros) + "us");
+        assertTrue(recall(index, 200, 10, 128, 17) > 0.9);
+    }
+}
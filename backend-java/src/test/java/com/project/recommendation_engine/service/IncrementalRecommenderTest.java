@@ -0,0 +1,140 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.CollaborativeBucket;
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.model.UserRecommendation;
+import com.project.recommendation_engine.repository.CollaborativeBucketRepository;
+import com.project.recommendation_engine.repository.UserRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IncrementalRecommenderTest {
+
+    private UserRepository userRepository;
+    private CollaborativeBucketRepository bucketRepository;
+    private MongoTemplate mongoTemplate;
+    private CollaborativeFiltering collaborativeFiltering;
+    private IncrementalRecommender incrementalRecommender;
+
+    private static User user(String id, String... likedMovies) {
+        User user = new User();
+        user.setId(id);
+        List<Rating> ratings = new ArrayList<>();
+        for (String movie : likedMovies) {
+            ratings.add(new Rating(movie, 5));
+        }
+        user.setMovieRatings(ratings);
+        return user;
+    }
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        bucketRepository = mock(CollaborativeBucketRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        when(bucketRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.getCollectionName(UserRecommendation.class)).thenReturn("recommended_cache");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), anyString()))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        collaborativeFiltering = new CollaborativeFiltering(userRepository, bucketRepository,
+                mock(ItemSimilarity.class), 4, 20, 30);
+        incrementalRecommender = new IncrementalRecommender(userRepository, collaborativeFiltering, mongoTemplate);
+    }
+
+    @Test
+    void ratingUpdatesNeighborsAndCandidatesWithoutARebuild() {
+        when(userRepository.streamRatingsBy()).thenAnswer(invocation -> Stream.of(user("alice", "1", "2"),
+                user("bob", "1", "2", "3"), user("carol", "9", "10")));
+        collaborativeFiltering.rebuild();
+
+        // carol now likes 1: she becomes one of alice's neighbors, and 10 one of her candidates
+        when(userRepository.findById("carol")).thenReturn(Optional.of(user("carol", "9", "10", "1")));
+        incrementalRecommender.onRating("carol", "1");
+
+        User alice = user("alice", "1", "2");
+        assertEquals(List.of("bob", "carol"), collaborativeFiltering.compute(alice).getNeighbors().stream()
+                .map(CollaborativeBucket.Neighbor::getUserId).toList());
+        ArgumentCaptor<CollaborativeBucket> saved = ArgumentCaptor.forClass(CollaborativeBucket.class);
+        verify(bucketRepository).save(saved.capture());
+        assertEquals("carol", saved.getValue().getId());
+        assertEquals(List.of("2", "3"), saved.getValue().getCandidates().stream()
+                .map(CollaborativeBucket.Candidate::getMovieId).toList());
+
+        assertEquals(1L, collaborativeFiltering.getStats().get("rebuilds"));
+        assertEquals(1L, collaborativeFiltering.getStats().get("updates"));
+        assertEquals(1L, incrementalRecommender.getStats().get("updates"));
+        verify(userRepository, times(1)).streamRatingsBy();
+    }
+
+    @Test
+    void ratedMovieIsDroppedFromTheShownRecommendations() {
+        when(userRepository.streamRatingsBy()).thenAnswer(invocation -> Stream.of(user("alice", "1")));
+        collaborativeFiltering.rebuild();
+        // Only 20 is on the home page: the update matches nothing for 99
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("recommended_cache")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+
+        when(userRepository.findById("alice")).thenReturn(Optional.of(user("alice", "1", "20")));
+        incrementalRecommender.onRating("alice", "20");
+        when(userRepository.findById("alice")).thenReturn(Optional.of(user("alice", "1", "20", "99")));
+        incrementalRecommender.onRating("alice", "99");
+
+        // Pulled in place from every section, matching the number and the string form of the ID
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), update.capture(), eq("recommended_cache"));
+        assertEquals("alice", query.getAllValues().get(0).getQueryObject().get("user_id"));
+        Document pull = (Document) update.getAllValues().get(0).getUpdateObject().get("$pull");
+        assertEquals(new Document("id", new Document("$in", List.of(20, "20"))), pull.get("sections.$[].movies"));
+        assertEquals(1L, incrementalRecommender.getStats().get("removedFromRecommendations"));
+    }
+
+    @Test
+    void ratingTasksRunningOutOfOrderKeepTheNewestRatings() {
+        when(userRepository.streamRatingsBy()).thenAnswer(invocation -> Stream.of(user("alice", "1", "2"),
+                user("carol", "9")));
+        collaborativeFiltering.rebuild();
+        // carol rated 1, then 2; by the time either task runs both ratings are saved
+        when(userRepository.findById("carol")).thenReturn(Optional.of(user("carol", "9", "1", "2")));
+
+        incrementalRecommender.onRating("carol", "2");
+        incrementalRecommender.onRating("carol", "1");
+
+        assertEquals(2, collaborativeFiltering.compute(user("alice", "1", "2")).getNeighbors().get(0).getOverlap());
+    }
+
+    @Test
+    void updatesDuringARebuildAreReplayedOnTheNewIndex() {
+        User dave = user("dave", "1", "5");
+        // dave rates while the rebuild is reading the users collection, after his document was read
+        when(userRepository.streamRatingsBy()).thenAnswer(invocation -> {
+            collaborativeFiltering.update(dave);
+            return Stream.of(user("alice", "1"), user("dave"));
+        });
+
+        collaborativeFiltering.rebuild();
+
+        assertEquals(List.of("dave"), collaborativeFiltering.compute(user("alice", "1")).getNeighbors().stream()
+                .map(CollaborativeBucket.Neighbor::getUserId).toList());
+        // Before any rebuild there is nothing to update; the rebuild reads the rating itself
+        assertEquals(1L, collaborativeFiltering.getStats().get("skippedUpdates"));
+    }
+}
@@ -0,0 +1,218 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSimilarityModelTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static User user(String id, Object... movieAndScore) {
+        User user = new User();
+        user.setId(id);
+        List<Rating> ratings = new ArrayList<>();
+        for (int i = 0; i < movieAndScore.length; i += 2) {
+            ratings.add(new Rating((String) movieAndScore[i], ((Number) movieAndScore[i + 1]).doubleValue()));
+        }
+        user.setMovieRatings(ratings);
+        return user;
+    }
+
+    private static List<User> randomUsers(int users, int movies, int perUser, long seed) {
+        Random random = new Random(seed);
+        List<User> result = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            List<Object> ratings = new ArrayList<>();
+            for (int r = 0; r < perUser; r++) {
+                ratings.add(String.valueOf((int) Math.abs(random.nextGaussian() * movies / 3) % movies));
+                ratings.add(1 + random.nextInt(5));
+            }
+            result.add(user("u" + u, ratings.toArray()));
+        }
+        return result;
+    }
+
+    // Straight from the definition, over the matrix the model was computed from
+    private static double cosine(RatingMatrix matrix, int a, int b) {
+        double dot = 0;
+        RatingMatrix.Row ratersA = matrix.ratingsOfMovie(a);
+        RatingMatrix.Row ratersB = matrix.ratingsOfMovie(b);
+        for (int i = 0; i < ratersA.size(); i++) {
+            for (int j = 0; j < ratersB.size(); j++) {
+                if (ratersA.id(i) == ratersB.id(j)) {
+                    dot += ratersA.score(i) * ratersB.score(j);
+                }
+            }
+        }
+        return dot / Math.sqrt(matrix.squaredNorm(a) * matrix.squaredNorm(b));
+    }
+
+    @Test
+    void rowsHoldTheTopKByCosine() {
+        RatingMatrix matrix = RatingMatrix.build(randomUsers(300, 120, 15, 1));
+        ItemSimilarityModel model = ItemSimilarityModel.compute(matrix, 10, 0, pool);
+
+        assertEquals(matrix.movieCount(), model.movieCount());
+        for (int m = 0; m < matrix.movieCount(); m += 7) {
+            String movieId = matrix.movieId(m);
+            List<ItemSimilarityModel.Neighbor> row = model.neighbors(movieId, 10);
+
+            List<Double> expected = new ArrayList<>();
+            for (int other = 0; other < matrix.movieCount(); other++) {
+                double similarity = other == m ? 0 : cosine(matrix, m, other);
+                if (similarity > 0) {
+                    expected.add(similarity);
+                }
+            }
+            expected.sort((a, b) -> Double.compare(b, a));
+
+            assertEquals(Math.min(10, expected.size()), row.size());
+            for (int i = 0; i < row.size(); i++) {
+                assertNotEquals(movieId, row.get(i).movieId());
+                assertEquals(expected.get(i), row.get(i).similarity(), 1e-5);
+                assertEquals(cosine(matrix, m, matrix.indexOfMovie(row.get(i).movieId())), row.get(i).similarity(), 1e-5);
+            }
+        }
+    }
+
+    @Test
+    void shrinkFavorsPairsRatedByMoreUsers() {
+        List<User> users = List.of(
+                user("a", "1", 5, "2", 5, "3", 5),
+                user("b", "1", 5, "2", 5),
+                user("c", "1", 5, "2", 5));
+        ItemSimilarityModel plain = ItemSimilarityModel.compute(RatingMatrix.build(users), 5, 0, pool);
+        ItemSimilarityModel shrunk = ItemSimilarityModel.compute(RatingMatrix.build(users), 5, 5, pool);
+
+        // Movie 3 shares one rater with movie 1, movie 2 shares three
+        List<ItemSimilarityModel.Neighbor> plainRow = plain.neighbors("1", 5);
+        assertEquals(List.of("2", "3"), plainRow.stream().map(ItemSimilarityModel.Neighbor::movieId).toList());
+        assertTrue(plainRow.get(0).similarity() < plainRow.get(1).similarity() * 2);
+        List<ItemSimilarityModel.Neighbor> row = shrunk.neighbors("1", 5);
+        assertEquals("2", row.get(0).movieId());
+        assertTrue(row.get(0).similarity() > row.get(1).similarity() * 2);
+    }
+
+    @Test
+    void incrementalRowsMatchAFullRecompute() {
+        List<User> users = randomUsers(200, 80, 12, 2);
+        RatingMatrix matrix = RatingMatrix.build(users);
+        ItemSimilarityModel model = ItemSimilarityModel.compute(matrix, 8, 5, pool);
+
+        // A new user and a brand-new movie
+        matrix.set("newcomer", "3", 5);
+        matrix.set("newcomer", "999", 4);
+        int[] rows = {matrix.indexOfMovie("3"), matrix.indexOfMovie("999")};
+        ItemSimilarityModel updated = model.withRows(matrix, rows, 5);
+        ItemSimilarityModel full = ItemSimilarityModel.compute(matrix, 8, 5, pool);
+
+        assertEquals(full.movieCount(), updated.movieCount());
+        assertEquals(full.neighbors("3", 8), updated.neighbors("3", 8));
+        assertEquals(full.neighbors("999", 8), updated.neighbors("999", 8));
+        assertEquals("3", updated.neighbors("999", 1).get(0).movieId());
+        // The model it was derived from is untouched
+        assertTrue(model.neighbors("999", 8).isEmpty());
+    }
+
+    @Test
+    void recommendSumsSeedWeightedSimilarityAndSkipsRatedMovies() {
+        List<User> users = List.of(
+                user("a", "1", 5, "2", 5, "4", 5),
+                user("b", "1", 5, "2", 4, "4", 4),
+                user("c", "3", 5, "5", 5),
+                user("d", "1", 4, "3", 4, "5", 5));
+        ItemSimilarityModel model = ItemSimilarityModel.compute(RatingMatrix.build(users), 10, 0, pool);
+
+        List<Rating> ratings = List.of(new Rating("1", 5), new Rating("2", 1), new Rating("3", 4));
+        List<ItemSimilarityModel.Scored> scored = model.recommend(ratings, 4, 5, 10);
+
+        List<String> ids = scored.stream().map(ItemSimilarityModel.Scored::movieId).toList();
+        assertFalse(ids.contains("1"));
+        assertFalse(ids.contains("2")); // Rated, even if too low to be a seed
+        assertFalse(ids.contains("3"));
+        assertTrue(ids.containsAll(List.of("4", "5")));
+        for (int i = 1; i < scored.size(); i++) {
+            assertTrue(scored.get(i - 1).score() >= scored.get(i).score());
+        }
+        // Unknown movies and no likes give nothing
+        assertTrue(model.recommend(List.of(new Rating("42", 5)), 4, 5, 10).isEmpty());
+        assertTrue(model.recommend(List.of(new Rating("1", 2)), 4, 5, 10).isEmpty());
+    }
+
+    @Test
+    void writeAndReadRoundTrip() throws IOException {
+        RatingMatrix matrix = RatingMatrix.build(randomUsers(100, 50, 10, 3));
+        ItemSimilarityModel model = ItemSimilarityModel.compute(matrix, 6, 5, pool);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        model.write(out);
+        ItemSimilarityModel read = ItemSimilarityModel.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(model.movieCount(), read.movieCount());
+        assertEquals(model.neighborCount(), read.neighborCount());
+        assertEquals(model.builtAt(), read.builtAt());
+        for (int m = 0; m < matrix.movieCount(); m++) {
+            assertEquals(model.neighbors(matrix.movieId(m), 6), read.neighbors(matrix.movieId(m), 6));
+        }
+
+        byte[] corrupt = out.toByteArray();
+        corrupt[corrupt.length / 2] ^= 0x10;
+        assertThrows(IOException.class, () -> ItemSimilarityModel.read(new ByteArrayInputStream(corrupt)));
+    }
+
+    // Run with: mvn test -Dtest=ItemSimilarityModelTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void parallelComputeAndLookupBenchmark() {
+        List<User> users = randomUsers(20_000, 5_000, 40, 4);
+        RatingMatrix matrix = RatingMatrix.build(users);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool all = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            ItemSimilarityModel.compute(matrix, 50, 5, all); // Warm-up
+            long start = System.nanoTime();
+            ItemSimilarityModel.compute(matrix, 50, 5, single);
+            long singleMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            ItemSimilarityModel model = ItemSimilarityModel.compute(matrix, 50, 5, all);
+            long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+
+            int lookups = 20_000;
+            for (int i = 0; i < lookups; i++) {
+                model.recommend(users.get(i % users.size()).getMovieRatings(), 4, 5, 30);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                model.recommend(users.get(i % users.size()).getMovieRatings(), 4, 5, 30);
+            }
+            double lookupMicros = (System.nanoTime() - start) / 1000.0 / lookups;
+
+            System.out.println("[Benchmark] " + matrix.ratingCount() + " ratings over " + matrix.movieCount()
+                    + " movies: 1 thread " + singleMillis + "ms, " + all.getParallelism() + " threads "
+                    + parallelMillis + "ms; recommend() " + String.format("%.1f", lookupMicros) + "us per user");
+            assertTrue(lookupMicros < 1000);
+        } finally {
+            single.shutdownNow();
+            all.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemSimilarityTest {
+
+    @TempDir
+    Path dir;
+
+    private static User user(String id, String... movies) {
+        User user = new User();
+        user.setId(id);
+        List<Rating> ratings = new ArrayList<>();
+        for (String movie : movies) {
+            ratings.add(new Rating(movie, 5));
+        }
+        user.setMovieRatings(ratings);
+        return user;
+    }
+
+    private ItemSimilarity itemSimilarity(UserRepository userRepository) {
+        return new ItemSimilarity(userRepository, dir.resolve("model.bin").toString(), 10, 0, 2, 5, 4);
+    }
+
+    @Test
+    void ratingsUpdateRowsOnlyAfterTheFirstRebuild() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamRatingsBy())
+                .thenAnswer(invocation -> Stream.of(user("a", "1", "2"), user("b", "1", "2", "3")));
+        ItemSimilarity itemSimilarity = itemSimilarity(userRepository);
+
+        itemSimilarity.onRating("c", "1", 5);
+        assertEquals(1L, itemSimilarity.getStats().get("skippedUpdates"));
+
+        itemSimilarity.rebuild();
+        assertTrue(itemSimilarity.neighbors("1", 10).stream().noneMatch(n -> n.movieId().equals("4")));
+
+        itemSimilarity.onRating("c", "4", 5);
+        itemSimilarity.onRating("c", "1", 5);
+
+        assertTrue(itemSimilarity.neighbors("1", 10).stream().anyMatch(n -> n.movieId().equals("4")));
+        assertEquals(List.of("1"), itemSimilarity.neighbors("4", 10).stream()
+                .map(ItemSimilarityModel.Neighbor::movieId).toList());
+        assertEquals(2L, itemSimilarity.getStats().get("updates"));
+        // Ratings only: full user documents are never loaded for a rebuild
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void aBatchOfRatingsRecomputesTheRowsOnce() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamRatingsBy())
+                .thenAnswer(invocation -> Stream.of(user("a", "1", "2"), user("b", "1", "2", "3")));
+        ItemSimilarity itemSimilarity = itemSimilarity(userRepository);
+        itemSimilarity.rebuild();
+
+        itemSimilarity.onRatings("c", List.of(new Rating("1", 5), new Rating("4", 5), new Rating("5", 4)));
+
+        assertTrue(itemSimilarity.neighbors("1", 10).stream().anyMatch(n -> n.movieId().equals("4")));
+        assertEquals(3L, itemSimilarity.getStats().get("updates"));
+        assertEquals(3L, itemSimilarity.getStats().get("rowsRecomputed"));
+    }
+
+    @Test
+    void rebuildPersistsTheModelForTheNextStart() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.streamRatingsBy())
+                .thenAnswer(invocation -> Stream.of(user("a", "1", "2"), user("b", "1", "2", "3")));
+        itemSimilarity(userRepository).rebuild();
+        assertTrue(Files.exists(dir.resolve("model.bin")));
+
+        ItemSimilarity restarted = itemSimilarity(mock(UserRepository.class));
+        restarted.loadOnStartup();
+
+        assertEquals(List.of("2", "3"), restarted.neighbors("1", 10).stream()
+                .map(ItemSimilarityModel.Neighbor::movieId).toList());
+        assertEquals(List.of("3"), restarted.recommend(List.of(new Rating("1", 5), new Rating("2", 4)), 10).stream()
+                .map(ItemSimilarityModel.Scored::movieId).toList());
+    }
+
+    @Test
+    void unreadableModelIsDiscarded() throws Exception {
+        Files.write(dir.resolve("model.bin"), new byte[]{1, 2, 3});
+        ItemSimilarity itemSimilarity = itemSimilarity(mock(UserRepository.class));
+
+        assertFalse(itemSimilarity.load());
+        assertFalse(Files.exists(dir.resolve("model.bin")));
+        assertEquals(0, itemSimilarity.model().movieCount());
+    }
+}
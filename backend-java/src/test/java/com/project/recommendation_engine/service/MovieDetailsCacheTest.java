@@ -0,0 +1,115 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.CachedMovie;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.repository.CachedMovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MovieDetailsCacheTest {
+
+    @Mock
+    private CachedMovieRepository cachedMovieRepository;
+
+    private MovieDetailsCache cache;
+    private final AtomicInteger tmdbCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(cachedMovieRepository.findById(any())).thenReturn(Optional.empty());
+        // Direct executor: background refreshes run inline so the test can assert on them
+        cache = new MovieDetailsCache(cachedMovieRepository, Runnable::run, 100, 60, 45);
+    }
+
+    private TMDBResponse load(Long id) {
+        tmdbCalls.incrementAndGet();
+        TMDBResponse movie = new TMDBResponse();
+        movie.setTmdbID(String.valueOf(id));
+        movie.setTitle("Movie " + id);
+        return movie;
+    }
+
+    @Test
+    void secondLookupIsServedFromMemory() {
+        cache.get(603L, this::load);
+        TMDBResponse movie = cache.get(603L, this::load);
+
+        assertEquals("Movie 603", movie.getTitle());
+        assertEquals(1, tmdbCalls.get());
+        assertEquals(1L, cache.getStats().get("memoryHits"));
+        assertEquals(1L, cache.getStats().get("mongoMisses"));
+        verify(cachedMovieRepository, times(1)).save(any(CachedMovie.class));
+    }
+
+    @Test
+    void freshMongoEntryAvoidsTmdbCall() {
+        TMDBResponse stored = load(27205L);
+        tmdbCalls.set(0);
+        when(cachedMovieRepository.findById("27205"))
+                .thenReturn(Optional.of(new CachedMovie("27205", stored, System.currentTimeMillis())));
+
+        TMDBResponse movie = cache.get(27205L, this::load);
+
+        assertSame(stored, movie);
+        assertEquals(0, tmdbCalls.get());
+        assertEquals(1L, cache.getStats().get("mongoHits"));
+    }
+
+    @Test
+    void agingEntryIsRefreshedInBackground() {
+        TMDBResponse stored = load(550L);
+        tmdbCalls.set(0);
+        long fiftyMinutesAgo = System.currentTimeMillis() - 50 * 60 * 1000L;
+        when(cachedMovieRepository.findById("550"))
+                .thenReturn(Optional.of(new CachedMovie("550", stored, fiftyMinutesAgo)));
+
+        TMDBResponse movie = cache.get(550L, this::load);
+
+        assertSame(stored, movie);  // Caller still gets the cached copy
+        assertEquals(1, tmdbCalls.get()); // And a refresh was issued past the 45 minute threshold
+        assertEquals(1L, cache.getStats().get("backgroundRefreshes"));
+    }
+
+    @Test
+    void expiredMongoEntryIsReloaded() {
+        long twoHoursAgo = System.currentTimeMillis() - 2 * 60 * 60 * 1000L;
+        when(cachedMovieRepository.findById("13"))
+                .thenReturn(Optional.of(new CachedMovie("13", load(13L), twoHoursAgo)));
+        tmdbCalls.set(0);
+
+        cache.get(13L, this::load);
+
+        assertEquals(1, tmdbCalls.get());
+        assertEquals(1L, cache.getStats().get("mongoMisses"));
+    }
+
+    @Test
+    void bulkLookupUsesOneMongoQueryForMemoryMisses() {
+        cache.put(1L, load(1L));
+        long twoHoursAgo = System.currentTimeMillis() - 2 * 60 * 60 * 1000L;
+        when(cachedMovieRepository.findAllById(any())).thenReturn(List.of(
+                new CachedMovie("2", load(2L), System.currentTimeMillis()),
+                new CachedMovie("3", load(3L), twoHoursAgo)));
+        tmdbCalls.set(0);
+
+        MovieDetailsCache.BulkLookup lookup = cache.getAll(List.of(1L, 2L, 3L, 4L), this::load);
+
+        assertEquals(Set.of(1L, 2L), lookup.fresh().keySet());
+        assertEquals(Set.of(3L), lookup.expired().keySet());
+        assertEquals(0, tmdbCalls.get());
+        verify(cachedMovieRepository, times(1)).findAllById(List.of("2", "3", "4"));
+        verify(cachedMovieRepository, never()).findById(any());
+    }
+}
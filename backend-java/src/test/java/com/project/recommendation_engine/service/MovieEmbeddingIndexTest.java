@@ -0,0 +1,72 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.Rating;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieEmbeddingIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private AlsModel trainedModel(long seed) {
+        Random random = new Random(seed);
+        RatingMatrix matrix = new RatingMatrix();
+        for (int u = 0; u < 60; u++) {
+            for (int m = 0; m < 40; m++) {
+                if (random.nextDouble() < 0.3) {
+                    matrix.set("u" + u, String.valueOf(m), 1 + random.nextInt(5));
+                }
+            }
+        }
+        return AlsTrainer.train(matrix, new AlsTrainer.Config(4, 5, 0.1f, seed), pool, null).model();
+    }
+
+    private MovieEmbeddingIndex index() {
+        return new MovieEmbeddingIndex(dir.resolve("movies.hnsw").toString(), 8, 50, 32);
+    }
+
+    @Test
+    void loadedIndexFoldsInWithTheModelItWasBuiltFrom() {
+        List<Rating> ratings = List.of(new Rating("1", 5), new Rating("2", 4), new Rating("3", 1));
+        MovieEmbeddingIndex built = index();
+        built.rebuild(trainedModel(1));
+        List<HnswIndex.Hit> expected = built.recommend(ratings, 5);
+
+        MovieEmbeddingIndex restarted = index();
+        assertTrue(restarted.load());
+
+        assertEquals(5, expected.size());
+        assertEquals(expected, restarted.recommend(ratings, 5));
+        assertTrue(restarted.recommend(ratings, 5).stream().noneMatch(hit -> hit.key().equals("1")));
+    }
+
+    @Test
+    void fileWithoutItsModelIsDiscarded() throws Exception {
+        MovieEmbeddingIndex built = index();
+        built.rebuild(trainedModel(1));
+        Path file = dir.resolve("movies.hnsw");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 100));
+
+        assertFalse(index().load());
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,204 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieLikersIndexTest {
+
+    private static User user(String id, Object... movieAndScore) {
+        User user = new User();
+        user.setId(id);
+        List<Rating> ratings = new ArrayList<>();
+        for (int i = 0; i < movieAndScore.length; i += 2) {
+            ratings.add(new Rating((String) movieAndScore[i], ((Number) movieAndScore[i + 1]).doubleValue()));
+        }
+        user.setMovieRatings(ratings);
+        return user;
+    }
+
+    private final List<User> users = List.of(
+            user("alice", "1", 5, "2", 4, "3", 5),
+            user("bob", "1", 5, "2", 5, "3", 4, "4", 5),    // Likes everything alice likes
+            user("carol", "1", 4, "5", 5, "6", 2),          // One movie in common
+            user("dave", "7", 5, "8", 5),                   // Nothing in common
+            user("erin", "1", 3, "2", 2, "9", 5));          // Rated alice's movies, liked none
+
+    @Test
+    void neighborsAreRankedByCosineAndExcludeTheUser() {
+        MovieLikersIndex index = MovieLikersIndex.build(users, 4.0);
+        User alice = users.get(0);
+
+        List<MovieLikersIndex.Neighbor> neighbors = index.neighbors("alice", alice.getMovieRatings(), 10);
+
+        assertEquals(List.of("bob", "carol"), neighbors.stream().map(MovieLikersIndex.Neighbor::userId).toList());
+        assertEquals(3, neighbors.get(0).overlap());
+        assertEquals(3 / Math.sqrt(3 * 4), neighbors.get(0).similarity(), 1e-9);
+        assertEquals(1 / Math.sqrt(3 * 2), neighbors.get(1).similarity(), 1e-9);
+        assertEquals(1, index.neighbors("alice", alice.getMovieRatings(), 1).size());
+    }
+
+    @Test
+    void candidatesSkipEverythingTheUserRated() {
+        MovieLikersIndex index = MovieLikersIndex.build(users, 4.0);
+        // Rated 4 but didn't like it: still excluded
+        List<Rating> ratings = new ArrayList<>(users.get(0).getMovieRatings());
+        ratings.add(new Rating("4", 2));
+
+        List<MovieLikersIndex.Candidate> candidates = index.candidates("alice", ratings, 10, 10);
+
+        assertEquals(List.of("5"), candidates.stream().map(MovieLikersIndex.Candidate::movieId).toList());
+        assertEquals(1, candidates.get(0).supporters());
+        // Disliked by carol, so never a candidate
+        assertTrue(index.candidates("alice", users.get(0).getMovieRatings(), 10, 10).stream()
+                .noneMatch(c -> c.movieId().equals("6")));
+    }
+
+    @Test
+    void candidatesAreScoredBySummedSimilarity() {
+        List<User> crowd = new ArrayList<>(users);
+        crowd.add(user("frank", "1", 5, "5", 5));
+        crowd.add(user("gina", "2", 4, "5", 4));
+        MovieLikersIndex index = MovieLikersIndex.build(crowd, 4.0);
+
+        List<MovieLikersIndex.Candidate> candidates = index.candidates("alice", users.get(0).getMovieRatings(), 10, 10);
+
+        // Movie 5 is liked by three weaker neighbors, movie 4 only by bob (the closest one)
+        assertEquals(List.of("5", "4"), candidates.stream().map(MovieLikersIndex.Candidate::movieId).toList());
+        assertEquals(3, candidates.get(0).supporters());
+    }
+
+    @Test
+    void usesFreshRatingsForUsersAddedSinceTheBuild() {
+        MovieLikersIndex index = MovieLikersIndex.build(users, 4.0);
+        assertFalse(index.containsUser("newcomer"));
+
+        List<Rating> ratings = List.of(new Rating("7", 5), new Rating("42", 5));
+
+        assertEquals(List.of("dave"), index.neighbors("newcomer", ratings, 5).stream()
+                .map(MovieLikersIndex.Neighbor::userId).toList());
+        assertEquals(List.of("8"), index.candidates("newcomer", ratings, 5, 5).stream()
+                .map(MovieLikersIndex.Candidate::movieId).toList());
+        // Scratch state is reset between queries
+        assertEquals(List.of("8"), index.candidates("newcomer", ratings, 5, 5).stream()
+                .map(MovieLikersIndex.Candidate::movieId).toList());
+    }
+
+    @Test
+    void userWithoutLikesHasNoNeighbors() {
+        MovieLikersIndex index = MovieLikersIndex.build(users, 4.0);
+
+        assertTrue(index.neighbors("erin", List.of(new Rating("1", 3)), 5).isEmpty());
+        assertTrue(index.candidates("erin", null, 5, 5).isEmpty());
+        assertEquals(5, index.userCount());
+    }
+
+    @Test
+    void withUserMatchesAFullRebuild() {
+        MovieLikersIndex index = MovieLikersIndex.build(users, 4.0);
+        List<User> changed = new ArrayList<>(users);
+        // alice stops liking 3 and likes 4, erin likes a movie nobody has seen, a new user joins
+        changed.set(0, user("alice", "1", 5, "2", 4, "3", 2, "4", 5));
+        changed.set(4, user("erin", "1", 3, "2", 2, "9", 5, "10", 4));
+        changed.add(user("newcomer", "1", 5, "7", 4));
+
+        MovieLikersIndex updated = index;
+        for (User user : List.of(changed.get(0), changed.get(4), changed.get(5))) {
+            updated = updated.withUser(user.getId(), user.getMovieRatings());
+        }
+        MovieLikersIndex rebuilt = MovieLikersIndex.build(changed, 4.0);
+
+        assertEquals(rebuilt.likeCount(), updated.likeCount());
+        assertEquals(rebuilt.userCount(), updated.userCount());
+        for (User user : changed) {
+            assertEquals(rebuilt.neighbors(user.getId(), user.getMovieRatings(), 10),
+                    updated.neighbors(user.getId(), user.getMovieRatings(), 10));
+            assertEquals(rebuilt.candidates(user.getId(), user.getMovieRatings(), 10, 10),
+                    updated.candidates(user.getId(), user.getMovieRatings(), 10, 10));
+        }
+        // The original is untouched, and a rating that changes no likes returns the same index
+        assertEquals(5, index.userCount());
+        assertEquals(List.of("bob", "carol"), index.neighbors("alice", users.get(0).getMovieRatings(), 10).stream()
+                .map(MovieLikersIndex.Neighbor::userId).toList());
+        assertSame(updated, updated.withUser("erin", List.of(new Rating("9", 5), new Rating("10", 4), new Rating("3", 1))));
+    }
+
+    // Run with: mvn test -Dtest=MovieLikersIndexTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void indexVersusFullScanBenchmark() {
+        Random random = new Random(7);
+        int userCount = 20_000;
+        List<User> crowd = new ArrayList<>();
+        for (int u = 0; u < userCount; u++) {
+            List<Object> ratings = new ArrayList<>();
+            for (int r = 0; r < 30; r++) {
+                // Skewed towards popular movies, like real ratings
+                int movie = (int) Math.abs(random.nextGaussian() * 800);
+                ratings.add(String.valueOf(movie));
+                ratings.add(1 + random.nextInt(5));
+            }
+            crowd.add(user("u" + u, ratings.toArray()));
+        }
+
+        long buildStart = System.nanoTime();
+        MovieLikersIndex index = MovieLikersIndex.build(crowd, 4.0);
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        int queries = 500;
+        long indexStart = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            User target = crowd.get(q);
+            index.candidates(target.getId(), target.getMovieRatings(), 20, 30);
+        }
+        long indexMicros = (System.nanoTime() - indexStart) / 1_000 / queries;
+
+        // What data_tools did per user: compare liked sets with every other profile
+        long scanStart = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            Set<String> liked = likedSet(crowd.get(q));
+            for (User other : crowd) {
+                if (other != crowd.get(q)) {
+                    Set<String> common = likedSet(other);
+                    common.retainAll(liked);
+                }
+            }
+        }
+        long scanMicros = (System.nanoTime() - scanStart) / 1_000 / queries;
+
+        // One new like per update, as IncrementalRecommender applies them
+        MovieLikersIndex updated = index;
+        long updateStart = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            User target = crowd.get(q);
+            List<Rating> ratings = new ArrayList<>(target.getMovieRatings());
+            ratings.add(new Rating(String.valueOf(random.nextInt(2_000)), 5));
+            updated = updated.withUser(target.getId(), ratings);
+        }
+        long updateMicros = (System.nanoTime() - updateStart) / 1_000 / queries;
+
+        System.out.println("[Benchmark] " + userCount + " users: index built in " + buildMillis + "ms, "
+                + indexMicros + "us per user with the index vs " + scanMicros + "us per user scanning, "
+                + updateMicros + "us per incremental update");
+        assertTrue(indexMicros < scanMicros);
+    }
+
+    private static Set<String> likedSet(User user) {
+        Set<String> liked = new HashSet<>();
+        for (Rating rating : user.getMovieRatings()) {
+            if (rating.getScore() >= 4) {
+                liked.add(rating.getMovieId());
+            }
+        }
+        return liked;
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.UserRecommendation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class MoviePrefetcherTest {
+
+    private ExecutorService executor;
+    private TMDBService tmdbService;
+    private final Set<Long> cached = ConcurrentHashMap.newKeySet();
+    private final List<Long> fetchOrder = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        tmdbService = mock(TMDBService.class);
+        when(tmdbService.isMovieCached(anyLong())).thenAnswer(invocation -> cached.contains((Long) invocation.getArgument(0)));
+        when(tmdbService.fetchMovieById(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            fetchOrder.add(id);
+            cached.add(id);
+            return new TMDBResponse();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static UserRecommendation.RecSection section(int... ids) {
+        List<UserRecommendation.RecMovie> movies = new ArrayList<>();
+        for (int id : ids) {
+            UserRecommendation.RecMovie movie = new UserRecommendation.RecMovie();
+            movie.setId(id);
+            movies.add(movie);
+        }
+        UserRecommendation.RecSection section = new UserRecommendation.RecSection();
+        section.setMovies(movies);
+        return section;
+    }
+
+    private void awaitIdle(MoviePrefetcher prefetcher) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (((Integer) prefetcher.getStats().get("queued")) > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void firstCardsOfEverySectionComeBeforeLaterOnes() throws InterruptedException {
+        MoviePrefetcher prefetcher = new MoviePrefetcher(tmdbService, executor, 3, 5, 1, 100);
+
+        int queued = prefetcher.prefetchSections(List.of(section(1, 2, 3, 4), section(10, 11, 12), section(20)));
+        awaitIdle(prefetcher);
+
+        // Budget of 5: position 0 of each section, then position 1; cards past the third never
+        assertEquals(5, queued);
+        assertEquals(List.of(1L, 10L, 20L, 2L, 11L), fetchOrder);
+    }
+
+    @Test
+    void cachedAndAlreadyQueuedMoviesAreSkipped() throws InterruptedException {
+        cached.add(2L);
+        MoviePrefetcher prefetcher = new MoviePrefetcher(tmdbService, executor, 6, 24, 2, 100);
+
+        prefetcher.prefetchSections(List.of(section(1, 2, 3)));
+        prefetcher.prefetchSections(List.of(section(1, 2, 3)));
+        awaitIdle(prefetcher);
+
+        verify(tmdbService, never()).fetchMovieById(2L);
+        verify(tmdbService, times(1)).fetchMovieById(1L);
+        verify(tmdbService, times(1)).fetchMovieById(3L);
+        assertEquals(2L, prefetcher.getStats().get("fetched"));
+    }
+
+    @Test
+    void workersAreSharedAcrossPages() throws InterruptedException {
+        MoviePrefetcher prefetcher = new MoviePrefetcher(tmdbService, executor, 6, 24, 2, 100);
+
+        for (int page = 0; page < 5; page++) {
+            int base = page * 10;
+            prefetcher.prefetchSections(List.of(section(base + 1, base + 2, base + 3, base + 4)));
+        }
+        awaitIdle(prefetcher);
+
+        assertEquals(20, fetchOrder.size());
+        assertTrue(maxInFlight.get() <= 2, "At most 2 prefetches at once, saw " + maxInFlight.get());
+    }
+
+    @Test
+    void fullQueueDropsInsteadOfGrowing() throws InterruptedException {
+        MoviePrefetcher prefetcher = new MoviePrefetcher(tmdbService, executor, 6, 24, 1, 3);
+
+        int queued = prefetcher.prefetchSections(List.of(section(1, 2, 3, 4, 5, 6)));
+        awaitIdle(prefetcher);
+
+        assertTrue(queued <= 3);
+        assertEquals((long) (6 - queued), prefetcher.getStats().get("dropped"));
+    }
+}
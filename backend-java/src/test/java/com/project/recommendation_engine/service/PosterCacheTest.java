@@ -0,0 +1,189 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.util.PosterUrls;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PosterCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private HttpServer tmdbImages;
+    private final AtomicInteger requests = new AtomicInteger();
+    private byte[] poster;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        poster = jpeg(500, 750);
+        tmdbImages = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        tmdbImages.createContext("/t/p/w500/", exchange -> {
+            requests.incrementAndGet();
+            if (exchange.getRequestURI().getPath().endsWith("/missing.jpg")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, poster.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(poster);
+                }
+            }
+            exchange.close();
+        });
+        tmdbImages.setExecutor(Executors.newFixedThreadPool(4));
+        tmdbImages.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tmdbImages.stop(0);
+    }
+
+    private PosterCache cache(long maxBytes) throws IOException {
+        return cache(maxBytes, 0);
+    }
+
+    private PosterCache cache(long maxBytes, long deleteGraceMs) throws IOException {
+        String source = "http://127.0.0.1:" + tmdbImages.getAddress().getPort() + "/t/p/w500";
+        return new PosterCache(directory.toString(), maxBytes, source, 1000, 2000, deleteGraceMs);
+    }
+
+    @Test
+    void downloadsOnceAndResizesLocally() throws Exception {
+        PosterCache cache = cache(10_000_000);
+
+        Path full = cache.get(500, "abc.jpg");
+        Path card = cache.get(342, "abc.jpg");
+        Path small = cache.get(92, "abc.jpg");
+        assertEquals(full, cache.get(500, "abc.jpg"));
+
+        assertArrayEquals(poster, Files.readAllBytes(full));
+        BufferedImage thumbnail = ImageIO.read(card.toFile());
+        assertEquals(342, thumbnail.getWidth());
+        assertEquals(513, thumbnail.getHeight());
+        assertEquals(92, ImageIO.read(small.toFile()).getWidth());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneDownload() throws Exception {
+        PosterCache cache = cache(10_000_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] gets = new Future<?>[16];
+            for (int i = 0; i < gets.length; i++) {
+                int width = i % 2 == 0 ? 500 : 185;
+                gets[i] = pool.submit(() -> cache.get(width, "shared.jpg"));
+            }
+            for (Future<?> get : gets) {
+                assertNotNull(get.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyServedOverBudget() throws Exception {
+        // Room for two full posters
+        PosterCache cache = cache(poster.length * 2L + 100);
+
+        Path first = cache.get(500, "first.jpg");
+        cache.get(500, "second.jpg");
+        cache.get(500, "first.jpg");
+        cache.get(500, "third.jpg");
+
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(directory.resolve("w500-second.jpg")));
+        assertEquals(2, cache.getStats().get("files"));
+
+        // A restart picks the files up again instead of starting empty
+        assertEquals(2, cache(poster.length * 2L + 100).getStats().get("files"));
+    }
+
+    @Test
+    void evictedFilesStayReadableThroughTheGracePeriod() throws Exception {
+        PosterCache cache = cache(poster.length + 100, 60_000);
+
+        try (PosterCache.Poster first = cache.open(500, "first.jpg")) {
+            cache.get(500, "second.jpg");
+
+            // Evicted, but a response that already has it can still send it
+            assertEquals(1, cache.getStats().get("files"));
+            assertEquals(1, cache.getStats().get("pendingDeletes"));
+            assertTrue(Files.exists(first.path()));
+            assertEquals(poster.length, first.size());
+        }
+
+        // Asked for again within the grace period: taken back, not downloaded again
+        assertNotNull(cache.get(500, "first.jpg"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void openRefetchesAFileDeletedUnderneathIt() throws Exception {
+        PosterCache cache = cache(10_000_000);
+        Files.delete(cache.get(500, "abc.jpg"));
+
+        try (PosterCache.Poster reopened = cache.open(500, "abc.jpg")) {
+            assertEquals(poster.length, reopened.size());
+        }
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void rejectsUnknownWidthsAndPaths() throws IOException {
+        PosterCache cache = cache(10_000_000);
+
+        assertNull(cache.get(500, "missing.jpg"));
+        assertNull(cache.get(500, "../etc/passwd"));
+        assertNull(cache.get(123, "abc.jpg"));
+        assertFalse(PosterCache.isValid(500, "a/b.jpg"));
+        assertTrue(PosterCache.isValid(342, "kqjL17yufvn9OVLyXYpvtyrFfak.jpg"));
+    }
+
+    @Test
+    void posterUrlsPointAtTheProxy() {
+        assertEquals("/posters/w342/abc.jpg", PosterUrls.card("/abc.jpg"));
+        assertEquals("/posters/w500/abc.jpg", PosterUrls.full("/abc.jpg"));
+        assertEquals("/posters/w342/abc.jpg", PosterUrls.card("https://image.tmdb.org/t/p/w500/abc.jpg"));
+        assertEquals("https://example.com/x.jpg", PosterUrls.card("https://example.com/x.jpg"));
+        assertNull(PosterUrls.card(null));
+        assertEquals("/abc.jpg", PosterUrls.tmdbPath("/posters/w342/abc.jpg"));
+        assertEquals("/abc.jpg", PosterUrls.tmdbPath("https://image.tmdb.org/t/p/w500/abc.jpg"));
+        assertEquals("/abc.jpg", PosterUrls.tmdbPath("/abc.jpg"));
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.ORANGE);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,191 @@
+package com.project.recommendation_engine.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PythonWorkerPoolTest {
+
+    // Speaks the batch_processor.py --worker protocol; the user id picks the behavior
+    private static final String FAKE_WORKER = """
+            import json, os, sys, time
+            replies = sys.stdout
+            sys.stdout = sys.stderr
+            def reply(message):
+                replies.write(json.dumps(message) + "\\n")
+                replies.flush()
+            print("warming up")
+            reply({"type": "ready", "pid": os.getpid()})
+            deaf = False
+            for line in sys.stdin:
+                job = json.loads(line)
+                if job["type"] == "ping":
+                    if not deaf:
+                        reply({"id": job["id"], "status": "ok"})
+                    continue
+                user = job["user_id"]
+                if user == "crash":
+                    os._exit(3)
+                if user == "slow":
+                    time.sleep(5)
+                if user == "deaf":
+                    deaf = True
+                if user == "fail":
+                    reply({"id": job["id"], "status": "error", "error": "no luck"})
+                else:
+                    reply({"id": job["id"], "status": "ok", "millis": 1})
+            """;
+
+    @TempDir
+    Path dir;
+
+    private Path script;
+    private final List<PythonWorkerPool> pools = new ArrayList<>();
+
+    @BeforeEach
+    void writeScript() throws IOException {
+        script = Files.writeString(dir.resolve("fake_worker.py"), FAKE_WORKER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(PythonWorkerPool::shutdown);
+    }
+
+    private PythonWorkerPool pool(String scriptPath, int size, int maxJobs) {
+        PythonWorkerPool pool = new PythonWorkerPool("python3", scriptPath, size, maxJobs, 1000, 10000, 500);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Test
+    void jobsReuseWarmWorkersUntilMaxJobs() {
+        PythonWorkerPool pool = pool(script.toString(), 2, 3);
+
+        for (int i = 0; i < 5; i++) {
+            PythonWorkerPool.Result result = pool.runForUser("user" + i);
+            assertTrue(result.success(), result.error());
+        }
+
+        // Sequential jobs share one worker, which is replaced after its third job
+        assertEquals(2L, pool.getStats().get("started"));
+        assertEquals(1L, pool.getStats().get("recycled"));
+        assertEquals(5L, pool.getStats().get("jobs"));
+        assertEquals(1, pool.getStats().get("live"));
+    }
+
+    @Test
+    void failuresCrashesAndTimeoutsAreReportedAndWorkersReplaced() {
+        PythonWorkerPool pool = pool(script.toString(), 1, 100);
+
+        PythonWorkerPool.Result failed = pool.runForUser("fail");
+        assertFalse(failed.success());
+        assertEquals("no luck", failed.error());
+        assertEquals(1L, pool.getStats().get("started"));
+
+        assertFalse(pool.runForUser("crash").success());
+        assertEquals(1L, pool.getStats().get("crashes"));
+        assertTrue(pool.runForUser("after-crash").success());
+
+        PythonWorkerPool.Result slow = pool.runForUser("slow");
+        assertFalse(slow.success());
+        assertTrue(slow.error().startsWith("Timed out"), slow.error());
+        assertEquals(1L, pool.getStats().get("timeouts"));
+        assertTrue(pool.runForUser("after-timeout").success());
+
+        assertEquals(3L, pool.getStats().get("started"));
+        assertEquals(3L, pool.getStats().get("failedJobs"));
+    }
+
+    @Test
+    void healthCheckWarmsThePoolAndReplacesUnresponsiveWorkers() {
+        PythonWorkerPool pool = pool(script.toString(), 2, 100);
+
+        pool.checkHealth();
+        assertEquals(2L, pool.getStats().get("started"));
+        assertEquals(2, pool.getStats().get("idle"));
+
+        // Stops answering pings after this job
+        assertTrue(pool.runForUser("deaf").success());
+        pool.checkHealth();
+
+        assertEquals(2L, pool.getStats().get("healthChecks"));
+        assertEquals(1L, pool.getStats().get("failedHealthChecks"));
+        assertEquals(3L, pool.getStats().get("started"));
+        assertEquals(2, pool.getStats().get("live"));
+    }
+
+    @Test
+    void concurrentJobsShareTheWorkers() throws Exception {
+        PythonWorkerPool pool = pool(script.toString(), 2, 100);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<PythonWorkerPool.Result>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String userId = "user" + i;
+                results.add(callers.submit(() -> pool.runForUser(userId)));
+            }
+            for (Future<PythonWorkerPool.Result> result : results) {
+                assertTrue(result.get().success());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertTrue((Long) pool.getStats().get("started") <= 2);
+    }
+
+    // Run with: mvn test -Dtest=PythonWorkerPoolTest -Dbenchmarks=true
+    // Only the fixed cost per job: the real agent also pays its pymongo/openai imports and a
+    // Mongo connection on every cold start
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void warmWorkerVersusProcessPerJobBenchmark() throws Exception {
+        int jobs = 20;
+        long coldStart = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            Process process = new ProcessBuilder("python3", script.toString()).redirectErrorStream(true).start();
+            process.getOutputStream().write("{\"id\": 1, \"type\": \"user\", \"user_id\": \"u\"}\n".getBytes());
+            process.getOutputStream().close();
+            process.getInputStream().readAllBytes();
+            assertEquals(0, process.waitFor());
+        }
+        double coldMillis = (System.nanoTime() - coldStart) / 1e6 / jobs;
+
+        PythonWorkerPool pool = pool(script.toString(), 1, 1000);
+        pool.checkHealth();
+        long warmStart = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            assertTrue(pool.runForUser("u" + i).success());
+        }
+        double warmMillis = (System.nanoTime() - warmStart) / 1e6 / jobs;
+
+        System.out.println("[Benchmark] process per job " + String.format("%.2f", coldMillis) + "ms, warm worker "
+                + String.format("%.2f", warmMillis) + "ms per job");
+        assertTrue(warmMillis < coldMillis);
+    }
+
+    @Test
+    void workerThatNeverStartsFailsTheJob() {
+        PythonWorkerPool pool = pool(dir.resolve("missing.py").toString(), 1, 100);
+
+        PythonWorkerPool.Result result = pool.runForUser("anyone");
+
+        assertFalse(result.success());
+        assertTrue(result.error().startsWith("No worker available"), result.error());
+        assertEquals(1L, pool.getStats().get("failedStarts"));
+        assertEquals(0, pool.getStats().get("live"));
+    }
+}
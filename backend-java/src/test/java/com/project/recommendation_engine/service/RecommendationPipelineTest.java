@@ -0,0 +1,290 @@
+package com.project.recommendation_engine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.recommendation_engine.model.CollaborativeBucket;
+import com.project.recommendation_engine.model.GenreMovies;
+import com.project.recommendation_engine.model.HydratedMovie;
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.model.Rating;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.User;
+import com.project.recommendation_engine.model.UserRecommendation;
+import com.project.recommendation_engine.repository.RecommendationRepository;
+import com.project.recommendation_engine.repository.UserRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RecommendationPipelineTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // What the stub ranking model answers; 999 and 888 were never candidates
+    private static final String RANKING = """
+            {"meta_justification": "Collaborative first",
+             "sections": [
+               {"title": "Top Picks for You", "type": "mixed",
+                "items": [{"id": "101", "ai_reason": "Your neighbors loved it"}, {"id": "999"}, {"id": "301"}]},
+               {"title": "Best in Action", "type": "genre", "items": [{"id": "201"}]},
+               {"title": "Best in Comedy", "type": "genre", "items": [{"id": "888"}]}
+             ]}
+            """;
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private volatile int status = 200;
+    private volatile long rankDelayMs;
+    private volatile String lastRequest;
+    private volatile String lastAuthorization;
+
+    private UserRepository userRepository;
+    private CollaborativeFiltering collaborativeFiltering;
+    private MovieEmbeddingIndex movieEmbeddingIndex;
+    private TMDBService tmdbService;
+    private RecommendationRepository recommendationRepository;
+    private ExecutorService executor;
+    private volatile long tmdbDelayMs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/chat/completions", exchange -> {
+            lastRequest = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+            sleep(rankDelayMs);
+            Map<String, Object> reply = Map.of("choices", List.of(Map.of("message", Map.of("content", RANKING))));
+            byte[] body = JSON.writeValueAsBytes(reply);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        // Same latency as the mocked TMDB lookups, for the subprocess side of the benchmark
+        server.createContext("/tmdb", exchange -> {
+            sleep(tmdbDelayMs);
+            byte[] body = "{\"results\": []}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        userRepository = mock(UserRepository.class);
+        collaborativeFiltering = mock(CollaborativeFiltering.class);
+        movieEmbeddingIndex = mock(MovieEmbeddingIndex.class);
+        tmdbService = mock(TMDBService.class);
+        recommendationRepository = mock(RecommendationRepository.class);
+        executor = Executors.newFixedThreadPool(4);
+
+        User user = new User();
+        user.setId("u1");
+        user.setFavoriteGenres(List.of("ACTION"));
+        user.setMovieRatings(new ArrayList<>(List.of(new Rating("50", 5))));
+        when(userRepository.findById("u1")).thenReturn(Optional.of(user));
+
+        CollaborativeBucket bucket = new CollaborativeBucket("u1", List.of(),
+                List.of(new CollaborativeBucket.Candidate("101", 2.0, 2), new CollaborativeBucket.Candidate("102", 1.0, 1)),
+                0);
+        bucket.setSimilarItems(List.of(new CollaborativeBucket.Candidate("201", 0.9, 0)));
+        when(collaborativeFiltering.compute(any())).thenReturn(bucket);
+        when(movieEmbeddingIndex.recommend(anyList(), anyInt())).thenReturn(List.of(new HnswIndex.Hit("401", 0.8f)));
+
+        when(tmdbService.hydrateMovies(anyCollection())).thenAnswer(invocation -> {
+            sleep(tmdbDelayMs);
+            Map<Long, HydratedMovie> movies = new LinkedHashMap<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                TMDBResponse movie = new TMDBResponse();
+                movie.setTitle("Movie " + id);
+                movie.setPoster("https://image.tmdb.org/t/p/w500/" + id + ".jpg");
+                movie.setTmdbRating("7.5");
+                movies.put(id, new HydratedMovie(id, HydratedMovie.Status.CACHED, movie, null));
+            }
+            return movies;
+        });
+        when(tmdbService.fetchMoviesForGenres(anyList())).thenAnswer(invocation -> {
+            sleep(tmdbDelayMs);
+            return List.of(new GenreMovies("ACTION", List.of(new Movie("301", "Trending One", "/api/posters/301"))));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private RecommendationPipeline pipeline(String url, long gatherTimeoutMs) {
+        RankingClient rankingClient = new HttpRankingClient(url, "secret", "gpt-5-nano", 5000);
+        return new RecommendationPipeline(userRepository, collaborativeFiltering, movieEmbeddingIndex, tmdbService,
+                recommendationRepository, rankingClient, executor, "java", gatherTimeoutMs);
+    }
+
+    private String rankingUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions";
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void ranksAllBucketsAndSavesOnlyKnownCandidates() throws Exception {
+        UserRecommendation previous = new UserRecommendation();
+        previous.setId("doc1");
+        previous.setUserId("u1");
+        when(recommendationRepository.findFirstByUserIdOrderByGeneratedAtDesc("u1")).thenReturn(Optional.of(previous));
+
+        RecommendationPipeline.Result result = pipeline(rankingUrl(), 5000).run("u1");
+
+        assertTrue(result.success(), result.error());
+        ArgumentCaptor<UserRecommendation> saved = ArgumentCaptor.forClass(UserRecommendation.class);
+        verify(recommendationRepository).save(saved.capture());
+        UserRecommendation recommendation = saved.getValue();
+        assertEquals("doc1", recommendation.getId());
+        assertEquals("Collaborative first", recommendation.getMetaJustification());
+        assertNotNull(recommendation.getGeneratedAt());
+
+        // The all-unknown section is dropped, and so is 999
+        assertEquals(2, recommendation.getSections().size());
+        List<UserRecommendation.RecMovie> top = recommendation.getSections().get(0).getMovies();
+        assertEquals(List.of(101, 301), top.stream().map(UserRecommendation.RecMovie::getId).toList());
+        assertEquals("Your neighbors loved it", top.get(0).getAiReason());
+        assertEquals("Movie 101", top.get(0).getTitle());
+        assertEquals(7.5, top.get(0).getVoteAverage());
+        // Stored as the raw TMDB path, like the agent, whatever URL the candidate carried
+        assertEquals("/101.jpg", ReflectionTestUtils.getField(top.get(0), "posterPath"));
+        UserRecommendation.RecMovie similar = recommendation.getSections().get(1).getMovies().get(0);
+        assertEquals(201, similar.getId());
+        assertEquals("Recommended for you.", similar.getAiReason());
+
+        // Every bucket reached the model, with the prompt built for the user's genre
+        String candidates = JSON.readTree(JSON.readTree(lastRequest).path("messages").path(1).path("content").asText())
+                .path("available_candidates").toString();
+        for (String id : List.of("101", "102", "201", "401", "301")) {
+            assertTrue(candidates.contains("\"id\":\"" + id + "\""), id);
+        }
+        assertTrue(lastRequest.contains("Best in Action"));
+        // Not an Azure host: the key goes as a Bearer token
+        assertEquals("Bearer secret", lastAuthorization);
+        assertTrue(HttpRankingClient.isAzure("https://res.openai.azure.com/openai/deployments/d/chat/completions"));
+    }
+
+    @Test
+    void rankingFailureSavesNothing() {
+        status = 500;
+        RecommendationPipeline pipeline = pipeline(rankingUrl(), 5000);
+
+        RecommendationPipeline.Result result = pipeline.run("u1");
+
+        assertFalse(result.success());
+        assertTrue(result.error().contains("500"), result.error());
+        verify(recommendationRepository, never()).save(any());
+        assertEquals(1L, pipeline.getStats().get("rankingFailures"));
+    }
+
+    @Test
+    void slowBucketsAreLeftOutAfterTheGatherTimeout() {
+        tmdbDelayMs = 500;
+        when(tmdbService.fetchMoviesForGenres(anyList()))
+                .thenReturn(List.of(new GenreMovies("ACTION", List.of(new Movie("301", "Trending One", "/p")))));
+        RecommendationPipeline pipeline = pipeline(rankingUrl(), 100);
+
+        RecommendationPipeline.Result result = pipeline.run("u1");
+
+        assertTrue(result.success(), result.error());
+        assertTrue(result.gatherMillis() < 400, "gathered in " + result.gatherMillis() + "ms");
+        // Collaborative, content and latent all wait on the slow lookups
+        assertEquals(3L, pipeline.getStats().get("emptyBuckets"));
+        assertFalse(lastRequest.contains("Movie 101"));
+    }
+
+    @Test
+    void enabledOnlyWithJavaModeAndAnEndpoint() {
+        assertTrue(pipeline(rankingUrl(), 5000).isEnabled());
+        assertFalse(pipeline("", 5000).isEnabled());
+        assertFalse(new RecommendationPipeline(userRepository, collaborativeFiltering, movieEmbeddingIndex, tmdbService,
+                recommendationRepository, new HttpRankingClient(rankingUrl(), "", "m", 5000), executor,
+                "python", 5000).isEnabled());
+    }
+
+    // Run with: mvn test -Dtest=RecommendationPipelineTest -Dbenchmarks=true
+    // Both sides see 50ms per TMDB lookup and 100ms for the ranking call. The subprocess does the
+    // agent's lookups one after another, with only the stdlib: the real agent also imports
+    // pymongo/openai and connects to Mongo on every start
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void inJvmPipelineVersusSubprocessBenchmark() throws Exception {
+        tmdbDelayMs = 50;
+        rankDelayMs = 100;
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        Path script = Files.writeString(dir.resolve("agent.py"), """
+                import json, sys, urllib.request
+                base = sys.argv[1]
+                for bucket in ["collaborative", "content_based", "trending_action"]:
+                    urllib.request.urlopen(base + "/tmdb?bucket=" + bucket).read()
+                body = json.dumps({"messages": []}).encode()
+                request = urllib.request.Request(base + "/chat/completions", data=body,
+                                                 headers={"Content-Type": "application/json"})
+                json.loads(urllib.request.urlopen(request).read())
+                """);
+        int runs = 10;
+
+        RecommendationPipeline pipeline = pipeline(rankingUrl(), 5000);
+        pipeline.run("u1");
+        long javaStart = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            assertTrue(pipeline.run("u1").success());
+        }
+        double javaMillis = (System.nanoTime() - javaStart) / 1e6 / runs;
+
+        long pythonStart = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            Process process = new ProcessBuilder("python3", script.toString(), base).redirectErrorStream(true).start();
+            process.getInputStream().readAllBytes();
+            assertEquals(0, process.waitFor());
+        }
+        double pythonMillis = (System.nanoTime() - pythonStart) / 1e6 / runs;
+
+        System.out.println("[Benchmark] subprocess " + String.format("%.1f", pythonMillis) + "ms, in-JVM pipeline "
+                + String.format("%.1f", javaMillis) + "ms per user");
+        assertTrue(javaMillis < pythonMillis);
+    }
+}
@@ -0,0 +1,338 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.GenreMovies;
+import com.project.recommendation_engine.model.GenrePool;
+import com.project.recommendation_engine.model.HydratedMovie;
+import com.project.recommendation_engine.model.Movie;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.WatchProviders;
+import com.project.recommendation_engine.model.CatalogMovie;
+import com.project.recommendation_engine.repository.CachedMovieRepository;
+import com.project.recommendation_engine.repository.CatalogMovieRepository;
+import com.project.recommendation_engine.repository.GenrePoolRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TMDBServiceTest {
+
+    @Mock
+    private TmdbClient tmdbClient;
+
+    @Mock
+    private CachedMovieRepository cachedMovieRepository;
+
+    @Mock
+    private CatalogMovieRepository catalogMovieRepository;
+
+    @Mock
+    private GenrePoolRepository genrePoolRepository;
+
+    private CatalogMirror catalogMirror;
+    private GenrePoolCache genrePoolCache;
+    private WatchProviderCache watchProviderCache;
+
+    private ExecutorService executor;
+    private MovieDetailsCache movieDetailsCache;
+    private TMDBService tmdbService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(cachedMovieRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        executor = Executors.newFixedThreadPool(8);
+        movieDetailsCache = new MovieDetailsCache(cachedMovieRepository, executor, 100, 60, 45);
+        catalogMirror = new CatalogMirror(catalogMovieRepository);
+        genrePoolCache = new GenrePoolCache(genrePoolRepository);
+        watchProviderCache = new WatchProviderCache(100, 60);
+        tmdbService = new TMDBService("key", "http://tmdb.test", executor, executor, tmdbClient, movieDetailsCache,
+                new TmdbRequestCoalescer(), new TmdbHedger(executor, false, 95, 500, 50, 0.05), catalogMirror,
+                new TitleSearchIndex(1000), genrePoolCache, watchProviderCache);
+        ReflectionTestUtils.setField(tmdbService, "trendingDeadlineMs", 500L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static TMDBResponse.TmdbMovie tmdbMovie(long id) {
+        TMDBResponse.TmdbMovie movie = new TMDBResponse.TmdbMovie();
+        movie.setId(id);
+        movie.setTitle("Movie " + id);
+        return movie;
+    }
+
+    private void stubPopular(long... ids) {
+        TMDBService.TmdbMovieListResponse popular = new TMDBService.TmdbMovieListResponse();
+        popular.setResults(java.util.Arrays.stream(ids).mapToObj(TMDBServiceTest::tmdbMovie).collect(Collectors.toList()));
+        when(tmdbClient.getForObject(eq("popular:1"), contains("/movie/popular"), eq(TMDBService.TmdbMovieListResponse.class)))
+                .thenReturn(popular);
+    }
+
+    private static MovieDetails movieDetails(long id) {
+        return new MovieDetails(id, "Movie " + id, null, null, null, null, null, null,
+                List.of(), List.of(), List.of(), List.of(), null, List.of(), List.of(), List.of());
+    }
+
+    private static TmdbMovieDetailsParser.Parsed parsed(MovieDetails details) {
+        return new TmdbMovieDetailsParser.Parsed(details, null);
+    }
+
+    private void stubDetails(long id, long delayMs) {
+        when(tmdbClient.getStreaming(eq("movie:" + id), contains("/movie/" + id + "?"), eq(TmdbMovieDetailsParser.Parsed.class), any()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(delayMs);
+                    return parsed(movieDetails(id));
+                });
+    }
+
+    @Test
+    void trendingKeepsPopularityOrderWhenFetchedConcurrently() {
+        stubPopular(1, 2, 3, 4);
+        stubDetails(1, 200);
+        stubDetails(2, 10);
+        stubDetails(3, 150);
+        stubDetails(4, 0);
+
+        long start = System.currentTimeMillis();
+        List<TMDBResponse> trending = tmdbService.fetchTrendingMovies();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(List.of("1", "2", "3", "4"),
+                trending.stream().map(TMDBResponse::getTmdbID).collect(Collectors.toList()));
+        assertTrue(elapsed < 360, "Details should be fetched concurrently, took " + elapsed + "ms");
+    }
+
+    @Test
+    void trendingDropsMoviesThatMissTheDeadline() {
+        stubPopular(1, 2, 3);
+        stubDetails(1, 0);
+        stubDetails(2, 2000);
+        stubDetails(3, 0);
+
+        long start = System.currentTimeMillis();
+        List<TMDBResponse> trending = tmdbService.fetchTrendingMovies();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(List.of("1", "3"),
+                trending.stream().map(TMDBResponse::getTmdbID).collect(Collectors.toList()));
+        assertTrue(elapsed < 1500, "Slow movie should not stall the page, took " + elapsed + "ms");
+    }
+
+    @Test
+    void trendingFillsSlowMoviesFromCache() {
+        TMDBResponse cached = new TMDBResponse();
+        cached.setTmdbID("2");
+        cached.setTitle("Cached 2");
+        movieDetailsCache.put(2L, cached);
+
+        stubPopular(1, 2);
+        stubDetails(1, 0);
+
+        List<TMDBResponse> trending = tmdbService.fetchTrendingMovies();
+
+        assertEquals(2, trending.size());
+        assertEquals("Cached 2", trending.get(1).getTitle());
+        verify(tmdbClient, never()).getStreaming(eq("movie:2"), anyString(), any(), any());
+    }
+
+    @Test
+    void hydrateMoviesDedupesAndReportsStatusPerId() {
+        TMDBResponse cached = new TMDBResponse();
+        cached.setTmdbID("1");
+        movieDetailsCache.put(1L, cached);
+        stubDetails(2, 0);
+        when(tmdbClient.getStreaming(eq("movie:3"), anyString(), eq(TmdbMovieDetailsParser.Parsed.class), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        when(tmdbClient.getStreaming(eq("movie:4"), anyString(), eq(TmdbMovieDetailsParser.Parsed.class), any()))
+                .thenThrow(new TmdbUnavailableException("TMDB down", null));
+
+        Map<Long, HydratedMovie> result = tmdbService.hydrateMovies(List.of(4L, 2L, 1L, 2L, 3L));
+
+        assertEquals(List.of(4L, 2L, 1L, 3L), List.copyOf(result.keySet()));
+        assertEquals(HydratedMovie.Status.FAILED, result.get(4L).status());
+        assertEquals(HydratedMovie.Status.FETCHED, result.get(2L).status());
+        assertEquals("Movie 2", result.get(2L).movie().getTitle());
+        assertEquals(HydratedMovie.Status.CACHED, result.get(1L).status());
+        assertEquals(HydratedMovie.Status.NOT_FOUND, result.get(3L).status());
+        verify(tmdbClient, times(1)).getStreaming(eq("movie:2"), anyString(), any(), any());
+        verify(cachedMovieRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void hydrateMoviesBoundsParallelFetches() {
+        ReflectionTestUtils.setField(tmdbService, "hydrateMaxParallel", 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(tmdbClient.getStreaming(anyString(), anyString(), eq(TmdbMovieDetailsParser.Parsed.class), any()))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(30);
+                    inFlight.decrementAndGet();
+                    String key = invocation.getArgument(0);
+                    return parsed(movieDetails(Long.parseLong(key.substring("movie:".length()))));
+                });
+
+        List<Long> ids = LongStream.rangeClosed(1, 12).boxed().collect(Collectors.toList());
+        Map<Long, HydratedMovie> result = tmdbService.hydrateMovies(ids);
+
+        assertEquals(ids, List.copyOf(result.keySet()));
+        assertTrue(result.values().stream().allMatch(movie -> movie.status() == HydratedMovie.Status.FETCHED));
+        assertTrue(maxInFlight.get() <= 3, "At most 3 concurrent TMDB calls, saw " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "Misses should be fetched concurrently");
+    }
+
+    @Test
+    void mirroredMovieIsServedWithoutCallingTmdb() {
+        CatalogMovie stored = new CatalogMovie();
+        stored.setId("42");
+        stored.setDetails(movieDetails(42));
+        when(catalogMovieRepository.findById("42")).thenReturn(Optional.of(stored));
+        catalogMirror.put(new CatalogMirror.Entry(42, "Movie 42", null, 0, 1.0, false, new int[0], 0, 7));
+
+        Map<Long, HydratedMovie> result = tmdbService.hydrateMovies(List.of(42L));
+
+        assertEquals("Movie 42", result.get(42L).movie().getTitle());
+        verify(tmdbClient, never()).getStreaming(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void searchIsAnsweredLocallyOnceTheTitleWasSeen() {
+        TMDBResponse.TmdbMovie matrix = tmdbMovie(603);
+        matrix.setTitle("The Matrix");
+        TMDBService.TmdbMovieListResponse search = new TMDBService.TmdbMovieListResponse();
+        search.setResults(List.of(matrix));
+        when(tmdbClient.getForObject(eq("search:the matrix"), contains("/search/movie"), eq(TMDBService.TmdbMovieListResponse.class)))
+                .thenReturn(search);
+
+        assertEquals("603", tmdbService.searchMovie("The Matrix").getId());
+        assertEquals("603", tmdbService.searchMovie("the matrix").getId());
+        assertEquals("603", tmdbService.searchMovie("matrix").getId());
+
+        verify(tmdbClient, times(1)).getForObject(anyString(), contains("/search/movie"), any());
+    }
+
+    @Test
+    void allDigitTitleIsSearchedNotTakenForAnId() {
+        TMDBResponse.TmdbMovie war = tmdbMovie(530915);
+        war.setTitle("1917");
+        TMDBService.TmdbMovieListResponse search = new TMDBService.TmdbMovieListResponse();
+        search.setResults(List.of(war));
+        when(tmdbClient.getForObject(eq("search:1917"), contains("/search/movie"), eq(TMDBService.TmdbMovieListResponse.class)))
+                .thenReturn(search);
+        stubDetails(530915, 0);
+
+        TMDBResponse movie = tmdbService.fetchMovieByTitle("1917");
+
+        assertEquals("Movie 530915", movie.getTitle());
+        verify(tmdbClient, never()).getStreaming(eq("movie:1917"), anyString(), any(), any());
+    }
+
+    @Test
+    void genreSlatesAreSampledFromThePoolsWithoutRepeats() {
+        // 15 action and 25 adventure movies, 10 of them in both genres
+        genrePoolCache.replace(28, LongStream.range(0, 15).mapToObj(TMDBServiceTest::poolMovie).collect(Collectors.toList()));
+        genrePoolCache.replace(12, LongStream.range(5, 30).mapToObj(TMDBServiceTest::poolMovie).collect(Collectors.toList()));
+        verify(genrePoolRepository, times(2)).save(any(GenrePool.class));
+
+        List<GenreMovies> slates = tmdbService.fetchMoviesForGenres(List.of("ACTION", "ADVENTURE", "NOT-A-GENRE"));
+
+        assertEquals(List.of("ACTION", "ADVENTURE"), slates.stream().map(GenreMovies::getGenreName).collect(Collectors.toList()));
+        assertEquals(10, slates.get(0).getMovies().size());
+        assertEquals(10, slates.get(1).getMovies().size());
+        HashSet<String> ids = new HashSet<>();
+        slates.forEach(slate -> slate.getMovies().forEach(movie -> assertTrue(ids.add(movie.getId()), "Repeated " + movie.getId())));
+        verifyNoInteractions(tmdbClient);
+    }
+
+    @Test
+    void genreWithoutPoolFallsBackToTmdb() {
+        TMDBService.TmdbMovieListResponse discover = new TMDBService.TmdbMovieListResponse();
+        discover.setResults(LongStream.range(0, 20).mapToObj(id -> {
+            TMDBResponse.TmdbMovie movie = tmdbMovie(id);
+            movie.setPosterPath("/p" + id + ".jpg");
+            return movie;
+        }).collect(Collectors.toList()));
+        when(tmdbClient.getForObject(eq("discover:27"), contains("/discover/movie"), eq(TMDBService.TmdbMovieListResponse.class)))
+                .thenReturn(discover);
+
+        List<GenreMovies> slates = tmdbService.fetchMoviesForGenres(List.of("HORROR"));
+
+        assertEquals(10, slates.get(0).getMovies().size());
+        assertEquals(20, tmdbService.fetchGenrePool(27).size());
+    }
+
+    private static Movie poolMovie(long id) {
+        return new Movie(String.valueOf(id), "Movie " + id, "/posters/w342/p" + id + ".jpg");
+    }
+
+    @Test
+    void watchProvidersAreServedForTheVisitorsRegionFromOneDetailsCall() {
+        MovieDetails.ProviderRef netflix = new MovieDetails.ProviderRef("Netflix", "/netflix.png");
+        WatchProviders providers = new WatchProviders(Map.of(
+                "US", new WatchProviders.Region(List.of(netflix), List.of(), List.of()),
+                "DE", new WatchProviders.Region(List.of(), List.of(new MovieDetails.ProviderRef("Sky", "/sky.png")), List.of(netflix))),
+                System.currentTimeMillis());
+        when(tmdbClient.getStreaming(eq("movie:9"), contains("/movie/9?"), eq(TmdbMovieDetailsParser.Parsed.class), any()))
+                .thenReturn(new TmdbMovieDetailsParser.Parsed(movieDetails(9), providers));
+
+        TMDBResponse movie = tmdbService.fetchRawMovieResponse("9");
+        TMDBResponse german = tmdbService.withWatchProviders(movie, "DE");
+        TMDBResponse french = tmdbService.withWatchProviders(movie, "FR");
+
+        assertEquals(List.of("Sky"), german.getRentProviders().stream().map(TMDBResponse.Provider::getName).toList());
+        assertEquals("https://www.themoviedb.org/movie/9/watch?locale=DE", german.getWatchLink());
+        assertTrue(german.getFlatrateProviders().isEmpty());
+        assertTrue(french.getRentProviders().isEmpty());
+        assertNull(french.getWatchLink());
+        assertEquals("Movie 9", french.getTitle());
+        // The same provider maps to one shared view wherever it appears
+        assertSame(tmdbService.withWatchProviders(movie, "US").getFlatrateProviders().get(0),
+                german.getBuyProviders().get(0));
+        verify(tmdbClient, times(1)).getStreaming(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void refreshWatchProvidersFetchesMoviesWithoutCachedProviders() {
+        TMDBResponse cached = new TMDBResponse();
+        cached.setTmdbID("11");
+        cached.setTitle("Cached 11");
+        assertSame(cached, tmdbService.withWatchProviders(cached, "US"));
+
+        WatchProviders fetched = new WatchProviders(Map.of("GB", new WatchProviders.Region(
+                List.of(new MovieDetails.ProviderRef("BBC iPlayer", "/bbc.png")), List.of(), List.of())),
+                System.currentTimeMillis());
+        when(tmdbClient.getStreaming(eq("providers:11"), contains("/movie/11/watch/providers"), eq(WatchProviders.class), any()))
+                .thenReturn(fetched);
+
+        tmdbService.refreshWatchProviders();
+
+        assertEquals("BBC iPlayer", tmdbService.withWatchProviders(cached, "GB").getFlatrateProviders().get(0).getName());
+        assertEquals(0, watchProviderCache.getStats().get("refreshQueue"));
+    }
+}
@@ -0,0 +1,167 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitlePrefixTrieTest {
+
+    private static TitlePrefixTrie trie(int topK) {
+        return new TitlePrefixTrie.Builder(topK)
+                .add(603, "The Matrix", "/matrix.jpg", 90)
+                .add(604, "The Matrix Reloaded", "/reloaded.jpg", 40)
+                .add(605, "The Matrix Revolutions", null, 35)
+                .add(10681, "Mary Poppins", null, 20)
+                .add(194, "Amélie", null, 30)
+                .add(1891, "Star Wars: The Empire Strikes Back", null, 60)
+                .add(2164, "Stargate", null, 25)
+                .add(11, "Star Wars", null, 80)
+                .build();
+    }
+
+    private static List<Long> complete(TitlePrefixTrie trie, String prefix, int limit) {
+        int[] out = new int[limit];
+        int found = trie.complete(prefix, out);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < found; i++) {
+            ids.add(trie.tmdbId(out[i]));
+        }
+        return ids;
+    }
+
+    @Test
+    void completesByPopularity() {
+        TitlePrefixTrie trie = trie(10);
+
+        assertEquals(List.of(603L, 604L, 605L), complete(trie, "the mat", 10));
+        assertEquals(List.of(603L, 604L, 605L, 10681L), complete(trie, "ma", 10));
+        assertEquals(List.of(603L, 604L), complete(trie, "ma", 2));
+        assertEquals(List.of(604L, 605L), complete(trie, "the matrix re", 10));
+        assertTrue(complete(trie, "matrixx", 10).isEmpty());
+    }
+
+    @Test
+    void leadingArticleIsOptionalAndCountedOnce() {
+        TitlePrefixTrie trie = trie(10);
+
+        assertEquals(List.of(603L, 604L, 605L), complete(trie, "Matrix", 10));
+        // Both keys of every Matrix movie sit under the root
+        assertEquals(8, complete(trie, "", 10).size());
+    }
+
+    @Test
+    void foldsCaseAccentsAndPunctuation() {
+        TitlePrefixTrie trie = trie(10);
+
+        assertEquals(List.of(194L), complete(trie, "AME", 10));
+        assertEquals(List.of(194L), complete(trie, "amé", 10));
+        assertEquals(List.of(11L, 1891L), complete(trie, "star  wars", 10));
+        assertEquals(List.of(1891L), complete(trie, "star wars: the", 10));
+    }
+
+    @Test
+    void trailingSpaceEndsTheWord() {
+        TitlePrefixTrie trie = trie(10);
+
+        assertEquals(List.of(11L, 1891L, 2164L), complete(trie, "star", 10));
+        assertEquals(List.of(11L, 1891L), complete(trie, "star ", 10));
+    }
+
+    @Test
+    void topKIsKeptPerNode() {
+        TitlePrefixTrie trie = trie(2);
+
+        assertEquals(List.of(603L, 604L), complete(trie, "the matrix", 10));
+        assertEquals(List.of(11L, 1891L), complete(trie, "s", 10));
+    }
+
+    @Test
+    void autocompleteRebuildsOnlyWhenTheIndexChanged() {
+        TitleSearchIndex index = new TitleSearchIndex(1000);
+        TitleAutocomplete autocomplete = new TitleAutocomplete(index, 10);
+        index.add(603, "The Matrix", "/matrix.jpg", 90.0);
+
+        autocomplete.rebuildIfChanged();
+        List<Movie> suggestions = autocomplete.suggest("matr", 5);
+        assertEquals(1, suggestions.size());
+        assertEquals("603", suggestions.get(0).getId());
+        assertEquals("/posters/w342/matrix.jpg", suggestions.get(0).getPosterUrl());
+
+        index.add(604, "The Matrix Reloaded", null, 40.0);
+        assertEquals(1, autocomplete.suggest("matr", 5).size());
+        autocomplete.rebuildIfChanged();
+        assertEquals(2, autocomplete.suggest("matr", 5).size());
+        assertTrue(autocomplete.suggest(" ", 5).isEmpty());
+    }
+
+    // Lookups per second on one thread over 200k titles, and bytes allocated per lookup.
+    // Run with: mvn test -Dtest=TitlePrefixTrieTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void lookupThroughputBenchmark() {
+        String[] common = {"the", "of", "a", "and", "in", "man", "love", "night", "last", "king"};
+        Random random = new Random(42);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int n = 3 + random.nextInt(6); n > 0; n--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary[i] = word.toString();
+        }
+        String[] titles = new String[200_000];
+        TitlePrefixTrie.Builder builder = new TitlePrefixTrie.Builder(10);
+        for (int i = 0; i < titles.length; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 1 + random.nextInt(4); w > 0; w--) {
+                title.append(random.nextInt(3) == 0 ? common[random.nextInt(common.length)]
+                        : vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            titles[i] = title.toString().trim();
+            builder.add(i, titles[i], null, random.nextDouble() * 100);
+        }
+        long buildStart = System.nanoTime();
+        TitlePrefixTrie trie = builder.build();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        // What a user types: the first few characters of a title
+        String[] prefixes = new String[10_000];
+        for (int i = 0; i < prefixes.length; i++) {
+            String title = titles[random.nextInt(titles.length)];
+            prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(8)));
+        }
+        int[] out = new int[10];
+        long sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            sink += trie.complete(prefixes[i % prefixes.length], out);
+        }
+
+        int lookups = 1_000_000;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            sink += trie.complete(prefixes[i % prefixes.length], out);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double perSecond = lookups / (nanos / 1e9);
+        System.out.printf("Autocomplete over %,d titles (%,d nodes, built in %d ms): %,.0f lookups/s on one thread, "
+                        + "%.2f B allocated/lookup (%d)%n",
+                trie.size(), trie.nodeCount(), buildMillis, perSecond, (double) allocated / lookups, sink % 10);
+        assertTrue(perSecond > 100_000, "Should serve well over thousands of lookups per second");
+        assertTrue(allocated < 64 * 1024, "Lookups should not allocate: " + allocated + " bytes");
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,129 @@
+package com.project.recommendation_engine.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleSearchIndexTest {
+
+    private static List<Long> ids(List<TitleSearchIndex.Hit> hits) {
+        return hits.stream().map(TitleSearchIndex.Hit::tmdbId).collect(Collectors.toList());
+    }
+
+    @Test
+    void closestTitleWinsAndPopularityBreaksTies() {
+        TitleSearchIndex index = new TitleSearchIndex(1000);
+        index.add(603, "The Matrix", "/matrix.jpg", 80.0);
+        index.add(604, "The Matrix Reloaded", null, 40.0);
+        index.add(605, "The Matrix Revolutions", null, 35.0);
+        index.add(550, "Fight Club", null, 60.0);
+
+        List<TitleSearchIndex.Hit> hits = index.search("matrix", 3);
+
+        assertEquals(List.of(603L, 604L, 605L), ids(hits));
+        assertTrue(hits.get(0).score() >= 0.75);
+        assertEquals("/matrix.jpg", hits.get(0).posterPath());
+    }
+
+    @Test
+    void ignoresCaseAccentsAndPunctuation() {
+        TitleSearchIndex index = new TitleSearchIndex(1000);
+        index.add(194, "Amélie", null, 20.0);
+        index.add(680, "Pulp Fiction", null, 70.0);
+
+        assertEquals(List.of(194L), ids(index.search("AMELIE!", 1)));
+        assertEquals(1.0, index.search("pulp-fiction", 1).get(0).score(), 1e-9);
+    }
+
+    @Test
+    void renamedMovieIsOnlyFoundByItsNewTitle() {
+        TitleSearchIndex index = new TitleSearchIndex(1000);
+        index.add(1, "Working Title", null, 1.0);
+        index.add(1, "Final Name", null, 1.0);
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("working title", 5).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("final name", 5)));
+    }
+
+    @Test
+    void respectsMaxTitles() {
+        TitleSearchIndex index = new TitleSearchIndex(2);
+        index.add(1, "One", null, 1.0);
+        index.add(2, "Two", null, 1.0);
+        index.add(3, "Three", null, 1.0);
+
+        assertEquals(2, index.size());
+        assertTrue(index.search("three", 1).isEmpty() || index.search("three", 1).get(0).tmdbId() != 3);
+    }
+
+    @Test
+    void repeatedRenamesAreCompactedAway() {
+        TitleSearchIndex index = new TitleSearchIndex(10);
+        for (long id = 1; id <= 8; id++) {
+            index.add(id, "Movie " + id, null, 1.0);
+        }
+        // A rescan that sees new titles for the same movies on every run
+        for (int run = 1; run <= 50; run++) {
+            for (long id = 1; id <= 8; id++) {
+                index.add(id, "Movie " + id + " cut " + run, null, 1.0);
+            }
+        }
+
+        assertEquals(8, index.size());
+        assertTrue((int) index.getStats().get("retiredTitles") <= 2);
+        assertTrue((long) index.getStats().get("compactions") > 0);
+        assertEquals(List.of(3L), ids(index.search("movie 3 cut 50", 1)));
+        assertTrue(index.search("movie 3 cut 49", 1).get(0).score() < 1.0);
+        // Room is left for new titles up to the cap
+        index.add(9, "Ninth", null, 1.0);
+        assertEquals(List.of(9L), ids(index.search("ninth", 1)));
+    }
+
+    // Run with: mvn test -Dtest=TitleSearchIndexTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void searchLatencyBenchmark() {
+        // 100k titles of 1-4 words: a few very common words ("the", "of", ...) plus a long tail
+        String[] common = {"the", "of", "a", "and", "in", "man", "love", "night", "last", "king"};
+        Random random = new Random(42);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int n = 3 + random.nextInt(6); n > 0; n--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary[i] = word.toString();
+        }
+        String[] titles = new String[100_000];
+        TitleSearchIndex index = new TitleSearchIndex(200_000);
+        for (int i = 0; i < titles.length; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 1 + random.nextInt(4); w > 0; w--) {
+                String word = random.nextInt(3) == 0 ? common[random.nextInt(common.length)]
+                        : vocabulary[random.nextInt(vocabulary.length)];
+                title.append(word).append(' ');
+            }
+            titles[i] = title.toString().trim();
+            index.add(i, titles[i], null, random.nextDouble() * 100);
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            index.search(titles[random.nextInt(titles.length)], 5);
+        }
+        int queries = 5_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            index.search(titles[random.nextInt(titles.length)], 5);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / queries;
+
+        System.out.printf("Title search over %,d titles: %.1f us/query%n", index.size(), micros);
+        assertTrue(micros < 1000, "Search should stay under a millisecond");
+    }
+}
@@ -0,0 +1,139 @@
+package com.project.recommendation_engine.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs TmdbClient against a local stub server that can be switched into failure mode
+class TmdbCircuitBreakerTest {
+
+    private HttpServer server;
+    private TmdbClient tmdbClient;
+    private TmdbCircuitBreaker circuitBreaker;
+    private String url;
+
+    private final AtomicBoolean failing = new AtomicBoolean(false);
+    private final AtomicInteger hits = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/movie/popular", exchange -> {
+            hits.incrementAndGet();
+            byte[] body = failing.get()
+                    ? "{\"status_message\":\"boom\"}".getBytes(StandardCharsets.UTF_8)
+                    : "{\"page\":1,\"results\":[{\"id\":550,\"title\":\"Fight Club\"}]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(failing.get() ? 503 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // Cut off mid-object
+        server.createContext("/movie/broken", exchange -> {
+            byte[] body = "{\"id\":550,\"title\":\"Fight".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/movie/popular";
+
+        circuitBreaker = new TmdbCircuitBreaker(3, 200);
+        tmdbClient = new TmdbClient(new TmdbRateLimiter(1000, 8, 8, 500), circuitBreaker, 100,
+                4, 4, 500, 500, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tmdbClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void servesStaleResponseWhileTmdbIsFailing() {
+        Map<?, ?> fresh = tmdbClient.getForObject("popular:1", url, Map.class);
+        failing.set(true);
+
+        Map<?, ?> stale = tmdbClient.getForObject("popular:1", url, Map.class);
+
+        assertEquals(fresh, stale);
+        assertEquals(1L, tmdbClient.getCircuitBreakerStats().get("staleServed"));
+    }
+
+    @Test
+    void failsFastWithoutStaleCopy() {
+        failing.set(true);
+
+        assertThrows(TmdbUnavailableException.class, () -> tmdbClient.getForObject("popular:2", url, Map.class));
+    }
+
+    @Test
+    void opensAfterThresholdAndStopsCallingTmdb() {
+        tmdbClient.getForObject("popular:1", url, Map.class);
+        failing.set(true);
+
+        for (int i = 0; i < 3; i++) {
+            tmdbClient.getForObject("popular:1", url, Map.class);
+        }
+        assertEquals(TmdbCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        int hitsWhenOpened = hits.get();
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(tmdbClient.getForObject("popular:1", url, Map.class));
+        }
+        assertEquals(hitsWhenOpened, hits.get(), "Open circuit must not reach TMDB");
+    }
+
+    @Test
+    void halfOpenProbeClosesCircuitWhenTmdbRecovers() throws Exception {
+        tmdbClient.getForObject("popular:1", url, Map.class);
+        failing.set(true);
+        for (int i = 0; i < 3; i++) {
+            tmdbClient.getForObject("popular:1", url, Map.class);
+        }
+        assertEquals(TmdbCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        failing.set(false);
+        Thread.sleep(250);
+
+        tmdbClient.getForObject("popular:1", url, Map.class);
+        assertEquals(TmdbCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void failedProbeReopensCircuit() throws Exception {
+        failing.set(true);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(TmdbUnavailableException.class, () -> tmdbClient.getForObject("popular:1", url, Map.class));
+        }
+        Thread.sleep(250);
+
+        assertThrows(TmdbUnavailableException.class, () -> tmdbClient.getForObject("popular:1", url, Map.class));
+        assertEquals(TmdbCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2L, circuitBreaker.getStats().get("timesOpened"));
+    }
+
+    @Test
+    void malformedBodiesDoNotCountAsOutages() {
+        String broken = "http://127.0.0.1:" + server.getAddress().getPort() + "/movie/broken";
+        int limitBefore = (Integer) tmdbClient.getRateLimiterStats().get("concurrencyLimit");
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(TmdbParseException.class, () -> tmdbClient.getStreaming("movie:550", broken,
+                    Object.class, body -> TmdbMovieDetailsParser.parse(body, "US")));
+        }
+
+        assertEquals(TmdbCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getStats().get("consecutiveFailures"));
+        assertTrue((Integer) tmdbClient.getRateLimiterStats().get("concurrencyLimit") >= limitBefore);
+    }
+}
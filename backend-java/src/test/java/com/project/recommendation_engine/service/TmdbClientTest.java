@@ -0,0 +1,55 @@
+package com.project.recommendation_engine.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmdbClientTest {
+
+    private HttpServer server;
+    private TmdbClient tmdbClient;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/movie/1", exchange -> {
+            byte[] body = "{\"id\":1,\"title\":\"Heat\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        tmdbClient = new TmdbClient(new TmdbRateLimiter(100, 4, 4, 500), new TmdbCircuitBreaker(5, 30000), 100,
+                4, 2, 1000, 1000, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tmdbClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void connectionIsReturnedToPoolAndReused() {
+        for (int i = 0; i < 5; i++) {
+            Map<?, ?> movie = tmdbClient.getForObject(baseUrl + "/movie/1", Map.class);
+            assertEquals("Heat", movie.get("title"));
+        }
+
+        Map<String, Integer> stats = tmdbClient.getPoolStats();
+        assertEquals(0, stats.get("leased"));
+        assertEquals(0, stats.get("pending"));
+        assertEquals(1, stats.get("available")); // Same keep-alive connection for every call
+        assertEquals(4, stats.get("max"));
+    }
+}
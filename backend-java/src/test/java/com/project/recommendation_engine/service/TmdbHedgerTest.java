@@ -0,0 +1,134 @@
+package com.project.recommendation_engine.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmdbHedgerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void slowPrimaryIsBeatenByHedge() {
+        TmdbHedger hedger = new TmdbHedger(executor, true, 95, 50, 10, 0.05);
+        AtomicInteger attempt = new AtomicInteger();
+
+        long start = System.currentTimeMillis();
+        String result = hedger.execute(() -> {
+            if (attempt.incrementAndGet() == 1) {
+                sleep(1000); // Straggler
+                return "primary";
+            }
+            return "hedge";
+        });
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals("hedge", result);
+        assertTrue(elapsed < 500, "Hedge should answer long before the straggler, took " + elapsed);
+        assertEquals(1L, hedger.getStats().get("hedgesFired"));
+        assertEquals(1L, hedger.getStats().get("hedgesWon"));
+    }
+
+    @Test
+    void fastCallsAreNeverHedged() {
+        TmdbHedger hedger = new TmdbHedger(executor, true, 95, 200, 10, 0.05);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) hedger.execute(() -> { calls.incrementAndGet(); return calls.get() - 1; }));
+        }
+
+        assertEquals(50, calls.get());
+        assertEquals(0L, hedger.getStats().get("hedgesFired"));
+    }
+
+    @Test
+    void budgetCapsHedgesDuringAnOutage() {
+        TmdbHedger hedger = new TmdbHedger(executor, true, 95, 20, 10, 0.05);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Every call is slow: without a budget this would double TMDB traffic
+        for (int i = 0; i < 20; i++) {
+            hedger.execute(() -> { calls.incrementAndGet(); sleep(40); return "slow"; });
+        }
+
+        long fired = (long) hedger.getStats().get("hedgesFired");
+        assertTrue(fired <= 2, "Only ~5% of calls may be hedged, fired " + fired);
+        assertEquals(20 + fired, calls.get());
+        assertEquals(20 - fired, hedger.getStats().get("hedgesSkippedByBudget"));
+        assertEquals(0L, hedger.getStats().get("hedgesRejected"));
+    }
+
+    @Test
+    void rejectedHedgeGivesItsCreditBack() {
+        // Rejects every hedge for the first two calls, then has room again
+        AtomicInteger submitted = new AtomicInteger();
+        Executor saturatedThenFree = task -> {
+            int n = submitted.getAndIncrement();
+            if (n == 1 || n == 3) {
+                throw new RejectedExecutionException("Hedge pool full");
+            }
+            executor.execute(task);
+        };
+        TmdbHedger hedger = new TmdbHedger(saturatedThenFree, true, 95, 20, 10, 0.05);
+
+        for (int i = 0; i < 3; i++) {
+            hedger.execute(() -> { sleep(40); return "slow"; });
+        }
+
+        // The one starting credit survived both rejections and paid for the third hedge
+        assertEquals(2L, hedger.getStats().get("hedgesRejected"));
+        assertEquals(0L, hedger.getStats().get("hedgesSkippedByBudget"));
+        assertEquals(1L, hedger.getStats().get("hedgesFired"));
+    }
+
+    @Test
+    void saturatedPoolIsCountedApartFromTheBudget() {
+        // Takes the primary call, then has no thread left for the hedge
+        AtomicInteger submitted = new AtomicInteger();
+        Executor oneThread = task -> {
+            if (submitted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("Hedge pool full");
+            }
+            executor.execute(task);
+        };
+        TmdbHedger hedger = new TmdbHedger(oneThread, true, 95, 20, 10, 0.05);
+
+        assertEquals("slow", hedger.execute(() -> { sleep(40); return "slow"; }));
+
+        assertEquals(0L, hedger.getStats().get("hedgesFired"));
+        assertEquals(0L, hedger.getStats().get("hedgesSkippedByBudget"));
+        assertEquals(1L, hedger.getStats().get("hedgesRejected"));
+    }
+
+    @Test
+    void failsOnlyWhenBothCallsFail() {
+        TmdbHedger hedger = new TmdbHedger(executor, true, 95, 20, 10, 0.05);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> hedger.execute(() -> {
+            sleep(50);
+            throw new IllegalStateException("TMDB 500");
+        }));
+        assertEquals("TMDB 500", error.getMessage());
+    }
+}
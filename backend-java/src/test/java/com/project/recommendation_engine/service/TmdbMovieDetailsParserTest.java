@@ -0,0 +1,224 @@
+package com.project.recommendation_engine.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.TMDBResponse;
+import com.project.recommendation_engine.model.WatchProviders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmdbMovieDetailsParserTest {
+
+    private static MovieDetails parse(String json) throws IOException {
+        return TmdbMovieDetailsParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "US");
+    }
+
+    @Test
+    void keepsOnlyWhatTheMoviePageShows() throws IOException {
+        MovieDetails details = parse(movieJson(550, 40, 120, 30));
+
+        assertEquals(550, details.id());
+        assertEquals("Movie 550", details.title());
+        assertEquals("/poster550.jpg", details.posterPath());
+        assertEquals("1999-10-15", details.releaseDate());
+        assertEquals(8.4, details.voteAverage());
+        assertEquals(List.of("Drama", "Thriller"), details.genres());
+        assertEquals(List.of(18, 53), details.genreIds());
+        assertEquals(26280, details.voteCount());
+        assertEquals(List.of("Actor 0", "Actor 1", "Actor 2", "Actor 3", "Actor 4"), details.topCast());
+        assertEquals(List.of("Crew 0", "Crew 60"), details.directors());
+
+        assertEquals("https://www.themoviedb.org/movie/550/watch?locale=US", details.watchLink());
+        assertEquals(List.of(new MovieDetails.ProviderRef("US Stream 0", "/logo-US-0.png"),
+                new MovieDetails.ProviderRef("US Stream 1", "/logo-US-1.png")), details.flatrate());
+        assertEquals(1, details.rent().size());
+        assertTrue(details.buy().isEmpty());
+    }
+
+    @Test
+    void castIsOrderedByBillingNotByPosition() throws IOException {
+        String json = "{\"id\":1,\"credits\":{\"cast\":["
+                + "{\"name\":\"Third\",\"order\":2},{\"name\":\"Extra\",\"order\":9},"
+                + "{\"name\":\"First\",\"order\":0},{\"order\":1,\"name\":\"Second\"}],\"crew\":[]}}";
+
+        assertEquals(List.of("First", "Second", "Third"), parse(json).topCast());
+    }
+
+    @Test
+    void missingSectionsGiveEmptyLists() throws IOException {
+        MovieDetails details = parse("{\"id\":7,\"title\":\"Bare\",\"vote_average\":null,\"genres\":null}");
+
+        assertEquals("Bare", details.title());
+        assertNull(details.voteAverage());
+        assertTrue(details.genres().isEmpty());
+        assertTrue(details.directors().isEmpty());
+        assertTrue(details.topCast().isEmpty());
+        assertNull(details.watchLink());
+        assertTrue(details.flatrate().isEmpty());
+    }
+
+    @Test
+    void keepsEveryRegionWhenAskedTo() throws IOException {
+        TmdbMovieDetailsParser.Parsed parsed = TmdbMovieDetailsParser.parseWithProviders(
+                new ByteArrayInputStream(movieJson(550, 5, 5, 30).getBytes(StandardCharsets.UTF_8)), "US");
+
+        assertEquals("Movie 550", parsed.details().title());
+        assertEquals(2, parsed.details().flatrate().size());
+        assertEquals(30, parsed.providers().regions().size());
+        assertEquals(parsed.details().flatrate(), parsed.providers().region("US").flatrate());
+        assertEquals(List.of(new MovieDetails.ProviderRef("AB Stream 0", "/logo-AB-0.png"),
+                new MovieDetails.ProviderRef("AB Stream 1", "/logo-AB-1.png")), parsed.providers().region("AB").flatrate());
+        assertEquals(1, parsed.providers().region("AB").rent().size());
+
+        WatchProviders standalone = TmdbMovieDetailsParser.parseProviders(
+                new ByteArrayInputStream(providersJson(550, 3).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, standalone.regions().size());
+        assertEquals("US Stream 1", standalone.region("US").flatrate().get(1).name());
+
+        assertNull(TmdbMovieDetailsParser.parseWithProviders(
+                new ByteArrayInputStream("{\"id\":1}".getBytes(StandardCharsets.UTF_8)), "US").providers());
+    }
+
+    @Test
+    void rejectsNonObjectBody() {
+        assertThrows(IOException.class, () -> parse("[]"));
+    }
+
+    // Bytes allocated per movie: the old path bound /movie/{id}?append_to_response=credits and
+    // /movie/{id}/watch/providers to full object graphs; the new path streams one response.
+    // Run with: mvn test -Dtest=TmdbMovieDetailsParserTest -Dbenchmarks=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void allocationPerMovieBenchmark() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        byte[] combined = movieJson(550, 80, 250, 50).getBytes(StandardCharsets.UTF_8);
+        byte[] detailsOnly = movieJson(550, 80, 250, 0).getBytes(StandardCharsets.UTF_8);
+        byte[] providersOnly = providersJson(550, 50).getBytes(StandardCharsets.UTF_8);
+        int iterations = 2_000;
+
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(detailsOnly, TMDBResponse.TmdbMovie.class);
+            mapper.readValue(providersOnly, LegacyProviderListResponse.class);
+            TmdbMovieDetailsParser.parse(new ByteArrayInputStream(combined), "US");
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(detailsOnly, TMDBResponse.TmdbMovie.class);
+            mapper.readValue(providersOnly, LegacyProviderListResponse.class);
+        }
+        long legacyPerMovie = (allocatedBytes() - before) / iterations;
+
+        before = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            TmdbMovieDetailsParser.parse(new ByteArrayInputStream(combined), "US");
+        }
+        long streamingPerMovie = (allocatedBytes() - before) / iterations;
+
+        System.out.printf("Movie hydration allocation: object mapping %,d B/movie, streaming %,d B/movie (%.1fx less)%n",
+                legacyPerMovie, streamingPerMovie, (double) legacyPerMovie / streamingPerMovie);
+        assertTrue(streamingPerMovie < legacyPerMovie);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Shape of the removed /watch/providers mapping, kept here as the benchmark baseline
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class LegacyProviderListResponse {
+        @JsonProperty("results")
+        public Map<String, LegacyRegionInfo> results;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class LegacyRegionInfo {
+        @JsonProperty("link")
+        public String link;
+        @JsonProperty("flatrate")
+        public List<LegacyProviderItem> flatrate;
+        @JsonProperty("rent")
+        public List<LegacyProviderItem> rent;
+        @JsonProperty("buy")
+        public List<LegacyProviderItem> buy;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class LegacyProviderItem {
+        @JsonProperty("provider_name")
+        public String providerName;
+        @JsonProperty("logo_path")
+        public String logoPath;
+    }
+
+    // Roughly the shape TMDB returns; every 60th crew member is a director
+    private static String movieJson(long id, int cast, int crew, int regions) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"adult\":false,\"backdrop_path\":\"/backdrop.jpg\",\"belongs_to_collection\":null,")
+                .append("\"budget\":63000000,\"genres\":[{\"id\":18,\"name\":\"Drama\"},{\"id\":53,\"name\":\"Thriller\"}],")
+                .append("\"homepage\":\"http://example.com\",\"id\":").append(id).append(",\"imdb_id\":\"tt0137523\",")
+                .append("\"original_language\":\"en\",\"original_title\":\"Movie ").append(id).append("\",")
+                .append("\"overview\":\"A ticking-time-bomb insomniac and a slippery soap salesman channel primal male aggression.\",")
+                .append("\"popularity\":61.416,\"poster_path\":\"/poster").append(id).append(".jpg\",")
+                .append("\"production_companies\":[{\"id\":508,\"logo_path\":\"/logo.png\",\"name\":\"Regency\",\"origin_country\":\"US\"}],")
+                .append("\"release_date\":\"1999-10-15\",\"revenue\":100853753,\"runtime\":139,")
+                .append("\"spoken_languages\":[{\"english_name\":\"English\",\"iso_639_1\":\"en\",\"name\":\"English\"}],")
+                .append("\"status\":\"Released\",\"tagline\":\"Mischief. Mayhem. Soap.\",\"title\":\"Movie ").append(id).append("\",")
+                .append("\"video\":false,\"vote_average\":8.4,\"vote_count\":26280,\"credits\":{\"cast\":[");
+        for (int i = 0; i < cast; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"adult\":false,\"gender\":2,\"id\":").append(1000 + i)
+                    .append(",\"known_for_department\":\"Acting\",\"name\":\"Actor ").append(i)
+                    .append("\",\"original_name\":\"Actor ").append(i).append("\",\"popularity\":12.5,")
+                    .append("\"profile_path\":\"/actor").append(i).append(".jpg\",\"cast_id\":").append(i)
+                    .append(",\"character\":\"Character ").append(i).append("\",\"credit_id\":\"52fe4250c3a36847f80149f3\",")
+                    .append("\"order\":").append(i).append('}');
+        }
+        json.append("],\"crew\":[");
+        for (int i = 0; i < crew; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"adult\":false,\"gender\":2,\"id\":").append(5000 + i)
+                    .append(",\"known_for_department\":\"Crew\",\"name\":\"Crew ").append(i)
+                    .append("\",\"original_name\":\"Crew ").append(i).append("\",\"popularity\":3.2,")
+                    .append("\"profile_path\":null,\"credit_id\":\"55422f369251414aee003e4b\",")
+                    .append("\"department\":\"Directing\",\"job\":\"").append(i % 60 == 0 ? "Director" : "Assistant")
+                    .append("\"}");
+        }
+        json.append("]}");
+        if (regions > 0) {
+            json.append(",\"watch/providers\":").append(providersJson(id, regions));
+        }
+        return json.append('}').toString();
+    }
+
+    private static String providersJson(long id, int regions) {
+        StringBuilder json = new StringBuilder("{\"results\":{");
+        for (int r = 0; r < regions; r++) {
+            String region = r == 0 ? "US" : String.valueOf((char) ('A' + r / 26)) + (char) ('A' + r % 26);
+            if (r > 0) json.append(',');
+            json.append('"').append(region).append("\":{\"link\":\"https://www.themoviedb.org/movie/")
+                    .append(id).append("/watch?locale=").append(region).append("\",");
+            json.append("\"flatrate\":[");
+            for (int i = 0; i < 2; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"logo_path\":\"/logo-").append(region).append('-').append(i)
+                        .append(".png\",\"provider_id\":").append(i).append(",\"provider_name\":\"")
+                        .append(region).append(" Stream ").append(i).append("\",\"display_priority\":").append(i).append('}');
+            }
+            json.append("],\"rent\":[{\"logo_path\":\"/rent.png\",\"provider_id\":2,\"provider_name\":\"Rent\",\"display_priority\":5}]}");
+        }
+        return json.append("}}").toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.project.recommendation_engine.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmdbRateLimiterTest {
+
+    @Test
+    void concurrencyLimitGrowsOnSuccessAndHalvesOnThrottle() {
+        TmdbRateLimiter limiter = new TmdbRateLimiter(1000, 4, 32, 200);
+
+        for (int i = 0; i < 40; i++) {
+            limiter.acquire();
+            limiter.onSuccess();
+        }
+        int grown = (int) limiter.getStats().get("concurrencyLimit");
+        assertTrue(grown > 4, "Limit should grow after successes, was " + grown);
+
+        limiter.acquire();
+        limiter.onThrottled(Duration.ZERO);
+        assertEquals(grown / 2, (int) limiter.getStats().get("concurrencyLimit"));
+        assertEquals(1L, limiter.getStats().get("throttled"));
+    }
+
+    @Test
+    void callerFailsFastWhenRetryAfterExceedsWaitBudget() {
+        TmdbRateLimiter limiter = new TmdbRateLimiter(1000, 4, 32, 200);
+
+        limiter.acquire();
+        limiter.onThrottled(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertThrows(TmdbRateLimitException.class, limiter::acquire);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(waitedMs < 100, "Should not wait for a pause longer than the budget, waited " + waitedMs);
+        assertEquals(1L, limiter.getStats().get("rejected"));
+    }
+
+    @Test
+    void callerQueuesForAFreeSlot() throws Exception {
+        TmdbRateLimiter limiter = new TmdbRateLimiter(1000, 1, 1, 1000);
+        limiter.acquire();
+
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(limiter::acquire);
+        while ((int) limiter.getStats().get("queued") == 0) {
+            Thread.sleep(5);
+        }
+        assertFalse(queued.isDone());
+
+        limiter.onSuccess();
+        queued.get(1, TimeUnit.SECONDS);
+        assertEquals(1, limiter.getStats().get("inFlight"));
+    }
+
+    @Test
+    void tokenBucketSpacesOutRequests() {
+        TmdbRateLimiter limiter = new TmdbRateLimiter(20, 32, 32, 2000);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {   // burst of 10, then 20/s
+            limiter.acquire();
+            limiter.onSuccess();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs >= 400, "10 calls past the burst should take ~500ms, took " + elapsedMs);
+    }
+
+    @Test
+    void retryAfterAcceptsSecondsAndDefaults() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3");
+        assertEquals(Duration.ofSeconds(3), TmdbClient.parseRetryAfter(headers));
+
+        assertEquals(Duration.ofSeconds(1), TmdbClient.parseRetryAfter(new HttpHeaders()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.recommendation_engine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmdbRequestCoalescerTest {
+
+    private final TmdbRequestCoalescer coalescer = new TmdbRequestCoalescer();
+
+    @Test
+    void concurrentCallersForSameKeyShareOneCall() throws Exception {
+        AtomicInteger httpCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> coalescer.execute("movie:603", () -> {
+                httpCalls.incrementAndGet();
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "The Matrix";
+            })));
+        }
+
+        // Let every caller reach the coalescer before the leader returns
+        while (coalescer.getStats().get("coalesced") < 7) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("The Matrix", result.get(2, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, httpCalls.get());
+        assertEquals(1L, coalescer.getStats().get("executed"));
+        assertEquals(7L, coalescer.getStats().get("coalesced"));
+        assertEquals(0L, coalescer.getStats().get("inFlight"));
+    }
+
+    @Test
+    void sequentialCallsAreNotCached() {
+        AtomicInteger httpCalls = new AtomicInteger();
+
+        coalescer.execute("search:heat", httpCalls::incrementAndGet);
+        coalescer.execute("search:heat", httpCalls::incrementAndGet);
+
+        assertEquals(2, httpCalls.get());
+    }
+
+    @Test
+    void failureIsPropagatedAndKeyIsReleased() {
+        assertThrows(IllegalStateException.class,
+                () -> coalescer.execute("popular:1", () -> { throw new IllegalStateException("TMDB down"); }));
+
+        assertEquals("ok", coalescer.execute("popular:1", () -> "ok"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.TMDBResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrendingCacheTest {
+
+    private static TMDBResponse movie(long id, String title) {
+        TMDBResponse movie = new TMDBResponse();
+        movie.setTmdbID(String.valueOf(id));
+        movie.setTitle(title);
+        return movie;
+    }
+
+    @Test
+    void everyCallerSharesOneSnapshotLoadedOnce() throws Exception {
+        TMDBService tmdbService = mock(TMDBService.class);
+        when(tmdbService.fetchTrendingMovies()).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return new ArrayList<>(List.of(movie(1, "Dune"), movie(2, "Heat")));
+        });
+        TrendingCache cache = new TrendingCache(tmdbService);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TrendingCache.Snapshot>> gets = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                gets.add(pool.submit(cache::get));
+            }
+            TrendingCache.Snapshot first = gets.get(0).get();
+            for (Future<TrendingCache.Snapshot> get : gets) {
+                assertSame(first, get.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(tmdbService, times(1)).fetchTrendingMovies();
+
+        TrendingCache.Snapshot snapshot = cache.get();
+        assertEquals(1, snapshot.version());
+        assertEquals("Heat", snapshot.find(2).getTitle());
+        assertEquals("1", snapshot.findByTitle("Dune").getTmdbID());
+        assertNull(snapshot.find(3));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.movies().add(movie(3, "Up")));
+    }
+
+    @Test
+    void refreshSwapsInANewVersionAndKeepsTheOldOneOnFailure() {
+        TMDBService tmdbService = mock(TMDBService.class);
+        when(tmdbService.fetchTrendingMovies())
+                .thenReturn(List.of(movie(1, "Dune")))
+                .thenReturn(List.of(movie(2, "Heat")))
+                .thenReturn(List.of());
+        TrendingCache cache = new TrendingCache(tmdbService);
+
+        TrendingCache.Snapshot first = cache.refresh();
+        TrendingCache.Snapshot second = cache.refresh();
+        TrendingCache.Snapshot third = cache.refresh();
+
+        assertEquals(1, first.version());
+        assertNotNull(first.find(1), "Readers holding the old snapshot still see it whole");
+        assertEquals(2, second.version());
+        assertNull(second.find(1));
+        assertSame(second, third);
+        assertSame(second, cache.get());
+        assertEquals(1L, cache.getStats().get("failedRefreshes"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.project.recommendation_engine.service;
+
+import com.project.recommendation_engine.model.MovieDetails;
+import com.project.recommendation_engine.model.WatchProviders;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchProviderCacheTest {
+
+    private static WatchProviders providers(long fetchedAt, String... names) {
+        List<MovieDetails.ProviderRef> refs = java.util.Arrays.stream(names)
+                .map(name -> new MovieDetails.ProviderRef(new String(name), "/" + name + ".png"))
+                .toList();
+        return new WatchProviders(Map.of(new String("US"), new WatchProviders.Region(refs, List.of(), List.of()),
+                new String("GB"), new WatchProviders.Region(List.of(), refs, List.of())), fetchedAt);
+    }
+
+    @Test
+    void providersSharedByMoviesAreStoredOnce() {
+        WatchProviderCache cache = new WatchProviderCache(100, 60);
+        long now = System.currentTimeMillis();
+        cache.put(1L, providers(now, "Netflix", "Hulu"));
+        cache.put(2L, providers(now, "Netflix"));
+
+        MovieDetails.ProviderRef first = cache.get(1L).region("US").flatrate().get(0);
+        assertSame(first, cache.get(2L).region("US").flatrate().get(0));
+        assertSame(first, cache.get(2L).region("GB").rent().get(0));
+        assertEquals(2, cache.getStats().get("distinctProviders"));
+        assertEquals(2, cache.getStats().get("regions"));
+    }
+
+    @Test
+    void missesAndExpiredEntriesAreQueuedForRefresh() {
+        WatchProviderCache cache = new WatchProviderCache(100, 60);
+        cache.put(1L, providers(System.currentTimeMillis(), "Netflix"));
+        cache.put(2L, providers(System.currentTimeMillis() - 61 * 60_000L, "Netflix"));
+
+        assertNotNull(cache.get(1L));
+        assertNotNull(cache.get(2L), "Expired providers are still served");
+        assertNull(cache.get(3L));
+        assertNull(cache.get(3L));
+
+        assertEquals(List.of(2L, 3L), cache.drainRefreshQueue(10).stream().sorted().toList());
+        assertTrue(cache.drainRefreshQueue(10).isEmpty());
+
+        cache.get(4L);
+        cache.put(4L, providers(System.currentTimeMillis(), "Hulu"));
+        assertTrue(cache.drainRefreshQueue(10).isEmpty(), "A fresh put clears the pending refresh");
+    }
+
+    @Test
+    void regionComesFromTheLocale() {
+        assertEquals("GB", WatchProviderCache.regionOf(Locale.forLanguageTag("en-GB"), "US"));
+        assertEquals("US", WatchProviderCache.regionOf(Locale.ENGLISH, "US"));
+        assertEquals("US", WatchProviderCache.regionOf(null, "US"));
+    }
+}